@@ -0,0 +1,195 @@
+package com.mathutil.simd;
+
+import com.mathutil.linearalgebra.matrix.DoubleKernels;
+import com.mathutil.linearalgebra.matrix.ScalarKernels;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link DoubleKernels} that use the SIMD instructions of the CPU through the incubator Vector API, every instruction
+ * works on 4 doubles with AVX2 or 8 doubles with AVX-512. The kernels are found by {@link java.util.ServiceLoader} and used
+ * by {@link com.mathutil.linearalgebra.matrix.Kernels} automatically, when the jar is on the classpath and the JVM is started
+ * with <code>--add-modules jdk.incubator.vector</code>. Without the module, the scalar loops are used.<br>
+ * The dot product, the sum of squares and the multiplication use fused multiply-add and add the terms in a different order
+ * than the scalar loops, so the results may differ in the last bits. A product like X^T*X is then not exactly symmetric, and
+ * the blocks of a parallel multiplication may put different columns in the scalar tail, so the result is not bit-identical to
+ * the single-threaded one. The core tests are run with these kernels by <code>mvn test</code> to check that the library only
+ * relies on the results up to the rounding errors.
+ *
+ * @author danielxu
+ */
+public class VectorKernels extends ScalarKernels {
+
+	/**The widest vector of doubles supported by the CPU**/
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	/**The number of doubles in a vector**/
+	private static final int LANES = SPECIES.length();
+
+	/**
+	 * Create the kernels, used by {@link java.util.ServiceLoader}
+	 * @throws UnsupportedOperationException If the CPU cannot put two doubles in a vector
+	 */
+	public VectorKernels(){
+		if(LANES < 2)
+			throw new UnsupportedOperationException("The CPU does not support vectors of doubles");
+	}
+
+	@Override
+	public String getName(){
+		return "vector";
+	}
+
+	@Override
+	public void add(int n , double[] x , int xOff , double[] y , int yOff , double[] z , int zOff){
+		int i = 0;
+		for(int bound=SPECIES.loopBound(n);i<bound;i+=LANES){
+			DoubleVector vx = DoubleVector.fromArray(SPECIES , x , xOff+i);
+			DoubleVector vy = DoubleVector.fromArray(SPECIES , y , yOff+i);
+			vx.add(vy).intoArray(z , zOff+i);
+		}
+		for(;i<n;i++){
+			z[zOff+i] = x[xOff+i] + y[yOff+i];
+		}
+	}
+
+	@Override
+	public void substract(int n , double[] x , int xOff , double[] y , int yOff , double[] z , int zOff){
+		int i = 0;
+		for(int bound=SPECIES.loopBound(n);i<bound;i+=LANES){
+			DoubleVector vx = DoubleVector.fromArray(SPECIES , x , xOff+i);
+			DoubleVector vy = DoubleVector.fromArray(SPECIES , y , yOff+i);
+			vx.sub(vy).intoArray(z , zOff+i);
+		}
+		for(;i<n;i++){
+			z[zOff+i] = x[xOff+i] - y[yOff+i];
+		}
+	}
+
+	@Override
+	public void scale(int n , double alpha , double[] x , int xOff , double[] z , int zOff){
+		int i = 0;
+		for(int bound=SPECIES.loopBound(n);i<bound;i+=LANES){
+			DoubleVector.fromArray(SPECIES , x , xOff+i).mul(alpha).intoArray(z , zOff+i);
+		}
+		for(;i<n;i++){
+			z[zOff+i] = alpha*x[xOff+i];
+		}
+	}
+
+	/**
+	 * Two vectors of partial sums are used, so the next fused multiply-add does not wait for the previous one
+	 */
+	@Override
+	public double dot(int n , double[] x , int xOff , double[] y , int yOff){
+		DoubleVector s0 = DoubleVector.zero(SPECIES) , s1 = DoubleVector.zero(SPECIES);
+		int i = 0;
+		for(int bound=n - 2*LANES;i<=bound;i+=2*LANES){
+			s0 = DoubleVector.fromArray(SPECIES , x , xOff+i).fma(DoubleVector.fromArray(SPECIES , y , yOff+i) , s0);
+			s1 = DoubleVector.fromArray(SPECIES , x , xOff+i+LANES).fma(DoubleVector.fromArray(SPECIES , y , yOff+i+LANES) , s1);
+		}
+		for(int bound=SPECIES.loopBound(n);i<bound;i+=LANES){
+			s0 = DoubleVector.fromArray(SPECIES , x , xOff+i).fma(DoubleVector.fromArray(SPECIES , y , yOff+i) , s0);
+		}
+		double sum = s0.add(s1).reduceLanes(VectorOperators.ADD);
+		for(;i<n;i++){
+			sum += x[xOff+i]*y[yOff+i];
+		}
+		return sum;
+	}
+
+	@Override
+	public double sumOfSquares(int n , double[] x , int xOff){
+		DoubleVector s0 = DoubleVector.zero(SPECIES) , s1 = DoubleVector.zero(SPECIES);
+		int i = 0;
+		for(int bound=n - 2*LANES;i<=bound;i+=2*LANES){
+			DoubleVector v0 = DoubleVector.fromArray(SPECIES , x , xOff+i);
+			DoubleVector v1 = DoubleVector.fromArray(SPECIES , x , xOff+i+LANES);
+			s0 = v0.fma(v0 , s0);
+			s1 = v1.fma(v1 , s1);
+		}
+		for(int bound=SPECIES.loopBound(n);i<bound;i+=LANES){
+			DoubleVector v = DoubleVector.fromArray(SPECIES , x , xOff+i);
+			s0 = v.fma(v , s0);
+		}
+		double sum = s0.add(s1).reduceLanes(VectorOperators.ADD);
+		for(;i<n;i++){
+			sum += x[xOff+i]*x[xOff+i];
+		}
+		return sum;
+	}
+
+	/**
+	 * A block of 4 rows and 2 vectors of C is kept in 8 registers while k goes through the tile, every step loads 2 vectors
+	 * of a row of B and 4 elements of A, and does 8 fused multiply-adds. The columns that do not fill a vector and the last
+	 * rows(less than 4) are calculated by the scalar loops.
+	 */
+	@Override
+	public void multiplyAdd(int m , int n , int k , double alpha ,
+			double[] a , int aOff , int lda ,
+			double[] b , int bOff , int ldb ,
+			double[] c , int cOff , int ldc){
+		int rows = m & ~3;
+		int cols = SPECIES.loopBound(n);
+		for(int i=0;i<rows;i+=4){
+			int a0 = aOff + i*lda , a1 = a0 + lda , a2 = a1 + lda , a3 = a2 + lda;
+			int c0 = cOff + i*ldc , c1 = c0 + ldc , c2 = c1 + ldc , c3 = c2 + ldc;
+			int j = 0;
+			//4 rows * 2 vectors
+			for(;j+2*LANES<=cols;j+=2*LANES){
+				int jh = j + LANES;
+				DoubleVector r00 = DoubleVector.fromArray(SPECIES , c , c0+j) , r01 = DoubleVector.fromArray(SPECIES , c , c0+jh);
+				DoubleVector r10 = DoubleVector.fromArray(SPECIES , c , c1+j) , r11 = DoubleVector.fromArray(SPECIES , c , c1+jh);
+				DoubleVector r20 = DoubleVector.fromArray(SPECIES , c , c2+j) , r21 = DoubleVector.fromArray(SPECIES , c , c2+jh);
+				DoubleVector r30 = DoubleVector.fromArray(SPECIES , c , c3+j) , r31 = DoubleVector.fromArray(SPECIES , c , c3+jh);
+				for(int p=0;p<k;p++){
+					int bp = bOff + p*ldb;
+					DoubleVector y0 = DoubleVector.fromArray(SPECIES , b , bp+j);
+					DoubleVector y1 = DoubleVector.fromArray(SPECIES , b , bp+jh);
+					DoubleVector x = DoubleVector.broadcast(SPECIES , alpha*a[a0+p]);
+					r00 = y0.fma(x , r00);
+					r01 = y1.fma(x , r01);
+					x = DoubleVector.broadcast(SPECIES , alpha*a[a1+p]);
+					r10 = y0.fma(x , r10);
+					r11 = y1.fma(x , r11);
+					x = DoubleVector.broadcast(SPECIES , alpha*a[a2+p]);
+					r20 = y0.fma(x , r20);
+					r21 = y1.fma(x , r21);
+					x = DoubleVector.broadcast(SPECIES , alpha*a[a3+p]);
+					r30 = y0.fma(x , r30);
+					r31 = y1.fma(x , r31);
+				}
+				r00.intoArray(c , c0+j); r01.intoArray(c , c0+jh);
+				r10.intoArray(c , c1+j); r11.intoArray(c , c1+jh);
+				r20.intoArray(c , c2+j); r21.intoArray(c , c2+jh);
+				r30.intoArray(c , c3+j); r31.intoArray(c , c3+jh);
+			}
+			//4 rows * 1 vector
+			for(;j<cols;j+=LANES){
+				DoubleVector r0 = DoubleVector.fromArray(SPECIES , c , c0+j);
+				DoubleVector r1 = DoubleVector.fromArray(SPECIES , c , c1+j);
+				DoubleVector r2 = DoubleVector.fromArray(SPECIES , c , c2+j);
+				DoubleVector r3 = DoubleVector.fromArray(SPECIES , c , c3+j);
+				for(int p=0;p<k;p++){
+					DoubleVector y = DoubleVector.fromArray(SPECIES , b , bOff + p*ldb + j);
+					r0 = y.fma(DoubleVector.broadcast(SPECIES , alpha*a[a0+p]) , r0);
+					r1 = y.fma(DoubleVector.broadcast(SPECIES , alpha*a[a1+p]) , r1);
+					r2 = y.fma(DoubleVector.broadcast(SPECIES , alpha*a[a2+p]) , r2);
+					r3 = y.fma(DoubleVector.broadcast(SPECIES , alpha*a[a3+p]) , r3);
+				}
+				r0.intoArray(c , c0+j);
+				r1.intoArray(c , c1+j);
+				r2.intoArray(c , c2+j);
+				r3.intoArray(c , c3+j);
+			}
+		}
+		//The columns that do not fill a vector
+		if(cols < n && rows > 0)
+			super.multiplyAdd(rows , n - cols , k , alpha , a , aOff , lda , b , bOff + cols , ldb , c , cOff + cols , ldc);
+		//The last rows
+		if(rows < m)
+			super.multiplyAdd(m - rows , n , k , alpha , a , aOff + rows*lda , lda , b , bOff , ldb , c , cOff + rows*ldc , ldc);
+	}
+}
@@ -0,0 +1,106 @@
+package com.mathutil.benchmarks;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.mathutil.linearalgebra.Linear;
+import com.mathutil.linearalgebra.SuperVector;
+import com.mathutil.linearalgebra.matrix.Kernels;
+import com.mathutil.linearalgebra.matrix.Matrix;
+
+/**
+ * JMH benchmarks of the matrix and vector calculations with the scalar kernels and the SIMD kernels. Every benchmark runs
+ * twice in forked JVMs, once with <code>-Dcom.mathutil.kernels=scalar</code> and once with <code>-Dcom.mathutil.kernels=vector</code>.
+ * Not a test, run it with: <code>mvn test-compile exec:exec</code>
+ *
+ * @author danielxu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3 , time = 1)
+@Measurement(iterations = 5 , time = 1)
+@Fork(1)
+public class KernelsBenchmark {
+
+	/**The size of the square matrices, the length of the vectors is size*size**/
+	@Param({"256"})
+	public int size;
+
+	private Matrix a , b;
+	private SuperVector u , v;
+
+	@Setup
+	public void setup(){
+		a = Matrix.randomMatrix(size , size , -1 , 1 , false);
+		b = Matrix.randomMatrix(size , size , -1 , 1 , false);
+		u = new SuperVector(a.toDoubleArray());
+		v = new SuperVector(b.toDoubleArray());
+	}
+
+	@Benchmark
+	public Matrix multiply(){
+		return a.multiply(b , 64);
+	}
+
+	@Benchmark
+	public Matrix add(){
+		return a.add(b);
+	}
+
+	@Benchmark
+	public Matrix substract(){
+		return a.substract(b);
+	}
+
+	@Benchmark
+	public Matrix factor(){
+		return a.factor(1.5);
+	}
+
+	@Benchmark
+	public double dot(){
+		return Linear.dot(u , v);
+	}
+
+	@Benchmark
+	public double magn(){
+		return Linear.magn(u);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		String[] kernels = {"scalar" , "vector"};
+		StringBuilder table = new StringBuilder();
+		for(String kernel : kernels){
+			Options opt = new OptionsBuilder()
+					.include(KernelsBenchmark.class.getSimpleName())
+					.jvmArgsAppend("--add-modules=jdk.incubator.vector" , "-D"+Kernels.PROPERTY+"="+kernel)
+					.build();
+			Collection<RunResult> results = new Runner(opt).run();
+			for(RunResult result : results){
+				String name = result.getParams().getBenchmark();
+				table.append(String.format("%-8s %-10s size=%-6s %12.3f +- %.3f us%n" , kernel , name.substring(name.lastIndexOf('.') + 1) ,
+						result.getParams().getParam("size") , result.getPrimaryResult().getScore() , result.getPrimaryResult().getScoreError()));
+			}
+		}
+		System.out.println();
+		System.out.print(table);
+	}
+}
@@ -0,0 +1,94 @@
+package com.mathutil.simdTests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.Linear;
+import com.mathutil.linearalgebra.SuperVector;
+import com.mathutil.linearalgebra.matrix.DoubleKernels;
+import com.mathutil.linearalgebra.matrix.Kernels;
+import com.mathutil.linearalgebra.matrix.Matrix;
+import com.mathutil.simd.VectorKernels;
+
+/**
+ * Test case 1 for VectorKernels, the SIMD kernels are selected automatically and get the same results as the scalar loops,
+ * for lengths and offsets that do not fill the vectors.
+ * @author danielxu
+ */
+public class TestVectorKernels1 {
+
+	@Test
+	public void test() {
+		assertTrue(Kernels.get() instanceof VectorKernels);
+		DoubleKernels vector = Kernels.get() , scalar = Kernels.scalar();
+		Random r = new Random(35);
+
+		for(int n=0;n<70;n++){
+			int xOff = r.nextInt(5) , yOff = r.nextInt(5);
+			double[] x = random(r , n + xOff) , y = random(r , n + yOff);
+			double[] z1 = new double[n + 3] , z2 = new double[n + 3];
+
+			vector.add(n , x , xOff , y , yOff , z1 , 3);
+			scalar.add(n , x , xOff , y , yOff , z2 , 3);
+			assertEquals(0 , maxDiff(z1 , z2) , 0);
+			vector.substract(n , x , xOff , y , yOff , z1 , 3);
+			scalar.substract(n , x , xOff , y , yOff , z2 , 3);
+			assertEquals(0 , maxDiff(z1 , z2) , 0);
+			vector.scale(n , -2.5 , x , xOff , z1 , 3);
+			scalar.scale(n , -2.5 , x , xOff , z2 , 3);
+			assertEquals(0 , maxDiff(z1 , z2) , 0);
+
+			//The order of the additions is different
+			assertEquals(scalar.dot(n , x , xOff , y , yOff) , vector.dot(n , x , xOff , y , yOff) , 1e-13*(n+1));
+			assertEquals(scalar.sumOfSquares(n , x , xOff) , vector.sumOfSquares(n , x , xOff) , 1e-13*(n+1));
+		}
+
+		//Tiles of every shape around the vector length
+		for(int m=1;m<=9;m++){
+			for(int n=1;n<=37;n+=3){
+				int k = 1 + r.nextInt(20) , ld = n + 5;
+				double[] a = random(r , m*k) , b = random(r , k*ld) , c1 = random(r , m*ld) , c2 = c1.clone();
+				vector.multiplyAdd(m , n , k , 1.5 , a , 0 , k , b , 2 , ld , c1 , 1 , ld);
+				scalar.multiplyAdd(m , n , k , 1.5 , a , 0 , k , b , 2 , ld , c2 , 1 , ld);
+				assertEquals(0 , maxDiff(c1 , c2) , 1e-13*k);
+			}
+		}
+
+		//The matrices and the vectors use the kernels
+		Matrix p = Matrix.randomMatrix(131 , 67 , -1 , 1 , false) , q = Matrix.randomMatrix(67 , 75 , -1 , 1 , false);
+		double[] ab = p.multiply(q).toDoubleArray();
+		double[] pa = p.toDoubleArray() , qa = q.toDoubleArray();
+		for(int i=0;i<131;i++){
+			for(int j=0;j<75;j++){
+				double sum = 0;
+				for(int t=0;t<67;t++)
+					sum += pa[i*67+t]*qa[t*75+j];
+				assertEquals(sum , ab[i*75+j] , 1e-12);
+			}
+		}
+		Matrix s = p.add(p).substract(p.factor(3));
+		assertEquals(-p.getDouble(100 , 50) , s.getDouble(100 , 50) , 1e-15);
+
+		SuperVector v = new SuperVector(1 , 2 , 3 , 4 , 5 , 6 , 7 , 8 , 9 , 10 , 11);
+		assertEquals(506 , Linear.dot(v , v) , 0);
+		assertEquals(Math.sqrt(506) , Linear.magn(v) , 0);
+	}
+
+	private static double[] random(Random r , int n){
+		double[] x = new double[n];
+		for(int i=0;i<n;i++)
+			x[i] = r.nextDouble()*2 - 1;
+		return x;
+	}
+
+	private static double maxDiff(double[] x , double[] y){
+		double max = 0;
+		for(int i=0;i<x.length;i++)
+			max = Math.max(max , Math.abs(x[i] - y[i]));
+		return max;
+	}
+}
@@ -0,0 +1,393 @@
+package com.mathutil;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+import com.mathutil.exceptions.CalculationException;
+
+/**
+ * BigRational is an exact fraction p/q of two integers of any size. Unlike <code>BigDecimal</code>, the results of the divisions
+ * are never rounded, 1/3 is kept as 1/3, so a long calculation such as inverting a matrix gives the exact answer.<br>
+ * The fraction is always reduced(gcd(p , q) = 1) and the denominator is positive, so two equal numbers have the same numerator and
+ * denominator. While both of them fit in <code>long</code>, which is the usual case for the small fractions, the calculations use
+ * the primitive arithmetic with the overflow checked, and switch to <code>BigInteger</code> only when a result does not fit.<br>
+ * BigRational is immutable, every calculation returns a new number.
+ *
+ * @author danielxu
+ * @see BigDecimal
+ */
+public final class BigRational extends Number implements Comparable<BigRational>{
+
+	private static final long serialVersionUID = 1L;
+
+	/**0**/
+	public static final BigRational ZERO = new BigRational(0 , 1);
+
+	/**1**/
+	public static final BigRational ONE = new BigRational(1 , 1);
+
+	/**The numerator and the denominator when both fit in long, not used if bigNum is not null**/
+	private final long num , den;
+
+	/**The numerator and the denominator when one of them does not fit in long, null otherwise**/
+	private final BigInteger bigNum , bigDen;
+
+	//A reduced fraction in long, den > 0 and num is not Long.MIN_VALUE
+	private BigRational(long num , long den){
+		this.num = num;
+		this.den = den;
+		this.bigNum = null;
+		this.bigDen = null;
+	}
+
+	//A reduced fraction that does not fit in long, den > 0
+	private BigRational(BigInteger num , BigInteger den){
+		this.num = 0;
+		this.den = 1;
+		this.bigNum = num;
+		this.bigDen = den;
+	}
+
+	/**
+	 * Get the integer n as a fraction n/1
+	 * @param n - The integer
+	 * @return n
+	 */
+	public static BigRational valueOf(long n){
+		if(n == 0)
+			return ZERO;
+		if(n == 1)
+			return ONE;
+		if(n == Long.MIN_VALUE)
+			return new BigRational(BigInteger.valueOf(n) , BigInteger.ONE);
+		return new BigRational(n , 1);
+	}
+
+	/**
+	 * Get the fraction n/d, it will be reduced
+	 * @param n - The numerator
+	 * @param d - The denominator, cannot be 0
+	 * @return n/d
+	 */
+	public static BigRational valueOf(long n , long d){
+		if(d == 0)
+			throw new CalculationException("The denominator cannot be 0");
+		if(n == Long.MIN_VALUE || d == Long.MIN_VALUE)
+			return valueOf(BigInteger.valueOf(n) , BigInteger.valueOf(d));
+		return reduce(n , d);
+	}
+
+	/**
+	 * Get the integer n as a fraction n/1
+	 * @param n - The integer
+	 * @return n
+	 */
+	public static BigRational valueOf(BigInteger n){
+		return valueOf(n , BigInteger.ONE);
+	}
+
+	/**
+	 * Get the fraction n/d, it will be reduced
+	 * @param n - The numerator
+	 * @param d - The denominator, cannot be 0
+	 * @return n/d
+	 */
+	public static BigRational valueOf(BigInteger n , BigInteger d){
+		if(d.signum() == 0)
+			throw new CalculationException("The denominator cannot be 0");
+		if(n.signum() == 0)
+			return ZERO;
+		if(d.signum() < 0){
+			n = n.negate();
+			d = d.negate();
+		}
+		BigInteger gcd = n.gcd(d);
+		if(!gcd.equals(BigInteger.ONE)){
+			n = n.divide(gcd);
+			d = d.divide(gcd);
+		}
+		return of(n , d);
+	}
+
+	/**
+	 * Get the exact value of a BigDecimal, unscaled*10^-scale. For example 0.75 is 3/4.
+	 * @param value - The BigDecimal
+	 * @return The fraction that is equal to the BigDecimal
+	 */
+	public static BigRational valueOf(BigDecimal value){
+		int scale = value.scale();
+		if(scale <= 0)
+			return valueOf(value.toBigIntegerExact());
+		return valueOf(value.unscaledValue() , BigInteger.TEN.pow(scale));
+	}
+
+	/**
+	 * Parse a fraction "p/q", an integer or a decimal number, for example "-3/4", "12" or "0.125"
+	 * @param value - The String represents the number
+	 * @return The number
+	 */
+	public static BigRational valueOf(String value){
+		int slash = value.indexOf('/');
+		if(slash < 0)
+			return valueOf(new BigDecimal(value.trim()));
+		return valueOf(new BigDecimal(value.substring(0 , slash).trim())).divide(valueOf(new BigDecimal(value.substring(slash+1).trim())));
+	}
+
+	//A reduced fraction in long if it fits
+	private static BigRational of(BigInteger n , BigInteger d){
+		if(n.bitLength() < 64 && d.bitLength() < 64 && n.longValue() != Long.MIN_VALUE)
+			return new BigRational(n.longValue() , d.longValue());
+		return new BigRational(n , d);
+	}
+
+	//Reduce n/d, neither is Long.MIN_VALUE
+	private static BigRational reduce(long n , long d){
+		if(n == 0)
+			return ZERO;
+		if(d < 0){
+			n = -n;
+			d = -d;
+		}
+		long gcd = gcd(Math.abs(n) , d);
+		if(gcd != 1){
+			n /= gcd;
+			d /= gcd;
+		}
+		return new BigRational(n , d);
+	}
+
+	//Binary gcd of two non-negative longs
+	private static long gcd(long a , long b){
+		if(a == 0)
+			return b;
+		if(b == 0)
+			return a;
+		int shift = Long.numberOfTrailingZeros(a | b);
+		a >>= Long.numberOfTrailingZeros(a);
+		while(b != 0){
+			b >>= Long.numberOfTrailingZeros(b);
+			if(a > b){
+				long t = a;
+				a = b;
+				b = t;
+			}
+			b -= a;
+		}
+		return a << shift;
+	}
+
+	/**
+	 * Check if the numerator and the denominator fit in long, the calculations between such numbers use the primitive arithmetic
+	 * @return True if both fit in long
+	 */
+	public boolean isLong(){
+		return bigNum == null;
+	}
+
+	/**
+	 * Get the numerator, it has the same sign as the number
+	 * @return The numerator
+	 */
+	public BigInteger getNumerator(){
+		return bigNum == null ? BigInteger.valueOf(num) : bigNum;
+	}
+
+	/**
+	 * Get the denominator, always positive
+	 * @return The denominator
+	 */
+	public BigInteger getDenominator(){
+		return bigNum == null ? BigInteger.valueOf(den) : bigDen;
+	}
+
+	/**
+	 * Check if the number is an integer, the denominator is 1
+	 * @return True if it is an integer
+	 */
+	public boolean isInteger(){
+		return bigNum == null ? den == 1 : bigDen.equals(BigInteger.ONE);
+	}
+
+	/**
+	 * Get the sign of the number
+	 * @return -1, 0 or 1 if the number is negative, 0 or positive
+	 */
+	public int signum(){
+		return bigNum == null ? Long.signum(num) : bigNum.signum();
+	}
+
+	/**
+	 * this + r
+	 * @param r - Another number
+	 * @return The sum
+	 */
+	public BigRational add(BigRational r){
+		if(signum() == 0)
+			return r;
+		if(r.signum() == 0)
+			return this;
+		if(bigNum == null && r.bigNum == null){
+			try{
+				//a/b + c/d = (a*(d/g) + c*(b/g)) / (b*(d/g)), g = gcd(b , d)
+				long g = den == r.den ? den : gcd(den , r.den);
+				long d = r.den / g;
+				long n = Math.addExact(Math.multiplyExact(num , d) , Math.multiplyExact(r.num , den / g));
+				if(n == Long.MIN_VALUE)
+					throw new ArithmeticException();
+				return reduce(n , Math.multiplyExact(den , d));
+			}catch(ArithmeticException e){
+				//Overflow, calculate in BigInteger
+			}
+		}
+		BigInteger b = getDenominator() , d = r.getDenominator();
+		return valueOf(getNumerator().multiply(d).add(r.getNumerator().multiply(b)) , b.multiply(d));
+	}
+
+	/**
+	 * this - r
+	 * @param r - Another number
+	 * @return The difference
+	 */
+	public BigRational subtract(BigRational r){
+		return add(r.negate());
+	}
+
+	/**
+	 * this * r
+	 * @param r - Another number
+	 * @return The product
+	 */
+	public BigRational multiply(BigRational r){
+		if(signum() == 0 || r.signum() == 0)
+			return ZERO;
+		if(bigNum == null && r.bigNum == null){
+			try{
+				//Reduce crosswise first, (a/b)*(c/d) = ((a/g1)*(c/g2)) / ((b/g2)*(d/g1)) is already reduced
+				long g1 = gcd(Math.abs(num) , r.den) , g2 = gcd(Math.abs(r.num) , den);
+				long n = Math.multiplyExact(num / g1 , r.num / g2);
+				if(n == Long.MIN_VALUE)
+					throw new ArithmeticException();
+				return new BigRational(n , Math.multiplyExact(den / g2 , r.den / g1));
+			}catch(ArithmeticException e){
+				//Overflow, calculate in BigInteger
+			}
+		}
+		return valueOf(getNumerator().multiply(r.getNumerator()) , getDenominator().multiply(r.getDenominator()));
+	}
+
+	/**
+	 * this / r
+	 * @param r - Another number, cannot be 0
+	 * @return The quotient
+	 */
+	public BigRational divide(BigRational r){
+		return multiply(r.reciprocal());
+	}
+
+	/**
+	 * -this
+	 * @return The negative number
+	 */
+	public BigRational negate(){
+		if(bigNum == null)
+			return signum() == 0 ? this : new BigRational(-num , den);
+		return of(bigNum.negate() , bigDen);
+	}
+
+	/**
+	 * |this|
+	 * @return The absolute value
+	 */
+	public BigRational abs(){
+		return signum() < 0 ? negate() : this;
+	}
+
+	/**
+	 * 1/this
+	 * @return The reciprocal
+	 */
+	public BigRational reciprocal(){
+		if(signum() == 0)
+			throw new CalculationException("0 has no reciprocal");
+		if(bigNum == null)
+			return num < 0 ? new BigRational(-den , -num) : new BigRational(den , num);
+		return bigNum.signum() < 0 ? of(bigDen.negate() , bigNum.negate()) : of(bigDen , bigNum);
+	}
+
+	/**
+	 * Get the value as a BigDecimal rounded in the MathContext, it is exact if the decimal expansion is finite and not longer
+	 * than the precision
+	 * @param context - The MathContext
+	 * @return The rounded value
+	 */
+	public BigDecimal toBigDecimal(MathContext context){
+		if(isInteger())
+			return new BigDecimal(getNumerator() , context);
+		return new BigDecimal(getNumerator()).divide(new BigDecimal(getDenominator()) , context);
+	}
+
+	@Override
+	public int compareTo(BigRational r){
+		if(bigNum == null && r.bigNum == null){
+			if(den == r.den)
+				return Long.compare(num , r.num);
+			try{
+				return Long.compare(Math.multiplyExact(num , r.den) , Math.multiplyExact(r.num , den));
+			}catch(ArithmeticException e){
+				//Overflow, compare in BigInteger
+			}
+		}
+		return getNumerator().multiply(r.getDenominator()).compareTo(r.getNumerator().multiply(getDenominator()));
+	}
+
+	@Override
+	public boolean equals(Object o){
+		if(!(o instanceof BigRational))
+			return false;
+		BigRational r = (BigRational)o;
+		if(bigNum == null)
+			return r.bigNum == null && num == r.num && den == r.den;
+		return bigNum.equals(r.bigNum) && bigDen.equals(r.bigDen);
+	}
+
+	@Override
+	public int hashCode(){
+		return 31*getNumerator().hashCode() + getDenominator().hashCode();
+	}
+
+	@Override
+	public int intValue(){
+		return (int)longValue();
+	}
+
+	@Override
+	public long longValue(){
+		if(bigNum == null)
+			return num / den;
+		return bigNum.divide(bigDen).longValue();
+	}
+
+	@Override
+	public float floatValue(){
+		return (float)doubleValue();
+	}
+
+	@Override
+	public double doubleValue(){
+		if(bigNum == null && Math.abs(num) < (1L << 53) && den < (1L << 53))
+			return (double)num / den;
+		return toBigDecimal(MathContext.DECIMAL64).doubleValue();
+	}
+
+	/**
+	 * Get the String of the fraction, "p/q", or "p" if it is an integer
+	 * @return The String of the fraction
+	 */
+	@Override
+	public String toString(){
+		if(isInteger())
+			return getNumerator().toString();
+		return getNumerator()+"/"+getDenominator();
+	}
+}
@@ -68,17 +68,26 @@ public class Calculus {
 	}
 	
 	/**
-	 * Calculate the derivative of the polynomial function. This method uses the {@link #devPolyExp(double[], double[])} to determine the 
-	 * derivative function first and then evaluate the result. This method only works for the polynomial function. 
+	 * Calculate the derivative of the polynomial function. If all the degrees are non-negative integers and not much higher than the 
+	 * number of the terms({@link Polynomial#isDense(double[])}), the function is converted to a {@link Polynomial} and the derivative is evaluated by Horner's scheme. Otherwise every term is differentiated and evaluated directly. 
+	 * This method only works for the polynomial function. 
 	 *  
 	 * @param coff - The cofficients of the polynomial function, 0 or 1 should not be omitted
 	 * @param degree - The degrees of the polynomial function, 0 or 1 should not be omitted
 	 * @param val - The value, x = a
 	 * @return The derivative of the function on point a, which is f'(a)
+	 * @see Polynomial#derivative(double)
 	 */
 	public static double devPoly(double[] coff , double[] degree , double val){
-		String exp = devPolyExp(coff , degree).replace("x", String.valueOf(val));
-		return ExpReader.calculate(exp);
+		if(Polynomial.isDense(degree))
+			return Polynomial.of(coff , degree).derivative(val);
+		
+		double sum = 0;
+		for(int i=0;i<coff.length;i++){
+			if(degree[i] != 0)
+				sum += coff[i]*degree[i]*Math.pow(val, degree[i]-1);
+		}
+		return sum;
 	}
 	
 	/**
@@ -303,11 +312,15 @@ public class Calculus {
 	 * result will be opposite according to:
 	 * <center>F(b) - F(a) = -a∫b f(x)dx, if a > b</center>
 	 * 
+	 * If all the degrees are non-negative integers and not much higher than the number of the terms({@link Polynomial#isDense(double[])}), 
+	 * the function is converted to a {@link Polynomial} and the antiderivative is evaluated by Horner's scheme. Otherwise every term is integrated and evaluated directly.
+	 * 
 	 * @param coff - The cofficients of the polynomial function, 0 and 1 should not be omitted
 	 * @param degree - The degrees of the polynomial function, 0 and 1 should not be omitted
 	 * @param low - The lower bound a
 	 * @param high - The upper bound b
 	 * @return The definite intergral
+	 * @see Polynomial#integral(double, double)
 	 */
 	public static double integPoly(double[] coff , double[] degree , double low , double high){
 		if(low == high)
@@ -321,11 +334,56 @@ public class Calculus {
 			neg = true;
 		}
 		
-		String func = integPolyExp(coff , degree).replace(" + C", "");
-		double v1 = ExpReader.calculate(func.replace("x", String.valueOf(high)));
-		double v2 = ExpReader.calculate(func.replace("x", String.valueOf(low)));
+		double sum;
+		if(Polynomial.isDense(degree)){
+			sum = Polynomial.of(coff , degree).integral(low , high);
+		}
+		else{
+			sum = 0;
+			for(int i=0;i<coff.length;i++){
+				double d = degree[i]+1;
+				sum += coff[i]/d*(Math.pow(high, d) - Math.pow(low, d));
+			}
+		}
 		
-		return neg ? -v1-v2 : v1-v2;
+		return neg ? -sum : sum;
+	}
+	
+	/**
+	 * Solve the differential equation dy/dx = f(x , y) with y(x0) = y0, and determine the value of y at the given x.
+	 * The Dormand-Prince method is used, the step size is chosen automatically so the error of every step is less than 0.0000000001.
+	 * For example, the solution of y' = y with y(0) = 1 is e^x, so:
+	 * <center>ode("y", 0, 1, 1) = 2.718281828...</center>
+	 *
+	 * @param func - The function f(x , y), see {@link ExpReader#calculate(String)} to check out the available operations.
+	 * The variables must be x and y
+	 * @param x0 - The initial x
+	 * @param y0 - The initial y, which is y(x0)
+	 * @param x - The x to evaluate y at, can be smaller than x0
+	 * @return The approximated y(x)
+	 * @see ODESolver#dormandPrince(ODESystem, double, double[], double, double)
+	 */
+	public static double ode(String func , double x0 , double y0 , double x){
+		ODESystem f = ODESolver.system(ExpReader.compile(func, "x", "y"));
+		return ODESolver.dormandPrince(f, x0, new double[]{y0}, x, 1e-10).getFinalY()[0];
+	}
+	
+	/**
+	 * Solve the differential equation dy/dx = f(x , y) with y(x0) = y0 using the fourth order Runge-Kutta method with the given number
+	 * of steps, and determine the value of y at the given x.
+	 *
+	 * @param func - The function f(x , y), see {@link ExpReader#calculate(String)} to check out the available operations.
+	 * The variables must be x and y
+	 * @param x0 - The initial x
+	 * @param y0 - The initial y, which is y(x0)
+	 * @param x - The x to evaluate y at, can be smaller than x0
+	 * @param steps - How many steps between x0 and x
+	 * @return The approximated y(x)
+	 * @see ODESolver#rk4(ODESystem, double, double[], double, int)
+	 */
+	public static double ode_rk4(String func , double x0 , double y0 , double x , int steps){
+		ODESystem f = ODESolver.system(ExpReader.compile(func, "x", "y"));
+		return ODESolver.rk4(f, x0, new double[]{y0}, x, steps).getFinalY()[0];
 	}
 	
 }
@@ -0,0 +1,66 @@
+package com.mathutil.calculus;
+
+/**
+ * The result of a multidimensional integral found by {@link MultiIntegral}, contains the approximated value, the estimated error
+ * and how many times the function was evaluated.
+ *
+ * @author danielxu
+ * @see MultiIntegral
+ */
+public class IntegralResult {
+
+	/**The approximated integral**/
+	private final double value;
+
+	/**The estimated error**/
+	private final double error;
+
+	/**The number of evaluations**/
+	private final long evaluations;
+
+	/**
+	 * Only visible for package.
+	 * @param value - The approximated integral
+	 * @param error - The estimated error
+	 * @param evaluations - The number of evaluations of the function
+	 */
+	IntegralResult(double value , double error , long evaluations){
+		this.value = value;
+		this.error = error;
+		this.evaluations = evaluations;
+	}
+
+	/**
+	 * Get the approximated value of the integral
+	 * @return The integral
+	 */
+	public double getValue(){
+		return value;
+	}
+
+	/**
+	 * Get the estimated error of the integral. For Monte Carlo and quasi-Monte Carlo methods, this is the standard error of the
+	 * estimate, the exact integral is within 2 standard errors for about 95% of the time. For Gaussian cubature, this is the
+	 * difference with a rule that uses one less point in every dimension, which usually overestimates the actual error.
+	 * @return The estimated error
+	 */
+	public double getStandardError(){
+		return error;
+	}
+
+	/**
+	 * Get how many times the function was evaluated
+	 * @return The number of evaluations
+	 */
+	public long getEvaluations(){
+		return evaluations;
+	}
+
+	/**
+	 * Represent the result in form of: <center>value ± error (n evaluations)</center>
+	 */
+	@Override
+	public String toString(){
+		return value+" ± "+error+" ("+evaluations+" evaluations)";
+	}
+}
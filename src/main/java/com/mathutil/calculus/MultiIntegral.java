@@ -0,0 +1,454 @@
+package com.mathutil.calculus;
+
+import java.util.SplittableRandom;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+import com.mathutil.exceptions.CalculationException;
+import com.mathutil.operations.ExpReader;
+import com.mathutil.operations.Expression;
+
+/**
+ * Integrals of functions with many variables over a box:
+ * <center>∫...∫ f(x1 , x2 , ... , xd) dx1 dx2 ... dxd , ai &lt;= xi &lt;= bi</center>
+ * There are three methods:
+ * <ul>
+ * <li>{@link #gauss(ToDoubleFunction, double[], double[], int)}, the Gauss-Legendre rule in every dimension. It is very accurate
+ * for smooth functions, but it takes n^d evaluations, so it is only for low dimensions.</li>
+ * <li>{@link #monteCarlo(ToDoubleFunction, double[], double[], int, long)}, the average of the function at random points. The error
+ * decreases like 1/√n in any dimension.</li>
+ * <li>{@link #quasiMonteCarlo(ToDoubleFunction, double[], double[], int, Sequence, int, long)}, the average of the function at the
+ * points of a low discrepancy sequence, which cover the box more evenly than random points. The error usually decreases close to
+ * 1/n.</li>
+ * </ul>
+ * The function receives the point as a double[], the array is reused for the next point so it should not be kept. The evaluations
+ * are split between the threads of the common ForkJoinPool, so the function must be safe to call by different threads at the same
+ * time, a compiled {@link Expression} can be used directly:
+ * <pre>
+ * Expression e = ExpReader.compile("x*y*z", "x", "y", "z");
+ * MultiIntegral.gauss(e::evaluate, new double[]{0,0,0}, new double[]{1,1,1}, 8);
+ * </pre>
+ * The random numbers are generated by a SplittableRandom for every part of the work, so the same seed gives the same result no
+ * matter how many threads there are.
+ *
+ * @author danielxu
+ * @see IntegralResult
+ */
+public class MultiIntegral {
+
+	/**
+	 * The low discrepancy sequences for {@link MultiIntegral#quasiMonteCarlo(ToDoubleFunction, double[], double[], int, Sequence, int, long)}
+	 */
+	public enum Sequence{
+		/**The Sobol sequence, up to {@link MultiIntegral#MAX_SOBOL_DIMENSION} dimensions. Best with a power of 2 points**/
+		SOBOL,
+		/**The Halton sequence, uses the first d primes as bases. Any dimension, but the quality decreases in high dimensions**/
+		HALTON
+	}
+
+	/**The maximum dimension of the Sobol sequence, 11**/
+	public static final int MAX_SOBOL_DIMENSION = 11;
+
+	/**How many parts the random points are split into, fixed so the result does not depend on the number of threads**/
+	private static final int CHUNKS = 256;
+
+	//Sobol direction numbers by Joe and Kuo, the degree s, the cofficients a and the initial m of dimension 2 to 11
+	private static final int[] SOBOL_S = {1, 2, 3, 3, 4, 4, 5, 5, 5, 5};
+	private static final int[] SOBOL_A = {0, 1, 1, 2, 1, 4, 2, 4, 7, 11};
+	private static final int[][] SOBOL_M = {
+		{1}, {1, 3}, {1, 3, 1}, {1, 1, 1}, {1, 1, 3, 3}, {1, 3, 5, 13},
+		{1, 1, 5, 5, 17}, {1, 1, 5, 5, 5}, {1, 1, 7, 11, 19}, {1, 1, 5, 1, 1}
+	};
+
+	/**2^-32**/
+	private static final double TWO_POW_32 = 1.0 / 4294967296.0;
+
+	//No instance, static class
+	private MultiIntegral(){}
+
+	/**
+	 * Integrate the function with automatically chosen method. The Gaussian cubature with 16 points is used when there are no more
+	 * than 3 variables, otherwise the quasi-Monte Carlo method with 16 randomized Sobol sequences of 2^14 points is used, or Halton
+	 * sequences if there are more than {@link #MAX_SOBOL_DIMENSION} variables.
+	 *
+	 * @param func - The function, see {@link ExpReader#compile(String, String...)} to check out the available operations
+	 * @param vars - The variable names, in the same order as the bounds
+	 * @param low - The lower bounds
+	 * @param high - The upper bounds
+	 * @return The integral
+	 */
+	public static IntegralResult integrate(String func , String[] vars , double[] low , double[] high){
+		Expression e = ExpReader.compile(func , vars);
+		if(vars.length <= 3)
+			return gauss(e::evaluate , low , high , 16);
+		Sequence seq = vars.length <= MAX_SOBOL_DIMENSION ? Sequence.SOBOL : Sequence.HALTON;
+		return quasiMonteCarlo(e::evaluate , low , high , 1 << 14 , seq , 16 , 0);
+	}
+
+	/**
+	 * Integrate the function by the tensor product of the n points Gauss-Legendre rule. The rule is exact for polynomials up to degree
+	 * 2n - 1 in every variable. It takes n^d evaluations plus (n-1)^d evaluations for the error estimate, where d is the dimension, so
+	 * it should only be used for low dimensions.
+	 *
+	 * @param f - The function
+	 * @param low - The lower bounds
+	 * @param high - The upper bounds
+	 * @param points - The number of points in every dimension, n
+	 * @return The integral, the error is the difference with the n-1 points rule
+	 */
+	public static IntegralResult gauss(ToDoubleFunction<double[]> f , double[] low , double[] high , int points){
+		check(f , low , high);
+		if(points < 2)
+			throw new CalculationException("The number of points must be at least 2");
+		int d = low.length;
+		if(d*Math.log(points) > Math.log(Integer.MAX_VALUE))
+			throw new CalculationException(points+"^"+d+" points are too many, use the Monte Carlo methods for high dimensions");
+
+		double value = gauss(f , low , high , points , d);
+		double coarse = gauss(f , low , high , points-1 , d);
+		long evaluations = (long)Math.pow(points , d) + (long)Math.pow(points-1 , d);
+		return new IntegralResult(value , Math.abs(value - coarse) , evaluations);
+	}
+
+	/**
+	 * Integrate the function by the Monte Carlo method with a random seed.
+	 * See {@link #monteCarlo(ToDoubleFunction, double[], double[], int, long)}.
+	 *
+	 * @param f - The function
+	 * @param low - The lower bounds
+	 * @param high - The upper bounds
+	 * @param n - The number of random points
+	 * @return The integral and its standard error
+	 */
+	public static IntegralResult monteCarlo(ToDoubleFunction<double[]> f , double[] low , double[] high , int n){
+		return monteCarlo(f , low , high , n , new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Integrate the function by the Monte Carlo method:
+	 * <center>∫f ≈ V * (f(x1) + f(x2) + ... + f(xn)) / n</center>
+	 * where V is the volume of the box and xi are uniformly random points in the box. The standard error is V * s / √n, where s is
+	 * the sample standard deviation of the values.
+	 *
+	 * @param f - The function
+	 * @param low - The lower bounds
+	 * @param high - The upper bounds
+	 * @param n - The number of random points, at least 2
+	 * @param seed - The seed of the random numbers, the same seed gives the same result
+	 * @return The integral and its standard error
+	 */
+	public static IntegralResult monteCarlo(ToDoubleFunction<double[]> f , double[] low , double[] high , int n , long seed){
+		check(f , low , high);
+		if(n < 2)
+			throw new CalculationException("The number of points must be at least 2");
+		final int d = low.length;
+		final double[] width = width(low , high);
+
+		//Split the generators before going parallel, so every part always gets the same numbers
+		SplittableRandom root = new SplittableRandom(seed);
+		final SplittableRandom[] rands = new SplittableRandom[CHUNKS];
+		for(int c=0;c<CHUNKS;c++){
+			rands[c] = root.split();
+		}
+
+		//For every part: count, mean and the sum of squared differences from the mean
+		final double[][] stats = new double[CHUNKS][];
+		IntStream.range(0 , CHUNKS).parallel().forEach(c -> {
+			int count = n/CHUNKS + (c < n%CHUNKS ? 1 : 0);
+			SplittableRandom rand = rands[c];
+			double[] x = new double[d];
+			double mean = 0 , m2 = 0;
+			for(int i=0;i<count;i++){
+				for(int j=0;j<d;j++){
+					x[j] = low[j] + width[j]*rand.nextDouble();
+				}
+				double v = f.applyAsDouble(x);
+				double delta = v - mean;
+				mean += delta/(i+1);
+				m2 += delta*(v - mean);
+			}
+			stats[c] = new double[]{count , mean , m2};
+		});
+
+		//Combine the parts
+		double count = 0 , mean = 0 , m2 = 0;
+		for(double[] s : stats){
+			if(s[0] == 0)
+				continue;
+			double total = count + s[0];
+			double delta = s[1] - mean;
+			mean += delta*s[0]/total;
+			m2 += s[2] + delta*delta*count*s[0]/total;
+			count = total;
+		}
+		double volume = volume(width);
+		double sd = Math.sqrt(m2/(count-1));
+		return new IntegralResult(volume*mean , volume*sd/Math.sqrt(count) , n);
+	}
+
+	/**
+	 * Integrate the function by the randomized quasi-Monte Carlo method with a random seed.
+	 * See {@link #quasiMonteCarlo(ToDoubleFunction, double[], double[], int, Sequence, int, long)}.
+	 *
+	 * @param f - The function
+	 * @param low - The lower bounds
+	 * @param high - The upper bounds
+	 * @param n - The number of points of every sequence
+	 * @param seq - The sequence, SOBOL or HALTON
+	 * @return The integral and its standard error
+	 */
+	public static IntegralResult quasiMonteCarlo(ToDoubleFunction<double[]> f , double[] low , double[] high , int n , Sequence seq){
+		return quasiMonteCarlo(f , low , high , n , seq , 16 , new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Integrate the function by the randomized quasi-Monte Carlo method. The points of a low discrepancy sequence fill the box evenly,
+	 * so the average is usually much more accurate than the average at random points. To estimate the error, the sequence is shifted by
+	 * a random vector modulo 1 (Cranley-Patterson rotation) r times, every shifted sequence gives an independent estimate of the
+	 * integral. The result is the average of the estimates, and the standard error is s / √r, where s is the sample standard deviation
+	 * of the estimates.
+	 *
+	 * @param f - The function
+	 * @param low - The lower bounds
+	 * @param high - The upper bounds
+	 * @param n - The number of points of every sequence, a power of 2 is recommended for the Sobol sequence
+	 * @param seq - The sequence, SOBOL or HALTON
+	 * @param randomizations - How many random shifts, r, at least 2
+	 * @param seed - The seed of the random shifts, the same seed gives the same result
+	 * @return The integral and its standard error
+	 */
+	public static IntegralResult quasiMonteCarlo(ToDoubleFunction<double[]> f , double[] low , double[] high , int n , Sequence seq ,
+			int randomizations , long seed){
+		check(f , low , high);
+		if(n < 1)
+			throw new CalculationException("The number of points must be at least 1");
+		if(randomizations < 2)
+			throw new CalculationException("The number of randomizations must be at least 2");
+		final int d = low.length;
+		final double[] width = width(low , high);
+		if(seq == Sequence.SOBOL && d > MAX_SOBOL_DIMENSION)
+			throw new CalculationException("The Sobol sequence supports up to "+MAX_SOBOL_DIMENSION+" dimensions, use HALTON instead");
+
+		final int[][] directions = seq == Sequence.SOBOL ? sobolDirections(d) : null;
+		final int[] bases = seq == Sequence.HALTON ? primes(d) : null;
+		SplittableRandom rand = new SplittableRandom(seed);
+		final double[][] shifts = new double[randomizations][d];
+		for(double[] shift : shifts){
+			for(int j=0;j<d;j++){
+				shift[j] = rand.nextDouble();
+			}
+		}
+
+		//Every task is one part of one shifted sequence
+		final int chunks = Math.min(n , Math.max(1 , CHUNKS/randomizations));
+		final double[] sums = new double[randomizations*chunks];
+		IntStream.range(0 , sums.length).parallel().forEach(t -> {
+			int r = t / chunks , c = t % chunks;
+			int start = (int)((long)n*c/chunks) , end = (int)((long)n*(c+1)/chunks);
+			double[] u = new double[d] , x = new double[d];
+			double[] shift = shifts[r];
+			double sum = 0;
+			if(directions != null){
+				int[] state = new int[d];
+				int gray = start ^ (start >>> 1);
+				for(int b=0;gray != 0;b++ , gray >>>= 1){
+					if((gray & 1) != 0){
+						for(int j=0;j<d;j++) state[j] ^= directions[j][b];
+					}
+				}
+				for(int i=start;i<end;i++){
+					for(int j=0;j<d;j++) u[j] = (state[j] & 0xffffffffL)*TWO_POW_32;
+					sum += evaluate(f , u , shift , low , width , x);
+					//The next point in Gray code order differs by one direction number
+					int b = Integer.numberOfTrailingZeros(i+1);
+					for(int j=0;j<d;j++) state[j] ^= directions[j][b];
+				}
+			}
+			else{
+				for(int i=start;i<end;i++){
+					for(int j=0;j<d;j++) u[j] = radicalInverse(i+1 , bases[j]);
+					sum += evaluate(f , u , shift , low , width , x);
+				}
+			}
+			sums[t] = sum;
+		});
+
+		double mean = 0 , m2 = 0;
+		for(int r=0;r<randomizations;r++){
+			double sum = 0;
+			for(int c=0;c<chunks;c++) sum += sums[r*chunks + c];
+			double estimate = sum/n;
+			double delta = estimate - mean;
+			mean += delta/(r+1);
+			m2 += delta*(estimate - mean);
+		}
+		double volume = volume(width);
+		double sd = Math.sqrt(m2/(randomizations-1));
+		return new IntegralResult(volume*mean , volume*sd/Math.sqrt(randomizations) , (long)n*randomizations);
+	}
+
+	/**
+	 * Get the nodes and the weights of the n points Gauss-Legendre rule on [-1 , 1]. The nodes are the roots of the Legendre polynomial
+	 * Pn, found by Newton's method.
+	 *
+	 * @param n - The number of points
+	 * @return Two arrays, the nodes in increasing order and the weights
+	 */
+	public static double[][] gaussLegendre(int n){
+		if(n < 1)
+			throw new CalculationException("The number of points must be at least 1");
+		double[] x = new double[n] , w = new double[n];
+		int m = (n+1)/2;
+		for(int i=0;i<m;i++){
+			//Initial guess of the i-th largest root
+			double z = Math.cos(Math.PI*(i+0.75)/(n+0.5));
+			double dp = 0;
+			for(int iter=0;iter<100;iter++){
+				//Evaluate Pn(z) and Pn'(z) by the recurrence (k+1)P(k+1) = (2k+1)zP(k) - kP(k-1)
+				double p0 = 1 , p1 = z;
+				for(int k=1;k<n;k++){
+					double p2 = ((2*k+1)*z*p1 - k*p0)/(k+1);
+					p0 = p1;
+					p1 = p2;
+				}
+				dp = n*(z*p1 - p0)/(z*z - 1);
+				double dz = p1/dp;
+				z -= dz;
+				if(Math.abs(dz) <= 1e-15)
+					break;
+			}
+			x[i] = -z;
+			x[n-1-i] = z;
+			w[i] = w[n-1-i] = 2/((1 - z*z)*dp*dp);
+		}
+		return new double[][]{x , w};
+	}
+
+	//The tensor product Gauss-Legendre rule, parallel over the nodes of the first dimension
+	private static double gauss(ToDoubleFunction<double[]> f , double[] low , double[] high , int points , int d){
+		double[][] rule = gaussLegendre(points);
+		final double[][] nodes = new double[d][points];
+		final double[][] weights = new double[d][points];
+		for(int j=0;j<d;j++){
+			double half = (high[j] - low[j])/2 , mid = (high[j] + low[j])/2;
+			for(int i=0;i<points;i++){
+				nodes[j][i] = mid + half*rule[0][i];
+				weights[j][i] = half*rule[1][i];
+			}
+		}
+		return IntStream.range(0 , points).parallel().mapToDouble(first -> {
+			double[] x = new double[d];
+			int[] index = new int[d];
+			x[0] = nodes[0][first];
+			for(int j=1;j<d;j++) x[j] = nodes[j][0];
+			double sum = 0;
+			while(true){
+				double w = weights[0][first];
+				for(int j=1;j<d;j++) w *= weights[j][index[j]];
+				sum += w*f.applyAsDouble(x);
+				//Move to the next node like an odometer
+				int j = d-1;
+				while(j >= 1 && ++index[j] == points){
+					index[j] = 0;
+					x[j] = nodes[j][0];
+					j--;
+				}
+				if(j < 1)
+					break;
+				x[j] = nodes[j][index[j]];
+			}
+			return sum;
+		}).sum();
+	}
+
+	//Shift the point in the unit cube, map it to the box and evaluate
+	private static double evaluate(ToDoubleFunction<double[]> f , double[] u , double[] shift , double[] low , double[] width , double[] x){
+		for(int j=0;j<u.length;j++){
+			double v = u[j] + shift[j];
+			if(v >= 1) v -= 1;
+			x[j] = low[j] + width[j]*v;
+		}
+		return f.applyAsDouble(x);
+	}
+
+	//The direction numbers of the first d dimensions, as 32 bits binary fractions
+	private static int[][] sobolDirections(int d){
+		int[][] v = new int[d][32];
+		for(int k=0;k<32;k++){
+			v[0][k] = 1 << (31-k);
+		}
+		for(int j=1;j<d;j++){
+			int s = SOBOL_S[j-1] , a = SOBOL_A[j-1];
+			int[] m = SOBOL_M[j-1];
+			for(int k=0;k<32;k++){
+				if(k < s){
+					v[j][k] = m[k] << (31-k);
+				}
+				else{
+					int value = v[j][k-s] ^ (v[j][k-s] >>> s);
+					for(int l=1;l<s;l++){
+						if(((a >>> (s-1-l)) & 1) != 0)
+							value ^= v[j][k-l];
+					}
+					v[j][k] = value;
+				}
+			}
+		}
+		return v;
+	}
+
+	//The digits of i in the base, reversed after the decimal point
+	private static double radicalInverse(int i , int base){
+		double result = 0 , f = 1.0/base;
+		while(i > 0){
+			result += f*(i % base);
+			i /= base;
+			f /= base;
+		}
+		return result;
+	}
+
+	//The first n primes
+	private static int[] primes(int n){
+		int[] p = new int[n];
+		int count = 0;
+		for(int c=2;count<n;c++){
+			boolean prime = true;
+			for(int i=0;i<count && p[i]*p[i]<=c;i++){
+				if(c % p[i] == 0){
+					prime = false;
+					break;
+				}
+			}
+			if(prime)
+				p[count++] = c;
+		}
+		return p;
+	}
+
+	private static double[] width(double[] low , double[] high){
+		double[] w = new double[low.length];
+		for(int j=0;j<low.length;j++){
+			w[j] = high[j] - low[j];
+		}
+		return w;
+	}
+
+	private static double volume(double[] width){
+		double v = 1;
+		for(double w : width) v *= w;
+		return v;
+	}
+
+	//Check the arguments
+	private static void check(ToDoubleFunction<double[]> f , double[] low , double[] high){
+		if(f == null)
+			throw new CalculationException("The function cannot be null");
+		if(low == null || high == null || low.length == 0 || low.length != high.length)
+			throw new CalculationException("The lower bounds and the upper bounds must have the same dimension");
+		for(int j=0;j<low.length;j++){
+			if(Double.isNaN(low[j]) || Double.isNaN(high[j]) || Double.isInfinite(low[j]) || Double.isInfinite(high[j]))
+				throw new CalculationException("The bounds must be finite");
+		}
+	}
+}
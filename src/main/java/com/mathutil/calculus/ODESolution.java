@@ -0,0 +1,194 @@
+package com.mathutil.calculus;
+
+import java.util.Arrays;
+
+import com.mathutil.exceptions.CalculationException;
+
+/**
+ * The solution of an initial value problem solved by {@link ODESolver}. It contains every step that the solver has taken, and the state
+ * between the steps can be found by {@link #evaluate(double)}, which uses cubic Hermite interpolation with the values and the derivatives
+ * at both ends of the step(dense output), so no extra evaluation of the system is needed.
+ *
+ * @author danielxu
+ * @see ODESolver
+ */
+public class ODESolution {
+
+	/**The dimension of the system**/
+	private final int dimension;
+
+	/**The x values of the steps**/
+	private double[] xs;
+
+	/**The states of the steps, one after another**/
+	private double[] ys;
+
+	/**The derivatives of the steps, one after another**/
+	private double[] dys;
+
+	/**The number of steps stored, including the initial point**/
+	private int size;
+
+	/**The number of evaluations of the system**/
+	private int evaluations;
+
+	/**The number of rejected steps**/
+	private int rejected;
+
+	/**Only visible for package**/
+	ODESolution(int dimension , int capacity){
+		this.dimension = dimension;
+		capacity = Math.max(capacity , 2);
+		xs = new double[capacity];
+		ys = new double[capacity*dimension];
+		dys = new double[capacity*dimension];
+	}
+
+	//Add a step, the arrays will be copied
+	void add(double x , double[] y , double[] dydx){
+		if(size == xs.length){
+			int capacity = size*2;
+			xs = Arrays.copyOf(xs, capacity);
+			ys = Arrays.copyOf(ys, capacity*dimension);
+			dys = Arrays.copyOf(dys, capacity*dimension);
+		}
+		xs[size] = x;
+		System.arraycopy(y, 0, ys, size*dimension, dimension);
+		System.arraycopy(dydx, 0, dys, size*dimension, dimension);
+		size++;
+	}
+
+	void setStatistics(int evaluations , int rejected){
+		this.evaluations = evaluations;
+		this.rejected = rejected;
+	}
+
+	/**
+	 * Get the number of points stored, which is the number of accepted steps + 1(the initial point)
+	 * @return The number of points
+	 */
+	public int getSize(){
+		return size;
+	}
+
+	/**
+	 * Get the dimension of the system
+	 * @return The number of components of the state
+	 */
+	public int getDimension(){
+		return dimension;
+	}
+
+	/**
+	 * Get the x value of the point
+	 * @param index - The index of the point, 0 is the initial point
+	 * @return The x value
+	 */
+	public double getX(int index){
+		indexCheck(index);
+		return xs[index];
+	}
+
+	/**
+	 * Get the state at the point
+	 * @param index - The index of the point, 0 is the initial point
+	 * @return A copy of the state
+	 */
+	public double[] getY(int index){
+		indexCheck(index);
+		return Arrays.copyOfRange(ys, index*dimension, (index+1)*dimension);
+	}
+
+	/**
+	 * Get the final x value, where the integration ends
+	 * @return The final x value
+	 */
+	public double getFinalX(){
+		return xs[size-1];
+	}
+
+	/**
+	 * Get the state at the final x value
+	 * @return A copy of the final state
+	 */
+	public double[] getFinalY(){
+		return getY(size-1);
+	}
+
+	/**
+	 * Get the number of evaluations of the system
+	 * @return The number of evaluations
+	 */
+	public int getEvaluations(){
+		return evaluations;
+	}
+
+	/**
+	 * Get the number of steps that were rejected because the error was too large. Fixed step methods never reject a step.
+	 * @return The number of rejected steps
+	 */
+	public int getRejectedSteps(){
+		return rejected;
+	}
+
+	/**
+	 * Get the state at any x value between the initial x and the final x.
+	 * @param x - The x value
+	 * @return The state at x
+	 * @see #evaluate(double, double[])
+	 */
+	public double[] evaluate(double x){
+		double[] dest = new double[dimension];
+		evaluate(x , dest);
+		return dest;
+	}
+
+	/**
+	 * Get the state at any x value between the initial x and the final x, and write it into the destination array. The step that contains
+	 * x is found by binary search, and the state is interpolated by the cubic Hermite polynomial of the step.
+	 * @param x - The x value
+	 * @param dest - The destination array, must have the same length as the dimension
+	 */
+	public void evaluate(double x , double[] dest){
+		if(dest.length < dimension)
+			throw new CalculationException("The destination array is too short");
+		boolean forward = xs[size-1] >= xs[0];
+		double lo = forward ? xs[0] : xs[size-1];
+		double hi = forward ? xs[size-1] : xs[0];
+		if(x < lo || x > hi || Double.isNaN(x))
+			throw new CalculationException("x = "+x+" is out of the range of the solution ["+lo+" , "+hi+"]");
+		if(size == 1){
+			System.arraycopy(ys, 0, dest, 0, dimension);
+			return;
+		}
+
+		//Find the step i, such that x is between xs[i] and xs[i+1]
+		int low = 0 , high = size-2;
+		while(low < high){
+			int mid = (low+high+1) >>> 1;
+			if(forward ? xs[mid] <= x : xs[mid] >= x)
+				low = mid;
+			else
+				high = mid-1;
+		}
+		int i = low;
+		double h = xs[i+1] - xs[i];
+		double t = (x - xs[i]) / h;
+		double t2 = t*t , t3 = t2*t;
+		//The Hermite basis
+		double h00 = 2*t3 - 3*t2 + 1;
+		double h10 = t3 - 2*t2 + t;
+		double h01 = -2*t3 + 3*t2;
+		double h11 = t3 - t2;
+		int a = i*dimension , b = (i+1)*dimension;
+		for(int j=0;j<dimension;j++){
+			dest[j] = h00*ys[a+j] + h*h10*dys[a+j] + h01*ys[b+j] + h*h11*dys[b+j];
+		}
+	}
+
+	//Check the index of the point
+	private void indexCheck(int index){
+		if(index < 0 || index >= size)
+			throw new CalculationException("Index out of bound "+index);
+	}
+}
@@ -0,0 +1,487 @@
+package com.mathutil.calculus;
+
+import com.mathutil.exceptions.CalculationException;
+import com.mathutil.operations.Expression;
+
+/**
+ * Solve the initial value problems of ordinary differential equations:
+ * <center>dy/dx = f(x , y) , y(x0) = y0</center>
+ * y can be a single value or a vector of values(a system). There are three methods:
+ * <ul>
+ * <li>{@link #rk4(ODESystem, double, double[], double, int)}, the classic fourth order Runge-Kutta method with a fixed step size.</li>
+ * <li>{@link #dormandPrince(ODESystem, double, double[], double, double)}, the Dormand-Prince 5(4) method. The step size is changed
+ * automatically to keep the error within the tolerance, this is the recommended method for most problems.</li>
+ * <li>{@link #rosenbrock(ODESystem, double, double[], double, double)}, a second order Rosenbrock method(ROS2), which is linearly implicit
+ * and L-stable. It is for the stiff systems, where the explicit methods need a tiny step size to stay stable.</li>
+ * </ul>
+ * All the arrays that are used by a step are created once before the first step, the system should also write the derivatives into the
+ * given array. See {@link ODESolution} for the results.
+ *
+ * @author danielxu
+ * @see ODESystem
+ * @see ODESolution
+ */
+public class ODESolver {
+
+	/**The default maximum number of steps, 100000**/
+	public static final int DEFAULT_MAX_STEPS = 100000;
+
+	//Dormand-Prince 5(4) cofficients
+	private static final double
+		C2 = 1.0/5 , C3 = 3.0/10 , C4 = 4.0/5 , C5 = 8.0/9,
+		A21 = 1.0/5,
+		A31 = 3.0/40 , A32 = 9.0/40,
+		A41 = 44.0/45 , A42 = -56.0/15 , A43 = 32.0/9,
+		A51 = 19372.0/6561 , A52 = -25360.0/2187 , A53 = 64448.0/6561 , A54 = -212.0/729,
+		A61 = 9017.0/3168 , A62 = -355.0/33 , A63 = 46732.0/5247 , A64 = 49.0/176 , A65 = -5103.0/18656,
+		A71 = 35.0/384 , A73 = 500.0/1113 , A74 = 125.0/192 , A75 = -2187.0/6784 , A76 = 11.0/84,
+		E1 = 71.0/57600 , E3 = -71.0/16695 , E4 = 71.0/1920 , E5 = -17253.0/339200 , E6 = 22.0/525 , E7 = -1.0/40;
+
+	//ROS2 cofficient, 1 + 1/sqrt(2)
+	private static final double GAMMA = 1 + 1/Math.sqrt(2);
+
+	//No instance, static class
+	private ODESolver(){}
+
+	/**
+	 * Create a system from compiled expressions. The expressions must have the variables in the order of x , y1 , y2 , ... , yn, where n is the
+	 * number of expressions. For example, the system y1' = y2 , y2' = -y1 can be created by:
+	 * <pre>
+	 * ODESolver.system(ExpReader.compile("y2", "x", "y1", "y2"), ExpReader.compile("-y1", "x", "y1", "y2"));
+	 * </pre>
+	 * The system keeps an internal array for the variables, so the same system should not be solved by different threads at the same time.
+	 *
+	 * @param derivatives - The derivatives of each component, dyi/dx
+	 * @return The system
+	 */
+	public static ODESystem system(final Expression... derivatives){
+		if(derivatives == null || derivatives.length == 0)
+			throw new CalculationException("The system must have at least one equation");
+		final int n = derivatives.length;
+		for(int i=0;i<n;i++){
+			if(derivatives[i].getDimension() != n+1)
+				throw new CalculationException("Every expression must have "+(n+1)+" variables: x and the "+n+" components");
+		}
+		final double[] vars = new double[n+1];
+		return new ODESystem(){
+			public void derivatives(double x , double[] y , double[] dydx){
+				vars[0] = x;
+				System.arraycopy(y, 0, vars, 1, n);
+				for(int i=0;i<n;i++){
+					dydx[i] = derivatives[i].evaluate(vars);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Solve the system using the classic fourth order Runge-Kutta method with a fixed step size, which is (x1 - x0) / steps.
+	 * The global error is proportional to h^4, where h is the step size.
+	 *
+	 * @param f - The system
+	 * @param x0 - The initial x
+	 * @param y0 - The initial state
+	 * @param x1 - The final x, can be smaller than x0
+	 * @param steps - The number of steps
+	 * @return The solution
+	 */
+	public static ODESolution rk4(ODESystem f , double x0 , double[] y0 , double x1 , int steps){
+		check(f , y0 , x0 , x1);
+		if(steps <= 0)
+			throw new CalculationException("The number of steps must be greater than 0");
+
+		int n = y0.length;
+		double h = (x1 - x0) / steps;
+		double[] y = y0.clone();
+		double[] k1 = new double[n] , k2 = new double[n] , k3 = new double[n] , k4 = new double[n];
+		double[] tmp = new double[n];
+		ODESolution sol = new ODESolution(n , steps+1);
+
+		f.derivatives(x0 , y , k1);
+		sol.add(x0 , y , k1);
+		for(int s=0;s<steps;s++){
+			double x = x0 + s*h;
+			for(int i=0;i<n;i++) tmp[i] = y[i] + 0.5*h*k1[i];
+			f.derivatives(x + 0.5*h , tmp , k2);
+			for(int i=0;i<n;i++) tmp[i] = y[i] + 0.5*h*k2[i];
+			f.derivatives(x + 0.5*h , tmp , k3);
+			for(int i=0;i<n;i++) tmp[i] = y[i] + h*k3[i];
+			f.derivatives(x + h , tmp , k4);
+			for(int i=0;i<n;i++) y[i] += h/6*(k1[i] + 2*k2[i] + 2*k3[i] + k4[i]);
+
+			double xn = s == steps-1 ? x1 : x0 + (s+1)*h;
+			//The derivative at the end of this step is the first stage of the next step
+			f.derivatives(xn , y , k1);
+			sol.add(xn , y , k1);
+		}
+		sol.setStatistics(4*steps + 1 , 0);
+		return sol;
+	}
+
+	/**
+	 * Solve the system using the Dormand-Prince 5(4) method. The relative and the absolute tolerance are both the given tolerance.
+	 * See {@link #dormandPrince(ODESystem, double, double[], double, double, double, int)}.
+	 *
+	 * @param f - The system
+	 * @param x0 - The initial x
+	 * @param y0 - The initial state
+	 * @param x1 - The final x, can be smaller than x0
+	 * @param tolerance - The tolerance of every step, such as 0.000001
+	 * @return The solution
+	 */
+	public static ODESolution dormandPrince(ODESystem f , double x0 , double[] y0 , double x1 , double tolerance){
+		return dormandPrince(f , x0 , y0 , x1 , tolerance , tolerance , DEFAULT_MAX_STEPS);
+	}
+
+	/**
+	 * Solve the system using the Dormand-Prince 5(4) method. Every step calculates a fifth order solution and a fourth order solution,
+	 * their difference is the estimated error. If the error is within the tolerance, the step is accepted, otherwise it will be retried with
+	 * a smaller step size. The next step size is chosen by the error, so the step size grows where the solution is smooth. The last stage of
+	 * a step is the first stage of the next step, so an accepted step takes 6 evaluations.<br>
+	 * For each component i, the error must satisfy:
+	 * <center>|err_i| &lt;= absTol + relTol * |y_i|</center>
+	 *
+	 * @param f - The system
+	 * @param x0 - The initial x
+	 * @param y0 - The initial state
+	 * @param x1 - The final x, can be smaller than x0
+	 * @param relTol - The relative tolerance
+	 * @param absTol - The absolute tolerance
+	 * @param maxSteps - The maximum number of steps, including the rejected ones
+	 * @return The solution
+	 */
+	public static ODESolution dormandPrince(ODESystem f , double x0 , double[] y0 , double x1 , double relTol , double absTol , int maxSteps){
+		check(f , y0 , x0 , x1);
+		checkTolerance(relTol , absTol , maxSteps);
+
+		int n = y0.length;
+		double[] y = y0.clone() , yn = new double[n] , tmp = new double[n];
+		double[] k1 = new double[n] , k2 = new double[n] , k3 = new double[n] , k4 = new double[n];
+		double[] k5 = new double[n] , k6 = new double[n] , k7 = new double[n];
+		ODESolution sol = new ODESolution(n , 64);
+
+		f.derivatives(x0 , y , k1);
+		int evaluations = 1 , rejected = 0;
+		sol.add(x0 , y , k1);
+		if(x0 == x1){
+			sol.setStatistics(evaluations , 0);
+			return sol;
+		}
+
+		double dir = Math.signum(x1 - x0);
+		double h = dir * initialStep(f , x0 , y , k1 , x1 , 5 , relTol , absTol , tmp , k2);
+		evaluations++;
+		double x = x0;
+		boolean last = false;
+
+		for(int step=0;step<maxSteps;step++){
+			//Do not step over x1
+			if(dir*(x + h - x1) >= 0){
+				h = x1 - x;
+				last = true;
+			}
+
+			for(int i=0;i<n;i++) tmp[i] = y[i] + h*A21*k1[i];
+			f.derivatives(x + C2*h , tmp , k2);
+			for(int i=0;i<n;i++) tmp[i] = y[i] + h*(A31*k1[i] + A32*k2[i]);
+			f.derivatives(x + C3*h , tmp , k3);
+			for(int i=0;i<n;i++) tmp[i] = y[i] + h*(A41*k1[i] + A42*k2[i] + A43*k3[i]);
+			f.derivatives(x + C4*h , tmp , k4);
+			for(int i=0;i<n;i++) tmp[i] = y[i] + h*(A51*k1[i] + A52*k2[i] + A53*k3[i] + A54*k4[i]);
+			f.derivatives(x + C5*h , tmp , k5);
+			for(int i=0;i<n;i++) tmp[i] = y[i] + h*(A61*k1[i] + A62*k2[i] + A63*k3[i] + A64*k4[i] + A65*k5[i]);
+			f.derivatives(x + h , tmp , k6);
+			for(int i=0;i<n;i++) yn[i] = y[i] + h*(A71*k1[i] + A73*k3[i] + A74*k4[i] + A75*k5[i] + A76*k6[i]);
+			double xn = last ? x1 : x + h;
+			f.derivatives(xn , yn , k7);
+			evaluations += 6;
+
+			//Estimate the error, in the root mean square norm
+			double err = 0;
+			for(int i=0;i<n;i++){
+				double e = h*(E1*k1[i] + E3*k3[i] + E4*k4[i] + E5*k5[i] + E6*k6[i] + E7*k7[i]);
+				double sc = absTol + relTol*Math.max(Math.abs(y[i]) , Math.abs(yn[i]));
+				err += (e/sc)*(e/sc);
+			}
+			err = Math.sqrt(err/n);
+			if(Double.isNaN(err))
+				throw new CalculationException("The solution is not a number at x = "+x);
+
+			if(err <= 1){
+				//Accept the step, the last stage is the first stage of the next step
+				x = xn;
+				double[] t = y; y = yn; yn = t;
+				t = k1; k1 = k7; k7 = t;
+				sol.add(x , y , k1);
+				if(last){
+					sol.setStatistics(evaluations , rejected);
+					return sol;
+				}
+				h *= Math.min(5 , Math.max(0.2 , 0.9*Math.pow(err , -0.2)));
+			}
+			else{
+				rejected++;
+				last = false;
+				h *= Math.max(0.2 , 0.9*Math.pow(err , -0.2));
+			}
+			if(Math.abs(h) <= 4*Math.ulp(x))
+				throw new CalculationException("The step size is too small at x = "+x);
+		}
+		throw new CalculationException("The maximum number of steps "+maxSteps+" is reached at x = "+x);
+	}
+
+	/**
+	 * Solve the stiff system using the ROS2 method. The relative and the absolute tolerance are both the given tolerance.
+	 * See {@link #rosenbrock(ODESystem, double, double[], double, double, double, int)}.
+	 *
+	 * @param f - The system
+	 * @param x0 - The initial x
+	 * @param y0 - The initial state
+	 * @param x1 - The final x, can be smaller than x0
+	 * @param tolerance - The tolerance of every step, such as 0.000001
+	 * @return The solution
+	 */
+	public static ODESolution rosenbrock(ODESystem f , double x0 , double[] y0 , double x1 , double tolerance){
+		return rosenbrock(f , x0 , y0 , x1 , tolerance , tolerance , DEFAULT_MAX_STEPS);
+	}
+
+	/**
+	 * Solve the stiff system using the ROS2 method, a second order Rosenbrock method. Every step solves two linear systems with the matrix
+	 * <center>I - γ*h*J , γ = 1 + 1/√2</center>
+	 * where J is the Jacobian matrix of the system, which is approximated by finite differences once per step. The method is L-stable,
+	 * the step size is only limited by the accuracy but not by the stability, so it can take large steps on stiff systems. The step size
+	 * is chosen automatically by comparing with the embedded first order solution. The error must satisfy:
+	 * <center>|err_i| &lt;= absTol + relTol * |y_i|</center>
+	 *
+	 * @param f - The system
+	 * @param x0 - The initial x
+	 * @param y0 - The initial state
+	 * @param x1 - The final x, can be smaller than x0
+	 * @param relTol - The relative tolerance
+	 * @param absTol - The absolute tolerance
+	 * @param maxSteps - The maximum number of steps, including the rejected ones
+	 * @return The solution
+	 */
+	public static ODESolution rosenbrock(ODESystem f , double x0 , double[] y0 , double x1 , double relTol , double absTol , int maxSteps){
+		check(f , y0 , x0 , x1);
+		checkTolerance(relTol , absTol , maxSteps);
+
+		int n = y0.length;
+		double[] y = y0.clone() , yn = new double[n] , tmp = new double[n];
+		double[] f0 = new double[n] , fn = new double[n] , ft = new double[n];
+		double[] k1 = new double[n] , k2 = new double[n];
+		double[] jac = new double[n*n] , m = new double[n*n];
+		int[] pivot = new int[n];
+		ODESolution sol = new ODESolution(n , 64);
+
+		f.derivatives(x0 , y , f0);
+		int evaluations = 1 , rejected = 0;
+		sol.add(x0 , y , f0);
+		if(x0 == x1){
+			sol.setStatistics(evaluations , 0);
+			return sol;
+		}
+
+		double dir = Math.signum(x1 - x0);
+		double h = dir * initialStep(f , x0 , y , f0 , x1 , 2 , relTol , absTol , tmp , k1);
+		evaluations++;
+		double x = x0;
+		boolean last = false , newJacobian = true;
+
+		for(int step=0;step<maxSteps;step++){
+			if(newJacobian){
+				evaluations += jacobian(f , x , y , f0 , jac , ft , tmp , fn);
+				newJacobian = false;
+			}
+			if(dir*(x + h - x1) >= 0){
+				h = x1 - x;
+				last = true;
+			}
+
+			//M = I - γhJ
+			double gh = GAMMA*h;
+			for(int i=0;i<n*n;i++) m[i] = -gh*jac[i];
+			for(int i=0;i<n;i++) m[i*n+i] += 1;
+			if(!factor(m , pivot , n)){
+				rejected++;
+				last = false;
+				h *= 0.25;
+				continue;
+			}
+
+			//M*k1 = f(x , y) + γh*ft
+			for(int i=0;i<n;i++) k1[i] = f0[i] + gh*ft[i];
+			solve(m , pivot , n , k1);
+			//M*k2 = f(x+h , y+h*k1) - 2*k1 - γh*ft
+			for(int i=0;i<n;i++) tmp[i] = y[i] + h*k1[i];
+			double xn = last ? x1 : x + h;
+			f.derivatives(xn , tmp , k2);
+			evaluations++;
+			for(int i=0;i<n;i++) k2[i] = k2[i] - 2*k1[i] - gh*ft[i];
+			solve(m , pivot , n , k2);
+
+			//The second order solution, and the difference with the first order solution y + h*k1
+			double err = 0;
+			for(int i=0;i<n;i++){
+				yn[i] = y[i] + h*(1.5*k1[i] + 0.5*k2[i]);
+				double e = 0.5*h*(k1[i] + k2[i]);
+				double sc = absTol + relTol*Math.max(Math.abs(y[i]) , Math.abs(yn[i]));
+				err += (e/sc)*(e/sc);
+			}
+			err = Math.sqrt(err/n);
+			if(Double.isNaN(err))
+				throw new CalculationException("The solution is not a number at x = "+x);
+
+			if(err <= 1){
+				x = xn;
+				double[] t = y; y = yn; yn = t;
+				f.derivatives(x , y , f0);
+				evaluations++;
+				sol.add(x , y , f0);
+				if(last){
+					sol.setStatistics(evaluations , rejected);
+					return sol;
+				}
+				newJacobian = true;
+				h *= Math.min(5 , Math.max(0.2 , 0.8*Math.pow(err , -0.5)));
+			}
+			else{
+				rejected++;
+				last = false;
+				h *= Math.max(0.2 , 0.8*Math.pow(err , -0.5));
+			}
+			if(Math.abs(h) <= 4*Math.ulp(x))
+				throw new CalculationException("The step size is too small at x = "+x);
+		}
+		throw new CalculationException("The maximum number of steps "+maxSteps+" is reached at x = "+x);
+	}
+
+	//Choose the first step size, see Hairer, Norsett and Wanner, Solving Ordinary Differential Equations I, section II.4
+	private static double initialStep(ODESystem f , double x0 , double[] y0 , double[] f0 , double x1 , int order ,
+			double relTol , double absTol , double[] tmp , double[] f1){
+		int n = y0.length;
+		double d0 = 0 , d1 = 0;
+		for(int i=0;i<n;i++){
+			double sc = absTol + relTol*Math.abs(y0[i]);
+			d0 += (y0[i]/sc)*(y0[i]/sc);
+			d1 += (f0[i]/sc)*(f0[i]/sc);
+		}
+		d0 = Math.sqrt(d0/n);
+		d1 = Math.sqrt(d1/n);
+		double h0 = (d0 < 1e-5 || d1 < 1e-5) ? 1e-6 : 0.01*d0/d1;
+		h0 = Math.min(h0 , Math.abs(x1 - x0));
+
+		double dir = Math.signum(x1 - x0);
+		for(int i=0;i<n;i++) tmp[i] = y0[i] + dir*h0*f0[i];
+		f.derivatives(x0 + dir*h0 , tmp , f1);
+		double d2 = 0;
+		for(int i=0;i<n;i++){
+			double sc = absTol + relTol*Math.abs(y0[i]);
+			double d = (f1[i] - f0[i])/sc;
+			d2 += d*d;
+		}
+		d2 = Math.sqrt(d2/n)/h0;
+
+		double max = Math.max(d1 , d2);
+		double h1 = max <= 1e-15 ? Math.max(1e-6 , h0*1e-3) : Math.pow(0.01/max , 1.0/(order+1));
+		return Math.min(Math.min(100*h0 , h1) , Math.abs(x1 - x0));
+	}
+
+	//Approximate the Jacobian matrix(row major) and the derivative with respect to x by forward differences,
+	//f0 is f(x , y), return the number of evaluations
+	private static int jacobian(ODESystem f , double x , double[] y , double[] f0 , double[] jac , double[] ft , double[] tmp , double[] f1){
+		int n = y.length;
+		double sqrtEps = Math.sqrt(Math.ulp(1.0));
+		System.arraycopy(y, 0, tmp, 0, n);
+		for(int j=0;j<n;j++){
+			double delta = sqrtEps*Math.max(Math.abs(y[j]) , 1e-5);
+			tmp[j] = y[j] + delta;
+			delta = tmp[j] - y[j];
+			f.derivatives(x , tmp , f1);
+			for(int i=0;i<n;i++){
+				jac[i*n+j] = (f1[i] - f0[i])/delta;
+			}
+			tmp[j] = y[j];
+		}
+		double dx = sqrtEps*Math.max(Math.abs(x) , 1e-5);
+		f.derivatives(x + dx , y , f1);
+		for(int i=0;i<n;i++){
+			ft[i] = (f1[i] - f0[i])/dx;
+		}
+		return n+1;
+	}
+
+	//LU decomposition with partial pivoting in place, return false if the matrix is singular
+	private static boolean factor(double[] a , int[] pivot , int n){
+		for(int k=0;k<n;k++){
+			int p = k;
+			double max = Math.abs(a[k*n+k]);
+			for(int i=k+1;i<n;i++){
+				double v = Math.abs(a[i*n+k]);
+				if(v > max){
+					max = v;
+					p = i;
+				}
+			}
+			if(max == 0)
+				return false;
+			pivot[k] = p;
+			if(p != k){
+				for(int j=0;j<n;j++){
+					double t = a[k*n+j];
+					a[k*n+j] = a[p*n+j];
+					a[p*n+j] = t;
+				}
+			}
+			double d = a[k*n+k];
+			for(int i=k+1;i<n;i++){
+				double l = a[i*n+k] /= d;
+				if(l != 0){
+					for(int j=k+1;j<n;j++){
+						a[i*n+j] -= l*a[k*n+j];
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	//Solve the system with the LU decomposition, b will be replaced by the solution
+	private static void solve(double[] lu , int[] pivot , int n , double[] b){
+		for(int k=0;k<n;k++){
+			int p = pivot[k];
+			if(p != k){
+				double t = b[k];
+				b[k] = b[p];
+				b[p] = t;
+			}
+		}
+		for(int i=1;i<n;i++){
+			double s = b[i];
+			for(int j=0;j<i;j++) s -= lu[i*n+j]*b[j];
+			b[i] = s;
+		}
+		for(int i=n-1;i>=0;i--){
+			double s = b[i];
+			for(int j=i+1;j<n;j++) s -= lu[i*n+j]*b[j];
+			b[i] = s/lu[i*n+i];
+		}
+	}
+
+	//Check the arguments
+	private static void check(ODESystem f , double[] y0 , double x0 , double x1){
+		if(f == null)
+			throw new CalculationException("The system cannot be null");
+		if(y0 == null || y0.length == 0)
+			throw new CalculationException("The initial state cannot be null or empty");
+		if(Double.isNaN(x0) || Double.isNaN(x1) || Double.isInfinite(x0) || Double.isInfinite(x1))
+			throw new CalculationException("The range must be finite");
+	}
+
+	private static void checkTolerance(double relTol , double absTol , int maxSteps){
+		if(!(relTol >= 0) || !(absTol >= 0) || relTol + absTol == 0)
+			throw new CalculationException("The tolerances cannot be negative, and cannot be both 0");
+		if(maxSteps <= 0)
+			throw new CalculationException("The maximum number of steps must be greater than 0");
+	}
+}
@@ -0,0 +1,23 @@
+package com.mathutil.calculus;
+
+/**
+ * A system of first order ordinary differential equations:
+ * <center>dy/dx = f(x , y)</center>
+ * y is the state vector, which has one or more components. The derivatives are written into an array given by the solver,
+ * so no array has to be created in every step. Use {@link ODESolver#system(com.mathutil.operations.Expression...)} to create
+ * a system from compiled expressions.
+ *
+ * @author danielxu
+ * @see ODESolver
+ */
+public interface ODESystem {
+
+	/**
+	 * Calculate the derivatives at the given point.
+	 * @param x - The independent variable
+	 * @param y - The state, should not be modified
+	 * @param dydx - The array that the derivatives will be written into, it has the same length as y
+	 */
+	public void derivatives(double x , double[] y , double[] dydx);
+
+}
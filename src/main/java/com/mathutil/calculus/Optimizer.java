@@ -0,0 +1,630 @@
+package com.mathutil.calculus;
+
+import java.util.SplittableRandom;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+import com.mathutil.exceptions.CalculationException;
+import com.mathutil.operations.ExpReader;
+import com.mathutil.operations.Expression;
+
+/**
+ * Find the minimums and the maximums of the functions. A maximum of f is found as the minimum of -f. The methods are:
+ * <ul>
+ * <li>{@link #goldenSection(DoubleUnaryOperator, double, double, double, int)} and {@link #brent(DoubleUnaryOperator, double, double, double, int)},
+ * for the functions with one variable in a range. Brent's method combines the golden section search with parabolic interpolation,
+ * it usually needs much fewer evaluations.</li>
+ * <li>{@link #nelderMead(ToDoubleFunction, double[], double, double, int)}, the downhill simplex method for the functions with many
+ * variables. It only needs the values of the function, so it also works for the functions that are not smooth.</li>
+ * <li>{@link #bfgs(Expression, double[], double, int)}, the quasi-Newton method BFGS with the exact gradient of the expression. It
+ * converges superlinearly for smooth functions.</li>
+ * <li>{@link #multistart(Function, double[], double[], int, long)}, run a local method from many random starting points by multiple
+ * threads and keep the best one, for the functions that have many local minimums.</li>
+ * </ul>
+ * All the methods except the multistart find a local minimum, which is not always the smallest value of the function.
+ *
+ * @author danielxu
+ * @see Optimum
+ */
+public class Optimizer {
+
+	/**The default tolerance, 0.00000001. The minimum can only be located to about the square root of the machine epsilon**/
+	public static final double DEFAULT_TOLERANCE = 1e-8;
+
+	/**The default maximum number of iterations, 1000**/
+	public static final int DEFAULT_MAX_ITERATIONS = 1000;
+
+	/**The default maximum number of evaluations for the Nelder-Mead method, 10000**/
+	public static final int DEFAULT_MAX_EVALUATIONS = 10000;
+
+	/**2 minus the golden ratio, 0.381966...**/
+	private static final double GOLDEN = (3 - Math.sqrt(5)) / 2;
+
+	/**A tiny absolute tolerance, so the tolerance still works when the minimum is at 0**/
+	private static final double TINY = 1e-12;
+
+	//No instance, static class
+	private Optimizer(){}
+
+	// ===================================================================
+	//                          One variable
+	// ===================================================================
+
+	/**
+	 * Find the minimum of the function between low and high using Brent's method.
+	 * @param func - The function, the variable name must be x. See {@link ExpReader#compile(String, String...)} to check out the available operations.
+	 * @param low - The lower bound
+	 * @param high - The upper bound
+	 * @return The minimum
+	 */
+	public static Optimum minimize(String func , double low , double high){
+		return brent(ExpReader.compile(func) , low , high , DEFAULT_TOLERANCE , DEFAULT_MAX_ITERATIONS);
+	}
+
+	/**
+	 * Find the maximum of the function between low and high using Brent's method.
+	 * @param func - The function, the variable name must be x. See {@link ExpReader#compile(String, String...)} to check out the available operations.
+	 * @param low - The lower bound
+	 * @param high - The upper bound
+	 * @return The maximum
+	 */
+	public static Optimum maximize(String func , double low , double high){
+		Expression e = ExpReader.compile(func);
+		return negate(brent(x -> -e.evaluate(x) , low , high , DEFAULT_TOLERANCE , DEFAULT_MAX_ITERATIONS));
+	}
+
+	/**
+	 * Find the minimum of the function between low and high using the golden section search. Every iteration shrinks the range by
+	 * the golden ratio 0.618..., with only one new evaluation. If the function has more than one minimum in the range, one of them
+	 * will be found.
+	 *
+	 * @param f - The function
+	 * @param low - The lower bound
+	 * @param high - The upper bound
+	 * @param tolerance - The relative tolerance of x
+	 * @param maxIterations - The maximum number of iterations
+	 * @return The minimum
+	 */
+	public static Optimum goldenSection(DoubleUnaryOperator f , double low , double high , double tolerance , int maxIterations){
+		check(f , tolerance , maxIterations);
+		double a = Math.min(low , high) , b = Math.max(low , high);
+		double x1 = a + GOLDEN*(b - a) , x2 = b - GOLDEN*(b - a);
+		double f1 = f.applyAsDouble(x1) , f2 = f.applyAsDouble(x2);
+		int evaluations = 2;
+		for(int i=1;i<=maxIterations;i++){
+			double x = f1 < f2 ? x1 : x2;
+			if(b - a <= 2*(tolerance*Math.abs(x) + TINY))
+				return f1 < f2 ? optimum(x1 , f1 , i , evaluations , true) : optimum(x2 , f2 , i , evaluations , true);
+			if(f1 < f2){
+				b = x2;
+				x2 = x1;
+				f2 = f1;
+				x1 = a + GOLDEN*(b - a);
+				f1 = f.applyAsDouble(x1);
+			}
+			else{
+				a = x1;
+				x1 = x2;
+				f1 = f2;
+				x2 = b - GOLDEN*(b - a);
+				f2 = f.applyAsDouble(x2);
+			}
+			evaluations++;
+		}
+		return f1 < f2 ? optimum(x1 , f1 , maxIterations , evaluations , false) : optimum(x2 , f2 , maxIterations , evaluations , false);
+	}
+
+	/**
+	 * Find the minimum of the function between low and high using Brent's method. A parabola is fitted through the three best points
+	 * and its vertex is tried next, if the parabola does not behave well the golden section step is taken instead. So it is as safe as
+	 * the golden section search, but converges much faster for smooth functions.
+	 *
+	 * @param f - The function
+	 * @param low - The lower bound
+	 * @param high - The upper bound
+	 * @param tolerance - The relative tolerance of x
+	 * @param maxIterations - The maximum number of iterations
+	 * @return The minimum
+	 */
+	public static Optimum brent(DoubleUnaryOperator f , double low , double high , double tolerance , int maxIterations){
+		check(f , tolerance , maxIterations);
+		double a = Math.min(low , high) , b = Math.max(low , high);
+		//x is the best point, w is the second best, v is the previous w
+		double x = a + GOLDEN*(b - a) , w = x , v = x;
+		double fx = f.applyAsDouble(x) , fw = fx , fv = fx;
+		double d = 0 , e = 0;
+		int evaluations = 1;
+		for(int i=1;i<=maxIterations;i++){
+			double xm = (a + b)/2;
+			double tol1 = tolerance*Math.abs(x) + TINY , tol2 = 2*tol1;
+			if(Math.abs(x - xm) <= tol2 - (b - a)/2)
+				return optimum(x , fx , i , evaluations , true);
+
+			boolean golden = true;
+			if(Math.abs(e) > tol1){
+				//Parabolic interpolation through x, w and v
+				double r = (x - w)*(fx - fv);
+				double q = (x - v)*(fx - fw);
+				double p = (x - v)*q - (x - w)*r;
+				q = 2*(q - r);
+				if(q > 0)
+					p = -p;
+				q = Math.abs(q);
+				double last = e;
+				e = d;
+				//Accept the step only if it falls in the range and is less than half of the step before last
+				if(Math.abs(p) < Math.abs(q*last/2) && p > q*(a - x) && p < q*(b - x)){
+					d = p/q;
+					double u = x + d;
+					if(u - a < tol2 || b - u < tol2)
+						d = xm - x >= 0 ? tol1 : -tol1;
+					golden = false;
+				}
+			}
+			if(golden){
+				e = x >= xm ? a - x : b - x;
+				d = GOLDEN*e;
+			}
+
+			double u = Math.abs(d) >= tol1 ? x + d : x + (d >= 0 ? tol1 : -tol1);
+			double fu = f.applyAsDouble(u);
+			evaluations++;
+			if(fu <= fx){
+				if(u >= x) a = x; else b = x;
+				v = w; fv = fw;
+				w = x; fw = fx;
+				x = u; fx = fu;
+			}
+			else{
+				if(u < x) a = u; else b = u;
+				if(fu <= fw || w == x){
+					v = w; fv = fw;
+					w = u; fw = fu;
+				}
+				else if(fu <= fv || v == x || v == w){
+					v = u; fv = fu;
+				}
+			}
+		}
+		return optimum(x , fx , maxIterations , evaluations , false);
+	}
+
+	// ===================================================================
+	//                          Many variables
+	// ===================================================================
+
+	/**
+	 * Find a minimum of the function near the starting point using BFGS with the exact gradient.
+	 * @param func - The function, see {@link ExpReader#compile(String, String...)} to check out the available operations.
+	 * @param vars - The variable names, in the same order as the starting point
+	 * @param start - The starting point
+	 * @return The minimum
+	 */
+	public static Optimum minimize(String func , String[] vars , double[] start){
+		return bfgs(ExpReader.compile(func , vars) , start , DEFAULT_TOLERANCE , DEFAULT_MAX_ITERATIONS);
+	}
+
+	/**
+	 * Find a maximum of the function near the starting point using BFGS with the exact gradient.
+	 * @param func - The function, see {@link ExpReader#compile(String, String...)} to check out the available operations.
+	 * @param vars - The variable names, in the same order as the starting point
+	 * @param start - The starting point
+	 * @return The maximum
+	 */
+	public static Optimum maximize(String func , String[] vars , double[] start){
+		return negate(bfgs(ExpReader.compile("-("+func+")" , vars) , start , DEFAULT_TOLERANCE , DEFAULT_MAX_ITERATIONS));
+	}
+
+	/**
+	 * Find the smallest minimum of the function in the box, by running BFGS from the given number of random starting points.
+	 * See {@link #multistart(Function, double[], double[], int, long)}.
+	 *
+	 * @param func - The function, see {@link ExpReader#compile(String, String...)} to check out the available operations.
+	 * @param vars - The variable names, in the same order as the bounds
+	 * @param low - The lower bounds of the starting points
+	 * @param high - The upper bounds of the starting points
+	 * @param starts - The number of starting points
+	 * @return The best minimum
+	 */
+	public static Optimum minimize(String func , String[] vars , double[] low , double[] high , int starts){
+		final Expression e = ExpReader.compile(func , vars);
+		return multistart(x -> bfgs(e , x , DEFAULT_TOLERANCE , DEFAULT_MAX_ITERATIONS) , low , high , starts , 0);
+	}
+
+	/**
+	 * Find the largest maximum of the function in the box, by running BFGS from the given number of random starting points.
+	 * See {@link #multistart(Function, double[], double[], int, long)}.
+	 *
+	 * @param func - The function, see {@link ExpReader#compile(String, String...)} to check out the available operations.
+	 * @param vars - The variable names, in the same order as the bounds
+	 * @param low - The lower bounds of the starting points
+	 * @param high - The upper bounds of the starting points
+	 * @param starts - The number of starting points
+	 * @return The best maximum
+	 */
+	public static Optimum maximize(String func , String[] vars , double[] low , double[] high , int starts){
+		final Expression e = ExpReader.compile("-("+func+")" , vars);
+		return negate(multistart(x -> bfgs(e , x , DEFAULT_TOLERANCE , DEFAULT_MAX_ITERATIONS) , low , high , starts , 0));
+	}
+
+	/**
+	 * Find a minimum of the function near the starting point using the Nelder-Mead method. The method keeps a simplex of n+1 points,
+	 * and moves the worst point by reflecting, expanding or contracting through the others until the values at all the points are
+	 * within the tolerance. The parameters are adapted to the dimension as suggested by Gao and Han, which works better than the
+	 * standard parameters for more than 2 variables.
+	 *
+	 * @param f - The function
+	 * @param start - The starting point
+	 * @param step - The size of the initial simplex, about how far the minimum might be from the starting point
+	 * @param tolerance - The relative tolerance of the function value
+	 * @param maxEvaluations - The maximum number of evaluations
+	 * @return The minimum
+	 */
+	public static Optimum nelderMead(ToDoubleFunction<double[]> f , double[] start , double step , double tolerance , int maxEvaluations){
+		check(f , start , tolerance , maxEvaluations);
+		if(!(step > 0))
+			throw new CalculationException("The step must be greater than 0");
+		int n = start.length;
+		double alpha = 1 , beta = 1 + 2.0/n , gamma = 0.75 - 0.5/n , delta = 1 - 1.0/n;
+		if(n == 1){
+			gamma = 0.5;
+			delta = 0.5;
+		}
+
+		double[][] p = new double[n+1][];
+		double[] fp = new double[n+1];
+		for(int i=0;i<=n;i++){
+			p[i] = start.clone();
+			if(i > 0)
+				p[i][i-1] += step;
+			fp[i] = f.applyAsDouble(p[i]);
+		}
+		int evaluations = n+1 , iterations = 0;
+		double[] c = new double[n] , xr = new double[n] , xe = new double[n] , xc = new double[n];
+
+		while(true){
+			sort(p , fp);
+			//Converged when the values and the points are close enough
+			double size = 0 , scale = 1;
+			for(int i=1;i<=n;i++){
+				for(int j=0;j<n;j++){
+					size = Math.max(size , Math.abs(p[i][j] - p[0][j]));
+				}
+			}
+			for(int j=0;j<n;j++){
+				scale = Math.max(scale , Math.abs(p[0][j]));
+			}
+			if(fp[n] - fp[0] <= tolerance*(Math.abs(fp[0]) + TINY) && size <= Math.sqrt(tolerance)*scale)
+				return new Optimum(p[0].clone() , fp[0] , iterations , evaluations , true);
+			if(evaluations >= maxEvaluations)
+				return new Optimum(p[0].clone() , fp[0] , iterations , evaluations , false);
+			iterations++;
+
+			//The centroid of all the points except the worst
+			for(int j=0;j<n;j++){
+				double s = 0;
+				for(int i=0;i<n;i++) s += p[i][j];
+				c[j] = s/n;
+			}
+			double[] worst = p[n];
+			for(int j=0;j<n;j++) xr[j] = c[j] + alpha*(c[j] - worst[j]);
+			double fr = f.applyAsDouble(xr);
+			evaluations++;
+
+			if(fr < fp[0]){
+				for(int j=0;j<n;j++) xe[j] = c[j] + beta*(xr[j] - c[j]);
+				double fe = f.applyAsDouble(xe);
+				evaluations++;
+				if(fe < fr)
+					replace(p , fp , xe , fe);
+				else
+					replace(p , fp , xr , fr);
+				continue;
+			}
+			if(fr < fp[n-1]){
+				replace(p , fp , xr , fr);
+				continue;
+			}
+			//Contract outside or inside the simplex
+			boolean outside = fr < fp[n];
+			for(int j=0;j<n;j++) xc[j] = outside ? c[j] + gamma*(xr[j] - c[j]) : c[j] + gamma*(worst[j] - c[j]);
+			double fc = f.applyAsDouble(xc);
+			evaluations++;
+			if(outside ? fc <= fr : fc < fp[n]){
+				replace(p , fp , xc , fc);
+				continue;
+			}
+			//Shrink toward the best point
+			for(int i=1;i<=n;i++){
+				for(int j=0;j<n;j++) p[i][j] = p[0][j] + delta*(p[i][j] - p[0][j]);
+				fp[i] = f.applyAsDouble(p[i]);
+			}
+			evaluations += n;
+		}
+	}
+
+	/**
+	 * Find a minimum of the expression near the starting point using BFGS with the exact gradient.
+	 * See {@link #bfgs(ToDoubleFunction, Gradient, double[], double, int)}.
+	 *
+	 * @param f - The expression, the number of variables must be the same as the dimension of the starting point
+	 * @param start - The starting point
+	 * @param tolerance - The tolerance of the gradient
+	 * @param maxIterations - The maximum number of iterations
+	 * @return The minimum
+	 */
+	public static Optimum bfgs(Expression f , double[] start , double tolerance , int maxIterations){
+		if(f == null)
+			throw new CalculationException("The function cannot be null");
+		if(start != null && f.getDimension() != start.length)
+			throw new CalculationException("The expression has "+f.getDimension()+" variables, but the starting point has "+start.length);
+		final Expression[] grad = f.gradient();
+		return bfgs(f::evaluate , (x , g) -> {
+			for(int i=0;i<g.length;i++) g[i] = grad[i].evaluate(x);
+		} , start , tolerance , maxIterations);
+	}
+
+	/**
+	 * Find a minimum of the function near the starting point using BFGS, the gradient is approximated by central differences which
+	 * takes 2n evaluations for n variables.
+	 * See {@link #bfgs(ToDoubleFunction, Gradient, double[], double, int)}.
+	 *
+	 * @param f - The function
+	 * @param start - The starting point
+	 * @param tolerance - The tolerance of the gradient
+	 * @param maxIterations - The maximum number of iterations
+	 * @return The minimum
+	 */
+	public static Optimum bfgs(ToDoubleFunction<double[]> f , double[] start , double tolerance , int maxIterations){
+		return bfgs(f , (x , g) -> {
+			double h0 = Math.cbrt(Math.ulp(1.0));
+			for(int i=0;i<x.length;i++){
+				double xi = x[i];
+				double h = h0*Math.max(1 , Math.abs(xi));
+				x[i] = xi + h;
+				double fp = f.applyAsDouble(x);
+				x[i] = xi - h;
+				double fm = f.applyAsDouble(x);
+				x[i] = xi;
+				g[i] = (fp - fm)/(2*h);
+			}
+		} , start , tolerance , maxIterations);
+	}
+
+	/**
+	 * Find a minimum of the function near the starting point using the BFGS method. The method keeps an approximation of the inverse of
+	 * the Hessian matrix, which is updated by the changes of the gradient after every step, so the steps become close to Newton's steps
+	 * without calculating any second derivatives. Every step is checked by a backtracking line search so the function always decreases.
+	 * The minimum is found when:
+	 * <center>max |∂f/∂xi| &lt;= tolerance * max(1 , |f|)</center>
+	 *
+	 * @param f - The function
+	 * @param gradient - The gradient of the function
+	 * @param start - The starting point
+	 * @param tolerance - The tolerance of the gradient
+	 * @param maxIterations - The maximum number of iterations
+	 * @return The minimum
+	 */
+	public static Optimum bfgs(ToDoubleFunction<double[]> f , Gradient gradient , double[] start , double tolerance , int maxIterations){
+		check(f , start , tolerance , maxIterations);
+		if(gradient == null)
+			throw new CalculationException("The gradient cannot be null");
+		int n = start.length;
+		double[] x = start.clone() , xn = new double[n];
+		double[] g = new double[n] , gn = new double[n];
+		double[] d = new double[n] , s = new double[n] , y = new double[n] , hy = new double[n];
+		double[] h = new double[n*n];
+		identity(h , n , 1);
+
+		double fx = f.applyAsDouble(x);
+		gradient.gradient(x , g);
+		int evaluations = 1;
+		boolean first = true;
+
+		for(int iter=0;iter<maxIterations;iter++){
+			if(Double.isNaN(fx))
+				throw new CalculationException("The function is not a number at the point");
+			if(normInf(g) <= tolerance*Math.max(1 , Math.abs(fx)))
+				return new Optimum(x , fx , iter , evaluations , true);
+
+			//The search direction d = -H*g, reset H if it is not a descent direction
+			double slope = 0;
+			for(int i=0;i<n;i++){
+				double sum = 0;
+				for(int j=0;j<n;j++) sum -= h[i*n+j]*g[j];
+				d[i] = sum;
+				slope += sum*g[i];
+			}
+			if(!(slope < 0)){
+				identity(h , n , 1);
+				slope = 0;
+				for(int i=0;i<n;i++){
+					d[i] = -g[i];
+					slope -= g[i]*g[i];
+				}
+			}
+
+			//Backtracking line search with the Armijo condition
+			double alpha = 1 , fn = 0;
+			boolean found = false;
+			for(int k=0;k<60;k++){
+				for(int i=0;i<n;i++) xn[i] = x[i] + alpha*d[i];
+				fn = f.applyAsDouble(xn);
+				evaluations++;
+				if(fn <= fx + 1e-4*alpha*slope){
+					found = true;
+					break;
+				}
+				//Minimum of the parabola through f(x), f'(x) and f(x + alpha*d), but at least alpha/10
+				double next = -slope*alpha*alpha/(2*(fn - fx - slope*alpha));
+				alpha = next > 0 ? Math.max(alpha/10 , Math.min(next , alpha/2)) : alpha/10;
+			}
+			if(!found)
+				return new Optimum(x , fx , iter , evaluations , false);
+
+			gradient.gradient(xn , gn);
+			double sy = 0 , yy = 0 , ss = 0 , change = 0;
+			for(int i=0;i<n;i++){
+				s[i] = xn[i] - x[i];
+				y[i] = gn[i] - g[i];
+				sy += s[i]*y[i];
+				yy += y[i]*y[i];
+				ss += s[i]*s[i];
+				change = Math.max(change , Math.abs(s[i])/Math.max(1 , Math.abs(xn[i])));
+			}
+			double fold = fx;
+			double[] t = x; x = xn; xn = t;
+			t = g; g = gn; gn = t;
+			fx = fn;
+
+			//The point does not move anymore
+			if(change <= TINY && Math.abs(fold - fx) <= TINY*Math.max(1 , Math.abs(fx)))
+				return new Optimum(x , fx , iter+1 , evaluations , true);
+
+			//Update the inverse Hessian only if the curvature condition holds
+			if(sy > 1e-10*Math.sqrt(ss*yy)){
+				if(first){
+					identity(h , n , sy/yy);
+					first = false;
+				}
+				double yhy = 0;
+				for(int i=0;i<n;i++){
+					double sum = 0;
+					for(int j=0;j<n;j++) sum += h[i*n+j]*y[j];
+					hy[i] = sum;
+					yhy += sum*y[i];
+				}
+				//H += ((sy + yHy)/sy^2)*s*s' - (Hy*s' + s*Hy')/sy
+				double a = (sy + yhy)/(sy*sy);
+				for(int i=0;i<n;i++){
+					for(int j=0;j<n;j++){
+						h[i*n+j] += a*s[i]*s[j] - (hy[i]*s[j] + s[i]*hy[j])/sy;
+					}
+				}
+			}
+		}
+		return new Optimum(x , fx , maxIterations , evaluations , false);
+	}
+
+	/**
+	 * Run the local method from the given number of random starting points in the box, and return the best result. The starting
+	 * points are uniformly random, the local method might go out of the box. The local methods are run by multiple threads, so they
+	 * must be safe to run at the same time, all the methods of this class are. For example:
+	 * <pre>
+	 * Expression e = ExpReader.compile(...);
+	 * Optimizer.multistart(x -&gt; Optimizer.bfgs(e, x, 1e-8, 1000), low, high, 50, 1);
+	 * </pre>
+	 *
+	 * @param local - Find a local minimum from the starting point
+	 * @param low - The lower bounds of the starting points
+	 * @param high - The upper bounds of the starting points
+	 * @param starts - The number of starting points
+	 * @param seed - The seed of the random starting points, the same seed gives the same starting points
+	 * @return The minimum that has the smallest value, the number of evaluations is the total of all the local methods
+	 */
+	public static Optimum multistart(final Function<double[], Optimum> local , final double[] low , final double[] high , int starts , long seed){
+		if(local == null)
+			throw new CalculationException("The local method cannot be null");
+		if(low == null || high == null || low.length == 0 || low.length != high.length)
+			throw new CalculationException("The lower bounds and the upper bounds must have the same dimension");
+		if(starts <= 0)
+			throw new CalculationException("The number of starting points must be greater than 0");
+
+		SplittableRandom root = new SplittableRandom(seed);
+		final SplittableRandom[] rands = new SplittableRandom[starts];
+		for(int i=0;i<starts;i++){
+			rands[i] = root.split();
+		}
+		Optimum[] results = IntStream.range(0 , starts).parallel().mapToObj(i -> {
+			double[] x = new double[low.length];
+			for(int j=0;j<x.length;j++){
+				x[j] = low[j] + (high[j] - low[j])*rands[i].nextDouble();
+			}
+			return local.apply(x);
+		}).toArray(Optimum[]::new);
+
+		Optimum best = null;
+		int evaluations = 0;
+		for(Optimum o : results){
+			evaluations += o.getEvaluations();
+			if(!Double.isNaN(o.getValue()) && (best == null || o.getValue() < best.getValue()))
+				best = o;
+		}
+		if(best == null)
+			throw new CalculationException("The function is not a number at all the starting points");
+		return new Optimum(best.getPoint() , best.getValue() , best.getIterations() , evaluations , best.isConverged());
+	}
+
+	/**
+	 * The gradient of a function with many variables, for {@link Optimizer#bfgs(ToDoubleFunction, Gradient, double[], double, int)}
+	 */
+	public interface Gradient{
+		/**
+		 * Calculate the gradient at the point
+		 * @param x - The point, should not be modified
+		 * @param g - Write the partial derivatives into this array
+		 */
+		void gradient(double[] x , double[] g);
+	}
+
+	//Turn the minimum of -f into the maximum of f
+	private static Optimum negate(Optimum o){
+		return new Optimum(o.getPoint() , -o.getValue() , o.getIterations() , o.getEvaluations() , o.isConverged());
+	}
+
+	private static Optimum optimum(double x , double fx , int iterations , int evaluations , boolean converged){
+		return new Optimum(new double[]{x} , fx , iterations , evaluations , converged);
+	}
+
+	//Move the new point into the sorted simplex in place of the worst point
+	private static void replace(double[][] p , double[] fp , double[] x , double fx){
+		int n = fp.length-1;
+		System.arraycopy(x, 0, p[n], 0, x.length);
+		fp[n] = fx;
+	}
+
+	//Sort the points by their values, insertion sort since the simplex is almost sorted
+	private static void sort(double[][] p , double[] fp){
+		for(int i=1;i<fp.length;i++){
+			double[] pi = p[i];
+			double fi = fp[i];
+			int j = i-1;
+			while(j >= 0 && fp[j] > fi){
+				p[j+1] = p[j];
+				fp[j+1] = fp[j];
+				j--;
+			}
+			p[j+1] = pi;
+			fp[j+1] = fi;
+		}
+	}
+
+	private static void identity(double[] h , int n , double scale){
+		for(int i=0;i<n*n;i++) h[i] = 0;
+		for(int i=0;i<n;i++) h[i*n+i] = scale;
+	}
+
+	private static double normInf(double[] v){
+		double max = 0;
+		for(double d : v) max = Math.max(max , Math.abs(d));
+		return max;
+	}
+
+	//Check the arguments
+	private static void check(Object f , double tolerance , int maxIterations){
+		if(f == null)
+			throw new CalculationException("The function cannot be null");
+		if(!(tolerance > 0))
+			throw new CalculationException("The tolerance must be greater than 0");
+		if(maxIterations <= 0)
+			throw new CalculationException("The maximum number of iterations must be greater than 0");
+	}
+
+	private static void check(Object f , double[] start , double tolerance , int maxIterations){
+		check(f , tolerance , maxIterations);
+		if(start == null || start.length == 0)
+			throw new CalculationException("The starting point cannot be null or empty");
+	}
+}
@@ -0,0 +1,108 @@
+package com.mathutil.calculus;
+
+import java.util.Arrays;
+
+/**
+ * A minimum or a maximum of a function found by {@link Optimizer}, contains the point, the value of the function at the point,
+ * how many iterations and how many evaluations of the function were used to find it.
+ *
+ * @author danielxu
+ * @see Optimizer
+ */
+public class Optimum implements Comparable<Optimum>{
+
+	/**The point**/
+	private final double[] point;
+
+	/**The value of the function at the point**/
+	private final double value;
+
+	/**The number of iterations**/
+	private final int iterations;
+
+	/**The number of evaluations**/
+	private final int evaluations;
+
+	/**If the tolerance was reached**/
+	private final boolean converged;
+
+	/**
+	 * Only visible for package.
+	 * @param point - The point, will not be copied
+	 * @param value - The value of the function at the point
+	 * @param iterations - The number of iterations
+	 * @param evaluations - The number of evaluations of the function
+	 * @param converged - If the tolerance was reached before the maximum iterations
+	 */
+	Optimum(double[] point , double value , int iterations , int evaluations , boolean converged){
+		this.point = point;
+		this.value = value;
+		this.iterations = iterations;
+		this.evaluations = evaluations;
+		this.converged = converged;
+	}
+
+	/**
+	 * Get the point where the function is the smallest(or the largest)
+	 * @return A copy of the point
+	 */
+	public double[] getPoint(){
+		return point.clone();
+	}
+
+	/**
+	 * Get the first coordinate of the point, which is the x for functions with one variable
+	 * @return The x
+	 */
+	public double getX(){
+		return point[0];
+	}
+
+	/**
+	 * Get the value of the function at the point
+	 * @return f(x)
+	 */
+	public double getValue(){
+		return value;
+	}
+
+	/**
+	 * Get how many iterations were used
+	 * @return The number of iterations
+	 */
+	public int getIterations(){
+		return iterations;
+	}
+
+	/**
+	 * Get how many times the function was evaluated, the evaluations of the gradient are not included
+	 * @return The number of evaluations
+	 */
+	public int getEvaluations(){
+		return evaluations;
+	}
+
+	/**
+	 * Check if the tolerance was reached. If false, the maximum iterations were used up and the point might not be accurate.
+	 * @return True if the point is within the tolerance, false otherwise
+	 */
+	public boolean isConverged(){
+		return converged;
+	}
+
+	/**
+	 * Compare the optimums by their values
+	 */
+	public int compareTo(Optimum o){
+		return Double.compare(value, o.value);
+	}
+
+	/**
+	 * Represent the optimum in form of: <center>x = [...] (f(x) = ..., n iterations, m evaluations)</center>
+	 */
+	@Override
+	public String toString(){
+		return "x = "+Arrays.toString(point)+" (f(x) = "+value+", "+iterations+" iterations, "+evaluations+" evaluations"
+				+(converged ? "" : ", not converged")+")";
+	}
+}
@@ -0,0 +1,420 @@
+package com.mathutil.calculus;
+
+import java.util.Arrays;
+
+import com.mathutil.exceptions.CalculationException;
+
+/**
+ * Polynomial is an immutable polynomial function with real cofficients:
+ * <center>p(x) = a0 + a1*x + a2*x^2 + ... + an*x^n</center>
+ * The cofficients are stored in a primitive array in ascending order of the degrees, index i holds the cofficient of x^i.
+ * The function is evaluated by Horner's scheme, which takes only n multiplications and n additions:
+ * <center>p(x) = a0 + x*(a1 + x*(a2 + ... + x*(an)))</center>
+ * Derivative and integral are exact, they only change the cofficients. Multiplication uses the schoolbook method for low degrees
+ * and Karatsuba's method for high degrees.
+ *
+ * @author danielxu
+ * @see Calculus#devPoly(double[], double[], double)
+ * @see Calculus#integPoly(double[], double[], double, double)
+ */
+public final class Polynomial {
+
+	/**Above this length(number of cofficients), multiplication will use Karatsuba's method**/
+	public static final int KARATSUBA_THRESHOLD = 32;
+
+	/**The highest degree that is always stored densely by {@link #isDense(double[])}, whatever the number of the terms**/
+	public static final int DENSE_DEGREE = 4096;
+
+	/**The zero polynomial p(x) = 0**/
+	public static final Polynomial ZERO = new Polynomial(0);
+
+	/**The cofficients, index i holds the cofficient of x^i**/
+	private final double[] coff;
+
+	/**
+	 * Create a new polynomial with the given cofficients, in ascending order of the degrees. For example,
+	 * <code>new Polynomial(1, 0, 3)</code> is the polynomial 1 + 3*x^2. The trailing zeros will be removed.
+	 * @param coff - The cofficients, index i holds the cofficient of x^i
+	 */
+	public Polynomial(double... coff){
+		if(coff == null)
+			throw new CalculationException("The cofficients cannot be null");
+		this.coff = trim(Arrays.copyOf(coff, coff.length), coff.length);
+	}
+
+	//Take the ownership of the array, no copy
+	private Polynomial(double[] coff , boolean owned){
+		this.coff = coff;
+	}
+
+	/**
+	 * Create a polynomial from the terms in form of:
+	 * <center>f(x) = a1*x^b1 + a2*x^b2 + ... + an*x^bn</center>
+	 * This is the same form that is used by {@link Calculus#devPoly(double[], double[], double)}. The degrees must be non-negative integers,
+	 * the terms with the same degree will be added together. Call {@link #isPolynomial(double[])} to check the degrees.
+	 * Every degree up to the highest one takes a cofficient, so a few terms of a very high degree such as x^1000000000 need a
+	 * huge array, {@link #isDense(double[])} tells if the terms are worth converting.
+	 *
+	 * @param coff - The cofficients of the terms
+	 * @param degree - The degrees of the terms, must be non-negative integers
+	 * @return The polynomial
+	 */
+	public static Polynomial of(double[] coff , double[] degree){
+		if(coff == null || degree == null)
+			throw new CalculationException("The cofficients and the degrees cannot be null");
+		if(coff.length != degree.length)
+			throw new CalculationException("The cofficients and the degrees must have the same length");
+		if(!isPolynomial(degree))
+			throw new CalculationException("The degrees of a polynomial must be non-negative integers");
+
+		int max = 0;
+		for(int i=0;i<degree.length;i++){
+			max = Math.max(max, (int)degree[i]);
+		}
+		double[] c = new double[max+1];
+		for(int i=0;i<degree.length;i++){
+			c[(int)degree[i]] += coff[i];
+		}
+		return new Polynomial(trim(c, c.length) , true);
+	}
+
+	/**
+	 * Check if the degrees are all non-negative integers, which means the terms can be represented by a {@link Polynomial}.
+	 * @param degree - The degrees
+	 * @return True if all the degrees are non-negative integers, false otherwise
+	 */
+	public static boolean isPolynomial(double[] degree){
+		for(int i=0;i<degree.length;i++){
+			if(degree[i] < 0 || degree[i] != Math.rint(degree[i]) || degree[i] > Integer.MAX_VALUE - 1)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Check if the terms can be represented by a {@link Polynomial} without wasting memory: the degrees are non-negative integers and
+	 * the highest degree is at most {@link #DENSE_DEGREE} or 8 times the number of the terms. The terms of a sparse polynomial such
+	 * as x^1000000000 + 1 are better evaluated one by one.
+	 * @param degree - The degrees
+	 * @return True if the terms are a polynomial that can be stored densely, false otherwise
+	 */
+	public static boolean isDense(double[] degree){
+		if(!isPolynomial(degree))
+			return false;
+		long limit = Math.max(DENSE_DEGREE , 8L*degree.length);
+		for(int i=0;i<degree.length;i++){
+			if(degree[i] > limit)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Get the degree of the polynomial, the degree of the zero polynomial is 0.
+	 * @return The degree of the polynomial
+	 */
+	public int degree(){
+		return coff.length - 1;
+	}
+
+	/**
+	 * Get the cofficient of x^power.
+	 * @param power - The power
+	 * @return The cofficient, 0 if the power is greater than the degree
+	 */
+	public double getCofficient(int power){
+		if(power < 0)
+			throw new CalculationException("The power cannot be smaller than 0");
+		return power < coff.length ? coff[power] : 0;
+	}
+
+	/**
+	 * Get all the cofficients, in ascending order of the degrees. This method will return a copy of the array.
+	 * @return The cofficients, index i holds the cofficient of x^i
+	 */
+	public double[] getCofficients(){
+		return Arrays.copyOf(coff, coff.length);
+	}
+
+	/**
+	 * Evaluate the polynomial at x using Horner's scheme.
+	 * @param x - The value of x
+	 * @return p(x)
+	 */
+	public double evaluate(double x){
+		double r = coff[coff.length-1];
+		for(int i=coff.length-2;i>=0;i--){
+			r = r*x + coff[i];
+		}
+		return r;
+	}
+
+	/**
+	 * Evaluate the polynomial at every value in the array.
+	 * @param xs - The values of x
+	 * @return A new array, the i-th element is p(xs[i])
+	 * @see #evaluate(double[], double[])
+	 */
+	public double[] evaluate(double[] xs){
+		double[] dest = new double[xs.length];
+		evaluate(xs , dest);
+		return dest;
+	}
+
+	/**
+	 * Evaluate the polynomial at every value in the array, and store the results into the destination array.
+	 * The Horner steps are interleaved over all the values, so there is no dependency between two consecutive operations
+	 * in the inner loop.
+	 * @param xs - The values of x
+	 * @param dest - The destination array, must be at least as long as xs. It can be xs itself
+	 */
+	public void evaluate(double[] xs , double[] dest){
+		if(dest.length < xs.length)
+			throw new CalculationException("The destination array is too short");
+		int n = xs.length;
+		double top = coff[coff.length-1];
+		if(dest == xs){
+			//Evaluating in place needs the original values
+			for(int j=0;j<n;j++){
+				dest[j] = evaluate(xs[j]);
+			}
+			return;
+		}
+		for(int j=0;j<n;j++){
+			dest[j] = top;
+		}
+		for(int i=coff.length-2;i>=0;i--){
+			double c = coff[i];
+			for(int j=0;j<n;j++){
+				dest[j] = dest[j]*xs[j] + c;
+			}
+		}
+	}
+
+	/**
+	 * Get the derivative of the polynomial.
+	 * <center>p'(x) = a1 + 2*a2*x + ... + n*an*x^(n-1)</center>
+	 * @return The derivative, as a new polynomial
+	 */
+	public Polynomial derivative(){
+		if(coff.length == 1)
+			return ZERO;
+		double[] d = new double[coff.length-1];
+		for(int i=1;i<coff.length;i++){
+			d[i-1] = coff[i] * i;
+		}
+		return new Polynomial(trim(d, d.length) , true);
+	}
+
+	/**
+	 * Evaluate the derivative of the polynomial at x, without creating the derivative polynomial.
+	 * @param x - The value of x
+	 * @return p'(x)
+	 */
+	public double derivative(double x){
+		double r = 0;
+		for(int i=coff.length-1;i>=1;i--){
+			r = r*x + coff[i]*i;
+		}
+		return r;
+	}
+
+	/**
+	 * Get the antiderivative of the polynomial, the constant C is 0.
+	 * <center>∫p(x)dx = a0*x + (a1/2)*x^2 + ... + (an/(n+1))*x^(n+1)</center>
+	 * @return The antiderivative, as a new polynomial
+	 */
+	public Polynomial integral(){
+		double[] d = new double[coff.length+1];
+		for(int i=0;i<coff.length;i++){
+			d[i+1] = coff[i] / (i+1);
+		}
+		return new Polynomial(trim(d, d.length) , true);
+	}
+
+	/**
+	 * Calculate the definite integral of the polynomial between a and b, which is F(b) - F(a).
+	 * @param low - The lower bound a
+	 * @param high - The upper bound b
+	 * @return The definite integral
+	 */
+	public double integral(double low , double high){
+		double r1 = 0 , r2 = 0;
+		for(int i=coff.length-1;i>=0;i--){
+			double c = coff[i] / (i+1);
+			r1 = r1*high + c;
+			r2 = r2*low + c;
+		}
+		return r1*high - r2*low;
+	}
+
+	/**
+	 * Add another polynomial to this polynomial.
+	 * @param p - The other polynomial
+	 * @return The sum, as a new polynomial
+	 */
+	public Polynomial add(Polynomial p){
+		double[] r = Arrays.copyOf(coff, Math.max(coff.length, p.coff.length));
+		for(int i=0;i<p.coff.length;i++){
+			r[i] += p.coff[i];
+		}
+		return new Polynomial(trim(r, r.length) , true);
+	}
+
+	/**
+	 * Subtract another polynomial from this polynomial.
+	 * @param p - The other polynomial
+	 * @return The difference, as a new polynomial
+	 */
+	public Polynomial subtract(Polynomial p){
+		double[] r = Arrays.copyOf(coff, Math.max(coff.length, p.coff.length));
+		for(int i=0;i<p.coff.length;i++){
+			r[i] -= p.coff[i];
+		}
+		return new Polynomial(trim(r, r.length) , true);
+	}
+
+	/**
+	 * Multiply every cofficient by a factor.
+	 * @param factor - The factor
+	 * @return The new polynomial k*p(x)
+	 */
+	public Polynomial factor(double factor){
+		double[] r = new double[coff.length];
+		for(int i=0;i<coff.length;i++){
+			r[i] = coff[i] * factor;
+		}
+		return new Polynomial(trim(r, r.length) , true);
+	}
+
+	/**
+	 * Multiply this polynomial by another polynomial. If both polynomials have more than {@link #KARATSUBA_THRESHOLD} cofficients,
+	 * Karatsuba's method will be used, which takes about n^1.585 multiplications instead of n^2. If one is much longer than the
+	 * other, the longer one is cut into pieces as long as the shorter one, so an n*m product takes about (n/m)*m^1.585
+	 * multiplications instead of n^1.585.
+	 * @param p - The other polynomial
+	 * @return The product, as a new polynomial
+	 */
+	public Polynomial multiply(Polynomial p){
+		double[] r = new double[coff.length + p.coff.length - 1];
+		multiply(coff, 0, coff.length, p.coff, 0, p.coff.length, r, 0);
+		return new Polynomial(trim(r, r.length) , true);
+	}
+
+	/**
+	 * Get the String that represents the polynomial, the zero cofficients will be omitted. The String is an expression that
+	 * can be calculated by {@link com.mathutil.operations.ExpReader#calculate(String)} after replacing x.
+	 * For example: <center>(1.0) + (3.0)*(x)^(2)</center>
+	 */
+	@Override
+	public String toString(){
+		StringBuilder sb = new StringBuilder();
+		for(int i=0;i<coff.length;i++){
+			if(coff[i] == 0)
+				continue;
+			if(sb.length() != 0)
+				sb.append(" + ");
+			if(i == 0)
+				sb.append("("+coff[i]+")");
+			else
+				sb.append("("+coff[i]+")*(x)^("+i+")");
+		}
+		return sb.length() == 0 ? "(0.0)" : sb.toString();
+	}
+
+	@Override
+	public boolean equals(Object o){
+		if(this == o)
+			return true;
+		if(!(o instanceof Polynomial))
+			return false;
+		return Arrays.equals(coff, ((Polynomial)o).coff);
+	}
+
+	@Override
+	public int hashCode(){
+		return Arrays.hashCode(coff);
+	}
+
+	//r[rOff...] += a * b, the classic n*m multiplication
+	private static void schoolbook(double[] a , int aOff , int aLen , double[] b , int bOff , int bLen , double[] r , int rOff){
+		for(int i=0;i<aLen;i++){
+			double ai = a[aOff+i];
+			if(ai == 0)
+				continue;
+			for(int j=0;j<bLen;j++){
+				r[rOff+i+j] += ai * b[bOff+j];
+			}
+		}
+	}
+
+	//r[rOff...] += a * b of any lengths, Karatsuba multiplies the pieces of the longer one as long as the shorter one
+	private static void multiply(double[] a , int aOff , int aLen , double[] b , int bOff , int bLen , double[] r , int rOff){
+		if(aLen < bLen){
+			multiply(b, bOff, bLen, a, aOff, aLen, r, rOff);
+			return;
+		}
+		if(bLen <= KARATSUBA_THRESHOLD){
+			schoolbook(a, aOff, aLen, b, bOff, bLen, r, rOff);
+			return;
+		}
+		int off = 0;
+		for(;off + bLen <= aLen;off += bLen){
+			karatsuba(a, aOff+off, b, bOff, bLen, r, rOff+off);
+		}
+		//The last piece is shorter, it is cut by itself
+		if(off < aLen)
+			multiply(a, aOff+off, aLen-off, b, bOff, bLen, r, rOff+off);
+	}
+
+	//r[rOff...] += a * b, both have length n, r must have at least 2n-1 free places
+	private static void karatsuba(double[] a , int aOff , double[] b , int bOff , int n , double[] r , int rOff){
+		if(n <= KARATSUBA_THRESHOLD){
+			schoolbook(a, aOff, n, b, bOff, n, r, rOff);
+			return;
+		}
+		int m = n / 2;		//Length of the low halves
+		int h = n - m;		//Length of the high halves, h >= m
+
+		//z0 = a0*b0, z2 = a1*b1
+		double[] z0 = new double[2*m - 1];
+		double[] z2 = new double[2*h - 1];
+		karatsuba(a, aOff, b, bOff, m, z0, 0);
+		karatsuba(a, aOff+m, b, bOff+m, h, z2, 0);
+
+		//z1 = (a0+a1)*(b0+b1) - z0 - z2
+		double[] sa = new double[h];
+		double[] sb = new double[h];
+		for(int i=0;i<h;i++){
+			sa[i] = a[aOff+m+i];
+			sb[i] = b[bOff+m+i];
+		}
+		for(int i=0;i<m;i++){
+			sa[i] += a[aOff+i];
+			sb[i] += b[bOff+i];
+		}
+		double[] z1 = new double[2*h - 1];
+		karatsuba(sa, 0, sb, 0, h, z1, 0);
+		for(int i=0;i<z0.length;i++){
+			z1[i] -= z0[i];
+			r[rOff+i] += z0[i];
+		}
+		for(int i=0;i<z2.length;i++){
+			z1[i] -= z2[i];
+			r[rOff+2*m+i] += z2[i];
+		}
+		for(int i=0;i<z1.length;i++){
+			r[rOff+m+i] += z1[i];
+		}
+	}
+
+	//Remove the trailing zeros, keep at least one cofficient
+	private static double[] trim(double[] c , int length){
+		int n = length;
+		while(n > 1 && c[n-1] == 0)
+			n--;
+		if(n == 0)
+			return new double[]{0};
+		return n == c.length ? c : Arrays.copyOf(c, n);
+	}
+}
@@ -0,0 +1,84 @@
+package com.mathutil.calculus;
+
+/**
+ * A root of a function found by {@link RootFinder}, contains the value of x, the value of the function at x and how many
+ * iterations were used to find it.
+ *
+ * @author danielxu
+ * @see RootFinder
+ */
+public class Root implements Comparable<Root>{
+
+	/**The root**/
+	private final double x;
+
+	/**The value of the function at the root**/
+	private final double fx;
+
+	/**The number of iterations**/
+	private final int iterations;
+
+	/**If the tolerance was reached**/
+	private final boolean converged;
+
+	/**
+	 * Only visible for package.
+	 * @param x - The root
+	 * @param fx - The value of the function at the root
+	 * @param iterations - The number of iterations
+	 * @param converged - If the tolerance was reached before the maximum iterations
+	 */
+	Root(double x , double fx , int iterations , boolean converged){
+		this.x = x;
+		this.fx = fx;
+		this.iterations = iterations;
+		this.converged = converged;
+	}
+
+	/**
+	 * Get the root, which is x such that f(x) = 0
+	 * @return The root
+	 */
+	public double getX(){
+		return x;
+	}
+
+	/**
+	 * Get the value of the function at the root, it should be very close to 0
+	 * @return f(x)
+	 */
+	public double getValue(){
+		return fx;
+	}
+
+	/**
+	 * Get how many iterations were used to find the root
+	 * @return The number of iterations
+	 */
+	public int getIterations(){
+		return iterations;
+	}
+
+	/**
+	 * Check if the tolerance was reached. If false, the maximum iterations were used up and the root might not be accurate.
+	 * @return True if the root is within the tolerance, false otherwise
+	 */
+	public boolean isConverged(){
+		return converged;
+	}
+
+	/**
+	 * Compare the roots by their x values
+	 */
+	public int compareTo(Root r){
+		return Double.compare(x, r.x);
+	}
+
+	/**
+	 * Represent the root in form of: <center>x = ... (f(x) = ..., n iterations)</center>
+	 */
+	@Override
+	public String toString(){
+		return "x = "+x+" (f(x) = "+fx+", "+iterations+" iterations"+(converged ? "" : ", not converged")+")";
+	}
+}
@@ -0,0 +1,383 @@
+package com.mathutil.calculus;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.mathutil.exceptions.CalculationException;
+import com.mathutil.operations.ExpReader;
+import com.mathutil.operations.Expression;
+
+/**
+ * Find the roots of the function, which means the values of x such that f(x) = 0. The functions can be given as Strings,
+ * compiled {@link Expression}s or any <code>DoubleUnaryOperator</code>. There are three ways to find the roots:
+ * <ul>
+ * <li>{@link #brent(DoubleUnaryOperator, double, double)}, Brent's method, needs a range that the function has different signs at the bounds.
+ * It always converges and usually converges superlinearly.</li>
+ * <li>{@link #newton(Expression, double, double)}, Newton's method with the exact derivative. If the range is given, the steps that go out of
+ * the range will be replaced by bisection so it always converges.</li>
+ * <li>{@link #findAll(DoubleUnaryOperator, double, double, int)}, find all the sign changes in a range and solve each of them by Brent's method,
+ * the work is done by multiple threads.</li>
+ * </ul>
+ *
+ * @author danielxu
+ * @see Root
+ */
+public class RootFinder {
+
+	/**The default tolerance of x, 0.000000000001**/
+	public static final double DEFAULT_TOLERANCE = 1e-12;
+
+	/**The default maximum number of iterations, 100**/
+	public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+	/**The machine epsilon of double**/
+	private static final double EPS = Math.ulp(1.0);
+
+	//No instance, static class
+	private RootFinder(){}
+
+	/**
+	 * Find the root of the function between low and high using Brent's method. See {@link #brent(DoubleUnaryOperator, double, double, double, int)}.
+	 * @param func - The function, the variable name must be x. See {@link ExpReader#compile(String, String...)} to check out the available operations.
+	 * @param low - The lower bound
+	 * @param high - The upper bound
+	 * @return The root
+	 */
+	public static Root brent(String func , double low , double high){
+		return brent(ExpReader.compile(func) , low , high , DEFAULT_TOLERANCE , DEFAULT_MAX_ITERATIONS);
+	}
+
+	/**
+	 * Find the root of the function between low and high using Brent's method. See {@link #brent(DoubleUnaryOperator, double, double, double, int)}.
+	 * @param f - The function
+	 * @param low - The lower bound
+	 * @param high - The upper bound
+	 * @return The root
+	 */
+	public static Root brent(DoubleUnaryOperator f , double low , double high){
+		return brent(f , low , high , DEFAULT_TOLERANCE , DEFAULT_MAX_ITERATIONS);
+	}
+
+	/**
+	 * Find the root of the function between low and high using Brent's method. The function must have different signs at the bounds,
+	 * which means f(low)*f(high) &lt; 0, or one of them is 0. Brent's method combines bisection, secant method and inverse quadratic
+	 * interpolation, it never goes out of the range so it always converges.
+	 *
+	 * @param f - The function
+	 * @param low - The lower bound
+	 * @param high - The upper bound
+	 * @param tolerance - The tolerance of x
+	 * @param maxIterations - The maximum number of iterations
+	 * @return The root
+	 */
+	public static Root brent(DoubleUnaryOperator f , double low , double high , double tolerance , int maxIterations){
+		check(f , tolerance , maxIterations);
+		double fa = f.applyAsDouble(low);
+		double fb = f.applyAsDouble(high);
+		if(fa == 0)
+			return new Root(low , 0 , 0 , true);
+		if(fb == 0)
+			return new Root(high , 0 , 0 , true);
+		if((fa < 0) == (fb < 0) || Double.isNaN(fa) || Double.isNaN(fb))
+			throw new CalculationException("The function must have different signs at the bounds "+low+" and "+high);
+
+		return brent(f , low , fa , high , fb , tolerance , maxIterations);
+	}
+
+	/**
+	 * Find the root of the function using Newton's method, the derivative will be found exactly by {@link Expression#derivative()}.
+	 * See {@link #newton(DoubleUnaryOperator, DoubleUnaryOperator, double, double, double, int)}.
+	 * @param func - The function, the variable name must be x. See {@link ExpReader#compile(String, String...)} to check out the available operations.
+	 * @param low - The lower bound
+	 * @param high - The upper bound
+	 * @return The root
+	 */
+	public static Root newton(String func , double low , double high){
+		return newton(ExpReader.compile(func) , low , high);
+	}
+
+	/**
+	 * Find the root of the function using Newton's method, the derivative will be found exactly by {@link Expression#derivative()}.
+	 * See {@link #newton(DoubleUnaryOperator, DoubleUnaryOperator, double, double, double, int)}.
+	 * @param f - The function, has only one variable
+	 * @param low - The lower bound
+	 * @param high - The upper bound
+	 * @return The root
+	 */
+	public static Root newton(Expression f , double low , double high){
+		return newton(f , f.derivative() , low , high , DEFAULT_TOLERANCE , DEFAULT_MAX_ITERATIONS);
+	}
+
+	/**
+	 * Find the root of the function using Newton's method, starting from the guess. There is no range to protect the steps,
+	 * if a step does not reduce |f(x)|, it will be halved until it does. It converges quadratically near a simple root,
+	 * but it might not converge if the guess is far from the root. See {@link Root#isConverged()}.
+	 * @param f - The function, has only one variable
+	 * @param guess - The first guess of the root
+	 * @return The root
+	 */
+	public static Root newton(Expression f , double guess){
+		return newton(f , f.derivative() , guess , DEFAULT_TOLERANCE , DEFAULT_MAX_ITERATIONS);
+	}
+
+	/**
+	 * Find the root of the function between low and high using the safeguarded Newton's method. The function must have different signs at the bounds.
+	 * Newton's step is used when it stays in the range and reduces the range fast enough, otherwise bisection is used. The range is updated
+	 * after every step, so it converges as surely as bisection and as fast as Newton's method near the root.
+	 *
+	 * @param f - The function
+	 * @param df - The derivative of the function
+	 * @param low - The lower bound
+	 * @param high - The upper bound
+	 * @param tolerance - The tolerance of x
+	 * @param maxIterations - The maximum number of iterations
+	 * @return The root
+	 */
+	public static Root newton(DoubleUnaryOperator f , DoubleUnaryOperator df , double low , double high , double tolerance , int maxIterations){
+		check(f , tolerance , maxIterations);
+		if(df == null)
+			throw new CalculationException("The derivative cannot be null");
+		double fl = f.applyAsDouble(low);
+		double fh = f.applyAsDouble(high);
+		if(fl == 0)
+			return new Root(low , 0 , 0 , true);
+		if(fh == 0)
+			return new Root(high , 0 , 0 , true);
+		if((fl < 0) == (fh < 0) || Double.isNaN(fl) || Double.isNaN(fh))
+			throw new CalculationException("The function must have different signs at the bounds "+low+" and "+high);
+
+		//Orient the range so that f(xl) < 0
+		double xl , xh;
+		if(fl < 0){
+			xl = low;
+			xh = high;
+		}
+		else{
+			xl = high;
+			xh = low;
+		}
+		double x = 0.5*(low+high);
+		double dxold = Math.abs(high-low);
+		double dx = dxold;
+		double fx = f.applyAsDouble(x);
+		double dfx = df.applyAsDouble(x);
+
+		for(int i=1;i<=maxIterations;i++){
+			//Bisect if Newton's step goes out of the range, or the range is not reduced fast enough
+			if((((x-xh)*dfx-fx)*((x-xl)*dfx-fx) > 0) || (Math.abs(2*fx) > Math.abs(dxold*dfx))){
+				dxold = dx;
+				dx = 0.5*(xh-xl);
+				x = xl+dx;
+				if(xl == x)
+					return new Root(x , fx , i , true);
+			}
+			else{
+				dxold = dx;
+				dx = fx/dfx;
+				double temp = x;
+				x -= dx;
+				if(temp == x)
+					return new Root(x , fx , i , true);
+			}
+			fx = f.applyAsDouble(x);
+			if(Math.abs(dx) < tolerance || fx == 0)
+				return new Root(x , fx , i , true);
+			dfx = df.applyAsDouble(x);
+			if(fx < 0)
+				xl = x;
+			else
+				xh = x;
+		}
+		return new Root(x , fx , maxIterations , false);
+	}
+
+	/**
+	 * Find the root of the function using Newton's method, starting from the guess. There is no range to protect the steps,
+	 * if a step does not reduce |f(x)|, it will be halved until it does. It converges quadratically near a simple root,
+	 * but it might not converge if the guess is far from the root. See {@link Root#isConverged()}.
+	 *
+	 * @param f - The function
+	 * @param df - The derivative of the function
+	 * @param guess - The first guess of the root
+	 * @param tolerance - The tolerance of x
+	 * @param maxIterations - The maximum number of iterations
+	 * @return The root
+	 */
+	public static Root newton(DoubleUnaryOperator f , DoubleUnaryOperator df , double guess , double tolerance , int maxIterations){
+		check(f , tolerance , maxIterations);
+		if(df == null)
+			throw new CalculationException("The derivative cannot be null");
+		double x = guess;
+		double fx = f.applyAsDouble(x);
+
+		for(int i=1;i<=maxIterations;i++){
+			if(fx == 0)
+				return new Root(x , fx , i-1 , true);
+			double dfx = df.applyAsDouble(x);
+			if(dfx == 0 || Double.isNaN(dfx) || Double.isInfinite(dfx))
+				return new Root(x , fx , i , false);
+
+			double dx = fx/dfx;
+			double next = x-dx;
+			double fnext = f.applyAsDouble(next);
+			//Damping, halve the step until |f| is reduced
+			for(int k=0;k<30 && !(Math.abs(fnext) < Math.abs(fx));k++){
+				dx *= 0.5;
+				next = x-dx;
+				fnext = f.applyAsDouble(next);
+			}
+			x = next;
+			fx = fnext;
+			if(Math.abs(dx) < tolerance)
+				return new Root(x , fx , i , true);
+		}
+		return new Root(x , fx , maxIterations , false);
+	}
+
+	/**
+	 * Find all the roots of the function between low and high. See {@link #findAll(DoubleUnaryOperator, double, double, int)}.
+	 * @param func - The function, the variable name must be x. See {@link ExpReader#compile(String, String...)} to check out the available operations.
+	 * @param low - The lower bound
+	 * @param high - The upper bound
+	 * @param parts - How many parts the range will be divided
+	 * @return All the roots that are found, sorted by x
+	 */
+	public static List<Root> findAll(String func , double low , double high , int parts){
+		return findAll(ExpReader.compile(func) , low , high , parts);
+	}
+
+	/**
+	 * Find all the roots of the function between low and high. The range is divided into many parts, the function is evaluated at every
+	 * division point, and each part that the function changes its sign will be solved by Brent's method. Both steps are done by multiple threads,
+	 * so the function must be safe to be called by different threads at the same time, {@link Expression} is always safe.<br>
+	 * Please notice that:
+	 * <ul>
+	 * <li>If two roots are in the same part, or the function touches 0 without changing its sign(such as x^2), the roots will not be found.
+	 * More parts can find roots that are closer to each other.</li>
+	 * <li>If the function changes its sign by jumping over infinity(such as tan(x)), the point will not be taken as a root.</li>
+	 * </ul>
+	 *
+	 * @param f - The function
+	 * @param low - The lower bound
+	 * @param high - The upper bound
+	 * @param parts - How many parts the range will be divided
+	 * @return All the roots that are found, sorted by x
+	 */
+	public static List<Root> findAll(final DoubleUnaryOperator f , double low , double high , final int parts){
+		check(f , DEFAULT_TOLERANCE , DEFAULT_MAX_ITERATIONS);
+		if(parts <= 0)
+			throw new CalculationException("The number of parts must be greater than 0");
+		if(low > high){
+			double temp = low;
+			low = high;
+			high = temp;
+		}
+
+		final double[] xs = new double[parts+1];
+		final double dx = (high-low)/parts;
+		for(int i=0;i<parts;i++){
+			xs[i] = low + i*dx;
+		}
+		xs[parts] = high;
+
+		final double[] fs = IntStream.rangeClosed(0 , parts).parallel().mapToDouble(i -> f.applyAsDouble(xs[i])).toArray();
+
+		return IntStream.rangeClosed(0 , parts).parallel().mapToObj(i -> {
+			if(fs[i] == 0)
+				return new Root(xs[i] , 0 , 0 , true);
+			if(i == parts || fs[i+1] == 0 || Double.isNaN(fs[i]) || Double.isNaN(fs[i+1]) || (fs[i] < 0) == (fs[i+1] < 0))
+				return null;
+
+			Root r = brent(f , xs[i] , fs[i] , xs[i+1] , fs[i+1] , DEFAULT_TOLERANCE , DEFAULT_MAX_ITERATIONS);
+			//A pole, the function grows instead of going to 0
+			if(!(Math.abs(r.getValue()) <= Math.max(Math.abs(fs[i]) , Math.abs(fs[i+1]))))
+				return null;
+			return r;
+		}).filter(Objects::nonNull).collect(Collectors.toList());
+	}
+
+	//Brent's method, f(a) and f(b) are known and have different signs
+	private static Root brent(DoubleUnaryOperator f , double a , double fa , double b , double fb , double tolerance , int maxIterations){
+		double c = b , fc = fb;
+		double d = b-a , e = d;
+
+		for(int i=1;i<=maxIterations;i++){
+			//Keep the root between b and c
+			if((fb > 0 && fc > 0) || (fb < 0 && fc < 0)){
+				c = a;
+				fc = fa;
+				d = b-a;
+				e = d;
+			}
+			//Make b the best guess
+			if(Math.abs(fc) < Math.abs(fb)){
+				a = b;
+				b = c;
+				c = a;
+				fa = fb;
+				fb = fc;
+				fc = fa;
+			}
+			double tol = 2*EPS*Math.abs(b) + 0.5*tolerance;
+			double xm = 0.5*(c-b);
+			if(Math.abs(xm) <= tol || fb == 0)
+				return new Root(b , fb , i , true);
+
+			if(Math.abs(e) >= tol && Math.abs(fa) > Math.abs(fb)){
+				//Try interpolation
+				double p , q , r;
+				double s = fb/fa;
+				if(a == c){
+					//Secant method
+					p = 2*xm*s;
+					q = 1-s;
+				}
+				else{
+					//Inverse quadratic interpolation
+					q = fa/fc;
+					r = fb/fc;
+					p = s*(2*xm*q*(q-r) - (b-a)*(r-1));
+					q = (q-1)*(r-1)*(s-1);
+				}
+				if(p > 0)
+					q = -q;
+				p = Math.abs(p);
+				double min1 = 3*xm*q - Math.abs(tol*q);
+				double min2 = Math.abs(e*q);
+				if(2*p < Math.min(min1 , min2)){
+					//Accept the interpolation
+					e = d;
+					d = p/q;
+				}
+				else{
+					//Interpolation failed, use bisection
+					d = xm;
+					e = d;
+				}
+			}
+			else{
+				//Bounds decreasing too slowly, use bisection
+				d = xm;
+				e = d;
+			}
+			a = b;
+			fa = fb;
+			b += Math.abs(d) > tol ? d : Math.copySign(tol , xm);
+			fb = f.applyAsDouble(b);
+		}
+		return new Root(b , fb , maxIterations , false);
+	}
+
+	//Check the arguments
+	private static void check(DoubleUnaryOperator f , double tolerance , int maxIterations){
+		if(f == null)
+			throw new CalculationException("The function cannot be null");
+		if(!(tolerance > 0))
+			throw new CalculationException("The tolerance must be greater than 0");
+		if(maxIterations <= 0)
+			throw new CalculationException("The maximum number of iterations must be greater than 0");
+	}
+}
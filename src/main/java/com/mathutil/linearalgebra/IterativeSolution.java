@@ -0,0 +1,78 @@
+package com.mathutil.linearalgebra;
+
+/**
+ * The solution of A*x = b found by {@link IterativeSolver}, contains x, how many iterations were used and the relative residual
+ * ||b - A*x|| / ||b||, which is calculated again from x after the last iteration.
+ *
+ * @author danielxu
+ * @see IterativeSolver
+ */
+public class IterativeSolution {
+
+	/**The solution**/
+	private final double[] x;
+
+	/**The number of iterations**/
+	private final int iterations;
+
+	/**||b - A*x|| / ||b||**/
+	private final double residual;
+
+	/**If the tolerance was reached**/
+	private final boolean converged;
+
+	/**
+	 * Only visible for package.
+	 * @param x - The solution
+	 * @param iterations - The number of iterations
+	 * @param residual - The relative residual
+	 * @param converged - If the tolerance was reached before the maximum iterations
+	 */
+	IterativeSolution(double[] x , int iterations , double residual , boolean converged){
+		this.x = x;
+		this.iterations = iterations;
+		this.residual = residual;
+		this.converged = converged;
+	}
+
+	/**
+	 * Get the solution x, the array is not copied
+	 * @return x
+	 */
+	public double[] getSolution(){
+		return x;
+	}
+
+	/**
+	 * Get how many iterations were used, one iteration multiplies A once(twice for BiCGSTAB)
+	 * @return The number of iterations
+	 */
+	public int getIterations(){
+		return iterations;
+	}
+
+	/**
+	 * Get the relative residual ||b - A*x|| / ||b|| of the solution
+	 * @return The relative residual
+	 */
+	public double getResidual(){
+		return residual;
+	}
+
+	/**
+	 * Check if the tolerance was reached. If false, the maximum iterations were used up or the method broke down, and the
+	 * solution might not be accurate.
+	 * @return True if the residual is within the tolerance, false otherwise
+	 */
+	public boolean isConverged(){
+		return converged;
+	}
+
+	/**
+	 * Represent the solution in form of: <center>n iterations, residual ...</center>
+	 */
+	@Override
+	public String toString(){
+		return iterations+" iterations, residual "+residual+(converged ? "" : ", not converged");
+	}
+}
@@ -0,0 +1,498 @@
+package com.mathutil.linearalgebra;
+
+import java.util.Arrays;
+
+import com.mathutil.exceptions.LinearException;
+import com.mathutil.linearalgebra.matrix.DoubleKernels;
+import com.mathutil.linearalgebra.matrix.Kernels;
+import com.mathutil.linearalgebra.matrix.Matrix;
+import com.mathutil.linearalgebra.matrix.SparseMatrix;
+
+/**
+ * Solve the large linear systems A*x = b by Krylov subspace methods. Instead of eliminating the matrix in O(n^3) like
+ * {@link Linear#solve(Matrix, Matrix, String...)}, they only multiply A by vectors, which is O(nonzeros) for a {@link SparseMatrix},
+ * so the systems that can't be stored densely can be solved. There are three methods:
+ * <ul>
+ * <li>{@link #cg(LinearOperator, double[], Preconditioner, double, int)}, conjugate gradient, only for symmetric positive definite
+ * matrices. It needs one multiplication per iteration and the least memory.</li>
+ * <li>{@link #bicgstab(LinearOperator, double[], Preconditioner, double, int)}, BiCGSTAB, for general matrices. Two multiplications
+ * per iteration, the memory does not grow with the iterations.</li>
+ * <li>{@link #gmres(LinearOperator, double[], Preconditioner, int, double, int)}, GMRES restarted every m iterations, for general
+ * matrices. The residual never increases, but it keeps m+1 vectors.</li>
+ * </ul>
+ * All of them start from x = 0 and stop when the relative residual ||b - A*x|| / ||b|| is not greater than the tolerance, which
+ * is checked by calculating the residual again from x. The number of iterations depends on the condition of the matrix,
+ * a preconditioner({@link #jacobi(SparseMatrix)} or {@link #ilu0(SparseMatrix)}) makes it smaller.
+ *
+ * @author danielxu
+ * @see IterativeSolution
+ * @see LinearOperator
+ * @see Preconditioner
+ */
+public class IterativeSolver {
+
+	/**The default tolerance of the relative residual, 0.0000000001**/
+	public static final double DEFAULT_TOLERANCE = 1e-10;
+
+	/**The default maximum number of iterations, 10000**/
+	public static final int DEFAULT_MAX_ITERATIONS = 10000;
+
+	/**The default number of iterations before GMRES restarts, 30**/
+	public static final int DEFAULT_RESTART = 30;
+
+	//No instance, static class
+	private IterativeSolver(){}
+
+	/**
+	 * Use a square Matrix as a linear operator, A*x is calculated by {@link Matrix#multiplyInto(Matrix, Matrix)}.
+	 * @param a - The square matrix
+	 * @return The operator
+	 */
+	public static LinearOperator operator(final Matrix a){
+		if(a == null || a.isEmpty())
+			throw new LinearException("The matrix cannot be null");
+		if(a.getRows() != a.getCols())
+			throw new LinearException("The cofficient matrix must be square");
+		final int n = a.getRows();
+		return new LinearOperator(){
+			public int getDimension(){
+				return n;
+			}
+			public void apply(double[] x , double[] y){
+				a.multiplyInto(Matrix.wrap(x , n , 1) , Matrix.wrap(y , n , 1));
+			}
+		};
+	}
+
+	/**
+	 * Use a square SparseMatrix as a linear operator, A*x is calculated by {@link SparseMatrix#multiplyInto(double[], double[])}
+	 * in O(nonzeros).
+	 * @param a - The square sparse matrix, compressed by rows is faster
+	 * @return The operator
+	 */
+	public static LinearOperator operator(final SparseMatrix a){
+		if(a == null)
+			throw new LinearException("The matrix cannot be null");
+		if(a.getRows() != a.getCols())
+			throw new LinearException("The cofficient matrix must be square");
+		final int n = a.getRows();
+		return new LinearOperator(){
+			public int getDimension(){
+				return n;
+			}
+			public void apply(double[] x , double[] y){
+				a.multiplyInto(x , y);
+			}
+		};
+	}
+
+	/**
+	 * The Jacobi preconditioner M = diag(A), z = r / diag(A). It is cheap and helps when the diagonal elements have very
+	 * different magnitudes.
+	 * @param a - The square matrix, all the diagonal elements must not be 0
+	 * @return The preconditioner
+	 */
+	public static Preconditioner jacobi(Matrix a){
+		if(a == null || a.isEmpty())
+			throw new LinearException("The matrix cannot be null");
+		if(a.getRows() != a.getCols())
+			throw new LinearException("The cofficient matrix must be square");
+		double[] d = new double[a.getRows()];
+		for(int i=0;i<d.length;i++)
+			d[i] = a.getDouble(i , i);
+		return jacobi(d);
+	}
+
+	/**
+	 * The Jacobi preconditioner M = diag(A), z = r / diag(A). It is cheap and helps when the diagonal elements have very
+	 * different magnitudes.
+	 * @param a - The square sparse matrix, all the diagonal elements must not be 0
+	 * @return The preconditioner
+	 */
+	public static Preconditioner jacobi(SparseMatrix a){
+		if(a == null)
+			throw new LinearException("The matrix cannot be null");
+		if(a.getRows() != a.getCols())
+			throw new LinearException("The cofficient matrix must be square");
+		double[] d = new double[a.getRows()];
+		for(int i=0;i<d.length;i++)
+			d[i] = a.getDouble(i , i);
+		return jacobi(d);
+	}
+
+	/**
+	 * The incomplete LU preconditioner with no fill-in, ILU(0). A is factored into L*U by Gaussian elimination, but only the
+	 * elements that are nonzero in A are kept, so L and U have the same nonzeros as A and M*z = r is solved by substitution
+	 * in O(nonzeros). It usually needs much fewer iterations than Jacobi.
+	 * @param a - The square sparse matrix, all the diagonal elements must be stored
+	 * @return The preconditioner
+	 */
+	public static Preconditioner ilu0(SparseMatrix a){
+		if(a == null)
+			throw new LinearException("The matrix cannot be null");
+		if(a.getRows() != a.getCols())
+			throw new LinearException("The cofficient matrix must be square");
+		SparseMatrix csr = a.toCompressedRows();
+		final int n = a.getRows();
+		final int[] p = csr.getPointers() , idx = csr.getIndices();
+		final double[] v = csr.getValues();
+		final int[] diag = new int[n];
+		for(int i=0;i<n;i++){
+			diag[i] = Arrays.binarySearch(idx , p[i] , p[i+1] , i);
+			if(diag[i] < 0)
+				throw new LinearException("ILU(0) needs all the diagonal elements, the element ("+i+" , "+i+") is 0");
+		}
+
+		//Row i is eliminated by the rows k < i in ascending order, only the positions of row i are updated
+		int[] position = new int[n];
+		Arrays.fill(position , -1);
+		for(int i=0;i<n;i++){
+			for(int q=p[i];q<p[i+1];q++)
+				position[idx[q]] = q;
+			for(int q=p[i];q<diag[i];q++){
+				int k = idx[q];
+				v[q] /= v[diag[k]];
+				double l = v[q];
+				for(int t=diag[k]+1;t<p[k+1];t++){
+					int j = position[idx[t]];
+					if(j >= 0)
+						v[j] -= l*v[t];
+				}
+			}
+			if(v[diag[i]] == 0)
+				throw new LinearException("The pivot of ILU(0) at row "+i+" is 0");
+			for(int q=p[i];q<p[i+1];q++)
+				position[idx[q]] = -1;
+		}
+
+		return (r , z) -> {
+			//L*y = r, L has 1 on the diagonal
+			for(int i=0;i<n;i++){
+				double s = r[i];
+				for(int q=p[i];q<diag[i];q++)
+					s -= v[q]*z[idx[q]];
+				z[i] = s;
+			}
+			//U*z = y
+			for(int i=n-1;i>=0;i--){
+				double s = z[i];
+				for(int q=diag[i]+1;q<p[i+1];q++)
+					s -= v[q]*z[idx[q]];
+				z[i] = s / v[diag[i]];
+			}
+		};
+	}
+
+	/**
+	 * Solve A*x = b by conjugate gradient without preconditioner. See {@link #cg(LinearOperator, double[], Preconditioner, double, int)}.
+	 * @param a - The symmetric positive definite operator
+	 * @param b - The right hand side
+	 * @return The solution
+	 */
+	public static IterativeSolution cg(LinearOperator a , double[] b){
+		return cg(a , b , null , DEFAULT_TOLERANCE , DEFAULT_MAX_ITERATIONS);
+	}
+
+	/**
+	 * Solve A*x = b by the preconditioned conjugate gradient method. Every iteration minimizes the error in the A-norm over a
+	 * larger Krylov subspace, so it converges in at most n iterations in exact arithmetic, and the error is reduced by about
+	 * (sqrt(k) - 1) / (sqrt(k) + 1) per iteration, where k is the condition number.
+	 * @param a - The operator, must be symmetric positive definite
+	 * @param b - The right hand side
+	 * @param m - The preconditioner, must be symmetric positive definite, or null for none
+	 * @param tolerance - The tolerance of the relative residual
+	 * @param maxIterations - The maximum number of iterations
+	 * @return The solution
+	 * @throws LinearException If the operator is found not positive definite
+	 */
+	public static IterativeSolution cg(LinearOperator a , double[] b , Preconditioner m , double tolerance , int maxIterations){
+		int n = check(a , b , tolerance , maxIterations);
+		DoubleKernels kernels = Kernels.get();
+		double[] x = new double[n] , r = b.clone() , z = new double[n] , p = new double[n] , q = new double[n];
+		double target = tolerance * norm(b);
+		if(target == 0)
+			return new IterativeSolution(x , 0 , 0 , true);
+
+		precondition(m , r , z);
+		System.arraycopy(z , 0 , p , 0 , n);
+		double rz = kernels.dot(n , r , 0 , z , 0);
+		int iterations = 0;
+		while(iterations < maxIterations){
+			a.apply(p , q);
+			double pq = kernels.dot(n , p , 0 , q , 0);
+			if(pq <= 0)
+				throw new LinearException("The matrix is not positive definite, conjugate gradient can not be used");
+			double alpha = rz / pq;
+			for(int i=0;i<n;i++){
+				x[i] += alpha*p[i];
+				r[i] -= alpha*q[i];
+			}
+			iterations++;
+			if(norm(r) <= target && converged(a , b , x , r , target))
+				break;
+
+			precondition(m , r , z);
+			double next = kernels.dot(n , r , 0 , z , 0);
+			double beta = next / rz;
+			rz = next;
+			for(int i=0;i<n;i++)
+				p[i] = z[i] + beta*p[i];
+		}
+		return solution(a , b , x , iterations , tolerance);
+	}
+
+	/**
+	 * Solve A*x = b by BiCGSTAB without preconditioner. See {@link #bicgstab(LinearOperator, double[], Preconditioner, double, int)}.
+	 * @param a - The operator
+	 * @param b - The right hand side
+	 * @return The solution
+	 */
+	public static IterativeSolution bicgstab(LinearOperator a , double[] b){
+		return bicgstab(a , b , null , DEFAULT_TOLERANCE , DEFAULT_MAX_ITERATIONS);
+	}
+
+	/**
+	 * Solve A*x = b by the stabilized biconjugate gradient method(BiCGSTAB) with right preconditioning, for general square
+	 * matrices. Every iteration is a step of biconjugate gradient followed by a step that minimizes the residual, so the
+	 * convergence is smoother than BiCG. If it breaks down(a denominator becomes 0), it restarts from the current x once,
+	 * and stops if it breaks down again.
+	 * @param a - The operator
+	 * @param b - The right hand side
+	 * @param m - The preconditioner, or null for none
+	 * @param tolerance - The tolerance of the relative residual
+	 * @param maxIterations - The maximum number of iterations
+	 * @return The solution
+	 */
+	public static IterativeSolution bicgstab(LinearOperator a , double[] b , Preconditioner m , double tolerance , int maxIterations){
+		int n = check(a , b , tolerance , maxIterations);
+		DoubleKernels kernels = Kernels.get();
+		double[] x = new double[n] , r = b.clone() , shadow = new double[n] , p = new double[n] , v = new double[n];
+		double[] pHat = new double[n] , s = new double[n] , sHat = new double[n] , t = new double[n];
+		double target = tolerance * norm(b);
+		if(target == 0)
+			return new IterativeSolution(x , 0 , 0 , true);
+
+		double rho = 1 , alpha = 1 , omega = 1;
+		boolean restart = true , brokeDown = false;
+		int iterations = 0;
+		while(iterations < maxIterations){
+			if(restart){
+				System.arraycopy(r , 0 , shadow , 0 , n);
+				Arrays.fill(p , 0);
+				Arrays.fill(v , 0);
+				rho = alpha = omega = 1;
+				restart = false;
+			}
+			double next = kernels.dot(n , shadow , 0 , r , 0);
+			if(next == 0 || omega == 0){
+				if(brokeDown)
+					break;
+				brokeDown = restart = true;
+				continue;
+			}
+			double beta = (next / rho) * (alpha / omega);
+			rho = next;
+			for(int i=0;i<n;i++)
+				p[i] = r[i] + beta*(p[i] - omega*v[i]);
+			precondition(m , p , pHat);
+			a.apply(pHat , v);
+			double den = kernels.dot(n , shadow , 0 , v , 0);
+			if(den == 0){
+				if(brokeDown)
+					break;
+				brokeDown = restart = true;
+				continue;
+			}
+			alpha = rho / den;
+			for(int i=0;i<n;i++)
+				s[i] = r[i] - alpha*v[i];
+			iterations++;
+			if(norm(s) <= target){
+				for(int i=0;i<n;i++)
+					x[i] += alpha*pHat[i];
+				if(converged(a , b , x , r , target))
+					break;
+				restart = true;
+				continue;
+			}
+
+			precondition(m , s , sHat);
+			a.apply(sHat , t);
+			double tt = kernels.sumOfSquares(n , t , 0);
+			omega = tt == 0 ? 0 : kernels.dot(n , t , 0 , s , 0) / tt;
+			for(int i=0;i<n;i++){
+				x[i] += alpha*pHat[i] + omega*sHat[i];
+				r[i] = s[i] - omega*t[i];
+			}
+			if(norm(r) <= target){
+				if(converged(a , b , x , r , target))
+					break;
+				restart = true;
+			}
+		}
+		return solution(a , b , x , iterations , tolerance);
+	}
+
+	/**
+	 * Solve A*x = b by GMRES restarted every 30 iterations without preconditioner. See
+	 * {@link #gmres(LinearOperator, double[], Preconditioner, int, double, int)}.
+	 * @param a - The operator
+	 * @param b - The right hand side
+	 * @return The solution
+	 */
+	public static IterativeSolution gmres(LinearOperator a , double[] b){
+		return gmres(a , b , null , DEFAULT_RESTART , DEFAULT_TOLERANCE , DEFAULT_MAX_ITERATIONS);
+	}
+
+	/**
+	 * Solve A*x = b by the generalized minimal residual method(GMRES) with right preconditioning, for general square matrices.
+	 * Every iteration adds a vector to an orthonormal basis of the Krylov subspace(modified Gram-Schmidt), and x is the vector
+	 * in the subspace that minimizes the residual, found by Givens rotations. After the given number of iterations the basis is
+	 * thrown away and GMRES restarts from the current x, so the memory is (restart + 1) vectors.
+	 * @param a - The operator
+	 * @param b - The right hand side
+	 * @param m - The preconditioner, or null for none
+	 * @param restart - The number of iterations before restarting, at least 1
+	 * @param tolerance - The tolerance of the relative residual
+	 * @param maxIterations - The maximum number of iterations
+	 * @return The solution
+	 */
+	public static IterativeSolution gmres(LinearOperator a , double[] b , Preconditioner m , int restart , double tolerance , int maxIterations){
+		int n = check(a , b , tolerance , maxIterations);
+		if(restart < 1)
+			throw new LinearException("The number of iterations before restarting must be at least 1");
+		DoubleKernels kernels = Kernels.get();
+		restart = Math.min(restart , n);
+		double[] x = new double[n] , r = new double[n] , w = new double[n] , z = new double[n];
+		double[][] basis = new double[restart+1][n];
+		double[][] h = new double[restart+1][restart];
+		double[] cos = new double[restart] , sin = new double[restart] , g = new double[restart+1] , y = new double[restart];
+		double target = tolerance * norm(b);
+		if(target == 0)
+			return new IterativeSolution(x , 0 , 0 , true);
+
+		int iterations = 0;
+		while(true){
+			residual(a , b , x , r);
+			double beta = norm(r);
+			if(beta <= target || iterations >= maxIterations)
+				break;
+			for(int i=0;i<n;i++)
+				basis[0][i] = r[i] / beta;
+			Arrays.fill(g , 0);
+			g[0] = beta;
+
+			int k = 0;
+			while(k < restart && iterations < maxIterations){
+				precondition(m , basis[k] , z);
+				a.apply(z , w);
+				for(int i=0;i<=k;i++){
+					double hik = kernels.dot(n , w , 0 , basis[i] , 0);
+					h[i][k] = hik;
+					for(int j=0;j<n;j++)
+						w[j] -= hik*basis[i][j];
+				}
+				double hNext = norm(w);
+				if(hNext != 0){
+					for(int j=0;j<n;j++)
+						basis[k+1][j] = w[j] / hNext;
+				}
+				//The previous rotations on the new column, then a rotation that eliminates h[k+1][k]
+				for(int i=0;i<k;i++){
+					double temp = cos[i]*h[i][k] + sin[i]*h[i+1][k];
+					h[i+1][k] = -sin[i]*h[i][k] + cos[i]*h[i+1][k];
+					h[i][k] = temp;
+				}
+				double rho = Math.hypot(h[k][k] , hNext);
+				if(rho == 0)
+					break;
+				cos[k] = h[k][k] / rho;
+				sin[k] = hNext / rho;
+				h[k][k] = rho;
+				g[k+1] = -sin[k]*g[k];
+				g[k] = cos[k]*g[k];
+				k++;
+				iterations++;
+				//|g[k]| is the residual of the minimized x, the subspace is invariant if hNext is 0
+				if(Math.abs(g[k]) <= target || hNext == 0)
+					break;
+			}
+
+			//x += M^-1 * (V * y), where H*y = g is upper triangular
+			for(int i=k-1;i>=0;i--){
+				double sum = g[i];
+				for(int j=i+1;j<k;j++)
+					sum -= h[i][j]*y[j];
+				y[i] = sum / h[i][i];
+			}
+			Arrays.fill(w , 0);
+			for(int i=0;i<k;i++){
+				for(int j=0;j<n;j++)
+					w[j] += y[i]*basis[i][j];
+			}
+			precondition(m , w , z);
+			for(int j=0;j<n;j++)
+				x[j] += z[j];
+		}
+		return solution(a , b , x , iterations , tolerance);
+	}
+
+	//z = r / d
+	private static Preconditioner jacobi(final double[] d){
+		for(int i=0;i<d.length;i++){
+			if(d[i] == 0)
+				throw new LinearException("The Jacobi preconditioner needs all the diagonal elements, the element ("+i+" , "+i+") is 0");
+		}
+		return (r , z) -> {
+			for(int i=0;i<d.length;i++)
+				z[i] = r[i] / d[i];
+		};
+	}
+
+	//Check the arguments, return the dimension
+	private static int check(LinearOperator a , double[] b , double tolerance , int maxIterations){
+		if(a == null)
+			throw new LinearException("The operator cannot be null");
+		if(b == null || b.length != a.getDimension())
+			throw new LinearException("The length of the right hand side must be "+a.getDimension());
+		if(!(tolerance >= 0))
+			throw new LinearException("The tolerance cannot be negative");
+		if(maxIterations < 1)
+			throw new LinearException("The maximum number of iterations must be at least 1");
+		return b.length;
+	}
+
+	//z = M^-1 * r, or z = r if there is no preconditioner
+	private static void precondition(Preconditioner m , double[] r , double[] z){
+		if(m == null)
+			System.arraycopy(r , 0 , z , 0 , r.length);
+		else
+			m.apply(r , z);
+	}
+
+	//r = b - A*x
+	private static void residual(LinearOperator a , double[] b , double[] x , double[] r){
+		a.apply(x , r);
+		for(int i=0;i<b.length;i++)
+			r[i] = b[i] - r[i];
+	}
+
+	//The updated residual reached the target, check the real residual b - A*x, which replaces r
+	private static boolean converged(LinearOperator a , double[] b , double[] x , double[] r , double target){
+		residual(a , b , x , r);
+		return norm(r) <= target;
+	}
+
+	//The solution with the real relative residual
+	private static IterativeSolution solution(LinearOperator a , double[] b , double[] x , int iterations , double tolerance){
+		double[] r = new double[b.length];
+		residual(a , b , x , r);
+		double residual = norm(r) / norm(b);
+		return new IterativeSolution(x , iterations , residual , residual <= tolerance);
+	}
+
+	//The Euclidean norm
+	private static double norm(double[] v){
+		return Math.sqrt(Kernels.get().sumOfSquares(v.length , v , 0));
+	}
+}
@@ -0,0 +1,74 @@
+package com.mathutil.linearalgebra;
+
+import com.mathutil.linearalgebra.matrix.Matrix;
+
+/**
+ * The least squares solution of A*X = B found by {@link Linear#leastSquares(Matrix, Matrix)}, contains X, the norms of the residuals
+ * ||A*x - b|| of every column and the rank of A. If A is rank deficient, X is the basic solution whose free variables are 0.
+ *
+ * @author danielxu
+ * @see Linear#leastSquares(Matrix, Matrix)
+ */
+public class LeastSquaresSolution {
+
+	/**The solution, one column for every right hand side**/
+	private final Matrix x;
+
+	/**The norm of the residual of every column**/
+	private final double[] residuals;
+
+	/**The rank of the cofficient matrix**/
+	private final int rank;
+
+	/**
+	 * Only visible for package.
+	 * @param x - The solution
+	 * @param residuals - The norms of the residuals
+	 * @param rank - The rank of the cofficient matrix
+	 */
+	LeastSquaresSolution(Matrix x , double[] residuals , int rank){
+		this.x = x;
+		this.residuals = residuals;
+		this.rank = rank;
+	}
+
+	/**
+	 * Get the solution X, column j is the solution of column j of the result matrix
+	 * @return X
+	 */
+	public Matrix getSolution(){
+		return x;
+	}
+
+	/**
+	 * Get the norm of the residual ||A*x - b|| of the first column, which is the only column of a regression
+	 * @return The norm of the residual
+	 */
+	public double getResidual(){
+		return residuals[0];
+	}
+
+	/**
+	 * Get the norms of the residuals of all the columns
+	 * @return A copy of the norms, the j-th is the norm of the residual of column j
+	 */
+	public double[] getResiduals(){
+		return residuals.clone();
+	}
+
+	/**
+	 * Get the rank of the cofficient matrix, if it is less than the number of variables the solution is not unique
+	 * @return The rank
+	 */
+	public int getRank(){
+		return rank;
+	}
+
+	/**
+	 * Represent the solution in form of: <center>rank r, residual ...</center>
+	 */
+	@Override
+	public String toString(){
+		return "rank "+rank+", residual "+residuals[0];
+	}
+}
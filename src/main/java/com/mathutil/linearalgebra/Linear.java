@@ -3,11 +3,14 @@ package com.mathutil.linearalgebra;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
+import com.mathutil.BigRational;
 import com.mathutil.exceptions.LinearException;
 import com.mathutil.exceptions.MatrixCalculationException;
 import com.mathutil.exceptions.SuperVectorException;
 import com.mathutil.linearalgebra.matrix.ExactMatrix;
+import com.mathutil.linearalgebra.matrix.Kernels;
 import com.mathutil.linearalgebra.matrix.Matrix;
+import com.mathutil.linearalgebra.matrix.QRDecomposition;
 
 /**
  * Linear class contains few functions that can help to solve the linear equations, it uses Matrix or ExactMatrix to solve the equations. 
@@ -39,11 +42,7 @@ public class Linear {
 			return 0;
 		}
 		
-		double magn = 0;
-		for(int i=0;i<v.getDimension();i++){
-			magn += Math.pow(v.getComponents()[i], 2);
-		}
-		return Math.sqrt(magn);
+		return Math.sqrt(Kernels.get().sumOfSquares(v.getDimension() , v.array() , 0));
 	}
 	
 	/**
@@ -143,12 +142,7 @@ public class Linear {
 	public static double dot(SuperVector v1 , SuperVector v2){
 		dimensionCheck(v1 , v2);
 		
-		double sum = 0;
-		for(int i=0;i<v1.getDimension();i++){
-			sum += v1.get(i)*v2.get(i);
-		}
-		
-		return sum;
+		return Kernels.get().dot(v1.getDimension() , v1.array() , 0 , v2.array() , 0);
 	}
 	
 	/**
@@ -226,6 +220,8 @@ public class Linear {
 	/**
 	 * Solve the linear equations. The cofficient matrix must be a square matrix, and the result matrix must have the same number of columns 
 	 * with the cofficient matrix. And the variables must have the same length with the cofficient matrix's as well.
+	 * A symmetric positive definite cofficient matrix is solved by the Cholesky decomposition, which is twice as fast as 
+	 * the LU decomposition used for the others.
 	 * 
 	 * @param coff - The cofficient matrix
 	 * @param res - The result matrix
@@ -244,85 +240,57 @@ public class Linear {
 		if(res.getRows() != coff.getRows())
 			throw new MatrixCalculationException("The number of rows of the cofficient matrix should be the same with the result matrix's");
 		
-		if(isHomo(res)){
-			return homo(coff , res , vars);
-		}
-		else{
-			return nonHomo(coff , res , vars);
-		}
+		//The cofficient matrix is factored once, the cases are found from its pivots
+		LinearSystem system = new LinearSystem(coff);
+		SolutionCase cas = system.getSolutionCase(res);
+		if(cas == SolutionCase.ONLY || cas == SolutionCase.ZEROS)
+			return new Solution(cas , Matrix.wrap(system.solve(res) , coff.getRows() , 1) , vars);
+		return new Solution(cas);
 	}
 	
-	//Check if the system is homogeneous linear equations(the results are all 0) or nonhomogeneous linear equations(are not all 0)
-	private static boolean isHomo(Matrix res){
-		for(int i=0;i<res.getCols();i++){
-			if(res.getMatrix()[0][i].doubleValue() != 0)
-				return false;
-		}
-		return true;
-	}
-	
-	//Create a augmented matrix, add result matrix on the right side of the cofficient matrix
-	private static Matrix augmented(Matrix coff , Matrix res){
-		Number[][] extend = new Number[coff.getRows()][coff.getCols()+1]; //Extend the matrix, add result column to the right side
+	/**
+	 * Factor the cofficient matrix once for solving it with many result matrices. {@link #solve(Matrix, Matrix, String...)} 
+	 * analyses the cofficient matrix in every call, while the returned system solves every result matrix in O(n^2), 
+	 * and returns the values of the variables in primitive arrays. It can also solve many result matrices at once, or in 
+	 * parallel. See {@link LinearSystem}.
+	 * 
+	 * @param coff - The cofficient matrix, must be a square matrix
+	 * @return The system that can be solved for any result matrix
+	 */
+	public static LinearSystem prepare(Matrix coff){
+		if(coff == null)
+			throw new LinearException("The matrices cannot be null");
+		if(coff.isEmpty())
+			throw new LinearException("The matrices cannot be empty");
+		if(coff.getRows() != coff.getCols())
+			throw new MatrixCalculationException("The cofficient matrix must be a square matrix");
 		
-		Number[][] m1 = coff.getMatrix();
-		for(int i=0;i<m1.length;i++){
-			for(int j=0;j<m1[0].length;j++){
-				extend[i][j] = m1[i][j];
-			}
-		}
-		for(int i=0;i<extend.length;i++){
-			extend[i][extend[0].length-1] = res.getMatrix()[i][0];
-		}
-		return new Matrix(extend);
+		return new LinearSystem(coff);
 	}
 	
-	//Solve homogeneous linear equations(the results are all 0)
-	private static Solution homo(Matrix coff , Matrix res , String...vars){
-		Solution sol;
-		if(coff.fullRank()){
-			Number[][] result = new Number[coff.getRows()][1];
-			for(int i=0;i<result.length;i++){
-				result[i][0] = 0.0;
-			}
-			sol = new Solution(SolutionCase.ZEROS , new Matrix(result) , vars);
-		}
-		else{
-			sol = new Solution(SolutionCase.INFINITE);
-		}
-		return sol;
-	}
-	
-	//Solve nonhomogeneous linear equations(the results are not all 0)
-	private static Solution nonHomo(Matrix coff , Matrix res , String...vars){
-		Solution sol;
-		Matrix extendMatrix = augmented(coff , res);
-		
-		int extendRank = extendMatrix.rank();
-		int coffRank = coff.rank();
+	/**
+	 * Solve the overdetermined linear equations in the least squares sense, for example the fits of regressions. The cofficient 
+	 * matrix can have any size, the solution x of every column b of the result matrix minimizes ||coff*x - b||, and if there 
+	 * are more equations than variables the equations usually can not all be satisfied, the norms of the residuals tell how 
+	 * close the solution is. The cofficient matrix is decomposed by {@link QRDecomposition} without pivoting, if its columns turn 
+	 * out to be dependent it is decomposed again with column pivoting, and the basic solution is returned.
+	 * 
+	 * @param coff - The cofficient matrix, m*n
+	 * @param res - The result matrix, m*k, every column is a right hand side
+	 * @return The solution, contains the n*k solutions, the norms of the residuals and the rank. See {@link LeastSquaresSolution}.
+	 */
+	public static LeastSquaresSolution leastSquares(Matrix coff , Matrix res){
+		if(coff == null || res == null)
+			throw new LinearException("The matrices cannot be null");
+		if(coff.isEmpty() || res.isEmpty())
+			throw new LinearException("The matrices cannot be empty");
+		if(res.getRows() != coff.getRows())
+			throw new MatrixCalculationException("The number of rows of the cofficient matrix should be the same with the result matrix's");
 		
-		//Check their rank
-		if(extendRank != coffRank)//rank != extendRank, it is unsolvable
-			sol = new Solution(SolutionCase.UNSOLVABLE);
-		else{
-			//is full rank, there's only one solution
-			if(coff.fullRank()){
-				//If the determinant is not 0, use matrix multiplication to solve
-				if(coff.det() != 0){
-					Matrix m = coff.invert().multiply(res);
-					sol = new Solution(SolutionCase.ONLY , m, vars);
-				}
-				//If the determinant is 0
-				else{
-					sol = new Solution(SolutionCase.UNSOLVABLE);
-				}
-			}
-			//not full rank, infinite solutions
-			else{
-				sol = new Solution(SolutionCase.INFINITE);
-			}
-		}
-		return sol;
+		QRDecomposition qr = coff.qr();
+		if(!qr.isFullRank())
+			qr = coff.qr(true);
+		return new LeastSquaresSolution(qr.solve(res) , qr.residualNorms(res) , qr.rank());
 	}
 	
 	// ===================================================================
@@ -372,7 +340,10 @@ public class Linear {
 	
 	/**
 	 * Solve the linear equations. The cofficient matrix must be a square matrix, and the result matrix must have the same number of columns 
-	 * with the cofficient matrix. And the variables must have the same length with the cofficient matrix's as well.
+	 * with the cofficient matrix. And the variables must have the same length with the cofficient matrix's as well.<br>
+	 * The elements are regarded as fractions, a system that has only one solution is solved exactly by {@link ExactMatrix#solve(ExactMatrix)}, 
+	 * modulo many primes if it is large, {@link Solution#getRationalSolution(String)} gets the results as fractions and 
+	 * {@link Solution#getExactSolution(String)} rounded in the precision of the cofficient matrix.
 	 * 
 	 * @param coff - The cofficient matrix
 	 * @param res - The result matrix
@@ -401,8 +372,9 @@ public class Linear {
 	
 	//Check if the system is homogeneous linear equations(the results are all 0) or nonhomogeneous linear equations(are not all 0)
 	private static boolean isHomo(ExactMatrix res){
-		for(int i=0;i<res.getCols();i++){
-			if(res.getMatrix()[0][i].compareTo(BigDecimal.ZERO) != 0)
+		BigDecimal[][] b = res.getMatrix();
+		for(int i=0;i<b.length;i++){
+			if(b[i][0].compareTo(BigDecimal.ZERO) != 0)
 				return false;
 		}
 		return true;
@@ -421,6 +393,16 @@ public class Linear {
 		for(int i=0;i<extend.length;i++){
 			extend[i][extend[0].length-1] = res.getMatrix()[i][0];
 		}
+		//Keep the exact elements, the rank of the rounded ones can be different
+		if(coff.isRational() || res.isRational()){
+			BigRational[][] r = new BigRational[extend.length][extend[0].length];
+			BigRational[][] r1 = coff.getRationalMatrix() , r2 = res.getRationalMatrix();
+			for(int i=0;i<r.length;i++){
+				System.arraycopy(r1[i] , 0 , r[i] , 0 , r1[i].length);
+				r[i][r[0].length-1] = r2[i][0];
+			}
+			return new ExactMatrix(r , coff.getPrecision());
+		}
 		return new ExactMatrix(extend);
 	}
 	
@@ -442,34 +424,15 @@ public class Linear {
 	
 	//Solve nonhomogeneous linear equations(the results are not all 0)
 	private static Solution nonHomo(ExactMatrix coff , ExactMatrix res , String...vars){
-		Solution sol;
-		ExactMatrix extendMatrix = augmented(coff , res);
-		
-		int extendRank = extendMatrix.rank();
-		int coffRank = coff.rank();
+		//The determinant is not zero, there's only one solution, it is solved exactly
+		if(coff.rationalDet().signum() != 0)
+			return new Solution(SolutionCase.ONLY , coff.solve(res) , vars);
 		
 		//Check their rank
-		if(extendRank != coffRank)//rank != extendRank, it is unsolvable
-			sol = new Solution(SolutionCase.UNSOLVABLE);
-		else{
-			//is full rank, there's only one solution
-			if(coff.fullRank()){
-				//If the determinant is not zero
-				if(coff.det().compareTo(BigDecimal.ZERO) != 0){
-					ExactMatrix m = coff.invert().multiply(res);
-					sol = new Solution(SolutionCase.ONLY , m, vars);
-				}
-				//If the determinant is zero
-				else{
-					sol = new Solution(SolutionCase.INFINITE);
-				}
-			}
-			//not full rank, infinite solutions
-			else{
-				sol = new Solution(SolutionCase.INFINITE);
-			}
-		}
-		return sol;
+		ExactMatrix extendMatrix = augmented(coff , res);
+		if(extendMatrix.rank() != coff.rank())//rank != extendRank, it is unsolvable
+			return new Solution(SolutionCase.UNSOLVABLE);
+		return new Solution(SolutionCase.INFINITE);
 	}
 	
 }
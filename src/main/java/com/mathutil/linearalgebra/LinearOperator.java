@@ -0,0 +1,28 @@
+package com.mathutil.linearalgebra;
+
+/**
+ * A square linear operator y = A*x, the only thing the iterative solvers of {@link IterativeSolver} need from the cofficient
+ * matrix. It can be a dense {@link com.mathutil.linearalgebra.matrix.Matrix}, a {@link com.mathutil.linearalgebra.matrix.SparseMatrix}
+ * (see {@link IterativeSolver#operator(com.mathutil.linearalgebra.matrix.SparseMatrix)}), or an operator that calculates A*x
+ * without storing A at all. The result is written into an array given by the solver, so no array has to be created in every
+ * iteration.
+ *
+ * @author danielxu
+ * @see IterativeSolver
+ */
+public interface LinearOperator {
+
+	/**
+	 * Get the dimension n, A is n*n
+	 * @return n
+	 */
+	public int getDimension();
+
+	/**
+	 * Calculate y = A*x.
+	 * @param x - The vector, should not be modified
+	 * @param y - The array that the result will be written into, it has the same length as x
+	 */
+	public void apply(double[] x , double[] y);
+
+}
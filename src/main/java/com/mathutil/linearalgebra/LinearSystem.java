@@ -0,0 +1,245 @@
+package com.mathutil.linearalgebra;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import com.mathutil.exceptions.LinearException;
+import com.mathutil.linearalgebra.matrix.CholeskyDecomposition;
+import com.mathutil.linearalgebra.matrix.LUDecomposition;
+import com.mathutil.linearalgebra.matrix.Matrix;
+
+/**
+ * A system of linear equations A*x = b whose cofficient matrix A is factored once, created by {@link Linear#prepare(Matrix)}.
+ * Every right hand side b is then solved in O(n^2) by the LU decomposition, without analysing the cofficient matrix again.
+ * If the cofficient matrix is symmetric and positive definite, like the covariance matrices and the normal equations, it is
+ * factored by the Cholesky decomposition instead, which takes half the time of the LU decomposition and needs no pivoting.
+ * The solutions are primitive arrays instead of {@link Solution}, and the cases are represented by the same values as
+ * {@link Solution#getSolution(String)}:
+ * <ul>
+ * <li>One solution(or all zeros), the solution</li>
+ * <li>Infinite solutions, all the elements are {@link Double#POSITIVE_INFINITY}</li>
+ * <li>Unsolvable, all the elements are {@link Double#NaN}</li>
+ * </ul>
+ * The system does not change after it is created, so one system can be used by many threads at the same time.
+ *
+ * @author danielxu
+ * @see Linear#prepare(Matrix)
+ */
+public class LinearSystem {
+
+	/**The number of right hand sides solved together, 64 columns of the solutions stay in the cache during the substitutions**/
+	private static final int CHUNK = 64;
+
+	/**The LU decomposition of the cofficient matrix, created by the first call of getDecomposition() if Cholesky is used**/
+	private LUDecomposition lu;
+
+	/**The Cholesky decomposition, null if the cofficient matrix is not symmetric positive definite**/
+	private final CholeskyDecomposition cholesky;
+
+	/**The cofficient matrix for the LU decomposition later, null if it is already decomposed**/
+	private Matrix coff;
+
+	/**The number of equations and variables**/
+	private final int n;
+
+	/**
+	 * Only visible for package.
+	 * @param coff - The cofficient matrix, must be square
+	 */
+	LinearSystem(Matrix coff){
+		n = coff.getRows();
+		cholesky = choleskyOf(coff);
+		if(cholesky == null)
+			lu = coff.lu();
+		else
+			//A view is copied on write, so it keeps the elements even if the cofficient matrix is changed later
+			this.coff = coff.subMatrix(0 , n-1 , 0 , n-1);
+	}
+
+	//The Cholesky decomposition if the matrix is symmetric and its diagonal is positive(which every positive definite matrix has) and it succeeds
+	private static CholeskyDecomposition choleskyOf(Matrix coff){
+		if(!coff.isSymmetric())
+			return null;
+		for(int i=0;i<coff.getRows();i++){
+			if(!(coff.getDouble(i , i) > 0))
+				return null;
+		}
+		CholeskyDecomposition c = coff.cholesky();
+		return c.isPositiveDefinite() ? c : null;
+	}
+
+	/**
+	 * Get the number of equations, which is also the number of variables
+	 * @return n
+	 */
+	public int getDimension(){
+		return n;
+	}
+
+	/**
+	 * Get the LU decomposition of the cofficient matrix. If the system is solved by the Cholesky decomposition, the LU
+	 * decomposition is calculated by the first call.
+	 * @return The LU decomposition
+	 */
+	public synchronized LUDecomposition getDecomposition(){
+		if(lu == null){
+			lu = coff.lu();
+			coff = null;
+		}
+		return lu;
+	}
+
+	/**
+	 * Get the Cholesky decomposition that solves the system, if the cofficient matrix is symmetric positive definite.
+	 * @return The Cholesky decomposition, or null if the system is solved by the LU decomposition
+	 */
+	public CholeskyDecomposition getCholesky(){
+		return cholesky;
+	}
+
+	/**
+	 * Check if every right hand side has only one solution, which means the cofficient matrix is nonsingular. If it is false,
+	 * every right hand side has either infinite solutions or no solutions.
+	 * @return True if the cofficient matrix is nonsingular, false otherwise
+	 */
+	public boolean isNonsingular(){
+		return cholesky != null || lu.isNonsingular();
+	}
+
+	/**
+	 * Find the solution case of a right hand side, O(1) if the cofficient matrix is nonsingular, O(n^2) otherwise.
+	 * @param res - The result matrix, must have n rows and one column
+	 * @return The solution case
+	 */
+	public SolutionCase getSolutionCase(Matrix res){
+		checkRes(res);
+		boolean zeros = true;
+		for(int i=0;i<n && zeros;i++)
+			zeros = res.getDouble(i , 0) == 0;
+		if(isNonsingular())
+			return zeros ? SolutionCase.ZEROS : SolutionCase.ONLY;
+		return zeros || lu.hasSolution(res) ? SolutionCase.INFINITE : SolutionCase.UNSOLVABLE;
+	}
+
+	/**
+	 * Solve the system for one right hand side.
+	 * @param res - The result matrix, must have n rows and one column
+	 * @return The values of the variables, or all infinity/NaN if there are infinite solutions/no solutions
+	 */
+	public double[] solve(Matrix res){
+		checkRes(res);
+		return solve(res.toDoubleArray());
+	}
+
+	/**
+	 * Solve the system for one right hand side.
+	 * @param res - The results of the equations, the length must be n
+	 * @return The values of the variables, or all infinity/NaN if there are infinite solutions/no solutions
+	 */
+	public double[] solve(double[] res){
+		if(res == null || res.length != n)
+			throw new LinearException("The number of results must be "+n);
+		if(cholesky != null)
+			return cholesky.solve(res);
+		if(lu.isNonsingular())
+			return lu.solve(res);
+
+		double[] x = new double[n];
+		Arrays.fill(x , lu.hasSolution(Matrix.wrap(res , n , 1)) ? Double.POSITIVE_INFINITY : Double.NaN);
+		return x;
+	}
+
+	/**
+	 * Solve the system for many right hand sides at once, every column of the matrix is a right hand side. The substitutions
+	 * go through the columns together, which is faster than solving them one by one.
+	 * @param res - The result matrix, must have n rows
+	 * @return The solutions, column j is the solution of column j of res, or infinity/NaN if it has infinite solutions/no solutions
+	 */
+	public Matrix solveAll(Matrix res){
+		if(res == null || res.isEmpty())
+			throw new LinearException("The matrices cannot be null");
+		if(res.getRows() != n)
+			throw new LinearException("The number of rows of the result matrix must be "+n);
+		if(cholesky != null)
+			return cholesky.solve(res);
+		if(lu.isNonsingular())
+			return lu.solve(res);
+
+		Matrix x = new Matrix(n , res.getCols());
+		for(int j=0;j<res.getCols();j++){
+			double value = lu.hasSolution(res.subMatrix(0 , n-1 , j , j)) ? Double.POSITIVE_INFINITY : Double.NaN;
+			for(int i=0;i<n;i++)
+				x.set(i , j , value);
+		}
+		return x;
+	}
+
+	/**
+	 * Solve the system for many right hand sides, every array is a right hand side. They are solved in groups of 64, 
+	 * every group is substituted together as the columns of a matrix.
+	 * @param res - The right hand sides, the length of every array must be n
+	 * @return The solutions, the i-th array is the solution of the i-th right hand side
+	 */
+	public double[][] solveAll(double[][] res){
+		if(res == null)
+			throw new LinearException("The results cannot be null");
+		double[][] x = new double[res.length][];
+		for(int from=0;from<res.length;from+=CHUNK)
+			solveRange(res , x , from , Math.min(res.length , from + CHUNK));
+		return x;
+	}
+
+	/**
+	 * The same as {@link #solveAll(double[][])}, but the right hand sides are split into groups of 64 and the groups are
+	 * solved by the threads of the common ForkJoinPool.
+	 * @param res - The right hand sides, the length of every array must be n
+	 * @return The solutions, the i-th array is the solution of the i-th right hand side
+	 */
+	public double[][] solveParallel(double[][] res){
+		if(res == null)
+			throw new LinearException("The results cannot be null");
+		double[][] x = new double[res.length][];
+		int chunks = (res.length + CHUNK - 1) / CHUNK;
+		IntStream.range(0 , chunks).parallel().forEach(c -> solveRange(res , x , c*CHUNK , Math.min(res.length , (c+1)*CHUNK)));
+		return x;
+	}
+
+	//Solve the right hand sides [from , to) together, as the columns of one matrix
+	private void solveRange(double[][] res , double[][] x , int from , int to){
+		int k = to - from;
+		if(k == 0)
+			return;
+		if(!isNonsingular()){
+			for(int i=from;i<to;i++)
+				x[i] = solve(res[i]);
+			return;
+		}
+
+		double[] b = new double[n*k];
+		for(int j=0;j<k;j++){
+			double[] r = res[from+j];
+			if(r == null || r.length != n)
+				throw new LinearException("The number of results must be "+n);
+			for(int i=0;i<n;i++)
+				b[i*k + j] = r[i];
+		}
+		Matrix bm = Matrix.wrap(b , n , k);
+		double[] s = (cholesky != null ? cholesky.solve(bm) : lu.solve(bm)).toDoubleArray();
+		for(int j=0;j<k;j++){
+			double[] xj = new double[n];
+			for(int i=0;i<n;i++)
+				xj[i] = s[i*k + j];
+			x[from+j] = xj;
+		}
+	}
+
+	//The result matrix must be a column of n rows
+	private void checkRes(Matrix res){
+		if(res == null || res.isEmpty())
+			throw new LinearException("The matrices cannot be null");
+		if(res.getCols() > 1)
+			throw new LinearException("The result matrix can only contains one column");
+		if(res.getRows() != n)
+			throw new LinearException("The number of rows of the result matrix must be "+n);
+	}
+}
@@ -0,0 +1,20 @@
+package com.mathutil.linearalgebra;
+
+/**
+ * A preconditioner M of the iterative solvers, an approximation of the cofficient matrix A such that M*z = r is cheap to solve.
+ * The better M approximates A, the fewer iterations are needed. Use {@link IterativeSolver#jacobi(com.mathutil.linearalgebra.matrix.SparseMatrix)}
+ * or {@link IterativeSolver#ilu0(com.mathutil.linearalgebra.matrix.SparseMatrix)} to create one.
+ *
+ * @author danielxu
+ * @see IterativeSolver
+ */
+public interface Preconditioner {
+
+	/**
+	 * Solve M*z = r.
+	 * @param r - The residual, should not be modified
+	 * @param z - The array that the result will be written into, it has the same length as r
+	 */
+	public void apply(double[] r , double[] z);
+
+}
@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.mathutil.BigRational;
 import com.mathutil.linearalgebra.matrix.ExactMatrix;
 import com.mathutil.linearalgebra.matrix.Matrix;
 
@@ -25,6 +26,9 @@ public class Solution {
 	/**The ExactMatrix that stores the results and variables**/
 	private Map<String , BigDecimal> exactMap;
 	
+	/**The exact results of the ExactMatrix as fractions**/
+	private Map<String , BigRational> rationalMap;
+	
 	/**The variables**/
 	private String[] vars;
 	
@@ -76,6 +80,7 @@ public class Solution {
     	//Put the results into a map
     	for(int i=0;i<vars.length;i++){
     		exactMap.put(vars[i], m.getMatrix()[i][0]);
+    		rationalMap.put(vars[i], m.getRational(i, 0));
     	}
 	}
     
@@ -91,7 +96,7 @@ public class Solution {
     	init();
     	//Put the result into a map
     	for(int i=0;i<vars.length;i++){
-    		matrixMap.put(vars[i], m.getMatrix()[i][0]);
+    		matrixMap.put(vars[i], m.getDouble(i , 0));
     	}
     }
     
@@ -99,6 +104,7 @@ public class Solution {
 	private void init(){
 		if(exactMatrix){
 			exactMap = new HashMap<String , BigDecimal>();
+			rationalMap = new HashMap<String , BigRational>();
 		}
 		else{
 			matrixMap = new HashMap<String , Number>();
@@ -156,6 +162,20 @@ public class Solution {
 		return exactMap.get(var);
 	}
 	
+	/**
+	 * Get the exact result as a fraction with the correponding varibable name. This method is for <strong>ExactMatrix</strong>, 
+	 * if the cofficient matrix is in the rational mode({@link ExactMatrix#toRational()}), the result is exact, otherwise it is 
+	 * the same as {@link #getExactSolution(String)}.
+	 * @param var - The varibale name
+	 * @return The result, null if the system is unsolvable or has infinite solutions
+	 */
+	public BigRational getRationalSolution(String var){
+		if(cas == SolutionCase.INFINITE || cas == SolutionCase.UNSOLVABLE || rationalMap == null)
+			return null;
+		
+		return rationalMap.get(var);
+	}
+	
 	/**
 	 * Represent the solutions in form of: <center>x = ...</center> <center>y = ...</center>
 	 * @return
@@ -1,7 +1,6 @@
 package com.mathutil.linearalgebra;
 
 import java.math.BigDecimal;
-import java.util.Arrays;
 
 import com.mathutil.exceptions.SuperVectorException;
 import com.mathutil.linearalgebra.matrix.ExactMatrix;
@@ -17,7 +16,7 @@ import com.mathutil.linearalgebra.matrix.Matrix;
 public class SuperVector implements MatrixVector{
 	
 	/**The array that stores the components**/
-	private Double[] compo;
+	private double[] compo;
 	
 	/**Dimension, the number of components**/
 	private int dimension;
@@ -40,7 +39,7 @@ public class SuperVector implements MatrixVector{
 			throw new SuperVectorException("Only matrices that have one row can be converted to SuperVector");
 		
 		BigDecimal[][] b = m.getMatrix();
-		compo = new Double[m.getCols()];
+		compo = new double[m.getCols()];
 		
 		for(int i=0;i<m.getCols();i++){
 			compo[i] = b[0][i].doubleValue();
@@ -58,11 +57,10 @@ public class SuperVector implements MatrixVector{
 		if(m.getRows() > 1)
 			throw new SuperVectorException("Only matrices that have one row can be converted to SuperVector");
 		
-		Number[][] n = m.getMatrix();
-		compo = new Double[m.getCols()];
+		compo = new double[m.getCols()];
 		
-		for(int i=0;i<n[0].length;i++){
-			compo[i] = n[0][i].doubleValue();
+		for(int i=0;i<compo.length;i++){
+			compo[i] = m.getDouble(0 , i);
 		}
 		dimension = compo.length;
 	}
@@ -75,9 +73,7 @@ public class SuperVector implements MatrixVector{
 		if(compo == null)
 			throw new SuperVectorException("The components of the SuperVector cannot be null");
 		
-		this.compo = new Double[compo.length];
-		for(int i=0;i<compo.length;i++)
-			this.compo[i] = compo[i];
+		this.compo = compo.clone();
 		
 		dimension = compo.length;
 	}
@@ -90,6 +86,8 @@ public class SuperVector implements MatrixVector{
 	 */
 	public Double setComponent(int index, Double val) {
 		indexCheck(index);
+		if(val == null)
+			throw new SuperVectorException("The component cannot be null");
 		double old = compo[index];
 		compo[index] = val;
 		return old;
@@ -102,7 +100,25 @@ public class SuperVector implements MatrixVector{
 	 * @return All the components of the vector
 	 */
 	public Double[] getComponents() {
-		return compo == null ? null : Arrays.copyOf(compo, compo.length);
+		if(compo == null)
+			return null;
+		Double[] copy = new Double[compo.length];
+		for(int i=0;i<compo.length;i++)
+			copy[i] = compo[i];
+		return copy;
+	}
+	
+	/**
+	 * Get all the components of the vector as primitive doubles. The array is a copy, modifying it will not affect the vector.
+	 * @return All the components of the vector, an empty array if the vector has no components
+	 */
+	public double[] toDoubleArray(){
+		return compo == null ? new double[0] : compo.clone();
+	}
+	
+	//The array that stores the components without copying, only for the calculations in the package
+	double[] array(){
+		return compo == null ? new double[0] : compo;
 	}
 	
 	public Double get(int index) {
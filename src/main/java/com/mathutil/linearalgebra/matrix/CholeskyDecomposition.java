@@ -0,0 +1,254 @@
+package com.mathutil.linearalgebra.matrix;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.mathutil.exceptions.MatrixCalculationException;
+
+/**
+ * The Cholesky decomposition of a symmetric positive definite matrix: <center>A = L*L^T</center>
+ * where L is a lower triangular matrix whose diagonal elements are positive. It needs half the operations of
+ * {@link LUDecomposition}(n^3/3 instead of 2n^3/3) and no pivoting, since the diagonal of a positive definite matrix is
+ * always large enough, so it is the decomposition for the covariance matrices and the normal equations A^T*A.<br>
+ * Only the lower triangle(including the diagonal) of the matrix is read, the upper triangle is assumed to be its transpose.
+ * The columns are factored in blocks of 64, and the lower triangle of the remaining matrix is updated by the blocked
+ * multiplication of {@link Matrix#multiply(Matrix)}, so large matrices use the cache and the threads of the common ForkJoinPool.<br>
+ * The decomposition stops at the first pivot that is not positive, {@link #isPositiveDefinite()} tells if it succeeded, which is
+ * also the cheapest way to check if a symmetric matrix is positive definite. The determinant of a large matrix easily overflows,
+ * {@link #logDet()} is the logarithm of the determinant calculated from the diagonal of L, for the likelihood of the normal
+ * distributions.
+ *
+ * @author danielxu
+ * @see Matrix#cholesky()
+ */
+public class CholeskyDecomposition {
+
+	/**The number of columns factored together before the rest of the matrix is updated**/
+	private static final int BLOCK_SIZE = MatrixKernels.DEFAULT_BLOCK_SIZE;
+
+	/**L on and below the diagonal, row major, n*n, the upper triangle is only used for the copies of L^T during the factorization**/
+	private final double[] l;
+
+	/**The dimension**/
+	private final int n;
+
+	/**The pivots not greater than this(10*n*eps*max(A[i][i])) are regarded as not positive**/
+	private final double tolerance;
+
+	/**True if all the pivots are positive**/
+	private boolean positiveDefinite;
+
+	/**
+	 * Decompose a symmetric positive definite matrix, the matrix is copied and will not be modified. Only the lower triangle
+	 * is read.
+	 * @param m - The square matrix
+	 */
+	public CholeskyDecomposition(Matrix m){
+		if(m == null || m.isEmpty())
+			throw new MatrixCalculationException("The matrix can not be null");
+		if(m.getRows() != m.getCols())
+			throw new MatrixCalculationException("Only square matrix has Cholesky decomposition");
+
+		n = m.getRows();
+		l = m.toDoubleArray();
+		double max = 0;
+		for(int i=0;i<n;i++)
+			max = Math.max(max , l[i*n + i]);
+		tolerance = 10*n*Math.ulp(1.0)*max;
+		positiveDefinite = factor();
+	}
+
+	//The blocked factorization, false if a pivot is not positive
+	private boolean factor(){
+		for(int j0=0;j0<n;j0+=BLOCK_SIZE){
+			int j1 = Math.min(j0 + BLOCK_SIZE , n);
+			if(!factorPanel(j0 , j1))
+				return false;
+			if(j1 == n)
+				break;
+			//L21^T is copied to the upper triangle, so the update reads both factors by rows
+			for(int i=j1;i<n;i++){
+				for(int k=j0;k<j1;k++)
+					l[k*n + i] = l[i*n + k];
+			}
+			//A22 = A22 - L21*L21^T, only the blocks on and below the diagonal
+			for(int i0=j1;i0<n;i0+=BLOCK_SIZE){
+				int i1 = Math.min(i0 + BLOCK_SIZE , n);
+				MatrixKernels.gemm(i1 - i0 , i1 - j1 , j1 - j0 , -1 , l , i0*n + j0 , n , l , j0*n + j1 , n ,
+						1 , l , i0*n + j1 , n , BLOCK_SIZE , ForkJoinPool.commonPool());
+			}
+		}
+		return true;
+	}
+
+	//Factor the columns [j0 , j1) of the rows below j0, the columns before j0 are already subtracted
+	private boolean factorPanel(int j0 , int j1){
+		for(int k=j0;k<j1;k++){
+			int rk = k*n;
+			double d = l[rk+k];
+			for(int p=j0;p<k;p++)
+				d -= l[rk+p]*l[rk+p];
+			if(!(d > tolerance))
+				return false;
+			d = Math.sqrt(d);
+			l[rk+k] = d;
+			for(int i=k+1;i<n;i++){
+				int ri = i*n;
+				double sum = l[ri+k];
+				for(int p=j0;p<k;p++)
+					sum -= l[ri+p]*l[rk+p];
+				l[ri+k] = sum / d;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get the dimension of the decomposed matrix
+	 * @return n, the matrix is n*n
+	 */
+	public int getDimension(){
+		return n;
+	}
+
+	/**
+	 * Check if the matrix is positive definite, which means all the pivots are positive. If the matrix is symmetric it is
+	 * positive definite exactly when the decomposition succeeds, the pivots not greater than 10*n*eps*max(A[i][i]) are regarded
+	 * as 0, so a matrix that is only semidefinite is not positive definite.
+	 * @return True if the decomposition succeeded, false otherwise
+	 */
+	public boolean isPositiveDefinite(){
+		return positiveDefinite;
+	}
+
+	/**
+	 * Get the lower triangular factor L
+	 * @return L
+	 * @throws MatrixCalculationException If the matrix is not positive definite
+	 */
+	public Matrix getL(){
+		check();
+		Matrix m = new Matrix(n , n);
+		for(int i=0;i<n;i++){
+			for(int j=0;j<=i;j++)
+				m.set(i , j , l[i*n + j]);
+		}
+		return m;
+	}
+
+	/**
+	 * Get the determinant of the matrix, the square of the product of the diagonal elements of L.
+	 * @return The determinant
+	 * @throws MatrixCalculationException If the matrix is not positive definite
+	 */
+	public double det(){
+		check();
+		double det = 1;
+		for(int i=0;i<n;i++)
+			det *= l[i*n + i];
+		return det*det;
+	}
+
+	/**
+	 * Get the natural logarithm of the determinant: <center>log(det(A)) = 2 * (log(L[0][0]) + log(L[1][1]) + ... + log(L[n-1][n-1]))</center>
+	 * It does not overflow or underflow like {@link #det()}, the determinant of a 1000*1000 covariance matrix is usually
+	 * out of the range of double while its logarithm is not.
+	 * @return The logarithm of the determinant
+	 * @throws MatrixCalculationException If the matrix is not positive definite
+	 */
+	public double logDet(){
+		check();
+		double sum = 0;
+		for(int i=0;i<n;i++)
+			sum += Math.log(l[i*n + i]);
+		return 2*sum;
+	}
+
+	/**
+	 * Solve A*X = B, where A is the decomposed matrix. Every column of B is a right hand side, and the same column of X is
+	 * its solution. The cost is O(n^2) for every column.
+	 * @param b - The right hand sides, must have n rows
+	 * @return X, has the same size as B
+	 * @throws MatrixCalculationException If the matrix is not positive definite
+	 */
+	public Matrix solve(Matrix b){
+		if(b == null || b.isEmpty())
+			throw new MatrixCalculationException("The matrix can not be null");
+		if(b.getRows() != n)
+			throw new MatrixCalculationException("The number of rows of the right hand sides must be "+n);
+		check();
+
+		int k = b.getCols();
+		double[] x = b.toDoubleArray();
+		substitute(x , k);
+		return new Matrix(x , 0 , n , k , k);
+	}
+
+	/**
+	 * Solve A*x = b for one right hand side, where A is the decomposed matrix.
+	 * @param b - The right hand side, the length must be n
+	 * @return x
+	 * @throws MatrixCalculationException If the matrix is not positive definite
+	 */
+	public double[] solve(double[] b){
+		if(b == null || b.length != n)
+			throw new MatrixCalculationException("The length of the right hand side must be "+n);
+		check();
+
+		double[] x = b.clone();
+		substitute(x , 1);
+		return x;
+	}
+
+	/**
+	 * Get the inverse of the matrix by solving A*X = I, the inverse is also symmetric positive definite.
+	 * @return The inverse
+	 * @throws MatrixCalculationException If the matrix is not positive definite
+	 */
+	public Matrix inverse(){
+		check();
+		double[] x = new double[n*n];
+		for(int i=0;i<n;i++)
+			x[i*n + i] = 1;
+		substitute(x , n);
+		return new Matrix(x , 0 , n , n , n);
+	}
+
+	//Forward substitution with L then back substitution with L^T, x is n*k, the rows are updated as a whole
+	private void substitute(double[] x , int k){
+		for(int i=0;i<n;i++){
+			int ri = i*k;
+			for(int p=0;p<i;p++){
+				double v = l[i*n + p];
+				if(v == 0)
+					continue;
+				int rp = p*k;
+				for(int j=0;j<k;j++)
+					x[ri+j] -= v*x[rp+j];
+			}
+			double d = l[i*n + i];
+			for(int j=0;j<k;j++)
+				x[ri+j] /= d;
+		}
+		//L^T[i][p] = L[p][i], row i of x is final before it is subtracted from the rows above
+		for(int i=n-1;i>=0;i--){
+			int ri = i*k;
+			double d = l[i*n + i];
+			for(int j=0;j<k;j++)
+				x[ri+j] /= d;
+			for(int p=0;p<i;p++){
+				double v = l[i*n + p];
+				if(v == 0)
+					continue;
+				int rp = p*k;
+				for(int j=0;j<k;j++)
+					x[rp+j] -= v*x[ri+j];
+			}
+		}
+	}
+
+	//The factors can only be used if the decomposition succeeded
+	private void check(){
+		if(!positiveDefinite)
+			throw new MatrixCalculationException("The matrix is not positive definite");
+	}
+}
@@ -0,0 +1,58 @@
+package com.mathutil.linearalgebra.matrix;
+
+/**
+ * The innermost loops of the calculations on primitive arrays, used by {@link Matrix} and {@link com.mathutil.linearalgebra.Linear}.
+ * The default implementation is {@link ScalarKernels}, other implementations(such as the one that uses the SIMD instructions
+ * in the <code>mathutil-simd</code> module) are found by {@link java.util.ServiceLoader} and selected by {@link Kernels#get()}.<br>
+ * All the methods work on contiguous ranges, the range of x is <code>x[xOff] ... x[xOff+n-1]</code>. For the matrices, the element
+ * (i , j) is at <code>array[offset + i*ld + j]</code>, where ld is the distance between two rows. The implementations do not check
+ * the arguments, and they must be stateless so they can be used by many threads. The output z of the element wise methods can
+ * be exactly the same range as x or y, which is used by the in place operations such as {@link Matrix#addInPlace(Matrix)}.
+ *
+ * @author danielxu
+ * @see Kernels
+ */
+public interface DoubleKernels {
+
+	/**
+	 * Get the name of the kernels, used for selecting the kernels by the system property {@link Kernels#PROPERTY}
+	 * @return The name, such as "scalar"
+	 */
+	public String getName();
+
+	/**
+	 * z = x + y
+	 */
+	public void add(int n , double[] x , int xOff , double[] y , int yOff , double[] z , int zOff);
+
+	/**
+	 * z = x - y
+	 */
+	public void substract(int n , double[] x , int xOff , double[] y , int yOff , double[] z , int zOff);
+
+	/**
+	 * z = alpha*x
+	 */
+	public void scale(int n , double alpha , double[] x , int xOff , double[] z , int zOff);
+
+	/**
+	 * The dot product x·y = x1*y1 + x2*y2 + ... + xn*yn
+	 * @return The dot product
+	 */
+	public double dot(int n , double[] x , int xOff , double[] y , int yOff);
+
+	/**
+	 * The sum of squares x1^2 + x2^2 + ... + xn^2
+	 * @return The sum of squares
+	 */
+	public double sumOfSquares(int n , double[] x , int xOff);
+
+	/**
+	 * C += alpha*A*B for one tile of the blocked multiplication, where A is m*k, B is k*n and C is m*n. The tiles are small
+	 * enough(64*64 by default) to stay in the cache.
+	 */
+	public void multiplyAdd(int m , int n , int k , double alpha ,
+			double[] a , int aOff , int lda ,
+			double[] b , int bOff , int ldb ,
+			double[] c , int cOff , int ldc);
+}
@@ -0,0 +1,514 @@
+package com.mathutil.linearalgebra.matrix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.mathutil.exceptions.MatrixCalculationException;
+import com.mathutil.linearalgebra.IterativeSolver;
+import com.mathutil.linearalgebra.LinearOperator;
+
+/**
+ * The eigenvalue decomposition of a real symmetric matrix: <center>A = V * D * V^T</center>
+ * where D is the diagonal matrix of the eigenvalues, which are all real, and the columns of V are the eigenvectors, which are
+ * orthonormal(V^T = V^-1). The matrix is reduced to a symmetric tridiagonal matrix by Householder reflections, then the
+ * tridiagonal matrix is diagonalized by the QL algorithm with implicit shifts, in O(n^3) all together. Only the lower triangle
+ * of the matrix is read, the upper triangle is assumed to be its transpose. The eigenvalues are in ascending order, the
+ * largest is the last one.<br>
+ * For a large matrix(or a {@link SparseMatrix}, or a {@link LinearOperator}) whose few largest eigenvalues are needed, like the
+ * principal components of a covariance matrix, {@link #largest(Matrix, int)} finds them by the Lanczos iteration, which only
+ * multiplies the matrix by vectors: O(n^2) for every iteration of a dense matrix, O(nonzeros) of a sparse matrix, instead
+ * of O(n^3).<br>
+ * The eigenvectors are rotated as the rows of a row major array, so every rotation of the QL algorithm reads two rows in
+ * order instead of two columns.
+ *
+ * @author danielxu
+ * @see Matrix#eigen()
+ * @see SingularValueDecomposition
+ */
+public class EigenDecomposition {
+
+	/**The maximum number of QL iterations for one eigenvalue**/
+	private static final int MAX_ITERATIONS = 60;
+
+	/**The dimension of the matrix**/
+	private final int n;
+
+	/**The eigenvalues in ascending order**/
+	private final double[] values;
+
+	/**The eigenvectors as the rows, k*n, null if only the eigenvalues are calculated**/
+	private final double[] vectors;
+
+	/**
+	 * Decompose a symmetric matrix, the eigenvalues and the eigenvectors are calculated.
+	 * @param m - The symmetric matrix
+	 */
+	public EigenDecomposition(Matrix m){
+		this(m , true);
+	}
+
+	/**
+	 * Decompose a symmetric matrix, the matrix is copied and will not be modified.
+	 * @param m - The symmetric matrix, only the lower triangle is read
+	 * @param vectors - True to calculate the eigenvectors, false for the eigenvalues only, which is about 3 times faster
+	 */
+	public EigenDecomposition(Matrix m , boolean vectors){
+		if(m == null || m.isEmpty())
+			throw new MatrixCalculationException("The matrix can not be null");
+		if(m.getRows() != m.getCols())
+			throw new MatrixCalculationException("Only square matrix has eigenvalues");
+
+		n = m.getRows();
+		//The transpose, so the columns of the lower triangle are read as rows, and the eigenvectors come out as rows
+		double[] v = m.transpose().toDoubleArray();
+		double[] d = new double[n] , e = new double[n];
+		tridiagonalize(v , d , e , n , vectors);
+		ql(d , e , vectors ? v : null , n , n);
+		values = d;
+		this.vectors = vectors ? v : null;
+	}
+
+	//The k eigenvalues and eigenvectors found by the Lanczos iteration
+	private EigenDecomposition(int n , double[] values , double[] vectors){
+		this.n = n;
+		this.values = values;
+		this.vectors = vectors;
+	}
+
+	/*
+	 * Reduce the symmetric matrix to tridiagonal form by Householder reflections(the tred2 of EISPACK), the diagonal is put
+	 * in d and the subdiagonal in e[1...n-1]. v is the transpose of the matrix, v[j*n + k] is the element (k , j), so the
+	 * loops over the columns of the lower triangle go along the rows of v. If the vectors are required, v becomes the
+	 * transpose of the product of the reflections.
+	 */
+	private static void tridiagonalize(double[] v , double[] d , double[] e , int n , boolean vectors){
+		for(int j=0;j<n;j++)
+			d[j] = v[j*n + n-1];
+
+		for(int i=n-1;i>0;i--){
+			double scale = 0 , h = 0;
+			for(int k=0;k<i;k++)
+				scale += Math.abs(d[k]);
+			if(scale == 0){
+				e[i] = d[i-1];
+				for(int j=0;j<i;j++){
+					d[j] = v[j*n + i-1];
+					v[j*n + i] = 0;
+					v[i*n + j] = 0;
+				}
+			}
+			else{
+				for(int k=0;k<i;k++){
+					d[k] /= scale;
+					h += d[k]*d[k];
+				}
+				double f = d[i-1];
+				double g = Math.sqrt(h);
+				if(f > 0)
+					g = -g;
+				e[i] = scale*g;
+				h -= f*g;
+				d[i-1] = f - g;
+				for(int j=0;j<i;j++)
+					e[j] = 0;
+
+				//e = A*u, A is the lower triangle
+				for(int j=0;j<i;j++){
+					int rj = j*n;
+					f = d[j];
+					v[i*n + j] = f;
+					g = e[j] + v[rj+j]*f;
+					for(int k=j+1;k<i;k++){
+						double a = v[rj+k];
+						g += a*d[k];
+						e[k] += a*f;
+					}
+					e[j] = g;
+				}
+				f = 0;
+				for(int j=0;j<i;j++){
+					e[j] /= h;
+					f += e[j]*d[j];
+				}
+				double hh = f / (h + h);
+				for(int j=0;j<i;j++)
+					e[j] -= hh*d[j];
+				//A = A - u*e^T - e*u^T
+				for(int j=0;j<i;j++){
+					int rj = j*n;
+					f = d[j];
+					g = e[j];
+					for(int k=j;k<i;k++)
+						v[rj+k] -= f*e[k] + g*d[k];
+					d[j] = v[rj + i-1];
+					v[rj+i] = 0;
+				}
+			}
+			d[i] = h;
+		}
+
+		if(!vectors){
+			for(int j=0;j<n;j++)
+				d[j] = v[j*n + j];
+			e[0] = 0;
+			return;
+		}
+
+		//Accumulate the reflections, the rows of v become the columns of their product
+		for(int i=0;i<n-1;i++){
+			v[i*n + n-1] = v[i*n + i];
+			v[i*n + i] = 1;
+			double h = d[i+1];
+			int ru = (i+1)*n;
+			if(h != 0){
+				for(int k=0;k<=i;k++)
+					d[k] = v[ru+k] / h;
+				for(int j=0;j<=i;j++){
+					int rj = j*n;
+					double g = 0;
+					for(int k=0;k<=i;k++)
+						g += v[ru+k]*v[rj+k];
+					for(int k=0;k<=i;k++)
+						v[rj+k] -= g*d[k];
+				}
+			}
+			for(int k=0;k<=i;k++)
+				v[ru+k] = 0;
+		}
+		for(int j=0;j<n;j++){
+			d[j] = v[j*n + n-1];
+			v[j*n + n-1] = 0;
+		}
+		v[(n-1)*n + n-1] = 1;
+		e[0] = 0;
+	}
+
+	/*
+	 * Diagonalize the symmetric tridiagonal matrix by the QL algorithm with implicit shifts(the tql2 of EISPACK), d is the
+	 * diagonal and e[1...n-1] the subdiagonal. The eigenvalues are put in d in ascending order, if z is not null its n rows
+	 * (each has the length width) are rotated with them and sorted in the same order. The rows of the identity give the
+	 * eigenvectors, and a single column of the identity gives one element of every eigenvector for the cost of O(n) per rotation.
+	 */
+	private static void ql(double[] d , double[] e , double[] z , int n , int width){
+		for(int i=1;i<n;i++)
+			e[i-1] = e[i];
+		e[n-1] = 0;
+
+		double f = 0 , tst1 = 0 , eps = Math.ulp(1.0);
+		for(int l=0;l<n;l++){
+			//Find a small subdiagonal element
+			tst1 = Math.max(tst1 , Math.abs(d[l]) + Math.abs(e[l]));
+			int m = l;
+			while(m < n-1 && Math.abs(e[m]) > eps*tst1)
+				m++;
+
+			//If m == l, d[l] is already an eigenvalue, otherwise iterate
+			int iterations = 0;
+			while(m > l){
+				if(++iterations > MAX_ITERATIONS)
+					throw new MatrixCalculationException("The eigenvalues did not converge");
+				double g = d[l];
+				double p = (d[l+1] - g) / (2*e[l]);
+				double r = Math.hypot(p , 1);
+				if(p < 0)
+					r = -r;
+				d[l] = e[l] / (p + r);
+				d[l+1] = e[l]*(p + r);
+				double dl1 = d[l+1];
+				double h = g - d[l];
+				for(int i=l+2;i<n;i++)
+					d[i] -= h;
+				f += h;
+
+				//Implicit QL transformation
+				p = d[m];
+				double c = 1 , c2 = 1 , c3 = 1 , el1 = e[l+1] , s = 0 , s2 = 0;
+				for(int i=m-1;i>=l;i--){
+					c3 = c2;
+					c2 = c;
+					s2 = s;
+					g = c*e[i];
+					h = c*p;
+					r = Math.hypot(p , e[i]);
+					e[i+1] = s*r;
+					s = e[i] / r;
+					c = p / r;
+					p = c*d[i] - s*g;
+					d[i+1] = h + s*(c*g + s*d[i]);
+					if(z != null){
+						int ri = i*width , rj = (i+1)*width;
+						for(int k=0;k<width;k++){
+							h = z[rj+k];
+							z[rj+k] = s*z[ri+k] + c*h;
+							z[ri+k] = c*z[ri+k] - s*h;
+						}
+					}
+				}
+				p = -s*s2*c3*el1*e[l] / dl1;
+				e[l] = s*p;
+				d[l] = c*p;
+				if(Math.abs(e[l]) <= eps*tst1)
+					break;
+			}
+			d[l] += f;
+			e[l] = 0;
+		}
+
+		//Sort the eigenvalues and the vectors
+		for(int i=0;i<n-1;i++){
+			int k = i;
+			for(int j=i+1;j<n;j++){
+				if(d[j] < d[k])
+					k = j;
+			}
+			if(k != i){
+				double t = d[k];
+				d[k] = d[i];
+				d[i] = t;
+				if(z != null){
+					for(int j=0;j<width;j++){
+						t = z[i*width + j];
+						z[i*width + j] = z[k*width + j];
+						z[k*width + j] = t;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Find the k largest eigenvalues and their eigenvectors of a symmetric matrix by the Lanczos iteration.
+	 * @param a - The symmetric matrix
+	 * @param k - The number of eigenvalues, between 1 and n
+	 * @return The decomposition of the k largest eigenvalues
+	 * @see #largest(LinearOperator, int)
+	 */
+	public static EigenDecomposition largest(Matrix a , int k){
+		if(a == null || a.isEmpty())
+			throw new MatrixCalculationException("The matrix can not be null");
+		if(a.getRows() != a.getCols())
+			throw new MatrixCalculationException("Only square matrix has eigenvalues");
+		return largest(IterativeSolver.operator(a) , k);
+	}
+
+	/**
+	 * Find the k largest eigenvalues and their eigenvectors of a symmetric sparse matrix by the Lanczos iteration.
+	 * @param a - The symmetric sparse matrix
+	 * @param k - The number of eigenvalues, between 1 and n
+	 * @return The decomposition of the k largest eigenvalues
+	 * @see #largest(LinearOperator, int)
+	 */
+	public static EigenDecomposition largest(SparseMatrix a , int k){
+		if(a == null)
+			throw new MatrixCalculationException("The matrix can not be null");
+		if(a.getRows() != a.getCols())
+			throw new MatrixCalculationException("Only square matrix has eigenvalues");
+		return largest(IterativeSolver.operator(a) , k);
+	}
+
+	/**
+	 * Find the k largest eigenvalues and their eigenvectors of a symmetric operator by the Lanczos iteration. Every iteration
+	 * multiplies the operator by a vector and adds an orthonormal vector to the basis(the basis is orthogonalized again as a whole
+	 * against the rounding errors), the eigenvalues of the tridiagonal projection onto the basis approach the largest eigenvalues
+	 * first. The projection is diagonalized every 10 iterations, and the iteration stops when the residuals ||A*v - λ*v|| of the k
+	 * largest are not greater than 1e-10*max(|λ|). The basis needs n*m doubles for m iterations, usually m is a few times k.
+	 * @param a - The symmetric operator
+	 * @param k - The number of eigenvalues, between 1 and n
+	 * @return The decomposition of the k largest eigenvalues, in ascending order
+	 */
+	public static EigenDecomposition largest(LinearOperator a , int k){
+		if(a == null)
+			throw new MatrixCalculationException("The operator can not be null");
+		int n = a.getDimension();
+		if(k < 1 || k > n)
+			throw new MatrixCalculationException("The number of eigenvalues must be between 1 and "+n);
+
+		List<double[]> basis = new ArrayList<>();
+		List<Double> alpha = new ArrayList<>() , beta = new ArrayList<>();
+		Random random = new Random(n);
+		double[] q = start(random , basis , n) , w = new double[n];
+		double scale = 0;
+		while(true){
+			basis.add(q);
+			a.apply(q , w);
+			double al = dot(q , w , n);
+			alpha.add(al);
+			//w = w - alpha*q - beta*q(j-1), then against the whole basis twice
+			for(int i=0;i<n;i++)
+				w[i] -= al*q[i];
+			if(basis.size() > 1){
+				double be = beta.get(beta.size()-1);
+				double[] prev = basis.get(basis.size()-2);
+				for(int i=0;i<n;i++)
+					w[i] -= be*prev[i];
+			}
+			orthogonalize(w , basis , n);
+			orthogonalize(w , basis , n);
+			double b = Math.sqrt(dot(w , w , n));
+			//The rest of w is only rounding errors
+			scale = Math.max(scale , Math.abs(al) + b);
+			if(b <= n*Math.ulp(1.0)*scale)
+				b = 0;
+
+			int m = basis.size();
+			if(m == n)
+				break;
+			if(m >= k && m % 10 == 0){
+				//The residual of a Ritz pair is beta * the last element of its vector, only the last elements are rotated
+				double[] d = new double[m] , e = new double[m] , last = new double[m];
+				tridiagonal(alpha , beta , d , e , m);
+				last[m-1] = 1;
+				ql(d , e , last , m , 1);
+				double max = Math.max(Math.abs(d[0]) , Math.abs(d[m-1]));
+				boolean converged = true;
+				for(int i=m-k;i<m && converged;i++)
+					converged = Math.abs(b*last[i]) <= 1e-10*max;
+				if(converged)
+					break;
+			}
+			beta.add(b);
+			if(b == 0){
+				//An invariant subspace, continue with a new vector orthogonal to it
+				q = start(random , basis , n);
+			}
+			else{
+				q = new double[n];
+				for(int i=0;i<n;i++)
+					q[i] = w[i] / b;
+			}
+		}
+
+		//The Ritz vectors of the k largest
+		int m = basis.size();
+		double[] d = new double[m] , e = new double[m] , z = new double[m*m];
+		tridiagonal(alpha , beta , d , e , m);
+		for(int i=0;i<m;i++)
+			z[i*m + i] = 1;
+		ql(d , e , z , m , m);
+		double[] values = new double[k] , vectors = new double[k*n];
+		for(int t=0;t<k;t++){
+			int r = m-k+t;
+			values[t] = d[r];
+			for(int j=0;j<m;j++){
+				double c = z[r*m + j];
+				double[] v = basis.get(j);
+				for(int i=0;i<n;i++)
+					vectors[t*n + i] += c*v[i];
+			}
+		}
+		return new EigenDecomposition(n , values , vectors);
+	}
+
+	//The first m*m of the Lanczos tridiagonal matrix, the subdiagonal in e[1...m-1]
+	private static void tridiagonal(List<Double> alpha , List<Double> beta , double[] d , double[] e , int m){
+		for(int i=0;i<m;i++){
+			d[i] = alpha.get(i);
+			if(i > 0)
+				e[i] = beta.get(i-1);
+		}
+	}
+
+	//A random unit vector orthogonal to the basis
+	private static double[] start(Random random , List<double[]> basis , int n){
+		double[] q = new double[n];
+		for(int i=0;i<n;i++)
+			q[i] = random.nextDouble() - 0.5;
+		orthogonalize(q , basis , n);
+		orthogonalize(q , basis , n);
+		double norm = Math.sqrt(dot(q , q , n));
+		for(int i=0;i<n;i++)
+			q[i] /= norm;
+		return q;
+	}
+
+	//Remove the components of the basis from w, classical Gram-Schmidt
+	private static void orthogonalize(double[] w , List<double[]> basis , int n){
+		for(double[] v : basis){
+			double c = dot(v , w , n);
+			for(int i=0;i<n;i++)
+				w[i] -= c*v[i];
+		}
+	}
+
+	private static double dot(double[] x , double[] y , int n){
+		double sum = 0;
+		for(int i=0;i<n;i++)
+			sum += x[i]*y[i];
+		return sum;
+	}
+
+	/**
+	 * Get the dimension of the decomposed matrix
+	 * @return n, the matrix is n*n
+	 */
+	public int getDimension(){
+		return n;
+	}
+
+	/**
+	 * Get the eigenvalues in ascending order
+	 * @return A copy of the eigenvalues, n of them, or k of them if they are found by {@link #largest(Matrix, int)}
+	 */
+	public double[] getEigenvalues(){
+		return values.clone();
+	}
+
+	/**
+	 * Get the eigenvectors as the columns of V, column i is the eigenvector of the i-th eigenvalue and has the norm 1.
+	 * @return V, n*n, or n*k if the eigenvalues are found by {@link #largest(Matrix, int)}
+	 * @throws MatrixCalculationException If only the eigenvalues are calculated
+	 */
+	public Matrix getV(){
+		if(vectors == null)
+			throw new MatrixCalculationException("The eigenvectors are not calculated");
+		int k = values.length;
+		double[] v = new double[n*k];
+		for(int t=0;t<k;t++){
+			for(int i=0;i<n;i++)
+				v[i*k + t] = vectors[t*n + i];
+		}
+		return new Matrix(v , 0 , n , k , k);
+	}
+
+	/**
+	 * Get the eigenvector of the i-th eigenvalue
+	 * @param i - The index of the eigenvalue
+	 * @return The eigenvector, its norm is 1
+	 * @throws MatrixCalculationException If only the eigenvalues are calculated
+	 */
+	public double[] getEigenvector(int i){
+		if(vectors == null)
+			throw new MatrixCalculationException("The eigenvectors are not calculated");
+		if(i < 0 || i >= values.length)
+			throw new MatrixCalculationException("Index out of bound "+i);
+		double[] v = new double[n];
+		System.arraycopy(vectors , i*n , v , 0 , n);
+		return v;
+	}
+
+	/**
+	 * Get the diagonal matrix of the eigenvalues
+	 * @return D
+	 */
+	public Matrix getD(){
+		int k = values.length;
+		Matrix d = new Matrix(k , k);
+		for(int i=0;i<k;i++)
+			d.set(i , i , values[i]);
+		return d;
+	}
+
+	/**
+	 * Get the powers of the matrix A^n = V * D^n * V^T, which are one multiplication for any n, see {@link MatrixPowers}.
+	 * The inverse of the eigenvectors is their transpose, so it is not calculated.
+	 * @return The powers of the decomposed matrix
+	 * @throws MatrixCalculationException If the eigenvectors are not calculated, or only the largest eigenvalues are found
+	 */
+	public MatrixPowers powers(){
+		if(vectors == null || values.length != n)
+			throw new MatrixCalculationException("The powers need all the eigenvectors");
+		Matrix v = getV();
+		return new MatrixPowers(v , v.transpose() , values);
+	}
+}
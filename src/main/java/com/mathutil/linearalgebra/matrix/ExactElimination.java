@@ -0,0 +1,437 @@
+package com.mathutil.linearalgebra.matrix;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import com.mathutil.BigRational;
+
+/**
+ * The Gaussian elimination of an {@link ExactMatrix}, for its determinant, rank and rref, only for the matrices in the package.<br>
+ * If all the elements are integers, the elimination is fraction-free(Bareiss): every step multiplies the rows by the pivot and
+ * divides them by the previous pivot, the divisions are always exact and every element stays a minor of the matrix, so the
+ * numbers grow only linearly and nothing is rounded. The last pivot is the exact determinant, and the rank is exact as well.
+ * The rows of a {@link BigRational} matrix are multiplied by the least common multiples of their denominators first, which
+ * changes neither the rank nor the rref, so they are eliminated in the same way.
+ * Otherwise the rows are eliminated with partial pivoting in the MathContext of the matrix, and the pivots not greater than
+ * max(m , n)*max|A|*10^(1-precision) are regarded as 0.<br>
+ * Both take O(n^3) operations, instead of the O(n!) of the cofactor expansion. The determinants and the systems of the large
+ * integer matrices are found by {@link ModularElimination} instead, whose operations are on long.<br>
+ * The rows below(and above) a pivot are independent of each other, so a large step is eliminated by the threads of the common
+ * ForkJoinPool, see {@link #forEachRow(int, int, long, int, IntConsumer)}.
+ *
+ * @author danielxu
+ */
+final class ExactElimination {
+
+	/**The estimated work, in the products of two 9-digit words, from which the rows are calculated in parallel**/
+	static final long PARALLEL_WORK = 1L << 16;
+
+	/**The elements of the reduced matrix, only when it is reduced**/
+	private BigDecimal[][] reduced;
+
+	/**The rank**/
+	private int rank;
+
+	/**The determinant, null if the matrix is not square**/
+	private BigDecimal det;
+
+	/**The integer matrix after the fraction-free elimination, null if it was eliminated in the MathContext**/
+	private BigInteger[][] exact;
+
+	/**The pivot columns of the rows of the fraction-free elimination**/
+	private int[] pivots;
+
+	/**The last pivot of the fraction-free elimination, negated if the rows were swapped for odd times**/
+	private BigInteger last;
+
+	/**The product of the numbers that the rows were multiplied by to make them integers**/
+	private BigInteger multiplier = BigInteger.ONE;
+
+	/**
+	 * Eliminate a matrix, the array is not modified.
+	 * @param a - The elements of the matrix
+	 * @param context - The MathContext of the matrix, for the elimination of a matrix that is not an integer matrix, and for the
+	 * 					divisions of the rref
+	 * @param reduce - True to reduce the matrix to rref(Gauss-Jordan), false to eliminate only the rows below the pivots, which
+	 * 				   is enough for the determinant and the rank
+	 */
+	ExactElimination(BigDecimal[][] a , MathContext context , boolean reduce){
+		if(isInteger(a)){
+			BigInteger[][] m = new BigInteger[a.length][a[0].length];
+			for(int i=0;i<m.length;i++){
+				for(int j=0;j<m[0].length;j++)
+					m[i][j] = a[i][j].toBigIntegerExact();
+			}
+			bareiss(m , reduce);
+			if(a.length == a[0].length)
+				det = new BigDecimal(last);
+			if(reduce)
+				reduced = decimalRref(context);
+		}
+		else
+			gaussian(a , context , reduce);
+	}
+
+	/**
+	 * Eliminate a rational matrix exactly, the array is not modified.
+	 * @param a - The elements of the matrix
+	 * @param reduce - True to reduce the matrix to rref
+	 */
+	ExactElimination(BigRational[][] a , boolean reduce){
+		bareiss(integerRows(a) , reduce);
+	}
+
+	//Multiply every row by the least common multiple of its denominators, the multiples are multiplied together into multiplier
+	private BigInteger[][] integerRows(BigRational[][] a){
+		BigInteger[][] m = new BigInteger[a.length][a[0].length];
+		for(int i=0;i<a.length;i++)
+			multiplier = multiplier.multiply(scale(a[i] , m[i]));
+		return m;
+	}
+
+	/**
+	 * Multiply the fractions by the least common multiple of their denominators, so they become integers
+	 * @param v - The fractions
+	 * @param integers - The integers, the same length as the fractions
+	 * @return The least common multiple
+	 */
+	static BigInteger scale(BigRational[] v , BigInteger[] integers){
+		BigInteger l = BigInteger.ONE;
+		for(BigRational x : v){
+			BigInteger d = x.getDenominator();
+			if(!d.equals(BigInteger.ONE))
+				l = l.divide(l.gcd(d)).multiply(d);
+		}
+		for(int j=0;j<v.length;j++){
+			BigInteger d = v[j].getDenominator();
+			integers[j] = d.equals(l) ? v[j].getNumerator() : v[j].getNumerator().multiply(l.divide(d));
+		}
+		return l;
+	}
+
+	/**
+	 * Find the determinant of a square matrix, exact if all the elements are integers, see {@link #det(BigRational[][])}
+	 * @param a - The elements of the matrix
+	 * @param context - The MathContext of the matrix, for a matrix that is not an integer matrix
+	 * @return The determinant
+	 */
+	static BigDecimal det(BigDecimal[][] a , MathContext context){
+		if(!isInteger(a))
+			return new ExactElimination(a , context , false).det;
+		BigInteger[][] m = new BigInteger[a.length][a.length];
+		for(int i=0;i<m.length;i++){
+			for(int j=0;j<m.length;j++)
+				m[i][j] = a[i][j].toBigIntegerExact();
+		}
+		return new BigDecimal(det(m));
+	}
+
+	/**
+	 * Find the exact determinant of a square rational matrix, the determinant of the integer rows divided by their multiples. The
+	 * large matrices are eliminated modulo the primes by {@link ModularElimination}, the others by Bareiss.
+	 * @param a - The elements of the matrix
+	 * @return The determinant
+	 */
+	static BigRational det(BigRational[][] a){
+		ExactElimination e = new ExactElimination();
+		BigInteger[][] m = e.integerRows(a);
+		return BigRational.valueOf(det(m) , e.multiplier);
+	}
+
+	//The determinant of an integer matrix, the array is modified
+	private static BigInteger det(BigInteger[][] m){
+		if(m.length >= ModularElimination.THRESHOLD)
+			return ModularElimination.det(m);
+		ExactElimination e = new ExactElimination();
+		e.bareiss(m , false);
+		return e.last;
+	}
+
+	/**
+	 * Solve A*X = B exactly. The rows of [A | B] are multiplied by the common denominators, then the large systems are solved modulo
+	 * the primes by {@link ModularElimination}, the others are reduced by the fraction-free Gauss-Jordan elimination to [d*I | d*X].
+	 * @param a - The elements of a square matrix, n*n
+	 * @param b - The right hand sides, n*k
+	 * @return X, null if A is singular
+	 */
+	static BigRational[][] solve(BigRational[][] a , BigRational[][] b){
+		int n = a.length , k = b[0].length;
+		BigRational[][] ab = new BigRational[n][n + k];
+		for(int i=0;i<n;i++){
+			System.arraycopy(a[i] , 0 , ab[i] , 0 , n);
+			System.arraycopy(b[i] , 0 , ab[i] , n , k);
+		}
+		ExactElimination e = new ExactElimination();
+		BigInteger[][] m = e.integerRows(ab);
+		if(n >= ModularElimination.THRESHOLD){
+			BigInteger[][] ma = new BigInteger[n][n] , mb = new BigInteger[n][k];
+			for(int i=0;i<n;i++){
+				System.arraycopy(m[i] , 0 , ma[i] , 0 , n);
+				System.arraycopy(m[i] , n , mb[i] , 0 , k);
+			}
+			return ModularElimination.solve(ma , mb);
+		}
+
+		e.bareiss(m , true);
+		if(e.rank < n || e.pivots[n-1] != n-1)
+			return null;
+		BigRational[][] x = new BigRational[n][k];
+		for(int i=0;i<n;i++){
+			for(int j=0;j<k;j++)
+				x[i][j] = BigRational.valueOf(m[i][n + j] , m[i][i]);
+		}
+		return x;
+	}
+
+	/**
+	 * Invert a rational matrix exactly, by solving A*X = I
+	 * @param a - The elements of a square matrix
+	 * @return The inverse, null if the matrix is singular
+	 */
+	static BigRational[][] inverse(BigRational[][] a){
+		int n = a.length;
+		BigRational[][] identity = new BigRational[n][n];
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++)
+				identity[i][j] = i == j ? BigRational.ONE : BigRational.ZERO;
+		}
+		return solve(a , identity);
+	}
+
+	//For the static methods
+	private ExactElimination(){}
+
+	/**
+	 * Calculate the rows [from , to), by the threads of the common ForkJoinPool if the work is large enough and the pool has more
+	 * than one thread. A product of two numbers of d digits costs about (d/9)^2 products of words, so the work is estimated as
+	 * products*(digits/9 + 1)^2 and compared with {@link #PARALLEL_WORK}. Every row must be written by the action of that row only.
+	 * @param from - The first row
+	 * @param to - The end of the rows, exclusive
+	 * @param products - The number of the multiplications of all the rows
+	 * @param digits - The number of the decimal digits of the numbers
+	 * @param action - The calculation of a row
+	 */
+	static void forEachRow(int from , int to , long products , int digits , IntConsumer action){
+		long words = digits/9 + 1;
+		if(to - from < 2 || products < PARALLEL_WORK / (words*words) || ForkJoinPool.getCommonPoolParallelism() <= 1){
+			for(int i=from;i<to;i++)
+				action.accept(i);
+			return;
+		}
+		IntStream.range(from , to).parallel().forEach(action);
+	}
+
+	/**
+	 * Get the number of the decimal digits of an integer, estimated from its bit length
+	 * @param v - The integer
+	 * @return The number of the digits
+	 */
+	static int digits(BigInteger v){
+		return (int)(v.bitLength()*0.30103) + 1;
+	}
+
+	/**
+	 * Get the largest number of the digits of the unscaled values of the numbers
+	 * @param a - The numbers
+	 * @return The number of the digits
+	 */
+	static int digits(BigDecimal[][] a){
+		int digits = 1;
+		for(BigDecimal[] row : a){
+			for(BigDecimal v : row)
+				digits = Math.max(digits , v.precision());
+		}
+		return digits;
+	}
+
+	//Check if all the elements are integers
+	static boolean isInteger(BigDecimal[][] a){
+		for(BigDecimal[] row : a){
+			for(BigDecimal v : row){
+				if(v.signum() != 0 && v.scale() > 0 && v.stripTrailingZeros().scale() > 0)
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Fraction-free elimination: row i becomes (p*a[i] - a[i][c]*a[r]) / prev, where p is the pivot a[r][c] and prev the pivot of
+	 * the previous step. With reduce the rows above the pivot are eliminated in the same way(the fraction-free Gauss-Jordan), their
+	 * pivots all become the current pivot, so the rref is the rows divided by the last pivot.
+	 */
+	private void bareiss(BigInteger[][] m , boolean reduce){
+		int rows = m.length , cols = m[0].length;
+		BigInteger prev = BigInteger.ONE;
+		boolean negative = false;
+		pivots = new int[Math.min(rows , cols)];
+		int r = 0;
+		for(int c=0;c<cols && r<rows;c++){
+			int p = r;
+			while(p < rows && m[p][c].signum() == 0)
+				p++;
+			if(p == rows)
+				continue;
+			if(p != r){
+				BigInteger[] swap = m[p];
+				m[p] = m[r];
+				m[r] = swap;
+				negative = !negative;
+			}
+
+			BigInteger pivot = m[r][c] , divisor = prev;
+			BigInteger[] pr = m[r];
+			int row = r , col = c , first = reduce ? 0 : r+1;
+			forEachRow(first , rows , 2L*(rows - first)*(cols - c) , digits(pivot) , i -> {
+				//The rows above have elements left of c, where the pivot row is 0
+				if(i != row)
+					eliminate(m[i] , pr , col , i < row ? 0 : col+1 , pivot , divisor);
+			});
+			prev = pivot;
+			pivots[r++] = c;
+		}
+
+		rank = r;
+		exact = m;
+		last = rank < rows ? BigInteger.ZERO : negative ? prev.negate() : prev;
+	}
+
+	//Row ri becomes (p*ri - ri[c]*pr) / prev from the column start
+	private static void eliminate(BigInteger[] ri , BigInteger[] pr , int c , int start , BigInteger pivot , BigInteger prev){
+		BigInteger f = ri[c];
+		for(int j=start;j<ri.length;j++){
+			if(j == c)
+				continue;
+			BigInteger v = ri[j].signum() == 0 ? BigInteger.ZERO : ri[j].multiply(pivot);
+			if(f.signum() != 0 && pr[j].signum() != 0)
+				v = v.subtract(f.multiply(pr[j]));
+			ri[j] = v.signum() == 0 || prev.equals(BigInteger.ONE) ? v : v.divide(prev);
+		}
+		ri[c] = BigInteger.ZERO;
+	}
+
+	//The rref of the fraction-free elimination, divided in the MathContext
+	private BigDecimal[][] decimalRref(MathContext context){
+		int rows = exact.length , cols = exact[0].length;
+		BigDecimal[][] rref = new BigDecimal[rows][cols];
+		for(int i=0;i<rows;i++){
+			for(int j=0;j<cols;j++){
+				if(i >= rank || exact[i][j].signum() == 0)
+					rref[i][j] = BigDecimal.ZERO;
+				else if(exact[i][j].equals(exact[i][pivots[i]]))
+					rref[i][j] = BigDecimal.ONE;
+				else
+					rref[i][j] = fraction(exact[i][j] , exact[i][pivots[i]] , context);
+			}
+		}
+		return rref;
+	}
+
+	//n/d, exact if the fraction has a finite decimal expansion within the precision, rounded otherwise
+	private static BigDecimal fraction(BigInteger n , BigInteger d , MathContext context){
+		BigInteger gcd = n.gcd(d);
+		return new BigDecimal(n.divide(gcd)).divide(new BigDecimal(d.divide(gcd)) , context);
+	}
+
+	//Gaussian elimination with partial pivoting, rounded in the MathContext
+	private void gaussian(BigDecimal[][] a , MathContext context , boolean reduce){
+		int rows = a.length , cols = a[0].length;
+		BigDecimal[][] m = new BigDecimal[rows][];
+		BigDecimal max = BigDecimal.ZERO;
+		for(int i=0;i<rows;i++){
+			m[i] = a[i].clone();
+			for(BigDecimal v : m[i])
+				max = max.max(v.abs());
+		}
+		BigDecimal tolerance = max.multiply(BigDecimal.valueOf(Math.max(rows , cols))).scaleByPowerOfTen(1 - context.getPrecision());
+
+		BigDecimal product = BigDecimal.ONE;
+		int r = 0;
+		for(int c=0;c<cols && r<rows;c++){
+			int p = r;
+			for(int i=r+1;i<rows;i++){
+				if(m[i][c].abs().compareTo(m[p][c].abs()) > 0)
+					p = i;
+			}
+			if(m[p][c].abs().compareTo(tolerance) <= 0){
+				for(int i=r;i<rows;i++)
+					m[i][c] = BigDecimal.ZERO;
+				continue;
+			}
+			if(p != r){
+				BigDecimal[] swap = m[p];
+				m[p] = m[r];
+				m[r] = swap;
+				product = product.negate();
+			}
+
+			BigDecimal pivot = m[r][c];
+			BigDecimal[] pr = m[r];
+			product = product.multiply(pivot , context);
+			if(reduce){
+				//The pivot row is divided by the pivot, the others subtract it once
+				for(int j=c+1;j<cols;j++)
+					pr[j] = pr[j].divide(pivot , context);
+				pr[c] = BigDecimal.ONE;
+			}
+			int row = r , col = c , first = reduce ? 0 : r+1;
+			forEachRow(first , rows , (long)(rows - first)*(cols - c) , context.getPrecision() , i -> {
+				BigDecimal[] ri = m[i];
+				if(i == row || ri[col].signum() == 0)
+					return;
+				BigDecimal f = reduce ? ri[col] : ri[col].divide(pivot , context);
+				for(int j=col+1;j<cols;j++){
+					if(pr[j].signum() != 0)
+						ri[j] = ri[j].subtract(f.multiply(pr[j] , context) , context);
+				}
+				ri[col] = BigDecimal.ZERO;
+			});
+			r++;
+		}
+
+		rank = r;
+		if(rows == cols)
+			det = rank < rows ? BigDecimal.ZERO : product;
+		if(reduce){
+			for(int i=rank;i<rows;i++){
+				for(int j=0;j<cols;j++)
+					m[i][j] = BigDecimal.ZERO;
+			}
+			reduced = m;
+		}
+	}
+
+	/**
+	 * Get the rank, the number of pivots
+	 * @return The rank
+	 */
+	int rank(){
+		return rank;
+	}
+
+	/**
+	 * Get the reduced row echelon form
+	 * @return The rref, null if the matrix was not reduced
+	 */
+	BigDecimal[][] rref(){
+		return reduced;
+	}
+
+	/**
+	 * Get the exact reduced row echelon form of a rational matrix that was reduced
+	 * @return The rref
+	 */
+	BigRational[][] rationalRref(){
+		int rows = exact.length , cols = exact[0].length;
+		BigRational[][] rref = new BigRational[rows][cols];
+		for(int i=0;i<rows;i++){
+			for(int j=0;j<cols;j++)
+				rref[i][j] = i >= rank || exact[i][j].signum() == 0 ? BigRational.ZERO : BigRational.valueOf(exact[i][j] , exact[i][pivots[i]]);
+		}
+		return rref;
+	}
+}
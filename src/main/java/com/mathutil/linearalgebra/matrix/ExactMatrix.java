@@ -1,10 +1,12 @@
 package com.mathutil.linearalgebra.matrix;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.MathContext;
 import java.math.RoundingMode;
 import java.util.Random;
 
+import com.mathutil.BigRational;
 import com.mathutil.exceptions.MatrixCalculationException;
 import com.mathutil.exceptions.MatrixException;
 import com.mathutil.linearalgebra.SuperVector;
@@ -16,6 +18,10 @@ import com.mathutil.linearalgebra.SuperVector;
  * necessary. But when accuracy it's matter, for example, when one wants the exact result after a long and complex calculation, <code>ExactMatrix</code> is necessary.<br>
  * ExactMatrix is immutable, which means, you cannot expand the matrix or remove the elements in the matrix. However, you can switch rows and columns in the matrix, 
  * you can get the element from the matrix or you can replace the element in the specific location to a new one.<br>
+ * By default the results that can not be represented exactly in the precision are rounded, such as 1/3 in the inverse. In the 
+ * <strong>rational mode</strong>, created by {@link #ExactMatrix(BigRational[][])} or {@link #toRational()}, the elements are 
+ * {@link BigRational} fractions and all the calculations are exact, the BigDecimal elements are only their values rounded in the 
+ * precision, and {@link #getRational(int, int)} gets the exact ones.<br>
  * If the calculations are small and easy, please consider using {@link Matrix}.<br>
  * If the purpose of the matrix is to store informatoins only, please use {@link SimpleMatrix} instead.
  * 
@@ -44,6 +50,9 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 	/**The MathContext that will be applied in the calculations**/
 	private MathContext context;
 	
+	/**The exact elements in the rational mode, the elements in matrix are their rounded values. Null if not in the rational mode**/
+	private BigRational[][] rational;
+	
 	/**
 	 * Create an empty matrix without any elements in it
 	 */
@@ -229,6 +238,44 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 		init();
 	}
 	
+	/**
+	 * Create a new matrix in the rational mode, all the calculations of the matrix are exact. The precision is only for the 
+	 * BigDecimal values of the elements. This constructor set the default precision to 12.
+	 * @param matrix - The two dimensional BigRational array represents the matrix
+	 */
+	public ExactMatrix(BigRational[][] matrix){
+		this(matrix , DEFAULT_PRECISION);
+	}
+	
+	/**
+	 * Create a new matrix in the rational mode, all the calculations of the matrix are exact. The precision is only for the 
+	 * BigDecimal values of the elements, such as {@link #get(int, int)} and {@link #toString()}.
+	 * @param matrix - The two dimensional BigRational array represents the matrix
+	 * @param precision - The precision of the BigDecimal values, the minimum is 8 and the maximum is 25, the default is 12. If the 
+	 * 					  precision given is out of the range, it will be set to the default which is 12
+	 */
+	public ExactMatrix(BigRational[][] matrix , int precision){
+		if(matrix == null)
+			throw new MatrixException("The matrix cannot be null");
+		checkRows(matrix);
+		
+		if(precision < 8)
+			precision = 12;
+		if(precision > 25)
+			precision = 12;
+		this.precision = precision;
+		this.matrix = new BigDecimal[matrix.length][matrix[0].length];
+		init();
+		
+		rational = new BigRational[rows][cols];
+		for(int i=0;i<rows;i++){
+			for(int j=0;j<cols;j++){
+				rational[i][j] = matrix[i][j];
+				this.matrix[i][j] = matrix[i][j].toBigDecimal(context);
+			}
+		}
+	}
+	
 	//Initialize the rows,cols,decimal_places and MathContext
 	private void init(){
 		rows = matrix.length;
@@ -237,6 +284,56 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 		context = new MathContext(precision , RoundingMode.HALF_UP);
 	}
 	
+	//A matrix that uses the new array directly, the elements are immutable so they are shared instead of copied
+	private static ExactMatrix own(BigDecimal[][] matrix , int precision){
+		ExactMatrix m = new ExactMatrix();
+		m.matrix = matrix;
+		m.precision = precision;
+		m.init();
+		return m;
+	}
+	
+	//A rational matrix that uses the new array directly, the BigDecimal elements are rounded from the fractions
+	private static ExactMatrix ownRational(BigRational[][] rational , int precision){
+		ExactMatrix m = new ExactMatrix();
+		m.rational = rational;
+		m.matrix = new BigDecimal[rational.length][rational[0].length];
+		m.precision = precision;
+		m.init();
+		for(int i=0;i<m.rows;i++){
+			for(int j=0;j<m.cols;j++)
+				m.matrix[i][j] = rational[i][j].toBigDecimal(m.context);
+		}
+		return m;
+	}
+	
+	/**
+	 * Get the same matrix in the rational mode, the BigDecimal elements are converted to fractions exactly, for example 0.25 is 1/4.
+	 * All the calculations of the new matrix are exact.
+	 * @return The matrix in the rational mode, with the same precision
+	 */
+	public ExactMatrix toRational(){
+		return ownRational(rationals() , precision);
+	}
+	
+	/**
+	 * Check if the matrix is in the rational mode, which means all the calculations are exact
+	 * @return True if it is in the rational mode
+	 */
+	public boolean isRational(){
+		return rational != null;
+	}
+	
+	//The exact elements, converted from the BigDecimals if the matrix is not rational
+	private BigRational[][] rationals(){
+		BigRational[][] r = new BigRational[rows][cols];
+		for(int i=0;i<rows;i++){
+			for(int j=0;j<cols;j++)
+				r[i][j] = rational != null ? rational[i][j] : BigRational.valueOf(matrix[i][j]);
+		}
+		return r;
+	}
+	
 	/**
 	 * Generate a new random matrix. All the elements in the matrix are random numbers within the given range. 
 	 * The precision of the new matrix will be set to default which is 12.
@@ -295,6 +392,42 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 	public void set(int row, int col, BigDecimal value) {
 		indexCheck(row , col);
 		matrix[row][col] = value;
+		if(rational != null)
+			rational[row][col] = BigRational.valueOf(value);
+	}
+	
+	/**
+	 * Set the element in the matrix to a fraction. If the matrix is not in the rational mode, the fraction is rounded in the precision
+	 * @param row - The row index of the element
+	 * @param col - The column index of the element 
+	 * @param value - The fraction
+	 */
+	public void set(int row, int col, BigRational value) {
+		indexCheck(row , col);
+		matrix[row][col] = value.toBigDecimal(context);
+		if(rational != null)
+			rational[row][col] = value;
+	}
+	
+	/**
+	 * Get the exact element that at the specific row and column. If the matrix is not in the rational mode, it is the BigDecimal 
+	 * element as a fraction.
+	 * @param row - The row index of the element
+	 * @param col - The column index of the element 
+	 * @return The element as a fraction
+	 */
+	public BigRational getRational(int row, int col) {
+		indexCheck(row , col);
+		return rational != null ? rational[row][col] : BigRational.valueOf(matrix[row][col]);
+	}
+	
+	/**
+	 * Get the two dimensional array of the exact elements, it is a copy. If the matrix is not in the rational mode, they are the 
+	 * BigDecimal elements as fractions.
+	 * @return The two dimensional BigRational array that represents the matrix
+	 */
+	public BigRational[][] getRationalMatrix() {
+		return rationals();
 	}
 
 	/**
@@ -341,6 +474,11 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 		BigDecimal[] temp = matrix[row1];
 		matrix[row1] = matrix[row2];
 		matrix[row2] = temp;
+		if(rational != null){
+			BigRational[] r = rational[row1];
+			rational[row1] = rational[row2];
+			rational[row2] = r;
+		}
 	}
 
 	/**
@@ -360,6 +498,11 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 			BigDecimal temp = matrix[i][col1];
 			matrix[i][col1] = matrix[i][col2];
 			matrix[i][col2] = temp;
+			if(rational != null){
+				BigRational r = rational[i][col1];
+				rational[i][col1] = rational[i][col2];
+				rational[i][col2] = r;
+			}
 		}
 	}
 	
@@ -384,6 +527,13 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 		for(int i=0;i<matrix[0].length;i++){
 			matrix[row][i] = matrix[row][i].multiply(factor);
 		}
+		if(rational != null){
+			BigRational f = BigRational.valueOf(factor);
+			for(int i=0;i<cols;i++){
+				rational[row][i] = rational[row][i].multiply(f);
+				matrix[row][i] = rational[row][i].toBigDecimal(context);
+			}
+		}
 	}
 	
 	/**
@@ -407,6 +557,13 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 		for(int i=0;i<matrix.length;i++){
 			matrix[i][col] = matrix[i][col].multiply(factor);
 		}
+		if(rational != null){
+			BigRational f = BigRational.valueOf(factor);
+			for(int i=0;i<rows;i++){
+				rational[i][col] = rational[i][col].multiply(f);
+				matrix[i][col] = rational[i][col].toBigDecimal(context);
+			}
+		}
 	}
 	
 	/**
@@ -430,20 +587,23 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 			end_col = temp;
 		}
 		//Out of bound
-		if(start_row < 0 || start_row >= rows || end_col < 0 || end_col >= cols)
+		if(start_row < 0 || end_row >= rows || start_col < 0 || end_col >= cols)
 			throw new MatrixException("Index out of bound");
 		
-		BigDecimal[][] b = new BigDecimal[(end_row - start_row)+1][(end_col - start_col)+1];
-		int indexI = 0 , indexJ = 0;
-		for(int i=start_row;i<=end_row;i++){
-			for(int j=start_col;j<=end_col;j++){
-				b[indexI][indexJ] = matrix[i][j];
-				indexJ++;
+		//The BigDecimals are immutable, only the references are copied
+		int c = end_col - start_col + 1;
+		if(rational != null){
+			BigRational[][] r = new BigRational[end_row - start_row + 1][c];
+			for(int i=0;i<r.length;i++){
+				System.arraycopy(rational[start_row + i], start_col, r[i], 0, c);
 			}
-			indexI++;
-			indexJ = 0;
+			return ownRational(r , precision);
+		}
+		BigDecimal[][] b = new BigDecimal[end_row - start_row + 1][c];
+		for(int i=0;i<b.length;i++){
+			System.arraycopy(matrix[start_row + i], start_col, b[i], 0, c);
 		}
-		return new ExactMatrix(b);
+		return own(b , precision);
 	}
 	
 	/**
@@ -459,7 +619,7 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 	 * @return The Matrix
 	 */
 	public Matrix toMatrix(){
-		Number[][] n = new Number[rows][cols];
+		double[][] n = new double[rows][cols];
 		
 		for(int i=0;i<rows;i++){
 			for(int j=0;j<cols;j++){
@@ -493,14 +653,25 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 		int row = m.getRows();
 		int col = m.getCols();
 		
+		//Exact if one of them is rational
+		if(rational != null || m.rational != null){
+			BigRational[][] r1 = rationals() , r2 = m.rationals();
+			ExactElimination.forEachRow(0 , row , (long)row*col , 1 , i -> {
+				for(int j=0;j<col;j++){
+					r1[i][j] = r1[i][j].add(r2[i][j]);
+				}
+			});
+			return ownRational(r1 , precision);
+		}
+		
 		BigDecimal[][] result = new BigDecimal[row][col];
 		BigDecimal[][] m2 = m.getMatrix();
 		
-		for(int i=0;i<row;i++){
+		ExactElimination.forEachRow(0 , row , (long)row*col , precision , i -> {
 			for(int j=0;j<col;j++){
 				result[i][j] = matrix[i][j].add(m2[i][j] , context);
 			}
-		}
+		});
 		
 		return new ExactMatrix(result);
 	}
@@ -522,14 +693,25 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 		int row = m.getRows();
 		int col = m.getCols();
 		
+		//Exact if one of them is rational
+		if(rational != null || m.rational != null){
+			BigRational[][] r1 = rationals() , r2 = m.rationals();
+			ExactElimination.forEachRow(0 , row , (long)row*col , 1 , i -> {
+				for(int j=0;j<col;j++){
+					r1[i][j] = r1[i][j].subtract(r2[i][j]);
+				}
+			});
+			return ownRational(r1 , precision);
+		}
+		
 		BigDecimal[][] result = new BigDecimal[row][col];
 		BigDecimal[][] m2 = m.getMatrix();
 		
-		for(int i=0;i<row;i++){
+		ExactElimination.forEachRow(0 , row , (long)row*col , precision , i -> {
 			for(int j=0;j<col;j++){
 				result[i][j] = matrix[i][j].subtract(m2[i][j] , context);
 			}
-		}
+		});
 		
 		return new ExactMatrix(result);
 	}
@@ -541,7 +723,9 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 	 * be <i>m*q</i>. For example, matrixA <i>3*2</i> and MatrixB <i>2*4</i> matrix will produce a <i>3*4</i> matrix.<br>
 	 * And in matrix multiplication:<br>
 	 * <center>A*B ≠ B*A</center><br>
-	 * Which means, <code>matrix1.multiply(matrix2)</code> will <strong>NOT</strong> get the same result with <code>matrix2.multiply(matrix1)</code>
+	 * Which means, <code>matrix1.multiply(matrix2)</code> will <strong>NOT</strong> get the same result with <code>matrix2.multiply(matrix1)</code><br>
+	 * The rows of the product are calculated by the threads of the common ForkJoinPool if the work, estimated from the dimensions 
+	 * and the number of the digits of the elements, is large enough.
 	 * 
 	 * @param m - Another CalculableMatrix 
 	 * @return The new Matrix that contains the result of the multiplication
@@ -555,27 +739,98 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 		
 		int row = getRows();
 		int col = m.getCols();
+		if(rational != null || m.rational != null)
+			return ownRational(multiply(rationals() , m.rationals()) , precision);
+		
 		BigDecimal[][] result = new BigDecimal[row][col];
-		BigDecimal[][] m2 = m.getMatrix();
-		//Initialize all the numbers to 0
-		for(int i=0;i<result.length;i++){
-			for(int j=0;j<result[0].length;j++){
-				result[i][j] = new BigDecimal("0");
+		BigDecimal[][] m2 = m.matrix;
+		int inner = getCols();
+		//The rows of the result are calculated by the threads of the common ForkJoinPool if they are large enough
+		int digits = Math.max(ExactElimination.digits(matrix) , ExactElimination.digits(m2));
+		ExactElimination.forEachRow(0 , row , (long)row*col*inner , digits , i -> {
+			BigDecimal[] ri = matrix[i];
+			for(int j=0;j<col;j++){
+				BigDecimal sum = BigDecimal.ZERO;
+				for(int k=0;k<inner;k++)
+					sum = sum.add(ri[k].multiply(m2[k][j]) , context);
+				result[i][j] = sum;
 			}
+		});
+		
+		return new ExactMatrix(result);
+	}
+	
+	/*
+	 * The exact product of two rational matrices. The rows of A and the columns of B are multiplied by the common denominators of
+	 * their elements, so every element of the product is a sum of integer products, in long until it overflows, divided by the
+	 * two denominators only once.
+	 */
+	private static BigRational[][] multiply(BigRational[][] a , BigRational[][] b){
+		int m = a.length , n = b[0].length , p = b.length;
+		BigInteger[][] x = new BigInteger[m][p] , y = new BigInteger[n][p];
+		BigInteger[] rowScale = new BigInteger[m] , colScale = new BigInteger[n];
+		for(int i=0;i<m;i++)
+			rowScale[i] = ExactElimination.scale(a[i] , x[i]);
+		BigRational[] column = new BigRational[p];
+		for(int j=0;j<n;j++){
+			for(int k=0;k<p;k++)
+				column[k] = b[k][j];
+			colScale[j] = ExactElimination.scale(column , y[j]);
 		}
+		long[][] xl = toLong(x) , yl = toLong(y);
+		int digits = Math.max(digits(x) , digits(y));
 		
-		for(int i=0;i<matrix.length;i++){
-			for(int j=0;j<m2[0].length;j++){
-				for(int k=0;k<matrix[0].length;k++){
-					BigDecimal num1 = matrix[i][k];
-					BigDecimal num2 = m2[k][j];
-					BigDecimal temp = result[i][j];
-					result[i][j] = temp.add(num1.multiply(num2) , context);
+		BigRational[][] result = new BigRational[m][n];
+		ExactElimination.forEachRow(0 , m , (long)m*n*p , digits , i -> {
+			for(int j=0;j<n;j++){
+				BigInteger dot = null;
+				if(xl[i] != null && yl[j] != null){
+					try{
+						long sum = 0;
+						for(int k=0;k<p;k++)
+							sum = Math.addExact(sum , Math.multiplyExact(xl[i][k] , yl[j][k]));
+						dot = BigInteger.valueOf(sum);
+					}catch(ArithmeticException e){
+						//Overflow, sum in BigInteger
+					}
+				}
+				if(dot == null){
+					dot = BigInteger.ZERO;
+					for(int k=0;k<p;k++){
+						if(x[i][k].signum() != 0 && y[j][k].signum() != 0)
+							dot = dot.add(x[i][k].multiply(y[j][k]));
+					}
 				}
+				result[i][j] = BigRational.valueOf(dot , rowScale[i].multiply(colScale[j]));
 			}
+		});
+		return result;
+	}
+	
+	//The largest number of the digits of the integers
+	private static int digits(BigInteger[][] v){
+		int bits = 0;
+		for(BigInteger[] row : v){
+			for(BigInteger x : row)
+				bits = Math.max(bits , x.bitLength());
 		}
-		
-		return new ExactMatrix(result);
+		return ExactElimination.digits(BigInteger.ONE.shiftLeft(bits));
+	}
+	
+	//The rows that fit in long, null for the rows that do not
+	private static long[][] toLong(BigInteger[][] v){
+		long[][] l = new long[v.length][];
+		for(int i=0;i<v.length;i++){
+			boolean fits = true;
+			for(BigInteger x : v[i])
+				fits &= x.bitLength() < 64;
+			if(!fits)
+				continue;
+			l[i] = new long[v[i].length];
+			for(int j=0;j<l[i].length;j++)
+				l[i][j] = v[i][j].longValue();
+		}
+		return l;
 	}
 	
 	/**
@@ -590,6 +845,9 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 	 * 		<center>I^-1 = I</center><br>
 	 * 		
 	 * </ul>
+	 * The power is calculated by repeated squaring, A^13 = A^8 * A^4 * A, so it takes at most 2*log2(n) multiplications 
+	 * instead of n-1. A negative power inverts the matrix once and then raises the inverse. In the rational mode the inverse is exact, 
+	 * it is found by solving A*X = I, see {@link #solve(ExactMatrix)}.
 	 * @param n - The power, can be positive integer, negative integer, or 0
 	 * @return If n = 0, return the identity of the matrix. If n > 0, return the matrix that raise to the power of n. 
 	 * If n < 0, return the inverse of the matrix to the power of n.
@@ -606,6 +864,8 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 				}
 				index ++;
 			}
+			if(rational != null)
+				return own(result , precision).toRational();
 			return new ExactMatrix(result);
 		}
 		
@@ -615,18 +875,21 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 				return this;
 			if(getRows() != getCols())
 				throw new MatrixCalculationException("Only square matrix can be raised to the power of "+n);
-			//Keep multiplying itslef
-			ExactMatrix m = this;
-			for(int i=1;i<n;i++){
-				m = m.multiply(this);
-			}
-			return m;
+			return squaring(n);
 		}
 		
 		//Inverse
 		else{
 			if(getRows() != getCols())
 				throw new MatrixCalculationException("Only square matrix can be raised to the power of "+n);
+			//Exact inverse
+			if(rational != null){
+				BigRational[][] inverse = ExactElimination.inverse(rational);
+				if(inverse == null)
+					throw new MatrixCalculationException("The determinant of the matrix is 0, it is not invertible");
+				ExactMatrix r = ownRational(inverse , precision);
+				return n == -1 ? r : r.squaring(-(long)n);
+			}
 			//Only one element in the matrix
 			if(rows == 1 && cols == 1){
 				if(matrix[0][0].compareTo(BigDecimal.ZERO) == 0)
@@ -637,7 +900,7 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 				return new ExactMatrix(result);
 			}
 			//It's not Invertible
-			if(determinant(matrix).compareTo(BigDecimal.ZERO) == 0)
+			if(det().compareTo(BigDecimal.ZERO) == 0)
 				throw new MatrixCalculationException("The determinant of the matrix is 0, it is not invertible");
 			
 			if(n == -1){
@@ -645,12 +908,26 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 				return new ExactMatrix(r);
 			}
 			else{
-				ExactMatrix m = this.power(Math.abs(n)).power(-1);
-				return m;
+				//-n overflows for Integer.MIN_VALUE
+				return power(-1).squaring(-(long)n);
 			}
 		}
 	}
 	
+	//Raise a square matrix to the power of n > 1 by repeated squaring
+	private ExactMatrix squaring(long n){
+		ExactMatrix result = null;
+		ExactMatrix square = this;
+		while(true){
+			if((n & 1) == 1)
+				result = result == null ? square : result.multiply(square);
+			n >>= 1;
+			if(n == 0)
+				return result;
+			square = square.multiply(square);
+		}
+	}
+	
 	/**
 	 * Multiply the whole matrix by a factor. if the original matrix is A, the factor is k, the new matrix will be:<br>
 	 * <center>k*A</center><br>
@@ -664,6 +941,17 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 		if(factor == null)
 			throw new MatrixCalculationException("The factor cannot be null");
 		
+		if(rational != null){
+			BigRational f = factor instanceof BigRational ? (BigRational)factor : BigRational.valueOf(new BigDecimal(factor.doubleValue()));
+			BigRational[][] r = new BigRational[rows][cols];
+			for(int i=0;i<rows;i++){
+				for(int j=0;j<cols;j++){
+					r[i][j] = rational[i][j].multiply(f);
+				}
+			}
+			return ownRational(r , precision);
+		}
+		
 		BigDecimal[][] result = new BigDecimal[rows][cols];
 		
 		BigDecimal fac = new BigDecimal(factor.doubleValue()); //convert to bigdecimal
@@ -680,6 +968,15 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 	 * @return The matrix after transposed.
 	 */
 	public ExactMatrix transpose(){
+		if(rational != null){
+			BigRational[][] r = new BigRational[cols][rows];
+			for(int i=0;i<rows;i++){
+				for(int j=0;j<cols;j++){
+					r[j][i] = rational[i][j];
+				}
+			}
+			return ownRational(r , precision);
+		}
 		BigDecimal[][] result = new BigDecimal[cols][rows];
 		
 		for(int i=0;i<matrix.length;i++){
@@ -687,24 +984,69 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 				result[j][i] = matrix[i][j];
 			}
 		}
-		return new ExactMatrix(result);
+		return own(result , precision);
 	}
 	
 	/**
 	 * Find the determinant of the matrix. Please notice that only <strong>square matrices</strong> have determinant, it means only the 
-	 * matrices that have dimension n*n have determinant
+	 * matrices that have dimension n*n have determinant.<br>
+	 * If all the elements are integers, the determinant is found by the fraction-free elimination(Bareiss) in BigInteger, it is 
+	 * exact and not rounded to the precision. From 12*12 the integer matrix is eliminated modulo many primes in long instead, 
+	 * and the determinant is combined from the residues by the Chinese remainder theorem. Otherwise it is the product of the pivots of the Gaussian elimination with partial 
+	 * pivoting, rounded in the precision of the matrix. Both take O(n^3) operations. In the rational mode it is the exact 
+	 * {@link #rationalDet()} rounded in the precision.
 	 * @return The determinant of the matrix as a number
 	 */
 	public BigDecimal det(){
 		if(getRows() != getCols())
 			throw new MatrixCalculationException("Only square matrix has determinant");
 		
-		return determinant(matrix);
+		if(rational != null)
+			return rationalDet().toBigDecimal(context);
+		return ExactElimination.det(matrix , context);
+	}
+	
+	/**
+	 * Find the exact determinant of the matrix as a fraction, the elements are regarded as fractions even if the matrix is not 
+	 * in the rational mode. The rows are multiplied by the common denominators of their elements and eliminated by the 
+	 * fraction-free elimination in BigInteger, or modulo the primes from 12*12, see {@link #det()}.
+	 * @return The exact determinant
+	 */
+	public BigRational rationalDet(){
+		if(getRows() != getCols())
+			throw new MatrixCalculationException("Only square matrix has determinant");
+		
+		return ExactElimination.det(rational != null ? rational : rationals());
+	}
+	
+	/**
+	 * Solve A*X = B exactly, where A is this matrix. The elements of both matrices are regarded as fractions even if they are not 
+	 * in the rational mode, and the rows of [A | B] are multiplied by the common denominators of their elements, so the system has 
+	 * integer cofficients. The systems from 12*12 are solved modulo many primes below 2^31 in long, by the threads of the common 
+	 * ForkJoinPool, then the fractions are found from the residues by the Chinese remainder theorem and the rational reconstruction, 
+	 * and checked exactly. The smaller ones are solved by the fraction-free Gauss-Jordan elimination.
+	 * @param b - The right hand sides, must have the same number of rows as this matrix
+	 * @return X in the rational mode, with the precision of this matrix
+	 * @throws MatrixCalculationException If this matrix is not square or it is singular
+	 */
+	public ExactMatrix solve(ExactMatrix b){
+		matrixCheck(b);
+		if(getRows() != getCols())
+			throw new MatrixCalculationException("Only the system of a square matrix can be solved");
+		if(b.getRows() != getRows())
+			throw new MatrixCalculationException("The number of rows of the right hand sides must be "+rows);
+		
+		BigRational[][] x = ExactElimination.solve(rational != null ? rational : rationals() , b.rationals());
+		if(x == null)
+			throw new MatrixCalculationException("The determinant of the matrix is 0, it is not invertible");
+		return ownRational(x , precision);
 	}
 	
 	/**
 	 * Invert the matrix, it's the same as saying <code>power(-1)</code>. Please notice that not every matrix can be inverted, only square matrices that have 
-	 * the non-zero determinant can be inverted. Call <code>det()</code> can get the determinant of the matrix.
+	 * the non-zero determinant can be inverted. Call <code>det()</code> can get the determinant of the matrix.<br>
+	 * The rows of every elimination step and the columns of the inverse are calculated by the threads of the common ForkJoinPool 
+	 * if the matrix is large enough.
 	 * @return The inverted matrix
 	 * @see {@link #power(int)}
 	 */
@@ -713,30 +1055,27 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 	}
 	
 	/**
-	 * Get the Reduced Row Echelon Form(rref) of the matrix, any size of matrix can be transformed to the rref.
+	 * Get the Reduced Row Echelon Form(rref) of the matrix, any size of matrix can be transformed to the rref. The rref of an integer 
+	 * matrix is eliminated exactly, only the final divisions by the pivots are rounded to the precision, see {@link #det()}. 
+	 * In the rational mode the rref is exact.
 	 * @return The rref of the current matrix
 	 */
 	public ExactMatrix rref(){
-		return new ExactMatrix(calculateRREF());
+		if(rational != null)
+			return ownRational(new ExactElimination(rational , true).rationalRref() , precision);
+		return own(new ExactElimination(matrix , context , true).rref() , precision);
 	}
 	
 	/**
-	 * Get the rank of the matrix
+	 * Get the rank of the matrix, the number of pivots of the elimination. It is exact for an integer matrix or in the rational 
+	 * mode, otherwise the pivots 
+	 * not greater than max(m , n)*max|A|*10^(1-precision) are regarded as 0.
 	 * @return The rank of the matrix
 	 */
 	public int rank(){
-		BigDecimal[][] m = calculateRREF();
-		int rank = 0 , zeros = 0;
-		for(int i=0;i<m.length;i++){
-			for(int j=0;j<m[0].length;j++){
-				if(m[i][j].setScale(6, RoundingMode.HALF_UP).compareTo(BigDecimal.ZERO) == 0)
-					zeros++;
-			}
-			if(zeros != cols)
-				rank++;
-			zeros = 0;
-		}
-		return rank;
+		if(rational != null)
+			return new ExactElimination(rational , false).rank();
+		return new ExactElimination(matrix , context , false).rank();
 	}
 	
 	/**
@@ -780,114 +1119,6 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
 		return result.toString();
 	}
 	
-	//Calculate the rref of the matrix
-	private BigDecimal[][] calculateRREF() {
-		BigDecimal[][] matrix = deepClone();
-		int lead = 0;
-		int rowCount = matrix.length;
-		int colCount = matrix[0].length;
-		int i;
-		boolean quit = false;
-		
-		//Only one column, or only 1 element
-		if(matrix[0].length == 1){
-			matrix[0][0] = new BigDecimal("1");
-			for(int k=1;k<matrix.length;k++){
-				matrix[k][0] = new BigDecimal("0");
-			}
-			return matrix;
-		}
-		
-		for (int row = 0; row < rowCount && !quit; row++){
-			if (colCount <= lead){
-				quit = true;
-				break;
-			}
-			i = row;
-			
-			while (!quit && matrix[i][lead].setScale(6, RoundingMode.HALF_UP).compareTo(BigDecimal.ZERO) == 0){
-				i++;
-				if (rowCount == i){
-					i = row;
-					lead++;
-
-					if (colCount == lead){
-						quit = true;
-						break;
-					}
-				}
-			}
-			if (!quit){
-				rrefSwap(matrix , i, row);
-				if (matrix[row][lead].compareTo(BigDecimal.ZERO) != 0)
-					rrefMulti(matrix , row, BigDecimal.ONE.divide(matrix[row][lead] , context));
-
-				for (i = 0; i < rowCount; i++){
-					if (i != row)
-						rrefSub(matrix ,matrix[i][lead], row, i);
-				}
-			}
-		}
-		return matrix;
-	}
-	
-	//For rref calculation, multiply a row
-	private void rrefMulti(BigDecimal[][] matrix , int row , BigDecimal factor){
-		for(int i=0;i<matrix[0].length;i++){
-			matrix[row][i] = matrix[row][i].multiply(factor , context);
-		}
-	}
-	
-	//For rref calaulation, swaps two rows
-	private void rrefSwap(BigDecimal[][] matrix , int row1, int row2) {
-		BigDecimal[] swap = new BigDecimal[matrix[0].length];
-
-		for (int c1 = 0; c1 < matrix[0].length; c1++)
-			swap[c1] = matrix[row1][c1];
-
-		for (int c1 = 0; c1 < matrix[0].length; c1++) {
-			matrix[row1][c1] = matrix[row2][c1];
-			matrix[row2][c1] = swap[c1];
-		}
-	}
-	
-	//For rref calculation, subtraction
-	private void rrefSub(BigDecimal[][] matrix , BigDecimal scalar, int r1, int r2) {
-		for (int c1 = 0; c1 < matrix[0].length; c1++)
-			matrix[r2][c1] = matrix[r2][c1].subtract(matrix[r1][c1].multiply(scalar , context) , context);
-	}
-	
-	//Find the determinant recursively
-	private BigDecimal determinant(BigDecimal[][] arr) {
-		BigDecimal result = new BigDecimal("0");
-		if (arr.length == 1) {
-			return arr[0][0];
-		}
-		if (arr.length == 2) {
-			BigDecimal num1 = arr[0][0].multiply(arr[1][1] , context);
-			BigDecimal num2 = arr[0][1].multiply(arr[1][0] , context);
-			result = num1.subtract(num2);
-			return result;
-		}
-		for (int i=0; i<arr[0].length;i++) {
-			BigDecimal temp[][] = new BigDecimal[arr.length - 1][arr[0].length - 1];
-			for (int j=1;j<arr.length;j++) {
-				for (int k=0;k<arr[0].length;k++) {
-					if (k < i) {
-						temp[j-1][k] = arr[j][k];
-					} 
-					else if (k > i) {
-						temp[j-1][k-1] = arr[j][k];
-					}
-				}
-			}
-			BigDecimal num1 = arr[0][i];
-			BigDecimal num2 = new BigDecimal(Math.pow(-1 , (int)i));
-			result = result.add(num1.multiply(num2 , context).multiply(determinant(temp) , context) , context);
-		}
-		return result;
-	}
-	
 	//Invert
 	private BigDecimal[][] invert(BigDecimal a[][]) {
         int n = a.length;
@@ -896,27 +1127,28 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
         int index[] = new int[n];
         for(int i=0;i<b.length;i++){
         	for(int j=0;j<b[0].length;j++){
-        		b[i][j] = new BigDecimal("0");
+        		b[i][j] = BigDecimal.ZERO;
         	}
         }
         for (int i=0; i<n; ++i) 
-            b[i][i] = new BigDecimal("1");
+            b[i][i] = BigDecimal.ONE;
  
         //Transform the matrix into an upper triangle
         gaussian(a, index);
         
-        //Update the matrix b[i][j] with the ratios stored
+        //Update the matrix b[i][j] with the ratios stored, the rows below i are independent
         for (int i=0; i<n-1; ++i){
-            for (int j=i+1; j<n; ++j){
+        	int pivot = i;
+        	ExactElimination.forEachRow(i+1 , n , (long)(n-i-1)*n , precision , j -> {
                 for (int k=0; k<n; ++k){
-                	BigDecimal num = a[index[j]][i].multiply(b[index[i]][k] , context);
+                	BigDecimal num = a[index[j]][pivot].multiply(b[index[pivot]][k] , context);
                     b[index[j]][k] = b[index[j]][k].subtract(num , context);
                 }
-            }
+            });
         }
  
-        //Perform backward substitutions
-        for (int i=0; i<n; ++i) {
+        //Perform backward substitutions, every column of the inverse is independent
+        ExactElimination.forEachRow(0 , n , (long)n*n*n/2 , precision , i -> {
         	BigDecimal num = b[index[n-1]][i].divide(a[index[n-1]][n-1] , context);
             x[n-1][i] = num;
             for (int j=n-2; j>=0; --j) {
@@ -927,7 +1159,7 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
                 }
                 x[j][i] = x[j][i].divide(a[index[j]][j] , context);
             }
-        }
+        });
         return x;
     }
 	
@@ -970,16 +1202,18 @@ public class ExactMatrix implements Matrixable<BigDecimal>{
             int itmp = index[j];
             index[j] = index[k];
             index[k] = itmp;
-            for (int i=j+1; i<n; ++i) 	{
-                BigDecimal pj = a[index[i]][j].divide(a[index[j]][j] , context);
+            //The rows below the pivot are independent
+            int col = j;
+            ExactElimination.forEachRow(j+1 , n , (long)(n-j-1)*(n-j) , precision , i -> {
+                BigDecimal pj = a[index[i]][col].divide(a[index[col]][col] , context);
  
                 //Record pivoting ratios below the diagonal
-                a[index[i]][j] = pj;
+                a[index[i]][col] = pj;
  
                 //Modify other elements accordingly
-                for (int l=j+1; l<n; ++l)
-                    a[index[i]][l] = a[index[i]][l].subtract(pj.multiply(a[index[j]][l] , context) , context);
-            }
+                for (int l=col+1; l<n; ++l)
+                    a[index[i]][l] = a[index[i]][l].subtract(pj.multiply(a[index[col]][l] , context) , context);
+            });
         }
     }
     
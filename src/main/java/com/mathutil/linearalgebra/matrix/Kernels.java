@@ -0,0 +1,73 @@
+package com.mathutil.linearalgebra.matrix;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Select the {@link DoubleKernels} used by the matrix and vector calculations. The kernels are chosen once, when the class
+ * is loaded:
+ * <ul>
+ * <li>If the system property <code>com.mathutil.kernels</code> is set, the kernels with that name are used, "scalar" for the plain loops.</li>
+ * <li>Otherwise the first kernels found by {@link ServiceLoader} that can be loaded are used, such as the SIMD kernels of the
+ * <code>mathutil-simd</code> module when the JVM is started with <code>--add-modules jdk.incubator.vector</code>.</li>
+ * <li>If there are none, or they cannot be loaded(for example the incubator module is missing), {@link ScalarKernels} is used.</li>
+ * </ul>
+ *
+ * @author danielxu
+ */
+public final class Kernels {
+
+	/**The system property that selects the kernels by name**/
+	public static final String PROPERTY = "com.mathutil.kernels";
+
+	/**The plain loops**/
+	private static final DoubleKernels SCALAR = new ScalarKernels();
+
+	/**The selected kernels**/
+	private static final DoubleKernels KERNELS = load();
+
+	//No instance, static class
+	private Kernels(){}
+
+	/**
+	 * Get the kernels used by the calculations
+	 * @return The selected kernels
+	 */
+	public static DoubleKernels get(){
+		return KERNELS;
+	}
+
+	/**
+	 * Get the plain Java loops, which are always available
+	 * @return The scalar kernels
+	 */
+	public static DoubleKernels scalar(){
+		return SCALAR;
+	}
+
+	//Find the kernels, fall back to the scalar loops if nothing can be loaded
+	private static DoubleKernels load(){
+		String name = System.getProperty(PROPERTY);
+		if(SCALAR.getName().equals(name))
+			return SCALAR;
+
+		try{
+			Iterator<DoubleKernels> it = ServiceLoader.load(DoubleKernels.class).iterator();
+			while(it.hasNext()){
+				DoubleKernels kernels;
+				try{
+					kernels = it.next();
+				}catch(ServiceConfigurationError | LinkageError e){
+					//The provider cannot be created on this JVM, try the next one
+					continue;
+				}
+				if(name == null || name.equals(kernels.getName()))
+					return kernels;
+			}
+		}catch(ServiceConfigurationError | LinkageError e){
+			//The providers cannot be listed, use the scalar loops
+		}
+		return SCALAR;
+	}
+}
@@ -0,0 +1,435 @@
+package com.mathutil.linearalgebra.matrix;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import com.mathutil.exceptions.MatrixCalculationException;
+
+/**
+ * The LU decomposition of a square matrix with partial pivoting: <center>P*A = L*U</center>
+ * where P is a permutation matrix, L is a lower triangular matrix whose diagonal elements are 1 and U is an upper triangular matrix.
+ * The decomposition is calculated once in O(n^3), then the determinant(O(n)), the solutions of A*X = B(O(n^2) for every column of B)
+ * and the inverse(O(n^3)) are found from the factors without doing the elimination again. So if a system is solved for many
+ * right hand sides, decompose the matrix once and call {@link #solve(Matrix)} for all of them.<br>
+ * The columns are eliminated in blocks of 64, the updates of the remaining matrix are done by the blocked multiplication of
+ * {@link Matrix#multiply(Matrix)}, so large matrices use the cache and the threads of the common ForkJoinPool.<br>
+ * The decomposition always succeeds, even if the matrix is singular. {@link #isNonsingular()} tells if the pivots are large
+ * enough to solve the systems and to invert the matrix, and for a singular matrix U is in row echelon form, so {@link #rank()}
+ * and {@link #hasSolution(Matrix)} can tell if a system has infinitely many solutions or none.
+ *
+ * @author danielxu
+ * @see Matrix#lu()
+ */
+public class LUDecomposition {
+
+	/**The number of columns eliminated together before the rest of the matrix is updated**/
+	private static final int BLOCK_SIZE = MatrixKernels.DEFAULT_BLOCK_SIZE;
+
+	/**L below the diagonal and U on and above the diagonal, row major, n*n**/
+	private final double[] lu;
+
+	/**The dimension**/
+	private final int n;
+
+	/**Row i of L*U is row pivot[i] of the matrix**/
+	private final int[] pivot;
+
+	/**1 if the number of row swaps is even, -1 otherwise**/
+	private int sign;
+
+	/**The number of nonzero pivots**/
+	private int rank;
+
+	/**The infinity norm of the matrix**/
+	private double norm;
+
+	/**The pivots whose absolute values are not greater than this(10*n*eps*||A||) are regarded as 0**/
+	private final double tolerance;
+
+	/**The columns of the pivots of the row echelon form, null if the matrix is nonsingular**/
+	private int[] pivotCols;
+
+	/**
+	 * Decompose a square matrix, the matrix is copied and will not be modified.
+	 * @param m - The square matrix
+	 */
+	public LUDecomposition(Matrix m){
+		if(m == null || m.isEmpty())
+			throw new MatrixCalculationException("The matrix can not be null");
+		if(m.getRows() != m.getCols())
+			throw new MatrixCalculationException("Only square matrix has LU decomposition");
+
+		n = m.getRows();
+		lu = m.toDoubleArray();
+		pivot = new int[n];
+		//The infinity norm is the largest sum of the absolute values of a row
+		for(int i=0;i<n;i++){
+			double sum = 0;
+			for(int j=0;j<n;j++)
+				sum += Math.abs(lu[i*n + j]);
+			norm = Math.max(norm , sum);
+		}
+		tolerance = 10*n*Math.ulp(1.0)*norm;
+		factor();
+		if(rank < n){
+			//Singular, eliminate again in row echelon form so the rank and the solvability can be found from the pivots
+			System.arraycopy(m.toDoubleArray() , 0 , lu , 0 , n*n);
+			factorEchelon();
+		}
+	}
+
+	//The blocked elimination, every column has a pivot
+	private void factor(){
+		for(int i=0;i<n;i++)
+			pivot[i] = i;
+
+		int swaps = 0;
+		for(int j0=0;j0<n;j0+=BLOCK_SIZE){
+			int j1 = Math.min(j0 + BLOCK_SIZE , n);
+			swaps += factorPanel(j0 , j1);
+			if(j1 < n){
+				//U12 = L11^-1 * A12
+				for(int k=j0;k<j1;k++){
+					int rk = k*n;
+					for(int i=k+1;i<j1;i++){
+						double l = lu[i*n + k];
+						if(l == 0)
+							continue;
+						int ri = i*n;
+						for(int j=j1;j<n;j++)
+							lu[ri+j] -= l*lu[rk+j];
+					}
+				}
+				//A22 = A22 - L21*U12
+				MatrixKernels.gemm(n - j1 , n - j1 , j1 - j0 , -1 , lu , j1*n + j0 , n , lu , j0*n + j1 , n ,
+						1 , lu , j1*n + j1 , n , MatrixKernels.DEFAULT_BLOCK_SIZE , ForkJoinPool.commonPool());
+			}
+		}
+		sign = (swaps & 1) == 0 ? 1 : -1;
+
+		rank = 0;
+		for(int i=0;i<n;i++){
+			if(Math.abs(lu[i*n + i]) > tolerance)
+				rank++;
+		}
+	}
+
+	/*
+	 * The elimination in row echelon form, if the largest element of a column below the current pivot row is not greater than
+	 * the tolerance, the column is skipped and the pivot row stays. So U has the rank nonzero rows at the top, and the
+	 * multipliers of the r-th pivot are stored in the r-th column of L, P*A = L*U still holds.
+	 */
+	private void factorEchelon(){
+		for(int i=0;i<n;i++)
+			pivot[i] = i;
+
+		pivotCols = new int[n];
+
+		int r = 0 , swaps = 0;
+		for(int c=0;c<n && r<n;c++){
+			int p = r;
+			double big = 0;
+			for(int i=r;i<n;i++){
+				double v = Math.abs(lu[i*n + c]);
+				if(v > big){
+					big = v;
+					p = i;
+				}
+			}
+			//No pivot in this column, the rest of it is regarded as 0
+			if(big <= tolerance){
+				for(int i=r;i<n;i++)
+					lu[i*n + c] = 0;
+				continue;
+			}
+			if(p != r){
+				for(int j=0;j<n;j++){
+					double t = lu[p*n + j];
+					lu[p*n + j] = lu[r*n + j];
+					lu[r*n + j] = t;
+				}
+				int t = pivot[p];
+				pivot[p] = pivot[r];
+				pivot[r] = t;
+				swaps++;
+			}
+			double d = lu[r*n + c];
+			int rr = r*n;
+			for(int i=r+1;i<n;i++){
+				int ri = i*n;
+				double l = lu[ri+c] / d;
+				lu[ri+c] = 0;
+				lu[ri+r] = l;
+				if(l == 0)
+					continue;
+				for(int j=c+1;j<n;j++)
+					lu[ri+j] -= l*lu[rr+j];
+			}
+			pivotCols[r] = c;
+			r++;
+		}
+		rank = r;
+		sign = (swaps & 1) == 0 ? 1 : -1;
+	}
+
+	//Eliminate the columns [j0 , j1) below the diagonal, only the columns of the panel are updated, return the number of swaps
+	private int factorPanel(int j0 , int j1){
+		int swaps = 0;
+		for(int k=j0;k<j1;k++){
+			//The largest element in the column is the pivot
+			int p = k;
+			double max = Math.abs(lu[k*n + k]);
+			for(int i=k+1;i<n;i++){
+				double v = Math.abs(lu[i*n + k]);
+				if(v > max){
+					max = v;
+					p = i;
+				}
+			}
+			if(p != k){
+				//Swap the whole rows, so L on the left and the columns on the right are swapped as well
+				for(int j=0;j<n;j++){
+					double t = lu[p*n + j];
+					lu[p*n + j] = lu[k*n + j];
+					lu[k*n + j] = t;
+				}
+				int t = pivot[p];
+				pivot[p] = pivot[k];
+				pivot[k] = t;
+				swaps++;
+			}
+			//The whole column is 0, nothing to eliminate
+			if(max == 0)
+				continue;
+
+			double d = lu[k*n + k];
+			int rk = k*n;
+			for(int i=k+1;i<n;i++){
+				int ri = i*n;
+				double l = lu[ri+k] / d;
+				lu[ri+k] = l;
+				if(l == 0)
+					continue;
+				for(int j=k+1;j<j1;j++)
+					lu[ri+j] -= l*lu[rk+j];
+			}
+		}
+		return swaps;
+	}
+
+	/**
+	 * Get the dimension of the decomposed matrix
+	 * @return n, the matrix is n*n
+	 */
+	public int getDimension(){
+		return n;
+	}
+
+	/**
+	 * Get the lower triangular factor L, the diagonal elements are 1
+	 * @return L
+	 */
+	public Matrix getL(){
+		Matrix l = new Matrix(n , n);
+		for(int i=0;i<n;i++){
+			for(int j=0;j<i;j++)
+				l.set(i , j , lu[i*n + j]);
+			l.set(i , i , 1);
+		}
+		return l;
+	}
+
+	/**
+	 * Get the upper triangular factor U
+	 * @return U
+	 */
+	public Matrix getU(){
+		Matrix u = new Matrix(n , n);
+		for(int i=0;i<n;i++){
+			for(int j=i;j<n;j++)
+				u.set(i , j , lu[i*n + j]);
+		}
+		return u;
+	}
+
+	/**
+	 * Get the row permutation, row i of L*U is row <code>pivot[i]</code> of the matrix
+	 * @return A copy of the permutation
+	 */
+	public int[] getPivot(){
+		return pivot.clone();
+	}
+
+	/**
+	 * Get the determinant of the matrix, the product of the diagonal elements of U, negated if the number of row swaps is odd.
+	 * It is 0 if the matrix is singular.
+	 * @return The determinant
+	 */
+	public double det(){
+		if(rank < n)
+			return 0;
+		double det = sign;
+		for(int i=0;i<n;i++)
+			det *= lu[i*n + i];
+		return det;
+	}
+
+	/**
+	 * Get the rank of the matrix, the number of nonzero pivots. The pivots not greater than 10*n*eps*||A|| are regarded
+	 * as 0, since they are usually the rounding errors of 0, eps is the machine epsilon and ||A|| is the infinity norm. If the matrix is singular, the elimination is done
+	 * again in row echelon form(a column without a pivot is skipped), so the rank of a singular matrix is the number of
+	 * nonzero rows of the row echelon form. It is still an estimate, a nearly dependent column may have a pivot larger than
+	 * the tolerance.
+	 * @return The number of nonzero pivots
+	 */
+	public int rank(){
+		return rank;
+	}
+
+	/**
+	 * Check if all the pivots are nonzero, which means the matrix can be inverted and the systems A*X = B have only one solution.
+	 * @return True if the matrix is nonsingular, false otherwise
+	 * @see #rank()
+	 */
+	public boolean isNonsingular(){
+		return rank == n;
+	}
+
+	/**
+	 * Check if A*X = B has solutions for all the columns of B. If the matrix is nonsingular it is always true. Otherwise the
+	 * columns of B are eliminated by L, a column has solutions(infinitely many) only if its rows below the rank become 0.
+	 * The cost is O(n^2) for every column.
+	 * @param b - The right hand sides, must have n rows
+	 * @return True if every column has at least one solution, false otherwise
+	 */
+	public boolean hasSolution(Matrix b){
+		if(b == null || b.isEmpty())
+			throw new MatrixCalculationException("The matrix can not be null");
+		if(b.getRows() != n)
+			throw new MatrixCalculationException("The number of rows of the right hand sides must be "+n);
+		if(rank == n)
+			return true;
+
+		/*
+		 * Row i of y = L^-1 * P * b is 0 for i >= rank if b is in the column space. The rows are compared with the rounding
+		 * errors of the substitution and of the factorization for a solution x(the free variables are 0): n*eps*(|L|*|y| + ||A||*||x||)
+		 */
+		double eps = n*Math.ulp(1.0);
+		double[] y = new double[n] , bound = new double[n] , x = new double[n];
+		for(int col=0;col<b.getCols();col++){
+			for(int i=0;i<n;i++){
+				y[i] = b.getDouble(pivot[i] , col);
+				bound[i] = Math.abs(y[i]);
+				int ri = i*n;
+				for(int t=0;t<Math.min(i , rank);t++){
+					y[i] -= lu[ri+t]*y[t];
+					bound[i] += Math.abs(lu[ri+t]*y[t]);
+				}
+			}
+			double xMax = 0;
+			for(int i=rank-1;i>=0;i--){
+				int ri = i*n , c = pivotCols[i];
+				double sum = y[i];
+				for(int j=c+1;j<n;j++)
+					sum -= lu[ri+j]*x[j];
+				x[c] = sum / lu[ri+c];
+				xMax = Math.max(xMax , Math.abs(x[c]));
+			}
+			for(int i=rank;i<n;i++){
+				if(Math.abs(y[i]) > eps*(bound[i] + norm*xMax))
+					return false;
+			}
+			Arrays.fill(x , 0);
+		}
+		return true;
+	}
+
+	/**
+	 * Solve A*X = B, where A is the decomposed matrix. Every column of B is a right hand side, and the same column of X is
+	 * its solution. The cost is O(n^2) for every column.
+	 * @param b - The right hand sides, must have n rows
+	 * @return X, has the same size as B
+	 * @throws MatrixCalculationException If the matrix is singular
+	 */
+	public Matrix solve(Matrix b){
+		if(b == null || b.isEmpty())
+			throw new MatrixCalculationException("The matrix can not be null");
+		if(b.getRows() != n)
+			throw new MatrixCalculationException("The number of rows of the right hand sides must be "+n);
+		if(!isNonsingular())
+			throw new MatrixCalculationException("The matrix is singular");
+
+		b = b.rowMajor();
+		int k = b.getCols();
+		double[] x = new double[n*k];
+		double[] src = b.array();
+		for(int i=0;i<n;i++)
+			System.arraycopy(src , b.offset() + pivot[i]*b.stride() , x , i*k , k);
+		substitute(x , k);
+		return new Matrix(x , 0 , n , k , k);
+	}
+
+	/**
+	 * Solve A*x = b for one right hand side, where A is the decomposed matrix.
+	 * @param b - The right hand side, the length must be n
+	 * @return x
+	 * @throws MatrixCalculationException If the matrix is singular
+	 */
+	public double[] solve(double[] b){
+		if(b == null || b.length != n)
+			throw new MatrixCalculationException("The length of the right hand side must be "+n);
+		if(!isNonsingular())
+			throw new MatrixCalculationException("The matrix is singular");
+
+		double[] x = new double[n];
+		for(int i=0;i<n;i++)
+			x[i] = b[pivot[i]];
+		substitute(x , 1);
+		return x;
+	}
+
+	/**
+	 * Get the inverse of the matrix by solving A*X = I
+	 * @return The inverse
+	 * @throws MatrixCalculationException If the matrix is singular
+	 */
+	public Matrix inverse(){
+		if(!isNonsingular())
+			throw new MatrixCalculationException("The determinant of the matrix is 0, it is not invertible");
+
+		double[] x = new double[n*n];
+		for(int i=0;i<n;i++)
+			x[i*n + pivot[i]] = 1;
+		substitute(x , n);
+		return new Matrix(x , 0 , n , n , n);
+	}
+
+	//Forward substitution with L then back substitution with U, x is n*k and already permuted, the rows are updated as a whole
+	private void substitute(double[] x , int k){
+		for(int i=1;i<n;i++){
+			int ri = i*k;
+			for(int p=0;p<i;p++){
+				double l = lu[i*n + p];
+				if(l == 0)
+					continue;
+				int rp = p*k;
+				for(int j=0;j<k;j++)
+					x[ri+j] -= l*x[rp+j];
+			}
+		}
+		for(int i=n-1;i>=0;i--){
+			int ri = i*k;
+			for(int p=i+1;p<n;p++){
+				double u = lu[i*n + p];
+				if(u == 0)
+					continue;
+				int rp = p*k;
+				for(int j=0;j<k;j++)
+					x[ri+j] -= u*x[rp+j];
+			}
+			double d = lu[i*n + i];
+			for(int j=0;j<k;j++)
+				x[ri+j] /= d;
+		}
+	}
+}
@@ -1,9 +1,10 @@
 package com.mathutil.linearalgebra.matrix;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
-import com.mathutil.MathUtil;
 import com.mathutil.exceptions.MatrixCalculationException;
 import com.mathutil.exceptions.MatrixException;
 import com.mathutil.linearalgebra.SuperVector;
@@ -17,7 +18,12 @@ import com.mathutil.linearalgebra.SuperVector;
  * However, you can switch rows and columns in the matrix, you can get the element from the matrix or you can replace the 
  * element in the specific location to a new one.<br>
  * If the purpose of the matrix is to store informatoins only, please use <code>SimpleMatrix</code> instead.<br>
- * If the calculations are long and complex, please consider using {@link ExactMatrix}
+ * If the calculations are long and complex, please consider using {@link ExactMatrix}<br>
+ * {@link #subMatrix(int, int, int, int)} and {@link #transpose()} do not copy the elements, they return views that read the 
+ * same array with another offset, or with the rows and columns swapped. The views take part in the calculations like any 
+ * other matrix. They are copied on write: the first time a view or the matrix it comes from is modified by <code>set</code>, 
+ * <code>switchRow</code>, <code>switchCol</code>, <code>multiplyRow</code> or <code>multiplyCol</code>, the modified one copies 
+ * its elements first, so a view always behaves like a copy that was made when it was taken.
  *
  * @author danielxu
  * @see ExactMatrix
@@ -26,12 +32,27 @@ import com.mathutil.linearalgebra.SuperVector;
  */
 public class Matrix implements Matrixable<Number>{
 	
-	/**The matrix that stores the informations**/
-	private double[][] matrix;
+	/**The elements in row major order, the element at (i , j) is data[offset + i*stride + j]**/
+	private double[] data;
+	
+	/**The index of the first element in data**/
+	private int offset;
+	
+	/**The distance between the first elements of two adjacent rows in data**/
+	private int stride;
 	
 	/**The number of rows and columns**/
 	private int rows , cols;
 	
+	/**If the matrix is a transposed view, the element at (i , j) is data[offset + j*stride + i]**/
+	private boolean transposed;
+	
+	/**If the array may be read by a view, it will be copied before the matrix is modified**/
+	private boolean shared;
+	
+	/**If the array is given by {@link #wrap(double[], int, int, int, int)}, it belongs to the caller and is never copied on write**/
+	private boolean external;
+	
 	/**
 	 * Create an empty matrix that has no elements in it
 	 */
@@ -59,31 +80,30 @@ public class Matrix implements Matrixable<Number>{
 		
 		//Vectors as row
 		if(asRow){
-			matrix = new double[vectors.length][dimension];
-			
+			init(vectors.length , dimension);
 			for(int i=0;i<vectors.length;i++){
 				if(vectors[i] == null)
 					throw new MatrixException("The vectors cannot be null");
 				
+				Number[] compo = vectors[i].getComponents();
 				for(int j=0;j<dimension;j++){
-					matrix[i][j] = vectors[i].getComponents()[j];
+					data[i*stride + j] = compo[j].doubleValue();
 				}
 			}
 		}
 		//Vectors as columns
 		else{
-			matrix = new double[dimension][vectors.length];
-			for(int i=0;i<dimension;i++){
-				for(int j=0;j<vectors.length;j++){
-					if(vectors[j] == null)
-						throw new MatrixException("The vectors cannot be null");
-					matrix[i][j] = vectors[j].getComponents()[i];
+			init(dimension , vectors.length);
+			for(int j=0;j<vectors.length;j++){
+				if(vectors[j] == null)
+					throw new MatrixException("The vectors cannot be null");
+				
+				Number[] compo = vectors[j].getComponents();
+				for(int i=0;i<dimension;i++){
+					data[i*stride + j] = compo[i].doubleValue();
 				}
 			}
 		}
-		
-		rows = matrix.length;
-		cols = matrix[0].length;
 	}
 	
 	/**
@@ -106,15 +126,93 @@ public class Matrix implements Matrixable<Number>{
 		if(matrix == null)
 			throw new MatrixException("The matrix cannot be null");
 		checkRows(matrix);
-		this.matrix = new double[matrix.length][matrix[0].length];
-		
-		rows = matrix.length;
-		cols = matrix[0].length;
+		init(matrix.length , matrix[0].length);
 		
 		//Deep clone from the array, modify the input array will not affect the array that stores in matrix
-		for(int i=0;i<matrix.length;i++)
-			for(int j=0;j<matrix[0].length;j++)
-				this.matrix[i][j] = convertToDouble(matrix[i][j]);
+		for(int i=0;i<rows;i++)
+			for(int j=0;j<cols;j++)
+				data[i*stride + j] = convertToDouble(matrix[i][j]);
+	}
+	
+	/**
+	 * Create a new matrix from a two dimensional array of primitive doubles, the elements are copied without boxing. 
+	 * Please remember that the length of each row in the matrix should always be the same.
+	 * @param matrix - The two dimensional array that stores all the elements
+	 */
+	public Matrix(double[][] matrix){
+		if(matrix == null)
+			throw new MatrixException("The matrix cannot be null");
+		for(int i=0;i<matrix.length;i++){
+			if(matrix[i] == null || matrix[i].length != matrix[0].length)
+				throw new MatrixException("Rows in matrix must have the same length");
+		}
+		init(matrix.length , matrix[0].length);
+		for(int i=0;i<rows;i++)
+			System.arraycopy(matrix[i], 0, data, i*stride, cols);
+	}
+	
+	/**
+	 * Create a new matrix that all the elements are 0.
+	 * @param rows - The number of rows
+	 * @param cols - The number of columns
+	 */
+	public Matrix(int rows , int cols){
+		if(rows <= 0 || cols <= 0)
+			throw new MatrixException("Illegal dimension of the matrix "+rows+" * "+cols);
+		init(rows , cols);
+	}
+	
+	/**
+	 * Only visible for package. Use the array directly as the storage of the matrix, without copying.
+	 * @param data - The array
+	 * @param offset - The index of the first element
+	 * @param rows - The number of rows
+	 * @param cols - The number of columns
+	 * @param stride - The distance between two rows in the array
+	 */
+	Matrix(double[] data , int offset , int rows , int cols , int stride){
+		this.data = data;
+		this.offset = offset;
+		this.rows = rows;
+		this.cols = cols;
+		this.stride = stride;
+	}
+	
+	/**
+	 * Create a matrix that uses the given array as its storage directly, the array is <strong>not</strong> copied. The elements 
+	 * are in row major order, which means the element at row i and column j is <code>data[i*cols + j]</code>. Modifying the array 
+	 * will change the matrix, and setting the elements of the matrix will change the array.
+	 * @param data - The elements in row major order, the length must be at least rows*cols
+	 * @param rows - The number of rows
+	 * @param cols - The number of columns
+	 * @return The matrix that is backed by the array
+	 */
+	public static Matrix wrap(double[] data , int rows , int cols){
+		return wrap(data , 0 , rows , cols , cols);
+	}
+	
+	/**
+	 * Create a matrix that uses a part of the given array as its storage directly, the array is <strong>not</strong> copied. 
+	 * The element at row i and column j is <code>data[offset + i*stride + j]</code>, so a block of a larger row major array 
+	 * can be used as a matrix.
+	 * @param data - The array
+	 * @param offset - The index of the first element
+	 * @param rows - The number of rows
+	 * @param cols - The number of columns
+	 * @param stride - The distance between the first elements of two adjacent rows, at least cols
+	 * @return The matrix that is backed by the array. Its sub matrices and transpose are copies, since the array can be 
+	 * changed outside of the matrix
+	 */
+	public static Matrix wrap(double[] data , int offset , int rows , int cols , int stride){
+		if(data == null)
+			throw new MatrixException("The array cannot be null");
+		if(rows <= 0 || cols <= 0)
+			throw new MatrixException("Illegal dimension of the matrix "+rows+" * "+cols);
+		if(offset < 0 || stride < cols || offset + (long)(rows-1)*stride + cols > data.length)
+			throw new MatrixException("The array is too short for a "+rows+" * "+cols+" matrix");
+		Matrix m = new Matrix(data , offset , rows , cols , stride);
+		m.external = true;
+		return m;
 	}
 	
 	/**
@@ -131,16 +229,14 @@ public class Matrix implements Matrixable<Number>{
 		if(row <= 0 || col <= 0)
 			throw new MatrixException("Illegal dimension of the matrix "+row+" * "+col);
 		
-		Number[][] m = new Number[row][col];
+		Matrix m = new Matrix(row , col);
 		Random r = new Random();
 		
-		for(int i=0;i<row;i++){
-			for(int j=0;j<col;j++){
-				if(integer) m[i][j] = min + r.nextInt((int)max - (int)min + 1);
-				else m[i][j] = min + (max - min) * r.nextDouble();
-			}
+		for(int i=0;i<row*col;i++){
+			if(integer) m.data[i] = min + r.nextInt((int)max - (int)min + 1);
+			else m.data[i] = min + (max - min) * r.nextDouble();
 		}
-		return new Matrix(m);
+		return m;
 	}
 	
 	/**
@@ -167,7 +263,20 @@ public class Matrix implements Matrixable<Number>{
 	public void set(int row, int col, Number value) {
 		indexCheck(row , col);
 		double val = convertToDouble(value);
-		matrix[row][col] = val;
+		own();
+		data[offset + row*stride + col] = val;
+	}
+	
+	/**
+	 * Set the element in the matrix to a new one, without boxing
+	 * @param row - The row index of the element
+	 * @param col - The column index of the element 
+	 * @param value - The new value
+	 */
+	public void set(int row , int col , double value){
+		indexCheck(row , col);
+		own();
+		data[offset + row*stride + col] = value;
 	}
 
 	/**
@@ -178,7 +287,18 @@ public class Matrix implements Matrixable<Number>{
 	 */
 	public Number get(int row, int col) {
 		indexCheck(row , col);
-		return matrix[row][col];
+		return data[index(row , col)];
+	}
+	
+	/**
+	 * Get the element that at the specific row and column as a primitive double, without boxing
+	 * @param row - The row index of the element
+	 * @param col - The column index of the element 
+	 * @return The element that at the specific row and column
+	 */
+	public double getDouble(int row , int col){
+		indexCheck(row , col);
+		return data[index(row , col)];
 	}
 
 	/**
@@ -189,15 +309,19 @@ public class Matrix implements Matrixable<Number>{
 	public void switchRow(int row1, int row2) {
 		if(row1 < 0 || row2 < 0)
 			throw new MatrixException("The index row cannot smaller than 0");
-		if(row1 >= cols || row2 >= cols)
+		if(row1 >= rows || row2 >= rows)
 			throw new MatrixException("Index out of bound");
 		if(row1 == row2)
 			return;
+		own();
 		
 		//Siwtch their position
-		double[] temp = matrix[row1];
-		matrix[row1] = matrix[row2];
-		matrix[row2] = temp;
+		int a = offset + row1*stride , b = offset + row2*stride;
+		for(int j=0;j<cols;j++){
+			double temp = data[a+j];
+			data[a+j] = data[b+j];
+			data[b+j] = temp;
+		}
 	}
 
 	/**
@@ -212,11 +336,13 @@ public class Matrix implements Matrixable<Number>{
 			throw new MatrixException("Index out of bound");
 		if(col1 == col2)
 			return;
+		own();
 		
 		for(int i=0;i<rows;i++){
-			double temp = matrix[i][col1];
-			matrix[i][col1] = matrix[i][col2];
-			matrix[i][col2] = temp;
+			int r = offset + i*stride;
+			double temp = data[r+col1];
+			data[r+col1] = data[r+col2];
+			data[r+col2] = temp;
 		}
 	}
 	
@@ -226,11 +352,14 @@ public class Matrix implements Matrixable<Number>{
 	 * @param factor - The factor
 	 */
 	public void multiplyRow(int row , Number factor){
-		if(row > rows)
+		if(row < 0 || row >= rows)
 			throw new MatrixCalculationException("Index out of bound "+row);
 		
+		double f = factor.doubleValue();
+		own();
+		int r = offset + row*stride;
 		for(int i=0;i<cols;i++){
-			matrix[row][i] *= factor.doubleValue();
+			data[r+i] *= f;
 		}
 	}
 	
@@ -240,11 +369,13 @@ public class Matrix implements Matrixable<Number>{
 	 * @param factor - The factor
 	 */
 	public void multiplyCol(int col , Number factor){
-		if(col > cols)
+		if(col < 0 || col >= cols)
 			throw new MatrixCalculationException("Index out of bound "+col);
 		
+		double f = factor.doubleValue();
+		own();
 		for(int i=0;i<rows;i++){
-			matrix[i][col] *= factor.doubleValue();
+			data[offset + i*stride + col] *= f;
 		}
 	}
 	
@@ -254,7 +385,8 @@ public class Matrix implements Matrixable<Number>{
 	 * @param end_row - (Inclusive)The ending row for the subMatrix, it means where the subMatrix row ends at in the original matrix
 	 * @param start_col - (Inclusive)The starting column for the subMatrix, it means where the subMatrix column starts from in the original matrix
 	 * @param end_col - (Inclusive)The ending column for the subMatrix, it means where the subMatrix column ends at in the original matrix
-	 * @return The subMatrix with size: (end_row - start_row + 1) * (end_col - start_col + 1)
+	 * @return The subMatrix with size: (end_row - start_row + 1) * (end_col - start_col + 1), a view that shares the elements 
+	 * until one of them is modified
 	 */
 	public Matrix subMatrix(int start_row, int end_row, int start_col, int end_col) {
 		//Swicth the bounds if the lower bound is greater than the upper bound
@@ -269,20 +401,18 @@ public class Matrix implements Matrixable<Number>{
 			end_col = temp;
 		}
 		//Out of bound
-		if(start_row < 0 || start_row >= rows || end_col < 0 || end_col >= cols)
+		if(start_row < 0 || end_row >= rows || start_col < 0 || end_col >= cols)
 			throw new MatrixException("Index out of bound");
 		
-		int indexI = 0 ,indexJ = 0;
-		Number[][] b = new Number[(end_row - start_row)+1][(end_col - start_col)+1];
-		for(int i=start_row;i<=end_row;i++){
-			for(int j=start_col;j<=end_col;j++){
-				b[indexI][indexJ] = matrix[i][j];
-				indexJ++;
+		int r = end_row - start_row + 1 , c = end_col - start_col + 1;
+		if(external){
+			Matrix b = new Matrix(r , c);
+			for(int i=0;i<r;i++){
+				System.arraycopy(data, offset + (start_row+i)*stride + start_col, b.data, i*c, c);
 			}
-			indexI++;
-			indexJ = 0;
+			return b;
 		}
-		return new Matrix(b);
+		return view(index(start_row , start_col) , r , c , transposed);
 	}
 	
 	/**
@@ -290,7 +420,7 @@ public class Matrix implements Matrixable<Number>{
 	 * @return True if it is empty, false otherwise
 	 */
 	public boolean isEmpty(){
-		return matrix == null;
+		return data == null;
 	}
 	
 	/**
@@ -301,7 +431,7 @@ public class Matrix implements Matrixable<Number>{
 		BigDecimal[][] b = new BigDecimal[rows][cols];
 		for(int i=0;i<rows;i++){
 			for(int j=0;j<cols;j++){
-				b[i][j] = new BigDecimal(matrix[i][j]);
+				b[i][j] = new BigDecimal(data[index(i , j)]);
 			}
 		}
 		return new ExactMatrix(b);
@@ -321,20 +451,23 @@ public class Matrix implements Matrixable<Number>{
 		if(m.getRows() != getRows() || m.getCols() != getCols())
 			throw new MatrixCalculationException("Addition can only be applied on two matrices that have the same dimensions");
 		
-		int row = m.getRows();
-		int col = m.getCols();
-		
-		Number[][] result = new Number[row][col];
-		Number[][] m2 = m.getMatrix();
-		
-		for(int i=0;i<row;i++){
-			for(int j=0;j<col;j++){
-				double num1 = convertToDouble(m2[i][j]);
-				double num2 = matrix[i][j];
-				result[i][j] = num1 + num2;
+		Matrix result = new Matrix(rows , cols);
+		if(transposed || m.transposed){
+			for(int i=0;i<rows;i++){
+				for(int j=0;j<cols;j++)
+					result.data[i*cols + j] = data[index(i , j)] + m.data[m.index(i , j)];
 			}
+			return result;
+		}
+		DoubleKernels kernels = Kernels.get();
+		if(stride == cols && m.stride == cols){
+			kernels.add(rows*cols , data , offset , m.data , m.offset , result.data , 0);
+			return result;
+		}
+		for(int i=0;i<rows;i++){
+			kernels.add(cols , data , offset + i*stride , m.data , m.offset + i*m.stride , result.data , i*cols);
 		}
-		return new Matrix(result);
+		return result;
 	}
 	
 	/**
@@ -352,20 +485,23 @@ public class Matrix implements Matrixable<Number>{
 		if(m.getRows() != getRows() || m.getCols() != getCols())
 			throw new MatrixCalculationException("Substraction can only be applied on two matrices that have the same dimensions");
 		
-		int row = m.getRows();
-		int col = m.getCols();
-		
-		Number[][] result = new Number[row][col];
-		Number[][] m2 = m.getMatrix();
-		
-		for(int i=0;i<row;i++){
-			for(int j=0;j<col;j++){
-				double num1 = convertToDouble(matrix[i][j]);
-				double num2 = convertToDouble(m2[i][j]);
-				result[i][j] = num1 - num2;
+		Matrix result = new Matrix(rows , cols);
+		if(transposed || m.transposed){
+			for(int i=0;i<rows;i++){
+				for(int j=0;j<cols;j++)
+					result.data[i*cols + j] = data[index(i , j)] - m.data[m.index(i , j)];
 			}
+			return result;
+		}
+		DoubleKernels kernels = Kernels.get();
+		if(stride == cols && m.stride == cols){
+			kernels.substract(rows*cols , data , offset , m.data , m.offset , result.data , 0);
+			return result;
+		}
+		for(int i=0;i<rows;i++){
+			kernels.substract(cols , data , offset + i*stride , m.data , m.offset + i*m.stride , result.data , i*cols);
 		}
-		return new Matrix(result);
+		return result;
 	}
 	
 	/**
@@ -375,43 +511,116 @@ public class Matrix implements Matrixable<Number>{
 	 * be <i>m*q</i>. For example, matrixA <i>3*2</i> and MatrixB <i>2*4</i> matrix will produce a <i>3*4</i> matrix.<br>
 	 * And in matrix multiplication:<br>
 	 * <center>A*B ≠ B*A</center><br>
-	 * Which means, <code>matrix1.multiply(matrix2)</code> will <strong>NOT</strong> get the same result with <code>matrix2.multiply(matrix1)</code>
+	 * Which means, <code>matrix1.multiply(matrix2)</code> will <strong>NOT</strong> get the same result with <code>matrix2.multiply(matrix1)</code><br>
+	 * The large products are calculated by the threads of the common ForkJoinPool. If all the dimensions are at least 2048, 
+	 * the Strassen-Winograd algorithm {@link #multiplyStrassen(Matrix)} is used.
 	 * 
 	 * @param m - Another CalculableMatrix 
 	 * @return The new Matrix that contains the result of the multiplication
+	 * @see #multiply(Matrix, int)
+	 * @see #multiply(Matrix, ForkJoinPool)
+	 * @see #multiplyStrassen(Matrix, int)
 	 */
 	public Matrix multiply(Matrix m) {
+		matrixCheck(m);
+		if(Math.min(rows , Math.min(cols , m.cols)) >= MatrixKernels.STRASSEN_THRESHOLD && cols == m.rows)
+			return multiplyStrassen(m);
+		return multiply(m , MatrixKernels.DEFAULT_BLOCK_SIZE , ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Do multiplication between two matrices in the current thread only, see {@link #multiply(Matrix)}. The calculation is 
+	 * split into tiles of blockSize*blockSize, so the tiles stay in the CPU cache while they are used. The default block size 
+	 * is 64, which fits most CPUs. A larger block size might be faster on the CPUs that have larger caches.
+	 * 
+	 * @param m - Another CalculableMatrix 
+	 * @param blockSize - The size of the tiles, must be greater than 0
+	 * @return The new Matrix that contains the result of the multiplication
+	 */
+	public Matrix multiply(Matrix m , int blockSize) {
+		return multiply(m , blockSize , null);
+	}
+	
+	/**
+	 * Do multiplication between two matrices using the threads of the given pool, see {@link #multiply(Matrix)}. The result 
+	 * matrix is split into blocks recursively, and every block is calculated by a task of the pool. The small products(less 
+	 * than about 128*128*128 multiplications) are calculated in the current thread, since the tasks cost more than they save.
+	 * {@link #multiply(Matrix)} does the same with the common pool, this method is for sharing the threads with an existing 
+	 * ForkJoinPool of the application.
+	 * 
+	 * @param m - Another CalculableMatrix 
+	 * @param pool - The pool that runs the tasks
+	 * @return The new Matrix that contains the result of the multiplication
+	 */
+	public Matrix multiply(Matrix m , ForkJoinPool pool) {
+		if(pool == null)
+			throw new MatrixCalculationException("The pool cannot be null");
+		return multiply(m , MatrixKernels.DEFAULT_BLOCK_SIZE , pool);
+	}
+	
+	/**
+	 * Do multiplication between two matrices by the Strassen-Winograd algorithm, with the default cutoff 256. 
+	 * See {@link #multiplyStrassen(Matrix, int)}.
+	 * 
+	 * @param m - Another CalculableMatrix 
+	 * @return The new Matrix that contains the result of the multiplication
+	 */
+	public Matrix multiplyStrassen(Matrix m) {
+		return multiplyStrassen(m , MatrixKernels.STRASSEN_CUTOFF);
+	}
+	
+	/**
+	 * Do multiplication between two matrices by the Strassen-Winograd algorithm. The matrices are split into 2*2 blocks 
+	 * recursively, every level uses 7 block multiplications instead of 8, so the time grows like n^2.81 instead of n^3. 
+	 * When any dimension is not greater than the cutoff, the blocked multiplication of {@link #multiply(Matrix)} is used. 
+	 * The dimensions do not have to be powers of 2, an odd row or column is calculated separately.<br>
+	 * The result is not as accurate as the normal multiplication, the error is still bounded by the largest elements:
+	 * <center>max|C - A*B| &lt;= f(n) * u * max|A| * max|B|</center>
+	 * where u is the machine epsilon and f(n) grows like n^4.17 instead of n, so it is only recommended for very large 
+	 * matrices whose elements have similar magnitudes. The error is documented in the tests. {@link #multiply(Matrix)} 
+	 * uses this method automatically when all the dimensions are at least 2048.
+	 * 
+	 * @param m - Another CalculableMatrix 
+	 * @param cutoff - The size below which the normal multiplication is used, at least 16
+	 * @return The new Matrix that contains the result of the multiplication
+	 */
+	public Matrix multiplyStrassen(Matrix m , int cutoff) {
+		matrixCheck(m);
+		if(getCols() != m.getRows())
+			throw new MatrixCalculationException("Multiplication can only be applied on two matrices that,\n"
+					+ "left side matrix's columns number equals to right side matrix's rows number");
+		if(cutoff < 16)
+			throw new MatrixCalculationException("The cutoff must be at least 16");
+		
+		//The transposed views are copied, O(n^2) compared with the O(n^2.81) multiplication
+		Matrix a = rowMajor() , b = m.rowMajor();
+		Matrix result = new Matrix(rows , m.cols);
+		MatrixKernels.strassen(rows , m.cols , cols , a.data , a.offset , a.stride , b.data , b.offset , b.stride , 
+				result.data , 0 , result.stride , cutoff , ForkJoinPool.commonPool());
+		return result;
+	}
+	
+	//Multiply by the blocked kernel, in the current thread if the pool is null
+	private Matrix multiply(Matrix m , int blockSize , ForkJoinPool pool) {
 		matrixCheck(m);
 		//Check if two matrices have the same dimensions
 		if(getCols() != m.getRows())
 			throw new MatrixCalculationException("Multiplication can only be applied on two matrices that,\n"
 					+ "left side matrix's columns number equals to right side matrix's rows number");
+		if(blockSize <= 0)
+			throw new MatrixCalculationException("The block size must be greater than 0");
 		
 		//Matrix1: m*n , Matrix2: p*q , M1*M2 = m*q
-		int row = rows;
-		int col = m.getCols();
-		
-		Number[][] result = new Number[row][col];
-		Number[][] m2 = m.getMatrix();
-		//Initialize the number to 0
-		for(int i=0;i<result.length;i++){
-			for(int j=0;j<result[0].length;j++){
-				result[i][j] = 0d;
-			}
+		Matrix result = new Matrix(rows , m.cols);
+		if(pool == null){
+			MatrixKernels.gemm(transposed , m.transposed , rows , m.cols , cols , 1 , data , offset , stride , 
+					m.data , m.offset , m.stride , 0 , result.data , 0 , result.stride , blockSize);
 		}
-		
-		for(int i=0;i<matrix.length;i++){
-			for(int j=0;j<m2[0].length;j++){
-				for(int k=0;k<matrix[0].length;k++){
-					double num1 = convertToDouble(matrix[i][k]);
-					double num2 = convertToDouble(m2[k][j]);
-					double temp = convertToDouble(result[i][j]);
-					result[i][j] = temp+(num1*num2);
-				}
-			}
+		else{
+			MatrixKernels.gemm(transposed , m.transposed , rows , m.cols , cols , 1 , data , offset , stride , 
+					m.data , m.offset , m.stride , 0 , result.data , 0 , result.stride , blockSize , pool);
 		}
-		
-		return new Matrix(result);
+		return result;
 	}
 	
 	/**
@@ -427,62 +636,176 @@ public class Matrix implements Matrixable<Number>{
 		if(factor == null)
 			throw new MatrixCalculationException("The factor cannot be null");
 		
-		Number[][] result = new Number[rows][cols];
-		
-		for(int i=0;i<matrix.length;i++){
-			for(int j=0;j<matrix[0].length;j++){
-				double fac = convertToDouble(factor);
-				double origin = convertToDouble(matrix[i][j]);
-				result[i][j] = origin*fac;
+		double fac = convertToDouble(factor);
+		Matrix result = new Matrix(rows , cols);
+		if(transposed){
+			for(int i=0;i<rows;i++){
+				for(int j=0;j<cols;j++)
+					result.data[i*cols + j] = fac*data[index(i , j)];
+			}
+			return result;
+		}
+		DoubleKernels kernels = Kernels.get();
+		if(stride == cols){
+			kernels.scale(rows*cols , fac , data , offset , result.data , 0);
+			return result;
+		}
+		for(int i=0;i<rows;i++){
+			kernels.scale(cols , fac , data , offset + i*stride , result.data , i*cols);
+		}
+		return result;
+	}
+	
+	/**
+	 * Add another matrix to this matrix, the elements of this matrix are replaced by the sum. It is the same as 
+	 * <code>add(m)</code> but no new matrix is created, for the loops that update a matrix many times.
+	 * @param m - Another matrix that have the same dimensions
+	 * @return This matrix
+	 */
+	public Matrix addInPlace(Matrix m){
+		matrixCheck(m);
+		if(m.getRows() != getRows() || m.getCols() != getCols())
+			throw new MatrixCalculationException("Addition can only be applied on two matrices that have the same dimensions");
+		own();
+		if(m.transposed){
+			for(int i=0;i<rows;i++){
+				int a = offset + i*stride;
+				for(int j=0;j<cols;j++)
+					data[a+j] += m.data[m.index(i , j)];
+			}
+			return this;
+		}
+		DoubleKernels kernels = Kernels.get();
+		for(int i=0;i<rows;i++){
+			kernels.add(cols , data , offset + i*stride , m.data , m.offset + i*m.stride , data , offset + i*stride);
+		}
+		return this;
+	}
+	
+	/**
+	 * Substract another matrix from this matrix, the elements of this matrix are replaced by the difference. It is the same as 
+	 * <code>substract(m)</code> but no new matrix is created.
+	 * @param m - Another matrix that have the same dimensions
+	 * @return This matrix
+	 */
+	public Matrix substractInPlace(Matrix m){
+		matrixCheck(m);
+		if(m.getRows() != getRows() || m.getCols() != getCols())
+			throw new MatrixCalculationException("Substraction can only be applied on two matrices that have the same dimensions");
+		own();
+		if(m.transposed){
+			for(int i=0;i<rows;i++){
+				int a = offset + i*stride;
+				for(int j=0;j<cols;j++)
+					data[a+j] -= m.data[m.index(i , j)];
 			}
+			return this;
+		}
+		DoubleKernels kernels = Kernels.get();
+		for(int i=0;i<rows;i++){
+			kernels.substract(cols , data , offset + i*stride , m.data , m.offset + i*m.stride , data , offset + i*stride);
 		}
-		return new Matrix(result);
+		return this;
+	}
+	
+	/**
+	 * Multiply all the elements of this matrix by a factor. It is the same as <code>factor(factor)</code> but no new matrix 
+	 * is created.
+	 * @param factor - The factor
+	 * @return This matrix
+	 */
+	public Matrix scaleInPlace(double factor){
+		own();
+		DoubleKernels kernels = Kernels.get();
+		for(int i=0;i<rows;i++){
+			kernels.scale(cols , factor , data , offset + i*stride , data , offset + i*stride);
+		}
+		return this;
+	}
+	
+	/**
+	 * Multiply this matrix by another matrix and write the product into the destination, see {@link #multiply(Matrix)}. 
+	 * The old elements of the destination are replaced, so one destination can be used again and again without creating 
+	 * new matrices. The large products are calculated by the threads of the common ForkJoinPool.
+	 * @param m - The matrix on the right side
+	 * @param dest - The destination, rows of this matrix * columns of m, cannot be this matrix or m
+	 * @return The destination
+	 */
+	public Matrix multiplyInto(Matrix m , Matrix dest){
+		return dest.multiplyAdd(1 , this , m , 0);
+	}
+	
+	/**
+	 * C = alpha*A*B + beta*C, where C is this matrix, the GEMM of BLAS. The product is added to the scaled elements of 
+	 * this matrix in one pass, without creating the product as a new matrix. If beta is 0, the old elements are ignored, 
+	 * even if they are NaN. The large products are calculated by the threads of the common ForkJoinPool.
+	 * @param alpha - The factor of the product
+	 * @param a - The matrix on the left side, its rows must be the rows of this matrix
+	 * @param b - The matrix on the right side, its columns must be the columns of this matrix
+	 * @param beta - The factor of this matrix
+	 * @return This matrix
+	 */
+	public Matrix multiplyAdd(double alpha , Matrix a , Matrix b , double beta){
+		matrixCheck(a);
+		matrixCheck(b);
+		if(a.getCols() != b.getRows())
+			throw new MatrixCalculationException("Multiplication can only be applied on two matrices that,\n"
+					+ "left side matrix's columns number equals to right side matrix's rows number");
+		if(a.getRows() != rows || b.getCols() != cols)
+			throw new MatrixCalculationException("The destination must be a "+a.getRows()+" * "+b.getCols()+" matrix");
+		own();
+		if(data == a.data || data == b.data)
+			throw new MatrixCalculationException("The destination cannot share the elements with the matrices that are multiplied");
+		
+		MatrixKernels.gemm(a.transposed , b.transposed , rows , cols , a.cols , alpha , a.data , a.offset , a.stride , 
+				b.data , b.offset , b.stride , beta , data , offset , stride , MatrixKernels.DEFAULT_BLOCK_SIZE , ForkJoinPool.commonPool());
+		return this;
 	}
 	
 	/**
 	 * Transpose the matrix, if the size of the original matrix is m*n, after transposed, the size will be n*m
-	 * @return The matrix after transposed.
+	 * @return The matrix after transposed, a view that shares the elements until one of them is modified
 	 */
 	public Matrix transpose(){
-		Number[][] result = new Number[cols][rows];
-		
-		for(int i=0;i<matrix.length;i++){
-			for(int j=0;j<matrix[0].length;j++){
-				result[j][i] = matrix[i][j];
+		if(!external)
+			return view(offset , cols , rows , !transposed);
+		Matrix result = new Matrix(cols , rows);
+		for(int i=0;i<rows;i++){
+			int a = offset + i*stride;
+			for(int j=0;j<cols;j++){
+				result.data[j*rows + i] = data[a+j];
 			}
 		}
-		
-		return new Matrix(result);
+		return result;
 	}
 	
 	/**
-	 * Raise the matrix to the power of n. The result will be rounded to two decimal places in order to eliminate the accuracy loss<br>
+	 * Raise the matrix to the power of n.<br>
 	 * <ul>
 	 * <li>If n = 0, get the identity matrix. There's a property, if I is the identity matrix of matrix A then: <br><center>A*I = I*A = A</center></li>
 	 * <li>If n > 0, it's the same as mutiply the matrix for n times</li>
-	 * <li>If n < 0, it's the same as multiply the matrix for n times then invert it. There's a property:<br>
+	 * <li>If n < 0, it's the same as invert the matrix then multiply the inverse for n times. There's a property:<br>
 	 * 		<center>A^-1 * A = I  &nbsp or  &nbsp  A*A^-1 = I</center><br>
 	 * 		if the matrix is the identity matrix I, then<br>
 	 * 		<center>I^-1 = I</center><br>
 	 * 		
 	 * </ul>
+	 * The power is calculated by repeated squaring, A^13 = A^8 * A^4 * A, so it takes at most 2*log2(n) multiplications 
+	 * instead of n-1. The powers of a diagonal matrix are the powers of the diagonal elements, O(n^2). To calculate many 
+	 * powers of the same matrix, or to use its eigenvalues, please use {@link MatrixPowers}.
 	 * @param n - The power, can be positive integer, negative integer, or 0
 	 * @return If n = 0, return the identity of the matrix. If n > 0, return the matrix that raise to the power of n. 
 	 * If n < 0, return the inverse of the matrix to the power of n.
+	 * @see MatrixPowers
 	 */
 	public Matrix power(int n) {
 		//Identity matrix
 		if(n == 0){
-			Number[][] result = new Number[rows][cols];
-			int index = 0;
-			for(int i=0;i<result.length;i++){
-				for(int j=0;j<result[0].length;j++){
-					result[i][j] = 0;
-					if(j == index) result[i][j] = 1;
-				}
-				index ++;
+			Matrix result = new Matrix(rows , cols);
+			for(int i=0;i<Math.min(rows , cols);i++){
+				result.data[i*cols + i] = 1;
 			}
-			return new Matrix(result);
+			return result;
 		}
 		
 		//Raise to the power of n
@@ -491,47 +814,71 @@ public class Matrix implements Matrixable<Number>{
 				return this;
 			if(getRows() != getCols())
 				throw new MatrixCalculationException("Only square matrix can be raised to the power of "+n);
-			//Keep multiplying itslef
-			Matrix m = this;
-			for(int i=1;i<n;i++){
-				m = m.multiply(this);
-			}
-			return m;
+			if(isDiagonal())
+				return diagonalPower(n);
+			return squaring(n);
 		}
 		
 		//Inverse
 		else{
 			if(getRows() != getCols())
 				throw new MatrixCalculationException("Only square matrix can be raised to the power of "+n);
-			//Only one element in the matrix
-			if(rows == 1 && cols == 1){
-				if(matrix[0][0] == 0)
-					throw new MatrixCalculationException("The determinant is 0, it is invertible");
-				
-				double r = 1 / matrix[0][0];
-				Number[][] result = new Number[][]{
-					{r}
-				};
-				return new Matrix(result);
-			}
-			//It's not Invertible
-			if(determinant(matrix) == 0)
-				throw new MatrixCalculationException("The determinant of the matrix is 0, it is invertible");
+			if(isDiagonal())
+				return diagonalPower(n);
 			
-			if(n == -1){
-				double[][] r = invert(deepClone()); //invert the matrix
-				return new Matrix(convertToNumber(r));
-			}
-			else{
-				Matrix m = this.power(Math.abs(n)).power(-1);
-				return m;
+			Matrix inverse = lu().inverse();
+			if(n == -1)
+				return inverse;
+			//-n overflows for Integer.MIN_VALUE
+			return inverse.squaring(-(long)n);
+		}
+	}
+	
+	/**
+	 * Check if all the elements that are not on the diagonal are 0, only visible for package.
+	 * @return True if the matrix is diagonal
+	 */
+	boolean isDiagonal(){
+		for(int i=0;i<rows;i++){
+			for(int j=0;j<cols;j++){
+				if(i != j && data[index(i , j)] != 0)
+					return false;
 			}
 		}
+		return true;
+	}
+	
+	//Raise a diagonal matrix to the power of n by its diagonal elements
+	private Matrix diagonalPower(int n){
+		Matrix result = new Matrix(rows , cols);
+		for(int i=0;i<rows;i++){
+			double d = data[index(i , i)];
+			if(n < 0 && d == 0)
+				throw new MatrixCalculationException("The determinant of the matrix is 0, it is not invertible");
+			result.data[i*cols + i] = Math.pow(d , n);
+		}
+		return result;
+	}
+	
+	//Raise a square matrix to the power of n > 1 by repeated squaring
+	private Matrix squaring(long n){
+		Matrix result = null;
+		Matrix square = this;
+		while(true){
+			if((n & 1) == 1)
+				result = result == null ? square : result.multiply(square);
+			n >>= 1;
+			if(n == 0)
+				return result;
+			square = square.multiply(square);
+		}
 	}
 	
 	/**
 	 * Invert the matrix, it's the same as saying <code>power(-1)</code>. Please notice that not every matrix can be inverted, only square matrices that have 
-	 * the non-zero determinant can be inverted. Call <code>det()</code> can get the determinant of the matrix.
+	 * the non-zero determinant can be inverted. Call <code>det()</code> can get the determinant of the matrix.<br>
+	 * The inverse is calculated from the LU decomposition {@link #lu()}. To solve a linear system, {@link LUDecomposition#solve(Matrix)} 
+	 * is faster and more accurate than multiplying by the inverse.
 	 * @return The inverted matrix
 	 * @see {@link #power(int)}
 	 */
@@ -541,22 +888,122 @@ public class Matrix implements Matrixable<Number>{
 	
 	/**
 	 * Find the determinant of the matrix. Please notice that only <strong>square matrices</strong> have determinant, it means only the 
-	 * matrices that have dimension n*n have determinant
+	 * matrices that have dimension n*n have determinant. It is the product of the pivots of the LU decomposition, O(n^3).
 	 * @return The determinant of the matrix as a number
 	 */
 	public double det() {
 		if(getRows() != getCols())
 			throw new MatrixCalculationException("Only square matrix has determinant");
 		
-		return determinant(matrix);
+		return lu().det();
 	}
 	
+	/**
+	 * Decompose the matrix into P*A = L*U by Gaussian elimination with partial pivoting. The decomposition can be used to 
+	 * find the determinant, the inverse, and to solve the linear systems for many right hand sides without doing the 
+	 * elimination again. Only square matrices can be decomposed.
+	 * @return The LU decomposition
+	 * @see LUDecomposition
+	 */
+	public LUDecomposition lu(){
+		return new LUDecomposition(this);
+	}
+
+	/**
+	 * Decompose a symmetric positive definite matrix into A = L*L^T, which is twice as fast as {@link #lu()} and needs no pivoting.
+	 * Only the lower triangle is read, {@link CholeskyDecomposition#isPositiveDefinite()} tells if the decomposition succeeded.
+	 * @return The Cholesky decomposition
+	 * @see CholeskyDecomposition
+	 */
+	public CholeskyDecomposition cholesky(){
+		return new CholeskyDecomposition(this);
+	}
+
+	/**
+	 * Decompose the matrix into A = Q*R by Householder reflections, any size of matrix can be decomposed. The decomposition
+	 * solves the overdetermined systems in the least squares sense.
+	 * @return The QR decomposition without pivoting
+	 * @see QRDecomposition
+	 */
+	public QRDecomposition qr(){
+		return new QRDecomposition(this);
+	}
+
+	/**
+	 * Decompose the matrix into A*P = Q*R by Householder reflections, the columns are pivoted if it is required, which finds
+	 * the rank and solves the rank deficient systems.
+	 * @param pivoting - True to pivot the columns
+	 * @return The QR decomposition
+	 * @see QRDecomposition
+	 */
+	public QRDecomposition qr(boolean pivoting){
+		return new QRDecomposition(this , pivoting);
+	}
+
+	/**
+	 * Find the eigenvalues and the eigenvectors of a symmetric matrix, only the lower triangle is read.
+	 * @return The eigenvalue decomposition A = V * D * V^T
+	 * @see EigenDecomposition
+	 */
+	public EigenDecomposition eigen(){
+		return new EigenDecomposition(this);
+	}
+
+	/**
+	 * Find the singular values and the singular vectors of the matrix, any size of matrix can be decomposed.
+	 * @return The singular value decomposition A = U * S * V^T
+	 * @see SingularValueDecomposition
+	 */
+	public SingularValueDecomposition svd(){
+		return new SingularValueDecomposition(this);
+	}
+
+	/**
+	 * Check if the matrix is square and equals to its transpose up to the rounding errors. A product like X^T*X is symmetric in
+	 * theory, but a_ij and a_ji may be summed in different orders(or with FMA by the SIMD kernels), so the pairs are compared with
+	 * the tolerance n*eps*max(|a_ij| , |a_ji| , sqrt(|a_ii*a_jj|)), the bound of the rounding errors of a dot product of length n.
+	 * @return True if the matrix is symmetric, false otherwise
+	 */
+	public boolean isSymmetric(){
+		if(isEmpty() || rows != cols)
+			return false;
+		double eps = Math.max(rows , 16)*Math.ulp(1.0);
+		for(int i=0;i<rows;i++){
+			double aii = Math.abs(data[index(i , i)]);
+			for(int j=0;j<i;j++){
+				double x = data[index(i , j)] , y = data[index(j , i)];
+				if(x == y)
+					continue;
+				double scale = Math.max(Math.max(Math.abs(x) , Math.abs(y)) , Math.sqrt(aii*Math.abs(data[index(j , j)])));
+				//NaN is never symmetric
+				if(!(Math.abs(x - y) <= eps*scale))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check if the matrix is symmetric positive definite(x^T*A*x > 0 for every nonzero x), by trying the Cholesky decomposition,
+	 * which fails as soon as a pivot is not positive. The cost is at most n^3/3 multiplications.
+	 * @return True if the matrix is symmetric positive definite, false otherwise
+	 */
+	public boolean isPositiveDefinite(){
+		if(!isSymmetric())
+			return false;
+		for(int i=0;i<rows;i++){
+			if(!(data[index(i , i)] > 0))
+				return false;
+		}
+		return cholesky().isPositiveDefinite();
+	}
+
 	/**
 	 * Get the Reduced Row Echelon Form(rref) of the matrix, any size of matrix can be transformed to the rref.
 	 * @return The rref of the current matrix
 	 */
 	public Matrix rref(){
-		return new Matrix(convertToNumber(calculateRREF()));
+		return new Matrix(calculateRREF());
 	}
 	
 	/**
@@ -593,7 +1040,38 @@ public class Matrix implements Matrixable<Number>{
 	 * @return The two dimensional array that represents the matrix
 	 */
 	public Number[][] getMatrix(){
-		return convertToNumber(matrix);
+		Number[][] r = new Number[rows][cols];
+		for(int i=0;i<rows;i++){
+			for(int j=0;j<cols;j++){
+				r[i][j] = data[index(i , j)];
+			}
+		}
+		return r;
+	}
+	
+	/**
+	 * Get a copy of the elements in row major order, which means the element at row i and column j is at index 
+	 * <code>i*cols + j</code>. The returned array can be modified without affecting the matrix, and can be wrapped 
+	 * by {@link #wrap(double[], int, int)}.
+	 * @return The elements in a one dimensional array, the length is rows*cols
+	 */
+	public double[] toDoubleArray(){
+		if(data == null)
+			return new double[0];
+		if(!transposed && offset == 0 && stride == cols)
+			return Arrays.copyOf(data, rows*cols);
+		double[] r = new double[rows*cols];
+		if(transposed){
+			for(int i=0;i<rows;i++){
+				for(int j=0;j<cols;j++)
+					r[i*cols + j] = data[offset + j*stride + i];
+			}
+			return r;
+		}
+		for(int i=0;i<rows;i++){
+			System.arraycopy(data, offset + i*stride, r, i*cols, cols);
+		}
+		return r;
 	}
 	
 	/**
@@ -603,15 +1081,15 @@ public class Matrix implements Matrixable<Number>{
 	 */
 	@Override
 	public String toString(){
-		if(matrix == null)
+		if(data == null)
 			return "Empty";
 		
 		StringBuilder result = new StringBuilder();
-		for(int i=0;i<matrix.length;i++){
-			for(int j=0;j<matrix[0].length;j++){
-				result.append(matrix[i][j]+"\t");
+		for(int i=0;i<rows;i++){
+			for(int j=0;j<cols;j++){
+				result.append(data[index(i , j)]).append("\t");
 			}
-			if(i != matrix.length-1)
+			if(i != rows-1)
 				result.append("\n");
 		}
 		return result.toString();
@@ -695,149 +1173,78 @@ public class Matrix implements Matrixable<Number>{
 			m[from_this_row][c1] -= scalar * m[subtract_scalar_times_this_row][c1];
 	}
 	
-	//Find the determinant recursively
-	private double determinant(double[][] arr) {
-		double result = 0;
-		if (arr.length == 1) {
-			result = convertToDouble(arr[0][0]);
-			return result;
-		}
-		if (arr.length == 2) {
-			result = arr[0][0] * arr[1][1] - arr[0][1] * arr[1][0];
-			return result;
-		}
-		for (int i=0; i<arr[0].length;i++) {
-			double temp[][] = new double[arr.length - 1][arr[0].length - 1];
-			for (int j=1;j<arr.length;j++) {
-				for (int k=0;k<arr[0].length;k++) {
-					if (k < i) {
-						temp[j-1][k] = arr[j][k];
-					} 
-					else if (k > i) {
-						temp[j-1][k-1] = arr[j][k];
-					}
-				}
-			}
-			result += arr[0][i] * Math.pow(-1, (int) i) * determinant(temp);
-		}
-		return result;
-	}
-	
-	//Invert
-	private double[][] invert(double a[][]) {
-        int n = a.length;
-        double x[][] = new double[n][n];
-        double b[][] = new double[n][n];
-        int index[] = new int[n];
-        for (int i=0; i<n; ++i) 
-            b[i][i] = 1;
- 
-        //Transform the matrix into an upper triangle
-        gaussian(a, index);
-        
-        //Update the matrix b[i][j] with the ratios stored
-        for (int i=0; i<n-1; ++i)
-            for (int j=i+1; j<n; ++j)
-                for (int k=0; k<n; ++k)
-                    b[index[j]][k]-= a[index[j]][i]*b[index[i]][k];
- 
-        //Perform backward substitutions
-        for (int i=0; i<n; ++i) {
-            x[n-1][i] = b[index[n-1]][i]/a[index[n-1]][n-1];
-            for (int j=n-2; j>=0; --j) {
-                x[j][i] = b[index[j]][i];
-                for (int k=j+1; k<n; ++k) {
-                    x[j][i] -= a[index[j]][k]*x[k][i];
-                }
-                x[j][i] /= a[index[j]][j];
-            }
-        }
-        
-        for(int i=0;i<x.length;i++){
-        	for(int j=0;j<x[0].length;j++){
-        		x[i][j] = MathUtil.round(x[i][j] , 2);
-        	}
-        }
-        return x;
-    }
- 
-	//Method to carry out the partial-pivoting Gaussian
-	//elimination.  Here index[] stores pivoting order.
-    private void gaussian(double a[][], int index[]) {
-        int n = index.length;
-        double c[] = new double[n];
- 
-        // Initialize the index
-        for (int i=0; i<n; ++i) 
-            index[i] = i;
- 
-        //Find the rescaling factors, one from each row
-        for (int i=0; i<n; ++i) {
-            double c1 = 0;
-            for (int j=0; j<n; ++j) {
-                double c0 = Math.abs(a[i][j]);
-                if (c0 > c1) c1 = c0;
-            }
-            c[i] = c1;
-        }
- 
-        //Search the pivoting element from each column
-        int k = 0;
-        for (int j=0; j<n-1; ++j) {
-            double pi1 = 0;
-            for (int i=j; i<n; ++i) {
-                double pi0 = Math.abs(a[index[i]][j]);
-                pi0 /= c[index[i]];
-                if (pi0 > pi1) {
-                    pi1 = pi0;
-                    k = i;
-                }
-            }
- 
-            //Interchange rows according to the pivoting order
-            int itmp = index[j];
-            index[j] = index[k];
-            index[k] = itmp;
-            for (int i=j+1; i<n; ++i) 	{
-                double pj = a[index[i]][j]/a[index[j]][j];
- 
-                //Record pivoting ratios below the diagonal
-                a[index[i]][j] = pj;
- 
-                //Modify other elements accordingly
-                for (int l=j+1; l<n; ++l)
-                    a[index[i]][l] -= pj*a[index[j]][l];
-            }
-        }
-    }
-	
     //Get a copy of the matrix
     //deep clone the two dimensional array, prevent from modifying the original values
     private double[][] deepClone(){
     	double[][] r = new double[rows][cols];
     	for(int i=0;i<r.length;i++){
-    		for(int j=0;j<r[0].length;j++){
-    			r[i][j] = matrix[i][j];
+    		if(transposed){
+    			for(int j=0;j<cols;j++)
+    				r[i][j] = data[offset + j*stride + i];
     		}
+    		else
+    			System.arraycopy(data, offset + i*stride, r[i], 0, cols);
     	}
     	return r;
     }
     
-    //Get a copy of the matrix
-    //this method deep clone the two dimensional array and return Number type
-    private Number[][] convertToNumber(double[][] matrix){
-    	Number[][] r = new Number[rows][cols];
-    	for(int i=0;i<r.length;i++){
-    		for(int j=0;j<r[0].length;j++){
-    			r[i][j] = matrix[i][j];
-    		}
-    	}
-    	return r;
+    //Allocate the storage, a new matrix always has stride = cols
+    private void init(int rows , int cols){
+    	this.rows = rows;
+    	this.cols = cols;
+    	this.stride = cols;
+    	this.offset = 0;
+    	this.data = new double[rows*cols];
+    }
+    
+    //The index of the element (i , j) in the array
+    private int index(int i , int j){
+    	return transposed ? offset + j*stride + i : offset + i*stride + j;
+    }
+    
+    //A view of the same array, both of them copy the array before they are modified
+    private Matrix view(int offset , int rows , int cols , boolean transposed){
+    	Matrix v = new Matrix(data , offset , rows , cols , stride);
+    	v.transposed = transposed;
+    	v.shared = true;
+    	shared = true;
+    	return v;
+    }
+    
+    //Copy on write, a shared or transposed matrix gets its own row major copy of the elements before it is modified
+    private void own(){
+    	if(!shared && !transposed)
+    		return;
+    	data = toDoubleArray();
+    	offset = 0;
+    	stride = cols;
+    	transposed = false;
+    	shared = false;
+    }
+    
+    //The matrix itself if it is stored in row major order, or a row major copy if it is transposed
+    Matrix rowMajor(){
+    	return transposed ? new Matrix(toDoubleArray() , 0 , rows , cols , cols) : this;
+    }
+    
+    //The array that stores the elements in row major order unless it is transposed, only for the calculations in the package
+    double[] array(){
+    	return data;
+    }
+    
+    //The index of the first element in the array
+    int offset(){
+    	return offset;
+    }
+    
+    //The distance between two rows in the array
+    int stride(){
+    	return stride;
     }
     
 	//Check if the matrix is null, if the array is empty or if the array contain elements
 	private void matrixCheck(Matrix m){
-		if(m == null || m.getMatrix() == null || m.getRows() == 0 || m.getCols() == 0)
+		if(m == null || m.isEmpty() || m.getRows() == 0 || m.getCols() == 0)
 			throw new MatrixCalculationException("The matrix can not be null");
 	}
 	
@@ -0,0 +1,310 @@
+package com.mathutil.linearalgebra.matrix;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The loops of the matrix calculations on primitive row major arrays, only for the matrices in the package.
+ * The element (i , j) of a matrix is at <code>array[offset + i*ld + j]</code>, where ld is the distance between two rows.
+ *
+ * @author danielxu
+ */
+final class MatrixKernels {
+
+	/**The default tile size of the blocked multiplication, 64*64 doubles of B(32KB) fit in the L2 cache**/
+	static final int DEFAULT_BLOCK_SIZE = 64;
+
+	/**The number of multiply-adds(m*n*k) below which the multiplication stays in one thread, 128^3**/
+	static final long PARALLEL_THRESHOLD = 128L*128*128;
+
+	/**The number of multiply-adds of one task in the parallel multiplication**/
+	private static final long TASK_WORK = 64L*64*256;
+
+	/**The default size below which Strassen-Winograd recursion stops and the blocked kernel is used**/
+	static final int STRASSEN_CUTOFF = 256;
+
+	/**The size from which Matrix.multiply switches to Strassen-Winograd automatically**/
+	static final int STRASSEN_THRESHOLD = 2048;
+
+	//No instance, static class
+	private MatrixKernels(){}
+
+	/**
+	 * C = alpha*A*B + beta*C, where A is m*k, B is k*n and C is m*n. The loops are split into tiles of the block size so a tile of
+	 * B stays in the cache while it is used by all the rows of the tile of A. The tiles are multiplied by
+	 * {@link DoubleKernels#multiplyAdd} of the selected kernels.
+	 */
+	static void gemm(int m , int n , int k , double alpha ,
+			double[] a , int aOff , int lda ,
+			double[] b , int bOff , int ldb ,
+			double beta , double[] c , int cOff , int ldc , int block){
+		gemm(false , false , m , n , k , alpha , a , aOff , lda , b , bOff , ldb , beta , c , cOff , ldc , block);
+	}
+
+	/**
+	 * The same as {@link #gemm(int, int, int, double, double[], int, int, double[], int, int, double, double[], int, int, int)},
+	 * but A or B can be stored transposed: if transA is true, the element (i , p) of A is at a[aOff + p*lda + i], and if transB
+	 * is true, the element (p , j) of B is at b[bOff + j*ldb + p]. A transposed tile is packed into a row major buffer of
+	 * block*block before it is multiplied, so the transposed matrices are never copied as a whole.
+	 */
+	static void gemm(boolean transA , boolean transB , int m , int n , int k , double alpha ,
+			double[] a , int aOff , int lda ,
+			double[] b , int bOff , int ldb ,
+			double beta , double[] c , int cOff , int ldc , int block){
+		scale(m , n , beta , c , cOff , ldc);
+		if(alpha == 0)
+			return;
+
+		DoubleKernels kernels = Kernels.get();
+		double[] packA = transA ? new double[block*block] : null;
+		double[] packB = transB ? new double[block*block] : null;
+		for(int ii=0;ii<m;ii+=block){
+			int iEnd = Math.min(ii + block , m);
+			for(int kk=0;kk<k;kk+=block){
+				int kEnd = Math.min(kk + block , k);
+				double[] at = a;
+				int atOff = aOff + ii*lda + kk , ldat = lda;
+				if(transA){
+					pack(iEnd - ii , kEnd - kk , a , aOff + kk*lda + ii , lda , packA);
+					at = packA;
+					atOff = 0;
+					ldat = kEnd - kk;
+				}
+				for(int jj=0;jj<n;jj+=block){
+					int jEnd = Math.min(jj + block , n);
+					double[] bt = b;
+					int btOff = bOff + kk*ldb + jj , ldbt = ldb;
+					if(transB){
+						pack(kEnd - kk , jEnd - jj , b , bOff + jj*ldb + kk , ldb , packB);
+						bt = packB;
+						btOff = 0;
+						ldbt = jEnd - jj;
+					}
+					kernels.multiplyAdd(iEnd - ii , jEnd - jj , kEnd - kk , alpha , at , atOff , ldat ,
+							bt , btOff , ldbt , c , cOff + ii*ldc + jj , ldc);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The same as {@link #gemm(int, int, int, double, double[], int, int, double[], int, int, double, double[], int, int, int)},
+	 * but C is split into blocks recursively and the blocks are calculated by the threads of the pool. Every block of C is written
+	 * by only one task, so there is no synchronization. If the work is less than {@link #PARALLEL_THRESHOLD} or the pool has only
+	 * one thread, it is done in the current thread.<br>
+	 * With {@link ScalarKernels} every element is summed in the same order as the single-threaded gemm, so the results are exactly
+	 * the same. Other kernels, like the SIMD ones, may split the columns of a block into the vectors and a scalar tail differently,
+	 * then the elements can differ in the last bits.
+	 */
+	static void gemm(int m , int n , int k , double alpha ,
+			double[] a , int aOff , int lda ,
+			double[] b , int bOff , int ldb ,
+			double beta , double[] c , int cOff , int ldc , int block , ForkJoinPool pool){
+		gemm(false , false , m , n , k , alpha , a , aOff , lda , b , bOff , ldb , beta , c , cOff , ldc , block , pool);
+	}
+
+	/**
+	 * The parallel version of {@link #gemm(boolean, boolean, int, int, int, double, double[], int, int, double[], int, int, double, double[], int, int, int)}.
+	 */
+	static void gemm(boolean transA , boolean transB , int m , int n , int k , double alpha ,
+			double[] a , int aOff , int lda ,
+			double[] b , int bOff , int ldb ,
+			double beta , double[] c , int cOff , int ldc , int block , ForkJoinPool pool){
+		if((long)m*n*k < PARALLEL_THRESHOLD || pool.getParallelism() <= 1){
+			gemm(transA , transB , m , n , k , alpha , a , aOff , lda , b , bOff , ldb , beta , c , cOff , ldc , block);
+			return;
+		}
+		pool.invoke(new ParallelGemm(transA , transB , 0 , m , 0 , n , k , alpha , a , aOff , lda , b , bOff , ldb , 
+				beta , c , cOff , ldc , block));
+	}
+
+	//Copy a rows*cols block stored by columns(the element (i , j) at src[off + j*ld + i]) into dest in row major order
+	private static void pack(int rows , int cols , double[] src , int off , int ld , double[] dest){
+		for(int j=0;j<cols;j++){
+			int s = off + j*ld;
+			for(int i=0;i<rows;i++)
+				dest[i*cols + j] = src[s + i];
+		}
+	}
+
+	/*
+	 * Calculate the block [i0 , i1) * [j0 , j1) of C, split the longer side in half until the work is small enough
+	 */
+	private static final class ParallelGemm extends RecursiveAction{
+		private static final long serialVersionUID = 1L;
+
+		private final boolean transA , transB;
+		private final int i0 , i1 , j0 , j1 , k , block;
+		private final double alpha , beta;
+		private final double[] a , b , c;
+		private final int aOff , lda , bOff , ldb , cOff , ldc;
+
+		ParallelGemm(boolean transA , boolean transB , int i0 , int i1 , int j0 , int j1 , int k , double alpha ,
+				double[] a , int aOff , int lda , double[] b , int bOff , int ldb ,
+				double beta , double[] c , int cOff , int ldc , int block){
+			this.transA = transA; this.transB = transB;
+			this.i0 = i0; this.i1 = i1; this.j0 = j0; this.j1 = j1; this.k = k;
+			this.alpha = alpha; this.beta = beta; this.block = block;
+			this.a = a; this.aOff = aOff; this.lda = lda;
+			this.b = b; this.bOff = bOff; this.ldb = ldb;
+			this.c = c; this.cOff = cOff; this.ldc = ldc;
+		}
+
+		@Override
+		protected void compute(){
+			int rows = i1 - i0 , cols = j1 - j0;
+			if((long)rows*cols*k <= TASK_WORK || (rows <= 4 && cols <= block)){
+				//Row i0 of A and column j0 of B
+				int aRow = transA ? aOff + i0 : aOff + i0*lda;
+				int bCol = transB ? bOff + j0*ldb : bOff + j0;
+				gemm(transA , transB , rows , cols , k , alpha , a , aRow , lda , b , bCol , ldb ,
+						beta , c , cOff + i0*ldc + j0 , ldc , block);
+				return;
+			}
+			if(rows >= cols){
+				//Keep the row blocks a multiple of 4 for the kernel
+				int mid = i0 + Math.max(4 , (rows/2) & ~3);
+				invokeAll(split(i0 , mid , j0 , j1) , split(mid , i1 , j0 , j1));
+			}
+			else{
+				int mid = j0 + cols/2;
+				invokeAll(split(i0 , i1 , j0 , mid) , split(i0 , i1 , mid , j1));
+			}
+		}
+
+		private ParallelGemm split(int i0 , int i1 , int j0 , int j1){
+			return new ParallelGemm(transA , transB , i0 , i1 , j0 , j1 , k , alpha , a , aOff , lda , b , bOff , ldb , 
+					beta , c , cOff , ldc , block);
+		}
+	}
+
+	/**
+	 * C = A*B by the Strassen-Winograd algorithm, A is m*k, B is k*n, C is m*n and is overwritten. Every level of the recursion
+	 * splits the matrices into 2*2 blocks and uses 7 block multiplications and 15 block additions instead of 8 multiplications,
+	 * so the work is about O(n^2.81). The recursion stops when any dimension is not greater than the cutoff, then the blocked
+	 * kernel is used(by the threads of the pool if it is not null). An odd dimension is handled by peeling: the even part is
+	 * calculated recursively, the last row, the last column and the last rank one update are calculated by the blocked kernel.
+	 */
+	static void strassen(int m , int n , int k ,
+			double[] a , int aOff , int lda ,
+			double[] b , int bOff , int ldb ,
+			double[] c , int cOff , int ldc , int cutoff , ForkJoinPool pool){
+		if(m <= cutoff || n <= cutoff || k <= cutoff){
+			if(pool == null)
+				gemm(m , n , k , 1 , a , aOff , lda , b , bOff , ldb , 0 , c , cOff , ldc , DEFAULT_BLOCK_SIZE);
+			else
+				gemm(m , n , k , 1 , a , aOff , lda , b , bOff , ldb , 0 , c , cOff , ldc , DEFAULT_BLOCK_SIZE , pool);
+			return;
+		}
+
+		//Peel the odd row, column and inner dimension
+		int me = m & ~1 , ne = n & ~1 , ke = k & ~1;
+		strassenEven(me , ne , ke , a , aOff , lda , b , bOff , ldb , c , cOff , ldc , cutoff , pool);
+		if(ke != k){
+			//C[0:me , 0:ne] += A[0:me , k-1] * B[k-1 , 0:ne]
+			gemm(me , ne , 1 , 1 , a , aOff + ke , lda , b , bOff + ke*ldb , ldb , 1 , c , cOff , ldc , DEFAULT_BLOCK_SIZE);
+		}
+		if(ne != n){
+			//The last column, C[0:me , n-1] = A[0:me , :] * B[: , n-1]
+			gemm(me , 1 , k , 1 , a , aOff , lda , b , bOff + ne , ldb , 0 , c , cOff + ne , ldc , DEFAULT_BLOCK_SIZE);
+		}
+		if(me != m){
+			//The last row, C[m-1 , :] = A[m-1 , :] * B
+			gemm(1 , n , k , 1 , a , aOff + me*lda , lda , b , bOff , ldb , 0 , c , cOff + me*ldc , ldc , DEFAULT_BLOCK_SIZE);
+		}
+	}
+
+	//One level of Strassen-Winograd, all the dimensions are even
+	private static void strassenEven(int m , int n , int k ,
+			double[] a , int aOff , int lda ,
+			double[] b , int bOff , int ldb ,
+			double[] c , int cOff , int ldc , int cutoff , ForkJoinPool pool){
+		int m2 = m/2 , n2 = n/2 , k2 = k/2;
+		int a11 = aOff , a12 = aOff + k2 , a21 = aOff + m2*lda , a22 = a21 + k2;
+		int b11 = bOff , b12 = bOff + n2 , b21 = bOff + k2*ldb , b22 = b21 + n2;
+		int c11 = cOff , c12 = cOff + n2 , c21 = cOff + m2*ldc , c22 = c21 + n2;
+
+		//S1 = A21 + A22 , S2 = S1 - A11 , S3 = A11 - A21 , S4 = A12 - S2
+		double[] s1 = new double[m2*k2] , s2 = new double[m2*k2] , s3 = new double[m2*k2] , s4 = new double[m2*k2];
+		for(int i=0;i<m2;i++){
+			for(int j=0;j<k2;j++){
+				int s = i*k2 + j;
+				double x11 = a[a11 + i*lda + j] , x12 = a[a12 + i*lda + j];
+				double x21 = a[a21 + i*lda + j] , x22 = a[a22 + i*lda + j];
+				s1[s] = x21 + x22;
+				s2[s] = s1[s] - x11;
+				s3[s] = x11 - x21;
+				s4[s] = x12 - s2[s];
+			}
+		}
+		//T1 = B12 - B11 , T2 = B22 - T1 , T3 = B22 - B12 , T4 = T2 - B21
+		double[] t1 = new double[k2*n2] , t2 = new double[k2*n2] , t3 = new double[k2*n2] , t4 = new double[k2*n2];
+		for(int i=0;i<k2;i++){
+			for(int j=0;j<n2;j++){
+				int t = i*n2 + j;
+				double y11 = b[b11 + i*ldb + j] , y12 = b[b12 + i*ldb + j];
+				double y21 = b[b21 + i*ldb + j] , y22 = b[b22 + i*ldb + j];
+				t1[t] = y12 - y11;
+				t2[t] = y22 - t1[t];
+				t3[t] = y22 - y12;
+				t4[t] = t2[t] - y21;
+			}
+		}
+
+		double[] p = new double[m2*n2] , q = new double[m2*n2] , r = new double[m2*n2];
+		//P1 = A11*B11 , C11 = P2 = A12*B21 , U1 = P1 + P2
+		strassen(m2 , n2 , k2 , a , a11 , lda , b , b11 , ldb , p , 0 , n2 , cutoff , pool);
+		strassen(m2 , n2 , k2 , a , a12 , lda , b , b21 , ldb , c , c11 , ldc , cutoff , pool);
+		//P6 = S2*T2 , U2 = P1 + P6 (in p)
+		strassen(m2 , n2 , k2 , s2 , 0 , k2 , t2 , 0 , n2 , q , 0 , n2 , cutoff , pool);
+		for(int i=0;i<m2;i++){
+			int ci = c11 + i*ldc , pi = i*n2;
+			for(int j=0;j<n2;j++){
+				c[ci+j] += p[pi+j];
+				p[pi+j] += q[pi+j];
+			}
+		}
+		//P7 = S3*T3 , U3 = U2 + P7 (in q)
+		strassen(m2 , n2 , k2 , s3 , 0 , k2 , t3 , 0 , n2 , q , 0 , n2 , cutoff , pool);
+		for(int i=0;i<m2*n2;i++) q[i] += p[i];
+		//P5 = S1*T1 , U4 = U2 + P5 (in p) , C22 = U7 = U3 + P5
+		strassen(m2 , n2 , k2 , s1 , 0 , k2 , t1 , 0 , n2 , r , 0 , n2 , cutoff , pool);
+		for(int i=0;i<m2;i++){
+			int ci = c22 + i*ldc , pi = i*n2;
+			for(int j=0;j<n2;j++){
+				p[pi+j] += r[pi+j];
+				c[ci+j] = q[pi+j] + r[pi+j];
+			}
+		}
+		//P3 = S4*B22 , C12 = U5 = U4 + P3
+		strassen(m2 , n2 , k2 , s4 , 0 , k2 , b , b22 , ldb , r , 0 , n2 , cutoff , pool);
+		for(int i=0;i<m2;i++){
+			int ci = c12 + i*ldc , pi = i*n2;
+			for(int j=0;j<n2;j++){
+				c[ci+j] = p[pi+j] + r[pi+j];
+			}
+		}
+		//P4 = A22*T4 , C21 = U6 = U3 - P4
+		strassen(m2 , n2 , k2 , a , a22 , lda , t4 , 0 , n2 , r , 0 , n2 , cutoff , pool);
+		for(int i=0;i<m2;i++){
+			int ci = c21 + i*ldc , pi = i*n2;
+			for(int j=0;j<n2;j++){
+				c[ci+j] = q[pi+j] - r[pi+j];
+			}
+		}
+	}
+
+	/**
+	 * C = beta*C, C is m*n. If beta is 0 the elements are set to 0, so NaN and infinity in C do not matter.
+	 */
+	static void scale(int m , int n , double beta , double[] c , int cOff , int ldc){
+		if(beta == 1)
+			return;
+		for(int i=0;i<m;i++){
+			int ci = cOff + i*ldc;
+			for(int j=0;j<n;j++){
+				c[ci+j] = beta == 0 ? 0 : beta*c[ci+j];
+			}
+		}
+	}
+}
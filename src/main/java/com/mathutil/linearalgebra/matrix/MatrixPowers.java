@@ -0,0 +1,181 @@
+package com.mathutil.linearalgebra.matrix;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.mathutil.exceptions.MatrixCalculationException;
+
+/**
+ * Many powers of the same square matrix. {@link Matrix#power(int)} squares the matrix again every time it is called, this class
+ * keeps the squares A, A^2, A^4, A^8... after they are calculated, so A^1000 after A^1024 only needs the multiplications of the
+ * squares that are already known, at most log2(n) multiplications and no squaring. The inverse and its squares are also kept
+ * for the negative powers.<br>
+ * If the matrix is diagonalizable and its eigenvalues are real, it can be given by its eigenvectors and eigenvalues:
+ * <center>A = V * D * V^-1</center>
+ * then every power is <center>A^n = V * D^n * V^-1</center> which is one multiplication no matter how large n is, and V^-1 is
+ * calculated only once. It is also more accurate, the rounding errors of the squares grow with every squaring, about
+ * 2^k * eps after k squarings, while the eigenvalues are only rounded once by {@link Math#pow(double, double)}.<br>
+ * The powers are calculated with the threads of the common ForkJoinPool like {@link Matrix#multiply(Matrix)}. The methods are
+ * synchronized, so one object can be used by many threads.
+ *
+ * @author danielxu
+ * @see Matrix#power(int)
+ */
+public class MatrixPowers {
+
+	/**The matrix A**/
+	private final Matrix matrix;
+
+	/**The squares of the matrix, the k-th square is A^(2^k)**/
+	private final List<Matrix> squares = new ArrayList<>();
+
+	/**The powers of the inverse, created by the first negative power**/
+	private MatrixPowers inverse;
+
+	/**The eigenvectors as columns, null if the matrix is not given by its eigenvalues**/
+	private final Matrix vectors;
+
+	/**The inverse of the eigenvectors**/
+	private final Matrix vectorsInverse;
+
+	/**The eigenvalues, the i-th value belongs to the i-th column of the eigenvectors**/
+	private final double[] values;
+
+	/**
+	 * Prepare the powers of a square matrix, the matrix is not copied, so please don't change it while the powers are calculated.
+	 * @param m - The square matrix
+	 */
+	public MatrixPowers(Matrix m){
+		if(m == null || m.isEmpty())
+			throw new MatrixCalculationException("The matrix can not be null");
+		if(m.getRows() != m.getCols())
+			throw new MatrixCalculationException("Only square matrix can be raised to a power");
+		matrix = m;
+		squares.add(m);
+		vectors = null;
+		vectorsInverse = null;
+		values = null;
+	}
+
+	/**
+	 * Prepare the powers of a diagonalizable matrix A = V * D * V^-1 from its eigenvectors and eigenvalues.
+	 * @param vectors - The eigenvectors as the columns of V, must be nonsingular
+	 * @param values - The eigenvalues, the diagonal elements of D, the length must be the dimension of V
+	 */
+	public MatrixPowers(Matrix vectors , double[] values){
+		if(vectors == null || vectors.isEmpty() || values == null)
+			throw new MatrixCalculationException("The eigenvectors and eigenvalues can not be null");
+		if(vectors.getRows() != vectors.getCols())
+			throw new MatrixCalculationException("The eigenvectors must be a square matrix");
+		if(values.length != vectors.getRows())
+			throw new MatrixCalculationException("The number of eigenvalues must be "+vectors.getRows());
+		LUDecomposition lu = vectors.lu();
+		if(!lu.isNonsingular())
+			throw new MatrixCalculationException("The eigenvectors are not independent, the matrix is not diagonalizable");
+		this.vectors = vectors;
+		this.values = values.clone();
+		vectorsInverse = lu.inverse();
+		matrix = eigenPower(1);
+	}
+
+	/**
+	 * Only visible for package. The powers of A = V * D * V^-1 when V^-1 is already known, like the transpose of the
+	 * orthonormal eigenvectors of a symmetric matrix.
+	 * @param vectors - The eigenvectors as the columns of V
+	 * @param vectorsInverse - V^-1
+	 * @param values - The eigenvalues
+	 */
+	MatrixPowers(Matrix vectors , Matrix vectorsInverse , double[] values){
+		this.vectors = vectors;
+		this.vectorsInverse = vectorsInverse;
+		this.values = values.clone();
+		matrix = eigenPower(1);
+	}
+
+	/**
+	 * Get the matrix whose powers are calculated
+	 * @return The matrix A
+	 */
+	public Matrix getMatrix(){
+		return matrix;
+	}
+
+	/**
+	 * Raise the matrix to the power of n, the same as {@link Matrix#power(int)}. A power that is one of the kept squares, like
+	 * A^2 or A^1024, is returned as a view that copies the elements before it is modified, so changing the result never changes
+	 * the squares of the later powers.
+	 * @param n - The power, can be positive integer, negative integer, or 0
+	 * @return The matrix to the power of n
+	 */
+	public synchronized Matrix power(int n){
+		if(n == 0)
+			return matrix.power(n);
+		if(n == 1)
+			return view(matrix);
+		if(values != null)
+			return eigenPower(n);
+		if(matrix.isDiagonal())
+			return matrix.power(n);
+		if(n > 0)
+			return squaring(n);
+
+		if(inverse == null)
+			inverse = new MatrixPowers(matrix.lu().inverse());
+		//-n overflows for Integer.MIN_VALUE
+		return inverse.squaring(-(long)n);
+	}
+
+	/**
+	 * Raise the matrix to many powers, the squares calculated for one power are used by the others.
+	 * @param n - The powers
+	 * @return The matrices, the i-th matrix is the matrix to the power of n[i]
+	 */
+	public synchronized Matrix[] powers(int...n){
+		if(n == null)
+			throw new MatrixCalculationException("The powers can not be null");
+		Matrix[] result = new Matrix[n.length];
+		for(int i=0;i<n.length;i++)
+			result[i] = power(n[i]);
+		return result;
+	}
+
+	//A^n = A^(2^k1) * A^(2^k2) * ..., the squares that are not known yet are calculated and kept
+	private Matrix squaring(long n){
+		Matrix result = null;
+		boolean kept = false;
+		for(int k=0;n != 0;k++ , n >>= 1){
+			if(k == squares.size()){
+				Matrix last = squares.get(k-1);
+				squares.add(last.multiply(last));
+			}
+			if((n & 1) == 1){
+				kept = result == null;
+				result = kept ? squares.get(k) : result.multiply(squares.get(k));
+			}
+		}
+		//Only one square, never give away the kept one
+		return kept ? view(result) : result;
+	}
+
+	//A view of the whole matrix that copies the elements before it is modified
+	private static Matrix view(Matrix m){
+		return m.subMatrix(0 , m.getRows()-1 , 0 , m.getCols()-1);
+	}
+
+	//A^n = V * D^n * V^-1, the columns of V are multiplied by the eigenvalues to the power of n
+	private Matrix eigenPower(int n){
+		int size = values.length;
+		double[] d = new double[size];
+		for(int i=0;i<size;i++){
+			if(n < 0 && values[i] == 0)
+				throw new MatrixCalculationException("The matrix has eigenvalue 0, it is not invertible");
+			d[i] = Math.pow(values[i] , n);
+		}
+		Matrix scaled = new Matrix(size , size);
+		for(int i=0;i<size;i++){
+			for(int j=0;j<size;j++)
+				scaled.set(i , j , vectors.getDouble(i , j) * d[j]);
+		}
+		return scaled.multiply(vectorsInverse);
+	}
+}
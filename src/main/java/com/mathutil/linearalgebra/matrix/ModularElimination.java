@@ -0,0 +1,338 @@
+package com.mathutil.linearalgebra.matrix;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import com.mathutil.BigRational;
+import com.mathutil.exceptions.MatrixCalculationException;
+
+/**
+ * The multi-modular elimination of the integer matrices, only for the matrices in the package.<br>
+ * The matrix is reduced modulo many primes below 2^31 and eliminated in long, where the product of two residues is smaller than
+ * 2^62 and never overflows, so every step is a few primitive operations instead of the BigInteger operations of the fraction-free
+ * elimination, whose numbers grow as long as the determinant. The primes are independent of each other, a batch of them is
+ * eliminated by the threads of the common ForkJoinPool, then the residues are combined by the Chinese remainder theorem.<br>
+ * The determinant needs the primes until their product is greater than twice the Hadamard bound |det(A)| &lt;= ||A[0]||*...*||A[n-1]||.
+ * The solutions of a system are fractions, they are found by the rational reconstruction with a common denominator as soon as
+ * the product of the primes is large enough, and accepted only if A*X = B exactly, which is usually much earlier than the bound.
+ *
+ * @author danielxu
+ */
+final class ModularElimination {
+
+	/**The dimension from which the integer determinants and systems are eliminated modulo the primes instead of by Bareiss**/
+	static final int THRESHOLD = 12;
+
+	/**The number of primes eliminated together before their residues are combined**/
+	private static final int BATCH = Math.max(4 , 2*ForkJoinPool.getCommonPoolParallelism());
+
+	/**The primes found so far, descending from 2^31 - 1, all greater than 2^30**/
+	private static final List<Long> PRIMES = new ArrayList<Long>();
+
+	//No instance, static class
+	private ModularElimination(){}
+
+	/**
+	 * Find the determinant of an integer matrix
+	 * @param a - The square matrix
+	 * @return The exact determinant
+	 */
+	static BigInteger det(final BigInteger[][] a){
+		int bits = hadamardBits(a , null) + 2;
+		BigInteger r = BigInteger.ZERO , m = BigInteger.ONE;
+		int next = 0;
+		while(m.bitLength() <= bits){
+			final long[] primes = primes(next , Math.min(BATCH , (bits - m.bitLength())/30 + 1));
+			next += primes.length;
+			final long[] residues = new long[primes.length];
+			IntStream.range(0 , primes.length).parallel().forEach(t -> residues[t] = detMod(a , primes[t]));
+			for(int t=0;t<primes.length;t++){
+				long p = primes[t];
+				long inverse = inverse(residue(m , p) , p);
+				r = combine(r , m , residues[t] , p , inverse);
+				m = m.multiply(BigInteger.valueOf(p));
+			}
+		}
+		return r.compareTo(m.shiftRight(1)) > 0 ? r.subtract(m) : r;
+	}
+
+	/**
+	 * Solve A*X = B exactly, where A and B are integer matrices
+	 * @param a - The square cofficient matrix, n*n
+	 * @param b - The right hand sides, n*k
+	 * @return X, n*k, null if A is singular
+	 */
+	static BigRational[][] solve(final BigInteger[][] a , final BigInteger[][] b){
+		int n = a.length , k = b[0].length;
+		//|det(A)| < 2^detBits, and the numerators of Cramer's rule are below 2^bound, which is reached when m > 2^(2*bound + 1)
+		int detBits = hadamardBits(a , null) , bound = hadamardBits(a , b);
+		BigInteger[] r = new BigInteger[n*k];
+		for(int i=0;i<r.length;i++)
+			r[i] = BigInteger.ZERO;
+		BigInteger m = BigInteger.ONE;
+		int next = 0 , singularBits = 0;
+		while(true){
+			final long[] primes = primes(next , BATCH);
+			next += primes.length;
+			final long[][] residues = new long[primes.length][];
+			IntStream.range(0 , primes.length).parallel().forEach(t -> residues[t] = solveMod(a , b , primes[t]));
+			for(int t=0;t<primes.length;t++){
+				long p = primes[t];
+				//p divides det(A), or A is singular if it happens for too many primes
+				if(residues[t] == null){
+					singularBits += 30;
+					if(singularBits > detBits)
+						return null;
+					continue;
+				}
+				long inverse = inverse(residue(m , p) , p);
+				for(int i=0;i<r.length;i++)
+					r[i] = combine(r[i] , m , residues[t][i] , p , inverse);
+				m = m.multiply(BigInteger.valueOf(p));
+			}
+
+			BigRational[][] x = reconstruct(r , m , n , k);
+			if(x != null && check(a , b , x))
+				return x;
+			if(m.bitLength() > 2*bound + 2)
+				throw new MatrixCalculationException("The rational reconstruction failed");
+		}
+	}
+
+	//The primes from the index i
+	private static synchronized long[] primes(int i , int count){
+		while(PRIMES.size() < i + count){
+			long p = PRIMES.isEmpty() ? Integer.MAX_VALUE : PRIMES.get(PRIMES.size()-1) - 2;
+			while(!isPrime(p))
+				p -= 2;
+			PRIMES.add(p);
+		}
+		long[] primes = new long[count];
+		for(int t=0;t<count;t++)
+			primes[t] = PRIMES.get(i + t);
+		return primes;
+	}
+
+	//Trial division, the odd numbers below 2^31 only need the divisors below 46341
+	private static boolean isPrime(long p){
+		for(long d=3;d*d<=p;d+=2){
+			if(p % d == 0)
+				return false;
+		}
+		return true;
+	}
+
+	/*
+	 * log2 of the Hadamard bound, the product of the norms of the rows. If b is not null, every row also has the largest element of
+	 * the same row of b, so the bound is also greater than the determinants with a column replaced by a column of b.
+	 */
+	private static int hadamardBits(BigInteger[][] a , BigInteger[][] b){
+		int bits = 0;
+		for(int i=0;i<a.length;i++){
+			BigInteger sum = BigInteger.ZERO;
+			for(BigInteger v : a[i])
+				sum = sum.add(v.multiply(v));
+			if(b != null){
+				BigInteger max = BigInteger.ZERO;
+				for(BigInteger v : b[i])
+					max = max.max(v.abs());
+				sum = sum.add(max.multiply(max));
+			}
+			bits += (sum.bitLength() + 1)/2;
+		}
+		return bits;
+	}
+
+	//The determinant modulo p
+	private static long detMod(BigInteger[][] a , long p){
+		int n = a.length;
+		long[] m = new long[n*n];
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++)
+				m[i*n + j] = residue(a[i][j] , p);
+		}
+		long det = 1;
+		for(int c=0;c<n;c++){
+			int r = c;
+			while(r < n && m[r*n + c] == 0)
+				r++;
+			if(r == n)
+				return 0;
+			if(r != c){
+				swap(m , r*n , c*n , n);
+				det = p - det;
+			}
+			int rc = c*n;
+			det = det*m[rc + c] % p;
+			long inverse = inverse(m[rc + c] , p);
+			for(int i=c+1;i<n;i++){
+				int ri = i*n;
+				if(m[ri + c] == 0)
+					continue;
+				//Adding (p - f) times keeps the sum positive and below 2^63
+				long g = p - m[ri + c]*inverse % p;
+				for(int j=c+1;j<n;j++)
+					m[ri + j] = (m[ri + j] + g*m[rc + j]) % p;
+			}
+		}
+		return det;
+	}
+
+	//Solve A*X = B modulo p by the elimination of [A | B], X is n*k row major, null if A is singular modulo p
+	private static long[] solveMod(BigInteger[][] a , BigInteger[][] b , long p){
+		int n = a.length , k = b[0].length , w = n + k;
+		long[] m = new long[n*w];
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++)
+				m[i*w + j] = residue(a[i][j] , p);
+			for(int j=0;j<k;j++)
+				m[i*w + n + j] = residue(b[i][j] , p);
+		}
+		for(int c=0;c<n;c++){
+			int r = c;
+			while(r < n && m[r*w + c] == 0)
+				r++;
+			if(r == n)
+				return null;
+			if(r != c)
+				swap(m , r*w , c*w , w);
+			//The pivot row is divided by the pivot
+			int rc = c*w;
+			long inverse = inverse(m[rc + c] , p);
+			for(int j=c+1;j<w;j++)
+				m[rc + j] = m[rc + j]*inverse % p;
+			m[rc + c] = 1;
+			for(int i=c+1;i<n;i++){
+				int ri = i*w;
+				if(m[ri + c] == 0)
+					continue;
+				long g = p - m[ri + c];
+				for(int j=c+1;j<w;j++)
+					m[ri + j] = (m[ri + j] + g*m[rc + j]) % p;
+			}
+		}
+		//Back substitution, the rows below i are already the solutions
+		long[] x = new long[n*k];
+		for(int i=n-1;i>=0;i--){
+			int ri = i*w;
+			System.arraycopy(m , ri + n , x , i*k , k);
+			for(int j=i+1;j<n;j++){
+				if(m[ri + j] == 0)
+					continue;
+				long g = p - m[ri + j];
+				for(int t=0;t<k;t++)
+					x[i*k + t] = (x[i*k + t] + g*x[j*k + t]) % p;
+			}
+		}
+		return x;
+	}
+
+	private static void swap(long[] m , int r1 , int r2 , int w){
+		for(int j=0;j<w;j++){
+			long t = m[r1 + j];
+			m[r1 + j] = m[r2 + j];
+			m[r2 + j] = t;
+		}
+	}
+
+	//x mod p, in [0 , p)
+	private static long residue(BigInteger x , long p){
+		if(x.bitLength() < 63)
+			return Math.floorMod(x.longValue() , p);
+		return x.mod(BigInteger.valueOf(p)).longValue();
+	}
+
+	//The inverse of a modulo p by the extended Euclidean algorithm, a is not 0
+	private static long inverse(long a , long p){
+		long r0 = p , r1 = a , t0 = 0 , t1 = 1;
+		while(r1 != 0){
+			long q = r0 / r1 , r = r0 - q*r1 , t = t0 - q*t1;
+			r0 = r1;
+			r1 = r;
+			t0 = t1;
+			t1 = t;
+		}
+		return t0 < 0 ? t0 + p : t0;
+	}
+
+	//x = r (mod m) and x = s (mod p) gives x mod m*p, inverse is the inverse of m modulo p
+	private static BigInteger combine(BigInteger r , BigInteger m , long s , long p , long inverse){
+		long t = Math.floorMod(s - residue(r , p) , p)*inverse % p;
+		return t == 0 ? r : r.add(m.multiply(BigInteger.valueOf(t)));
+	}
+
+	/*
+	 * The fractions u/v = r (mod m) with |u| and v not greater than sqrt(m/2), which are unique. The residues are multiplied by the
+	 * denominator found so far first, most of them are integers then and need no reconstruction. Null if a residue can not be
+	 * reconstructed, the product of the primes is not large enough yet.
+	 */
+	private static BigRational[][] reconstruct(BigInteger[] r , BigInteger m , int n , int k){
+		BigInteger bound = BigInteger.ONE.shiftLeft((m.bitLength() - 2)/2) , half = m.shiftRight(1);
+		BigInteger d = BigInteger.ONE;
+		BigRational[][] x = new BigRational[n][k];
+		for(int i=0;i<r.length;i++){
+			BigInteger v = d.equals(BigInteger.ONE) ? r[i] : r[i].multiply(d).mod(m);
+			BigInteger symmetric = v.compareTo(half) > 0 ? v.subtract(m) : v;
+			if(symmetric.abs().compareTo(bound) <= 0){
+				x[i/k][i%k] = BigRational.valueOf(symmetric , d);
+				continue;
+			}
+			BigInteger[] f = wang(v , m , bound);
+			if(f == null)
+				return null;
+			x[i/k][i%k] = BigRational.valueOf(f[0] , f[1].multiply(d));
+			d = d.multiply(f[1].abs());
+			if(d.compareTo(bound) > 0)
+				return null;
+		}
+		return x;
+	}
+
+	//The extended Euclidean algorithm on (m , u) stopped at the first remainder not greater than the bound, {u , v}
+	private static BigInteger[] wang(BigInteger u , BigInteger m , BigInteger bound){
+		BigInteger r0 = m , r1 = u , t0 = BigInteger.ZERO , t1 = BigInteger.ONE;
+		while(r1.compareTo(bound) > 0){
+			BigInteger[] qr = r0.divideAndRemainder(r1);
+			BigInteger t = t0.subtract(qr[0].multiply(t1));
+			r0 = r1;
+			r1 = qr[1];
+			t0 = t1;
+			t1 = t;
+		}
+		if(t1.signum() == 0 || t1.abs().compareTo(bound) > 0 || !r1.gcd(t1).equals(BigInteger.ONE))
+			return null;
+		return new BigInteger[]{r1 , t1};
+	}
+
+	//Check A*X = B exactly, X = Y/d with the common denominator d, so A*Y = d*B in integers
+	private static boolean check(BigInteger[][] a , BigInteger[][] b , BigRational[][] x){
+		int n = a.length , k = b[0].length;
+		BigInteger d = BigInteger.ONE;
+		for(BigRational[] row : x){
+			for(BigRational v : row){
+				BigInteger q = v.getDenominator();
+				d = d.divide(d.gcd(q)).multiply(q);
+			}
+		}
+		BigInteger[][] y = new BigInteger[n][k];
+		for(int i=0;i<n;i++){
+			for(int t=0;t<k;t++)
+				y[i][t] = x[i][t].getNumerator().multiply(d.divide(x[i][t].getDenominator()));
+		}
+		for(int i=0;i<n;i++){
+			for(int t=0;t<k;t++){
+				BigInteger sum = BigInteger.ZERO;
+				for(int j=0;j<n;j++){
+					if(a[i][j].signum() != 0 && y[j][t].signum() != 0)
+						sum = sum.add(a[i][j].multiply(y[j][t]));
+				}
+				if(!sum.equals(b[i][t].multiply(d)))
+					return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,438 @@
+package com.mathutil.linearalgebra.matrix;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.mathutil.exceptions.MatrixCalculationException;
+
+/**
+ * The QR decomposition of a m*n matrix by Householder reflections: <center>A*P = Q*R</center>
+ * where Q is a m*m orthogonal matrix(Q^T*Q = I), R is a m*n upper triangular matrix and P is a permutation of the columns,
+ * which is the identity if the columns are not pivoted. Unlike {@link LUDecomposition}, the matrix does not have to be square,
+ * so it solves the overdetermined systems in the least squares sense: the solution x of a m*n system with m &gt; n minimizes
+ * ||A*x - b||, and the norm of the residual is found without multiplying A*x.<br>
+ * Q is never formed, it is kept as the vectors of the reflections below the diagonal of R, and Q^T*b is calculated by applying
+ * the reflections to b one by one, so a tall and skinny matrix(like 100000*10 of a regression) only needs the space of itself.
+ * The reflections are applied to the rows of the matrix as a whole, which reads the row major array in order no matter how
+ * tall the matrix is. Without pivoting, the columns are reflected in blocks of 64, the reflections of a block are combined into
+ * I - Y*T*Y^T and applied to the rest of the matrix by the blocked multiplication of {@link Matrix#multiply(Matrix)}.<br>
+ * With pivoting, the column with the largest remaining norm is reflected first, so the diagonal of R is decreasing and the
+ * rank is the number of diagonal elements larger than 10*max(m , n)*eps*max(||A[:][j]||). A rank deficient system then has the
+ * basic solution, whose free variables are 0. The pivoting can not be blocked, it is slower for large matrices.
+ *
+ * @author danielxu
+ * @see Matrix#qr()
+ * @see Matrix#qr(boolean)
+ */
+public class QRDecomposition {
+
+	/**The number of columns reflected together before the rest of the matrix is updated**/
+	private static final int BLOCK_SIZE = MatrixKernels.DEFAULT_BLOCK_SIZE;
+
+	/**R on and above the diagonal, the vectors of the reflections below the diagonal(their first elements are 1), row major, m*n**/
+	private final double[] qr;
+
+	/**The number of rows and columns**/
+	private final int m , n;
+
+	/**The scales of the reflections, H = I - tau*v*v^T**/
+	private final double[] tau;
+
+	/**Column j of R is column pivot[j] of the matrix**/
+	private final int[] pivot;
+
+	/**If the columns are pivoted**/
+	private final boolean pivoting;
+
+	/**The diagonal elements of R whose absolute values are not greater than this are regarded as 0**/
+	private final double tolerance;
+
+	/**The number of nonzero diagonal elements of R**/
+	private int rank;
+
+	/**
+	 * Decompose a matrix without pivoting, the matrix is copied and will not be modified.
+	 * @param a - The matrix
+	 */
+	public QRDecomposition(Matrix a){
+		this(a , false);
+	}
+
+	/**
+	 * Decompose a matrix, the matrix is copied and will not be modified.
+	 * @param a - The matrix
+	 * @param pivoting - True to pivot the columns, which finds the rank and solves the rank deficient systems
+	 */
+	public QRDecomposition(Matrix a , boolean pivoting){
+		if(a == null || a.isEmpty())
+			throw new MatrixCalculationException("The matrix can not be null");
+
+		m = a.getRows();
+		n = a.getCols();
+		this.pivoting = pivoting;
+		qr = a.toDoubleArray();
+		tau = new double[Math.min(m , n)];
+		pivot = new int[n];
+		for(int j=0;j<n;j++)
+			pivot[j] = j;
+
+		double[] norms = columnNorms();
+		double max = 0;
+		for(int j=0;j<n;j++)
+			max = Math.max(max , norms[j]);
+		tolerance = 10*Math.max(m , n)*Math.ulp(1.0)*max;
+
+		if(pivoting)
+			factorPivoting(norms);
+		else
+			factor();
+
+		//With pivoting the diagonal is decreasing, the rank is where it drops below the tolerance
+		rank = 0;
+		for(int k=0;k<tau.length;k++){
+			if(Math.abs(qr[k*n + k]) > tolerance)
+				rank++;
+			else if(pivoting)
+				break;
+		}
+	}
+
+	//The blocked factorization without pivoting
+	private void factor(){
+		double[] w = new double[n];
+		int p = tau.length;
+		for(int j0=0;j0<p;j0+=BLOCK_SIZE){
+			int j1 = Math.min(j0 + BLOCK_SIZE , p);
+			for(int k=j0;k<j1;k++){
+				reflect(k);
+				apply(k , k+1 , j1 , qr , n , w);
+			}
+			if(j1 < n)
+				applyBlock(j0 , j1);
+		}
+	}
+
+	/*
+	 * The reflections of the columns [j0 , j1) are combined into Q = H(j0)*...*H(j1-1) = I - Y*T*Y^T, where the columns of Y
+	 * are the vectors and T is upper triangular, then the columns after j1 are updated by Q^T = I - Y*T^T*Y^T with two
+	 * multiplications of b*(m-j0)*(n-j1).
+	 */
+	private void applyBlock(int j0 , int j1){
+		int b = j1 - j0 , rows = m - j0 , cols = n - j1;
+		double[] y = new double[rows*b];
+		for(int i=0;i<rows;i++){
+			for(int t=0;t<b;t++){
+				if(i > t)
+					y[i*b + t] = qr[(j0+i)*n + j0 + t];
+				else if(i == t)
+					y[i*b + t] = 1;
+			}
+		}
+
+		//T[s][t] = -tau(t) * sum(T[s][u] * (Y^T*Y)[u][t]) for s <= u < t
+		double[] g = new double[b*b];
+		MatrixKernels.gemm(true , false , b , b , rows , 1 , y , 0 , b , y , 0 , b , 0 , g , 0 , b , BLOCK_SIZE);
+		double[] t = new double[b*b];
+		for(int c=0;c<b;c++){
+			double tc = tau[j0+c];
+			t[c*b + c] = tc;
+			for(int s=0;s<c;s++){
+				double sum = 0;
+				for(int u=s;u<c;u++)
+					sum += t[s*b + u]*g[u*b + c];
+				t[s*b + c] = -tc*sum;
+			}
+		}
+
+		//W = Y^T*A2, W = T^T*W, A2 = A2 - Y*W
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		double[] w = new double[b*cols];
+		MatrixKernels.gemm(true , false , b , cols , rows , 1 , y , 0 , b , qr , j0*n + j1 , n , 0 , w , 0 , cols , BLOCK_SIZE , pool);
+		for(int s=b-1;s>=0;s--){
+			int rs = s*cols;
+			double d = t[s*b + s];
+			for(int j=0;j<cols;j++)
+				w[rs+j] *= d;
+			for(int u=0;u<s;u++){
+				double v = t[u*b + s];
+				if(v == 0)
+					continue;
+				int ru = u*cols;
+				for(int j=0;j<cols;j++)
+					w[rs+j] += v*w[ru+j];
+			}
+		}
+		MatrixKernels.gemm(rows , cols , b , -1 , y , 0 , b , w , 0 , cols , 1 , qr , j0*n + j1 , n , BLOCK_SIZE , pool);
+	}
+
+	/*
+	 * The factorization with column pivoting. The norms of the remaining parts of the columns are downdated after every
+	 * reflection, and calculated again when the downdate loses too many digits.
+	 */
+	private void factorPivoting(double[] norms){
+		double[] w = new double[n];
+		double[] reference = norms.clone();
+		double limit = Math.sqrt(Math.ulp(1.0));
+		for(int k=0;k<tau.length;k++){
+			int p = k;
+			for(int j=k+1;j<n;j++){
+				if(norms[j] > norms[p])
+					p = j;
+			}
+			if(p != k){
+				for(int i=0;i<m;i++){
+					double temp = qr[i*n + p];
+					qr[i*n + p] = qr[i*n + k];
+					qr[i*n + k] = temp;
+				}
+				int temp = pivot[p];
+				pivot[p] = pivot[k];
+				pivot[k] = temp;
+				norms[p] = norms[k];
+				reference[p] = reference[k];
+			}
+			reflect(k);
+			apply(k , k+1 , n , qr , n , w);
+
+			for(int j=k+1;j<n;j++){
+				if(norms[j] == 0)
+					continue;
+				double r = Math.abs(qr[k*n + j]) / norms[j];
+				double temp = Math.max(0 , 1 - r*r);
+				double ratio = norms[j] / reference[j];
+				if(temp*ratio*ratio <= limit){
+					double sum = 0;
+					for(int i=k+1;i<m;i++)
+						sum += qr[i*n + j]*qr[i*n + j];
+					norms[j] = Math.sqrt(sum);
+					reference[j] = norms[j];
+				}
+				else
+					norms[j] *= Math.sqrt(temp);
+			}
+		}
+	}
+
+	//The norms of the columns
+	private double[] columnNorms(){
+		double[] sum = new double[n];
+		for(int i=0;i<m;i++){
+			int ri = i*n;
+			for(int j=0;j<n;j++)
+				sum[j] += qr[ri+j]*qr[ri+j];
+		}
+		for(int j=0;j<n;j++)
+			sum[j] = Math.sqrt(sum[j]);
+		return sum;
+	}
+
+	//The reflection H = I - tau*v*v^T that sets the elements of column k below the diagonal to 0, v is stored in their place
+	private void reflect(int k){
+		double x = qr[k*n + k] , sigma = 0;
+		for(int i=k+1;i<m;i++)
+			sigma += qr[i*n + k]*qr[i*n + k];
+		if(sigma == 0){
+			tau[k] = 0;
+			return;
+		}
+		double norm = Math.hypot(x , Math.sqrt(sigma));
+		double beta = x >= 0 ? -norm : norm;
+		tau[k] = (beta - x) / beta;
+		double scale = 1 / (x - beta);
+		for(int i=k+1;i<m;i++)
+			qr[i*n + k] *= scale;
+		qr[k*n + k] = beta;
+	}
+
+	//Apply the reflection k to the columns [c0 , c1) of a matrix whose rows have the length ld, row by row
+	private void apply(int k , int c0 , int c1 , double[] a , int ld , double[] w){
+		double t = tau[k];
+		if(t == 0 || c0 >= c1)
+			return;
+		//w = v^T*A
+		System.arraycopy(a , k*ld + c0 , w , c0 , c1 - c0);
+		for(int i=k+1;i<m;i++){
+			double v = qr[i*n + k];
+			if(v == 0)
+				continue;
+			int ri = i*ld;
+			for(int j=c0;j<c1;j++)
+				w[j] += v*a[ri+j];
+		}
+		//A = A - tau*v*w
+		for(int j=c0;j<c1;j++)
+			w[j] *= t;
+		int rk = k*ld;
+		for(int j=c0;j<c1;j++)
+			a[rk+j] -= w[j];
+		for(int i=k+1;i<m;i++){
+			double v = qr[i*n + k];
+			if(v == 0)
+				continue;
+			int ri = i*ld;
+			for(int j=c0;j<c1;j++)
+				a[ri+j] -= v*w[j];
+		}
+	}
+
+	/**
+	 * Get the number of rows of the decomposed matrix
+	 * @return m
+	 */
+	public int getRows(){
+		return m;
+	}
+
+	/**
+	 * Get the number of columns of the decomposed matrix
+	 * @return n
+	 */
+	public int getCols(){
+		return n;
+	}
+
+	/**
+	 * Check if the columns are pivoted
+	 * @return True if the columns are pivoted, false otherwise
+	 */
+	public boolean isPivoting(){
+		return pivoting;
+	}
+
+	/**
+	 * Get the thin orthogonal factor, the first min(m , n) columns of Q, which is all that A*P = Q*R needs.
+	 * @return Q, m*min(m , n), its columns are orthonormal
+	 */
+	public Matrix getQ(){
+		int p = tau.length;
+		double[] q = new double[m*p];
+		for(int i=0;i<p;i++)
+			q[i*p + i] = 1;
+		double[] w = new double[p];
+		for(int k=p-1;k>=0;k--)
+			apply(k , 0 , p , q , p , w);
+		return new Matrix(q , 0 , m , p , p);
+	}
+
+	/**
+	 * Get the upper triangular factor
+	 * @return R, min(m , n)*n
+	 */
+	public Matrix getR(){
+		int p = tau.length;
+		Matrix r = new Matrix(p , n);
+		for(int i=0;i<p;i++){
+			for(int j=i;j<n;j++)
+				r.set(i , j , qr[i*n + j]);
+		}
+		return r;
+	}
+
+	/**
+	 * Get the column permutation, column j of Q*R is column <code>pivot[j]</code> of the matrix
+	 * @return A copy of the permutation
+	 */
+	public int[] getPivot(){
+		return pivot.clone();
+	}
+
+	/**
+	 * Get the rank of the matrix, the number of diagonal elements of R whose absolute values are greater than
+	 * 10*max(m , n)*eps*max(||A[:][j]||). It is reliable only if the columns are pivoted, without pivoting a dependent
+	 * column may still have a large diagonal element.
+	 * @return The rank
+	 */
+	public int rank(){
+		return rank;
+	}
+
+	/**
+	 * Check if the columns are independent, which means the least squares solution is unique.
+	 * @return True if the rank is n, false otherwise
+	 * @see #rank()
+	 */
+	public boolean isFullRank(){
+		return rank == n;
+	}
+
+	/**
+	 * Solve A*X = B in the least squares sense, every column of B is a right hand side and the same column of X minimizes
+	 * ||A*x - b||. If the matrix is rank deficient(only allowed with pivoting), X is the basic solution, whose variables of
+	 * the columns after the rank are 0. The cost is O(m*n) for every column.
+	 * @param b - The right hand sides, must have m rows
+	 * @return X, n*k where k is the number of columns of B
+	 * @throws MatrixCalculationException If the columns are not independent and not pivoted
+	 */
+	public Matrix solve(Matrix b){
+		double[] c = transposeQ(b);
+		int k = b.getCols();
+		double[] x = new double[n*k];
+		//R11*z = c, from the last row of the rank
+		for(int i=rank-1;i>=0;i--){
+			int ri = i*k;
+			for(int p=i+1;p<rank;p++){
+				double r = qr[i*n + p];
+				if(r == 0)
+					continue;
+				int rp = p*k;
+				for(int j=0;j<k;j++)
+					c[ri+j] -= r*c[rp+j];
+			}
+			double d = qr[i*n + i];
+			for(int j=0;j<k;j++)
+				c[ri+j] /= d;
+		}
+		for(int i=0;i<rank;i++)
+			System.arraycopy(c , i*k , x , pivot[i]*k , k);
+		return new Matrix(x , 0 , n , k , k);
+	}
+
+	/**
+	 * Solve A*x = b in the least squares sense for one right hand side.
+	 * @param b - The right hand side, the length must be m
+	 * @return x, the length is n
+	 * @throws MatrixCalculationException If the columns are not independent and not pivoted
+	 */
+	public double[] solve(double[] b){
+		if(b == null || b.length != m)
+			throw new MatrixCalculationException("The length of the right hand side must be "+m);
+		return solve(Matrix.wrap(b , m , 1)).toDoubleArray();
+	}
+
+	/**
+	 * Get the norms of the residuals ||A*x - b|| of the least squares solutions of {@link #solve(Matrix)}. They are the norms of the
+	 * rows of Q^T*B after the rank, so A*X is not calculated and a small residual does not lose its digits by cancellation.
+	 * @param b - The right hand sides, must have m rows
+	 * @return The norm of the residual of every column
+	 * @throws MatrixCalculationException If the columns are not independent and not pivoted
+	 */
+	public double[] residualNorms(Matrix b){
+		double[] c = transposeQ(b);
+		int k = b.getCols();
+		double[] norms = new double[k];
+		for(int i=rank;i<m;i++){
+			int ri = i*k;
+			for(int j=0;j<k;j++)
+				norms[j] += c[ri+j]*c[ri+j];
+		}
+		for(int j=0;j<k;j++)
+			norms[j] = Math.sqrt(norms[j]);
+		return norms;
+	}
+
+	//Q^T*B by applying the reflections in order, m*k row major
+	private double[] transposeQ(Matrix b){
+		if(b == null || b.isEmpty())
+			throw new MatrixCalculationException("The matrix can not be null");
+		if(b.getRows() != m)
+			throw new MatrixCalculationException("The number of rows of the right hand sides must be "+m);
+		if(rank < n && !pivoting)
+			throw new MatrixCalculationException("The columns of the matrix are not independent, please decompose it with pivoting");
+
+		int k = b.getCols();
+		double[] c = b.toDoubleArray();
+		double[] w = new double[k];
+		for(int t=0;t<tau.length;t++)
+			apply(t , 0 , k , c , k , w);
+		return c;
+	}
+}
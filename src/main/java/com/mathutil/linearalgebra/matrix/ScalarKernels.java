@@ -0,0 +1,96 @@
+package com.mathutil.linearalgebra.matrix;
+
+/**
+ * The plain Java loops of {@link DoubleKernels}, used when no other kernels are available. The JIT compiler may still
+ * vectorize the simple loops such as {@link #add}, but not the reductions such as {@link #dot}. The other implementations
+ * can extend this class and only replace the methods they speed up.
+ *
+ * @author danielxu
+ */
+public class ScalarKernels implements DoubleKernels {
+
+	@Override
+	public String getName(){
+		return "scalar";
+	}
+
+	@Override
+	public void add(int n , double[] x , int xOff , double[] y , int yOff , double[] z , int zOff){
+		for(int i=0;i<n;i++){
+			z[zOff+i] = x[xOff+i] + y[yOff+i];
+		}
+	}
+
+	@Override
+	public void substract(int n , double[] x , int xOff , double[] y , int yOff , double[] z , int zOff){
+		for(int i=0;i<n;i++){
+			z[zOff+i] = x[xOff+i] - y[yOff+i];
+		}
+	}
+
+	@Override
+	public void scale(int n , double alpha , double[] x , int xOff , double[] z , int zOff){
+		for(int i=0;i<n;i++){
+			z[zOff+i] = alpha*x[xOff+i];
+		}
+	}
+
+	@Override
+	public double dot(int n , double[] x , int xOff , double[] y , int yOff){
+		double sum = 0;
+		for(int i=0;i<n;i++){
+			sum += x[xOff+i]*y[yOff+i];
+		}
+		return sum;
+	}
+
+	@Override
+	public double sumOfSquares(int n , double[] x , int xOff){
+		double sum = 0;
+		for(int i=0;i<n;i++){
+			sum += x[xOff+i]*x[xOff+i];
+		}
+		return sum;
+	}
+
+	/**
+	 * The order is i-k-j, the innermost loop walks through a row of B and a row of C contiguously, and four rows of C are
+	 * updated together so every element of B loaded is used four times.
+	 */
+	@Override
+	public void multiplyAdd(int m , int n , int k , double alpha ,
+			double[] a , int aOff , int lda ,
+			double[] b , int bOff , int ldb ,
+			double[] c , int cOff , int ldc){
+		int i = 0;
+		//Four rows at a time
+		for(;i+3<m;i+=4){
+			int a0 = aOff + i*lda , a1 = a0 + lda , a2 = a1 + lda , a3 = a2 + lda;
+			int c0 = cOff + i*ldc , c1 = c0 + ldc , c2 = c1 + ldc , c3 = c2 + ldc;
+			for(int p=0;p<k;p++){
+				double x0 = alpha*a[a0+p] , x1 = alpha*a[a1+p] , x2 = alpha*a[a2+p] , x3 = alpha*a[a3+p];
+				int bp = bOff + p*ldb;
+				for(int j=0;j<n;j++){
+					double y = b[bp+j];
+					c[c0+j] += x0*y;
+					c[c1+j] += x1*y;
+					c[c2+j] += x2*y;
+					c[c3+j] += x3*y;
+				}
+			}
+		}
+		//The remaining rows
+		for(;i<m;i++){
+			int ai = aOff + i*lda , ci = cOff + i*ldc;
+			for(int p=0;p<k;p++){
+				double x = alpha*a[ai+p];
+				if(x == 0)
+					continue;
+				int bp = bOff + p*ldb;
+				for(int j=0;j<n;j++){
+					c[ci+j] += x*b[bp+j];
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,271 @@
+package com.mathutil.linearalgebra.matrix;
+
+import java.util.Arrays;
+
+import com.mathutil.exceptions.MatrixCalculationException;
+import com.mathutil.linearalgebra.LinearOperator;
+
+/**
+ * The singular value decomposition of a m*n matrix: <center>A = U * S * V^T</center>
+ * where S is the diagonal matrix of the singular values σ1 &gt;= σ2 &gt;= ... &gt;= 0, and the columns of U(m*p) and V(n*p) are
+ * orthonormal, p = min(m , n). The largest singular value is the 2-norm of the matrix, and σ1/σp is the condition number, which
+ * tells how many digits the solution of a linear system can lose.<br>
+ * It is calculated by the one-sided Jacobi method: the columns of the matrix are rotated in pairs until they are orthogonal
+ * to each other, then their norms are the singular values. The columns are kept as the rows of a row major array, so every
+ * rotation reads two rows in order. It is slower than the bidiagonalization, but it finds the small singular values to high
+ * relative accuracy. The matrix is first decomposed by {@link QRDecomposition} with column pivoting, and only the transpose of
+ * the n*n triangular factor is rotated, whose columns are closer to orthogonal, so the Jacobi method usually needs fewer sweeps
+ * and a tall matrix costs little more than its QR decomposition. A wide matrix is decomposed by its transpose.<br>
+ * For a large matrix whose few largest singular values are needed, {@link #largest(Matrix, int)} finds them by the Lanczos
+ * iteration of A^T*A.
+ *
+ * @author danielxu
+ * @see Matrix#svd()
+ * @see EigenDecomposition
+ */
+public class SingularValueDecomposition {
+
+	/**The maximum number of sweeps of the Jacobi method**/
+	private static final int MAX_SWEEPS = 60;
+
+	/**The number of rows and columns of the matrix**/
+	private final int m , n;
+
+	/**The singular values in descending order, p of them**/
+	private final double[] values;
+
+	/**U, m*p, row major**/
+	private final double[] u;
+
+	/**V, n*p, row major**/
+	private final double[] v;
+
+	/**
+	 * Decompose a matrix, the matrix is copied and will not be modified.
+	 * @param a - The matrix
+	 */
+	public SingularValueDecomposition(Matrix a){
+		if(a == null || a.isEmpty())
+			throw new MatrixCalculationException("The matrix can not be null");
+
+		m = a.getRows();
+		n = a.getCols();
+		int p = Math.min(m , n);
+		values = new double[p];
+		u = new double[m*p];
+		v = new double[n*p];
+		if(m >= n)
+			decompose(a , m , n , u , v);
+		else
+			decompose(a.transpose() , n , m , v , u);
+	}
+
+	//The k largest singular values found by the Lanczos iteration
+	private SingularValueDecomposition(int m , int n , double[] values , double[] u , double[] v){
+		this.m = m;
+		this.n = n;
+		this.values = values;
+		this.u = u;
+		this.v = v;
+	}
+
+	/*
+	 * Decompose a rows*cols matrix with rows >= cols into the left vectors lu(rows*cols) and the right vectors lv(cols*cols).
+	 * A*P = Q*R by pivoted QR, then the columns of R^T(the rows of R) are rotated by Jacobi: R^T*J = Ux*S, so R = J*S*Ux^T
+	 * and A = (Q*J)*S*(P*Ux)^T.
+	 */
+	private void decompose(Matrix a , int rows , int cols , double[] lu , double[] lv){
+		QRDecomposition qr = a.qr(true);
+		int[] pivot = qr.getPivot();
+		double[] w = qr.getR().toDoubleArray();
+
+		//The rows of w are the columns of R^T, z accumulates the rotations J as its rows
+		double[] z = new double[cols*cols];
+		for(int i=0;i<cols;i++)
+			z[i*cols + i] = 1;
+		jacobi(w , z , cols , cols);
+
+		//The norms of the columns are the singular values, sorted in descending order
+		double[] norms = new double[cols];
+		Integer[] order = new Integer[cols];
+		for(int j=0;j<cols;j++){
+			norms[j] = Math.sqrt(dot(w , j*cols , w , j*cols , cols));
+			order[j] = j;
+		}
+		Arrays.sort(order , (x , y) -> Double.compare(norms[y] , norms[x]));
+
+		double[] j = new double[cols*cols];
+		for(int t=0;t<cols;t++){
+			int c = order[t];
+			values[t] = norms[c];
+			for(int i=0;i<cols;i++){
+				j[i*cols + t] = z[c*cols + i];
+				if(norms[c] != 0)
+					lv[pivot[i]*cols + t] = w[c*cols + i] / norms[c];
+			}
+		}
+		System.arraycopy(qr.getQ().multiply(new Matrix(j , 0 , cols , cols , cols)).toDoubleArray() , 0 , lu , 0 , rows*cols);
+	}
+
+	/*
+	 * The one-sided Jacobi method on the n rows of w(each has the length len), until every pair is orthogonal to the
+	 * relative accuracy sqrt(len)*eps. The same rotations are applied to the rows of z.
+	 */
+	private static void jacobi(double[] w , double[] z , int n , int len){
+		double eps = Math.sqrt(len)*Math.ulp(1.0);
+		double[] norms = new double[n];
+		for(int sweep=0;sweep<MAX_SWEEPS;sweep++){
+			for(int j=0;j<n;j++)
+				norms[j] = dot(w , j*len , w , j*len , len);
+			boolean rotated = false;
+			for(int p=0;p<n-1;p++){
+				for(int q=p+1;q<n;q++){
+					double alpha = norms[p] , beta = norms[q];
+					if(alpha == 0 || beta == 0)
+						continue;
+					double gamma = dot(w , p*len , w , q*len , len);
+					if(Math.abs(gamma) <= eps*Math.sqrt(alpha*beta))
+						continue;
+					rotated = true;
+					//The rotation that makes the pair orthogonal
+					double zeta = (beta - alpha) / (2*gamma);
+					double t = Math.signum(zeta) / (Math.abs(zeta) + Math.sqrt(1 + zeta*zeta));
+					if(zeta == 0)
+						t = 1;
+					double c = 1 / Math.sqrt(1 + t*t) , s = c*t;
+					rotate(w , p*len , q*len , len , c , s);
+					rotate(z , p*n , q*n , n , c , s);
+					norms[p] = alpha - t*gamma;
+					norms[q] = beta + t*gamma;
+				}
+			}
+			if(!rotated)
+				return;
+		}
+		throw new MatrixCalculationException("The singular values did not converge");
+	}
+
+	private static void rotate(double[] a , int p , int q , int len , double c , double s){
+		for(int k=0;k<len;k++){
+			double x = a[p+k] , y = a[q+k];
+			a[p+k] = c*x - s*y;
+			a[q+k] = s*x + c*y;
+		}
+	}
+
+	private static double dot(double[] x , int xOff , double[] y , int yOff , int len){
+		return Kernels.get().dot(len , x , xOff , y , yOff);
+	}
+
+	/**
+	 * Find the k largest singular values and their vectors by the Lanczos iteration of A^T*A(see
+	 * {@link EigenDecomposition#largest(LinearOperator, int)}), which only multiplies A and A^T by vectors. The singular values
+	 * are the square roots of the eigenvalues of A^T*A, so the singular values smaller than sqrt(eps)*σ1 can not be found
+	 * accurately this way.
+	 * @param a - The matrix
+	 * @param k - The number of singular values, between 1 and the number of columns
+	 * @return The decomposition of the k largest singular values, U is m*k, S is k*k and V is n*k
+	 */
+	public static SingularValueDecomposition largest(final Matrix a , int k){
+		if(a == null || a.isEmpty())
+			throw new MatrixCalculationException("The matrix can not be null");
+		final int m = a.getRows() , n = a.getCols();
+		final Matrix t = a.transpose();
+		final double[] temp = new double[m];
+		EigenDecomposition eigen = EigenDecomposition.largest(new LinearOperator(){
+			public int getDimension(){
+				return n;
+			}
+			public void apply(double[] x , double[] y){
+				a.multiplyInto(Matrix.wrap(x , n , 1) , Matrix.wrap(temp , m , 1));
+				t.multiplyInto(Matrix.wrap(temp , m , 1) , Matrix.wrap(y , n , 1));
+			}
+		} , k);
+
+		//The eigenvalues are ascending, the singular values descending
+		double[] lambda = eigen.getEigenvalues();
+		double[] values = new double[k] , u = new double[m*k] , v = new double[n*k];
+		for(int j=0;j<k;j++){
+			int e = k-1-j;
+			values[j] = Math.sqrt(Math.max(lambda[e] , 0));
+			double[] x = eigen.getEigenvector(e);
+			for(int i=0;i<n;i++)
+				v[i*k + j] = x[i];
+			if(values[j] == 0)
+				continue;
+			double[] ux = a.multiply(Matrix.wrap(x , n , 1)).toDoubleArray();
+			for(int i=0;i<m;i++)
+				u[i*k + j] = ux[i] / values[j];
+		}
+		return new SingularValueDecomposition(m , n , values , u , v);
+	}
+
+	/**
+	 * Get the singular values in descending order
+	 * @return A copy of the singular values
+	 */
+	public double[] getSingularValues(){
+		return values.clone();
+	}
+
+	/**
+	 * Get the left singular vectors as the columns of U
+	 * @return U, m*p
+	 */
+	public Matrix getU(){
+		int p = values.length;
+		return new Matrix(u.clone() , 0 , m , p , p);
+	}
+
+	/**
+	 * Get the diagonal matrix of the singular values
+	 * @return S, p*p
+	 */
+	public Matrix getS(){
+		int p = values.length;
+		Matrix s = new Matrix(p , p);
+		for(int i=0;i<p;i++)
+			s.set(i , i , values[i]);
+		return s;
+	}
+
+	/**
+	 * Get the right singular vectors as the columns of V. The columns of the singular values that are 0 are 0.
+	 * @return V, n*p
+	 */
+	public Matrix getV(){
+		int p = values.length;
+		return new Matrix(v.clone() , 0 , n , p , p);
+	}
+
+	/**
+	 * Get the 2-norm of the matrix, the largest singular value
+	 * @return The 2-norm
+	 */
+	public double norm2(){
+		return values[0];
+	}
+
+	/**
+	 * Get the condition number in 2-norm, the largest singular value divided by the smallest. If it is about 10^k, a linear
+	 * system of the matrix may lose k digits of its solution.
+	 * @return The condition number, infinity if the matrix is singular
+	 */
+	public double cond(){
+		return values[0] / values[values.length-1];
+	}
+
+	/**
+	 * Get the rank, the number of singular values greater than max(m , n)*eps*σ1
+	 * @return The rank
+	 */
+	public int rank(){
+		double tolerance = Math.max(m , n)*Math.ulp(values[0]);
+		int rank = 0;
+		for(double s : values){
+			if(s > tolerance)
+				rank++;
+		}
+		return rank;
+	}
+}
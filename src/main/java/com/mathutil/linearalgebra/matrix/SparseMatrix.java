@@ -0,0 +1,588 @@
+package com.mathutil.linearalgebra.matrix;
+
+import java.util.Arrays;
+
+import com.mathutil.exceptions.MatrixCalculationException;
+import com.mathutil.exceptions.MatrixException;
+
+/**
+ * A matrix that stores only the nonzero elements, for the large matrices whose elements are mostly 0 such as the cofficient
+ * matrices of discretized equations. The memory is O(rows + nonzeros) instead of O(rows*cols), so a 100000*100000 matrix with 10
+ * nonzeros in every row takes about 12MB, while a {@link Matrix} would take 80GB.<br>
+ * The elements are compressed by rows(CSR) or by columns(CSC): for every row(or column) the column(or row) indices of its nonzero
+ * elements are kept in ascending order together with their values. {@link #transpose()} swaps the two forms without copying, and
+ * {@link #toCompressedRows()} and {@link #toCompressedColumns()} convert between them in O(nonzeros). To create a matrix, add the
+ * elements to a {@link SparseMatrixBuilder} in any order, or convert a Matrix by {@link #SparseMatrix(Matrix)}.<br>
+ * A transposed matrix shares the arrays with the original one until one of them is modified, like the views of {@link Matrix}.
+ * Setting an element that was 0 moves all the elements after it, so to set many elements please use the builder.
+ *
+ * @author danielxu
+ * @see SparseMatrixBuilder
+ * @see Matrix
+ */
+public class SparseMatrix implements Matrixable<Number>{
+
+	/**The number of rows and columns**/
+	private int rows , cols;
+
+	/**True if the elements are compressed by columns(CSC), false if they are compressed by rows(CSR)**/
+	private boolean byColumns;
+
+	/**The elements of row(or column) i are at [pointers[i] , pointers[i+1]) of indices and values**/
+	private int[] pointers;
+
+	/**The column(or row) indices of the elements, in ascending order for every row(or column)**/
+	private int[] indices;
+
+	/**The values of the elements, never 0**/
+	private double[] values;
+
+	/**If the arrays may be used by another matrix, they will be copied before the matrix is modified**/
+	private boolean shared;
+
+	/**
+	 * Only visible for package. Use the arrays directly as the storage.
+	 * @param rows - The number of rows
+	 * @param cols - The number of columns
+	 * @param byColumns - True for CSC, false for CSR
+	 * @param pointers - The starts of the rows(or columns), the length is rows+1(or cols+1)
+	 * @param indices - The column(or row) indices
+	 * @param values - The values
+	 */
+	SparseMatrix(int rows , int cols , boolean byColumns , int[] pointers , int[] indices , double[] values){
+		this.rows = rows;
+		this.cols = cols;
+		this.byColumns = byColumns;
+		this.pointers = pointers;
+		this.indices = indices;
+		this.values = values;
+	}
+
+	/**
+	 * Convert a Matrix to a sparse matrix compressed by rows, the elements that are 0 are not stored.
+	 * @param m - The matrix
+	 */
+	public SparseMatrix(Matrix m){
+		if(m == null || m.isEmpty())
+			throw new MatrixException("The matrix cannot be null");
+		rows = m.getRows();
+		cols = m.getCols();
+		pointers = new int[rows+1];
+		int count = 0;
+		for(int i=0;i<rows;i++){
+			for(int j=0;j<cols;j++){
+				if(m.getDouble(i , j) != 0)
+					count++;
+			}
+		}
+		indices = new int[count];
+		values = new double[count];
+		int k = 0;
+		for(int i=0;i<rows;i++){
+			for(int j=0;j<cols;j++){
+				double v = m.getDouble(i , j);
+				if(v != 0){
+					indices[k] = j;
+					values[k++] = v;
+				}
+			}
+			pointers[i+1] = k;
+		}
+	}
+
+	/**
+	 * Get the number of rows in the matrix
+	 * @return The number of rows in the matrix
+	 */
+	public int getRows(){
+		return rows;
+	}
+
+	/**
+	 * Get the number of columns in the matrix
+	 * @return The number of columns in the matrix
+	 */
+	public int getCols(){
+		return cols;
+	}
+
+	/**
+	 * Get the number of the stored elements, which are the elements that are not 0
+	 * @return The number of nonzero elements
+	 */
+	public int getNonZeros(){
+		return pointers[major()];
+	}
+
+	/**
+	 * Check if the elements are compressed by columns(CSC) or by rows(CSR)
+	 * @return True if they are compressed by columns, false if they are compressed by rows
+	 */
+	public boolean isByColumns(){
+		return byColumns;
+	}
+
+	/**
+	 * Get a copy of the starts of the compressed rows(or columns if {@link #isByColumns()}), the elements of row i are at
+	 * [pointers[i] , pointers[i+1]) of {@link #getIndices()} and {@link #getValues()}.
+	 * @return The starts of the rows(or columns), the length is rows+1(or cols+1)
+	 */
+	public int[] getPointers(){
+		return pointers.clone();
+	}
+
+	/**
+	 * Get a copy of the column indices(or row indices if {@link #isByColumns()}) of the nonzero elements, in ascending order in
+	 * every row(or column).
+	 * @return The indices, the length is the number of nonzeros
+	 */
+	public int[] getIndices(){
+		return Arrays.copyOf(indices , getNonZeros());
+	}
+
+	/**
+	 * Get a copy of the values of the nonzero elements, in the same order as {@link #getIndices()}.
+	 * @return The values, the length is the number of nonzeros
+	 */
+	public double[] getValues(){
+		return Arrays.copyOf(values , getNonZeros());
+	}
+
+	/**
+	 * Get the element that at the specific row and column, O(log(nonzeros in the row)) by binary search.
+	 * @param row - The row index of the element
+	 * @param col - The column index of the element
+	 * @return The element that at the specific row and column
+	 */
+	public Number get(int row , int col){
+		return getDouble(row , col);
+	}
+
+	/**
+	 * Get the element that at the specific row and column as a primitive double, without boxing
+	 * @param row - The row index of the element
+	 * @param col - The column index of the element
+	 * @return The element that at the specific row and column
+	 */
+	public double getDouble(int row , int col){
+		indexCheck(row , col);
+		int k = find(byColumns ? col : row , byColumns ? row : col);
+		return k < 0 ? 0 : values[k];
+	}
+
+	/**
+	 * Set the element in the matrix to a new one. If the element was 0 it is inserted, and if the new value is 0 it is removed,
+	 * both of them move the elements after it, O(nonzeros).
+	 * @param row - The row index of the element
+	 * @param col - The column index of the element
+	 * @param value - The new value
+	 */
+	public void set(int row , int col , Number value){
+		if(value == null)
+			throw new MatrixException("The value cannot be null");
+		set(row , col , value.doubleValue());
+	}
+
+	/**
+	 * Set the element in the matrix to a new one, without boxing. See {@link #set(int, int, Number)}.
+	 * @param row - The row index of the element
+	 * @param col - The column index of the element
+	 * @param value - The new value
+	 */
+	public void set(int row , int col , double value){
+		indexCheck(row , col);
+		own();
+		int major = byColumns ? col : row , minor = byColumns ? row : col;
+		int k = find(major , minor);
+		int nnz = getNonZeros() , m = major();
+		if(k >= 0){
+			if(value != 0){
+				values[k] = value;
+				return;
+			}
+			//Remove
+			System.arraycopy(indices , k+1 , indices , k , nnz-k-1);
+			System.arraycopy(values , k+1 , values , k , nnz-k-1);
+			for(int i=major+1;i<=m;i++)
+				pointers[i]--;
+			return;
+		}
+		if(value == 0)
+			return;
+		//Insert at -k-1, grow the arrays by half if they are full
+		k = -k-1;
+		if(nnz == indices.length){
+			int capacity = Math.max(8 , nnz + (nnz >> 1));
+			indices = Arrays.copyOf(indices , capacity);
+			values = Arrays.copyOf(values , capacity);
+		}
+		System.arraycopy(indices , k , indices , k+1 , nnz-k);
+		System.arraycopy(values , k , values , k+1 , nnz-k);
+		indices[k] = minor;
+		values[k] = value;
+		for(int i=major+1;i<=m;i++)
+			pointers[i]++;
+	}
+
+	/**
+	 * Switch the elements in two different rows in the matrix, O(nonzeros).
+	 * @param row1 - The index of the first row
+	 * @param row2 - The index of the second row
+	 */
+	public void switchRow(int row1 , int row2){
+		if(row1 < 0 || row2 < 0 || row1 >= rows || row2 >= rows)
+			throw new MatrixException("Index out of bound");
+		if(row1 == row2)
+			return;
+		own();
+		if(byColumns)
+			switchMinor(row1 , row2);
+		else
+			switchMajor(row1 , row2);
+	}
+
+	/**
+	 * Switch the elements in two different columns in the matrix, O(nonzeros).
+	 * @param col1 - The index of the first column
+	 * @param col2 - The index of the second column
+	 */
+	public void switchCol(int col1 , int col2){
+		if(col1 < 0 || col2 < 0 || col1 >= cols || col2 >= cols)
+			throw new MatrixException("Index out of bound");
+		if(col1 == col2)
+			return;
+		own();
+		if(byColumns)
+			switchMajor(col1 , col2);
+		else
+			switchMinor(col1 , col2);
+	}
+
+	/**
+	 * Get the two dimensional array that represents the matrix, including all the zeros. Please notice that it takes
+	 * rows*cols elements, only use it for small matrices.
+	 * @return The two dimensional array that represents the matrix
+	 */
+	public Number[][] getMatrix(){
+		Number[][] r = new Number[rows][cols];
+		for(Number[] row : r)
+			Arrays.fill(row , 0.0);
+		int m = major();
+		for(int i=0;i<m;i++){
+			for(int k=pointers[i];k<pointers[i+1];k++){
+				if(byColumns)
+					r[indices[k]][i] = values[k];
+				else
+					r[i][indices[k]] = values[k];
+			}
+		}
+		return r;
+	}
+
+	/**
+	 * Convert the sparse matrix to a Matrix, which stores all the rows*cols elements.
+	 * @return The Matrix
+	 */
+	public Matrix toMatrix(){
+		Matrix result = new Matrix(rows , cols);
+		double[] c = result.array();
+		int m = major();
+		for(int i=0;i<m;i++){
+			for(int k=pointers[i];k<pointers[i+1];k++){
+				if(byColumns)
+					c[indices[k]*cols + i] = values[k];
+				else
+					c[i*cols + indices[k]] = values[k];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Transpose the matrix, O(1). The rows compressed by rows are the columns of the transpose compressed by columns, so the
+	 * arrays are shared until one of the matrices is modified.
+	 * @return The matrix after transposed
+	 */
+	public SparseMatrix transpose(){
+		SparseMatrix t = new SparseMatrix(cols , rows , !byColumns , pointers , indices , values);
+		t.shared = true;
+		shared = true;
+		return t;
+	}
+
+	/**
+	 * Get the same matrix compressed by rows(CSR), which is faster for multiplying vectors. O(nonzeros) if it is compressed by
+	 * columns, otherwise the matrix itself is returned.
+	 * @return The matrix compressed by rows
+	 */
+	public SparseMatrix toCompressedRows(){
+		return byColumns ? recompress() : this;
+	}
+
+	/**
+	 * Get the same matrix compressed by columns(CSC). O(nonzeros) if it is compressed by rows, otherwise the matrix itself is returned.
+	 * @return The matrix compressed by columns
+	 */
+	public SparseMatrix toCompressedColumns(){
+		return byColumns ? this : recompress();
+	}
+
+	/**
+	 * Multiply the matrix by a vector, y = A*x, O(nonzeros).
+	 * @param x - The vector, the length must be the number of columns
+	 * @return y, the length is the number of rows
+	 */
+	public double[] multiply(double[] x){
+		return multiplyInto(x , new double[rows]);
+	}
+
+	/**
+	 * Multiply the matrix by a vector and write the result into the destination, y = A*x, O(nonzeros). The iterative solvers
+	 * call it in every iteration without creating new arrays.
+	 * @param x - The vector, the length must be the number of columns
+	 * @param dest - y, the length must be the number of rows, cannot be x
+	 * @return The destination
+	 */
+	public double[] multiplyInto(double[] x , double[] dest){
+		if(x == null || x.length != cols)
+			throw new MatrixCalculationException("The length of the vector must be "+cols);
+		if(dest == null || dest.length != rows)
+			throw new MatrixCalculationException("The length of the destination must be "+rows);
+		if(x == dest)
+			throw new MatrixCalculationException("The destination cannot be the vector");
+		if(byColumns){
+			Arrays.fill(dest , 0);
+			for(int j=0;j<cols;j++){
+				double xj = x[j];
+				if(xj == 0)
+					continue;
+				for(int k=pointers[j];k<pointers[j+1];k++)
+					dest[indices[k]] += values[k]*xj;
+			}
+			return dest;
+		}
+		for(int i=0;i<rows;i++){
+			double sum = 0;
+			for(int k=pointers[i];k<pointers[i+1];k++)
+				sum += values[k]*x[indices[k]];
+			dest[i] = sum;
+		}
+		return dest;
+	}
+
+	/**
+	 * Multiply the matrix by a Matrix, O(nonzeros * columns of m). Every nonzero element A(i , k) adds A(i , k) times row k of m
+	 * to row i of the result.
+	 * @param m - The matrix on the right side
+	 * @return The product as a Matrix
+	 */
+	public Matrix multiply(Matrix m){
+		if(m == null || m.isEmpty())
+			throw new MatrixCalculationException("The matrix can not be null");
+		if(cols != m.getRows())
+			throw new MatrixCalculationException("Multiplication can only be applied on two matrices that,\n"
+					+ "left side matrix's columns number equals to right side matrix's rows number");
+		Matrix b = m.rowMajor();
+		double[] bd = b.array();
+		int bOff = b.offset() , ldb = b.stride() , n = m.getCols();
+		Matrix result = new Matrix(rows , n);
+		double[] c = result.array();
+		int major = major();
+		for(int p=0;p<major;p++){
+			for(int k=pointers[p];k<pointers[p+1];k++){
+				//A(i , l) * row l of B
+				int i = byColumns ? indices[k] : p , l = byColumns ? p : indices[k];
+				double v = values[k];
+				int bl = bOff + l*ldb , ci = i*n;
+				for(int j=0;j<n;j++)
+					c[ci+j] += v*bd[bl+j];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Multiply two sparse matrices, the result is also sparse and compressed by rows. Row i of the result is the sum of the
+	 * rows of m multiplied by the nonzero elements of row i of this matrix(Gustavson's algorithm), so the time is proportional
+	 * to the number of the multiplications of the nonzero elements, not to the dimensions.
+	 * @param m - The sparse matrix on the right side
+	 * @return The product
+	 */
+	public SparseMatrix multiply(SparseMatrix m){
+		if(m == null)
+			throw new MatrixCalculationException("The matrix can not be null");
+		if(cols != m.rows)
+			throw new MatrixCalculationException("Multiplication can only be applied on two matrices that,\n"
+					+ "left side matrix's columns number equals to right side matrix's rows number");
+		SparseMatrix a = toCompressedRows() , b = m.toCompressedRows();
+		int n = b.cols;
+		int[] rp = new int[rows+1];
+		int[] ri = new int[Math.max(8 , a.getNonZeros() + b.getNonZeros())];
+		double[] rv = new double[ri.length];
+		//The sums of the current row, and the row in which every column was last used
+		double[] sums = new double[n];
+		int[] mark = new int[n];
+		Arrays.fill(mark , -1);
+		int[] used = new int[n];
+		int count = 0;
+		for(int i=0;i<rows;i++){
+			int length = 0;
+			for(int k=a.pointers[i];k<a.pointers[i+1];k++){
+				int l = a.indices[k];
+				double v = a.values[k];
+				for(int q=b.pointers[l];q<b.pointers[l+1];q++){
+					int j = b.indices[q];
+					if(mark[j] != i){
+						mark[j] = i;
+						sums[j] = 0;
+						used[length++] = j;
+					}
+					sums[j] += v*b.values[q];
+				}
+			}
+			Arrays.sort(used , 0 , length);
+			if(count + length > ri.length){
+				int capacity = Math.max(count + length , ri.length + (ri.length >> 1));
+				ri = Arrays.copyOf(ri , capacity);
+				rv = Arrays.copyOf(rv , capacity);
+			}
+			for(int t=0;t<length;t++){
+				int j = used[t];
+				if(sums[j] != 0){
+					ri[count] = j;
+					rv[count++] = sums[j];
+				}
+			}
+			rp[i+1] = count;
+		}
+		return new SparseMatrix(rows , n , false , rp , ri , rv);
+	}
+
+	/**
+	 * Get the String that contains the nonzero elements, one element in every line as <code>(row , col) value</code>
+	 * @return The string that contains the nonzero elements
+	 */
+	@Override
+	public String toString(){
+		StringBuilder result = new StringBuilder();
+		result.append(rows).append(" * ").append(cols).append(" , ").append(getNonZeros()).append(" nonzeros");
+		int m = major();
+		for(int i=0;i<m;i++){
+			for(int k=pointers[i];k<pointers[i+1];k++){
+				int row = byColumns ? indices[k] : i , col = byColumns ? i : indices[k];
+				result.append("\n(").append(row).append(" , ").append(col).append(") ").append(values[k]);
+			}
+		}
+		return result.toString();
+	}
+
+	//The number of rows if compressed by rows, or the number of columns if compressed by columns
+	private int major(){
+		return byColumns ? cols : rows;
+	}
+
+	//The number of columns if compressed by rows, or the number of rows if compressed by columns
+	private int minor(){
+		return byColumns ? rows : cols;
+	}
+
+	//The index of the element in the arrays, or -(insertion point)-1 if it is 0
+	private int find(int major , int minor){
+		return Arrays.binarySearch(indices , pointers[major] , pointers[major+1] , minor);
+	}
+
+	//Convert CSR to CSC or CSC to CSR by counting the elements of every minor index
+	private SparseMatrix recompress(){
+		int m = major() , n = minor() , nnz = getNonZeros();
+		int[] p = new int[n+1];
+		for(int k=0;k<nnz;k++)
+			p[indices[k]+1]++;
+		for(int j=0;j<n;j++)
+			p[j+1] += p[j];
+		int[] next = Arrays.copyOf(p , n);
+		int[] idx = new int[nnz];
+		double[] val = new double[nnz];
+		//The majors are visited in ascending order, so they are sorted in every new segment
+		for(int i=0;i<m;i++){
+			for(int k=pointers[i];k<pointers[i+1];k++){
+				int t = next[indices[k]]++;
+				idx[t] = i;
+				val[t] = values[k];
+			}
+		}
+		return new SparseMatrix(rows , cols , !byColumns , p , idx , val);
+	}
+
+	//Switch two segments of the arrays
+	private void switchMajor(int a , int b){
+		if(a > b){
+			int temp = a;
+			a = b;
+			b = temp;
+		}
+		int aStart = pointers[a] , aEnd = pointers[a+1] , bStart = pointers[b] , bEnd = pointers[b+1];
+		int aLength = aEnd - aStart , bLength = bEnd - bStart , middle = bStart - aEnd;
+		int[] idx = new int[bEnd - aStart];
+		double[] val = new double[bEnd - aStart];
+		//b , the segments between , a
+		System.arraycopy(indices , bStart , idx , 0 , bLength);
+		System.arraycopy(values , bStart , val , 0 , bLength);
+		System.arraycopy(indices , aEnd , idx , bLength , middle);
+		System.arraycopy(values , aEnd , val , bLength , middle);
+		System.arraycopy(indices , aStart , idx , bLength + middle , aLength);
+		System.arraycopy(values , aStart , val , bLength + middle , aLength);
+		System.arraycopy(idx , 0 , indices , aStart , idx.length);
+		System.arraycopy(val , 0 , values , aStart , val.length);
+		int shift = bLength - aLength;
+		for(int i=a+1;i<=b;i++)
+			pointers[i] += shift;
+	}
+
+	//Rename the minor indices a and b in every segment, and sort the segments again
+	private void switchMinor(int a , int b){
+		int m = major();
+		for(int i=0;i<m;i++){
+			boolean changed = false;
+			for(int k=pointers[i];k<pointers[i+1];k++){
+				if(indices[k] == a){
+					indices[k] = b;
+					changed = true;
+				}
+				else if(indices[k] == b){
+					indices[k] = a;
+					changed = true;
+				}
+			}
+			if(!changed)
+				continue;
+			//Insertion sort, at most two elements are out of order
+			for(int k=pointers[i]+1;k<pointers[i+1];k++){
+				int idx = indices[k];
+				double val = values[k];
+				int t = k-1;
+				for(;t>=pointers[i] && indices[t] > idx;t--){
+					indices[t+1] = indices[t];
+					values[t+1] = values[t];
+				}
+				indices[t+1] = idx;
+				values[t+1] = val;
+			}
+		}
+	}
+
+	//Copy on write, a shared matrix gets its own arrays before it is modified
+	private void own(){
+		if(!shared)
+			return;
+		pointers = pointers.clone();
+		indices = indices.clone();
+		values = values.clone();
+		shared = false;
+	}
+
+	//Check if the index is in the matrix
+	private void indexCheck(int row , int col){
+		if(row < 0 || row >= rows || col < 0 || col >= cols)
+			throw new MatrixException("Index out of bound ("+row+" , "+col+")");
+	}
+}
@@ -0,0 +1,161 @@
+package com.mathutil.linearalgebra.matrix;
+
+import java.util.Arrays;
+
+import com.mathutil.exceptions.MatrixException;
+
+/**
+ * Build a {@link SparseMatrix} from its elements in coordinate form(COO): every element is a row index, a column index and a value,
+ * added in any order. The elements added at the same position are summed, which is how the cofficient matrices of finite elements
+ * are assembled, and the sums that are 0 are not stored. {@link #build()} sorts the elements by counting in O(rows + cols + elements),
+ * and the builder can be used again to add more elements and build another matrix.
+ * <pre>
+ * SparseMatrixBuilder builder = new SparseMatrixBuilder(n , n);
+ * for(int i=0;i&lt;n;i++){
+ * 	builder.add(i , i , 2);
+ * 	if(i &gt; 0) builder.add(i , i-1 , -1);
+ * 	if(i &lt; n-1) builder.add(i , i+1 , -1);
+ * }
+ * SparseMatrix a = builder.build();
+ * </pre>
+ *
+ * @author danielxu
+ * @see SparseMatrix
+ */
+public class SparseMatrixBuilder {
+
+	/**The number of rows and columns of the matrix**/
+	private final int rows , cols;
+
+	/**The row indices, column indices and values of the elements added**/
+	private int[] rowIndices , colIndices;
+	private double[] values;
+
+	/**The number of elements added**/
+	private int size;
+
+	/**
+	 * Create a builder for a rows*cols matrix.
+	 * @param rows - The number of rows
+	 * @param cols - The number of columns
+	 */
+	public SparseMatrixBuilder(int rows , int cols){
+		this(rows , cols , 16);
+	}
+
+	/**
+	 * Create a builder for a rows*cols matrix, with enough space for the expected number of elements.
+	 * @param rows - The number of rows
+	 * @param cols - The number of columns
+	 * @param expected - The expected number of elements, the arrays grow if more elements are added
+	 */
+	public SparseMatrixBuilder(int rows , int cols , int expected){
+		if(rows <= 0 || cols <= 0)
+			throw new MatrixException("Illegal dimension of the matrix "+rows+" * "+cols);
+		this.rows = rows;
+		this.cols = cols;
+		expected = Math.max(expected , 1);
+		rowIndices = new int[expected];
+		colIndices = new int[expected];
+		values = new double[expected];
+	}
+
+	/**
+	 * Add an element, if there is already an element at the same position they are summed.
+	 * @param row - The row index
+	 * @param col - The column index
+	 * @param value - The value
+	 * @return This builder
+	 */
+	public SparseMatrixBuilder add(int row , int col , double value){
+		if(row < 0 || row >= rows || col < 0 || col >= cols)
+			throw new MatrixException("Index out of bound ("+row+" , "+col+")");
+		if(size == values.length){
+			int capacity = size + (size >> 1) + 1;
+			rowIndices = Arrays.copyOf(rowIndices , capacity);
+			colIndices = Arrays.copyOf(colIndices , capacity);
+			values = Arrays.copyOf(values , capacity);
+		}
+		rowIndices[size] = row;
+		colIndices[size] = col;
+		values[size++] = value;
+		return this;
+	}
+
+	/**
+	 * Get the number of elements added, including the ones at the same positions
+	 * @return The number of elements added
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * Remove all the elements added, the builder can be used for another matrix of the same size
+	 */
+	public void clear(){
+		size = 0;
+	}
+
+	/**
+	 * Build the matrix compressed by rows(CSR), which is the form for multiplying vectors and for the iterative solvers.
+	 * @return The sparse matrix
+	 */
+	public SparseMatrix build(){
+		return build(false);
+	}
+
+	/**
+	 * Build the matrix compressed by columns(CSC).
+	 * @return The sparse matrix
+	 */
+	public SparseMatrix buildByColumns(){
+		return build(true);
+	}
+
+	//Sort the elements by the minor index then by the major index(both counting sorts), so they are in order in every segment
+	private SparseMatrix build(boolean byColumns){
+		int[] major = byColumns ? colIndices : rowIndices , minor = byColumns ? rowIndices : colIndices;
+		int m = byColumns ? cols : rows , n = byColumns ? rows : cols;
+
+		int[] byMinor = countingSort(minor , n , null);
+		int[] order = countingSort(major , m , byMinor);
+
+		//Sum the elements at the same position and skip the sums that are 0
+		int[] pointers = new int[m+1];
+		int[] idx = new int[size];
+		double[] val = new double[size];
+		int count = 0;
+		for(int t=0;t<size;){
+			int e = order[t];
+			int i = major[e] , j = minor[e];
+			double sum = 0;
+			for(;t<size && major[order[t]] == i && minor[order[t]] == j;t++)
+				sum += values[order[t]];
+			if(sum != 0){
+				idx[count] = j;
+				val[count++] = sum;
+				pointers[i+1] = count;
+			}
+		}
+		//The rows(or columns) without elements
+		for(int i=0;i<m;i++)
+			pointers[i+1] = Math.max(pointers[i+1] , pointers[i]);
+		return new SparseMatrix(rows , cols , byColumns , pointers , Arrays.copyOf(idx , count) , Arrays.copyOf(val , count));
+	}
+
+	//Stable counting sort of the elements in the given order(or 0 , 1 , 2... if it is null) by the keys in [0 , range)
+	private int[] countingSort(int[] keys , int range , int[] order){
+		int[] start = new int[range+1];
+		for(int t=0;t<size;t++)
+			start[keys[t]+1]++;
+		for(int i=0;i<range;i++)
+			start[i+1] += start[i];
+		int[] sorted = new int[size];
+		for(int t=0;t<size;t++){
+			int e = order == null ? t : order[t];
+			sorted[start[keys[e]]++] = e;
+		}
+		return sorted;
+	}
+}
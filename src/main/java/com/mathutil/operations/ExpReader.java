@@ -143,6 +143,39 @@ public class ExpReader {
 		return vals.pop();
 	}
 	
+	/**
+	 * Compile the expression so it can be evaluated many times without parsing it again. The variable names are given in the order 
+	 * that their values will be passed to {@link Expression#evaluate(double...)}, if no variable name is given, the variable name will be x. 
+	 * The variable names must start with a letter, and they cannot be the same as the special numbers or the functions.<br><br>
+	 * 
+	 * Accept operations: (), +, -, *, /, ^, abs(), sin(), cos(), tan(), ln(), lg(), sqrt(), exp()<br>
+	 * Accept special numbers: pi, e<br><br>
+	 * 
+	 * The operators have the same precedence as {@link #calculate(String)}, and a^b^c is calculated as (a^b)^c. Unlike {@link #calculate(String)}, 
+	 * negative numbers can be written directly such as a^-2 or 2*-x.
+	 * 
+	 * @param exp - The expression, such as "x^2 + 2*x*y"
+	 * @param vars - The variable names, such as "x" , "y"
+	 * @return The compiled expression
+	 * @see Expression
+	 */
+	public static Expression compile(String exp , String... vars){
+		if(exp == null || exp.trim().equals("")) throw new ExpressionException("Expression cannot be null or empty");
+		if(vars == null || vars.length == 0)
+			vars = new String[]{"x"};
+		vars = vars.clone();
+		for(int i=0;i<vars.length;i++){
+			String v = vars[i];
+			if(v == null || v.isEmpty() || !Character.isLetter(v.charAt(0)) || Compiler.isReserved(v))
+				throw new ExpressionException("Illegal variable name "+v);
+			for(int j=0;j<i;j++){
+				if(vars[j].equals(v))
+					throw new ExpressionException("Duplicate variable name "+v);
+			}
+		}
+		return new Expression(exp , vars , new Compiler(exp , vars).parse());
+	}
+	
 	/*
 	 * Returns true if 'op2' has higher or same precedence as 'op1', otherwise returns false.
 	 * (^) > (/ *) > (+ -)
@@ -204,4 +237,159 @@ public class ExpReader {
 		
 		return true;
 	}
+	
+	/*
+	 * Recursive descent parser that builds the expression tree
+	 * 
+	 * expression := term (('+' | '-') term)*
+	 * term       := unary (('*' | '/') unary)*
+	 * unary      := ('-' | '+') unary | power
+	 * power      := primary ('^' ('-' | '+')* primary)*
+	 * primary    := number | name | function '(' expression ')' | '(' expression ')'
+	 */
+	private static class Compiler{
+		
+		private static final String[] FUNCTIONS = {"sin" , "cos" , "tan" , "abs" , "ln" , "lg" , "sqrt" , "exp"};
+		private static final char[] OPS = {'s' , 'c' , 't' , 'a' , 'l' , 'L' , 'q' , 'e'};
+		
+		private final String exp;
+		private final String[] vars;
+		private int pos;
+		
+		Compiler(String exp , String[] vars){
+			this.exp = exp;
+			this.vars = vars;
+		}
+		
+		static boolean isReserved(String name){
+			if(name.equals("e") || name.equals("pi"))
+				return true;
+			for(String f : FUNCTIONS){
+				if(f.equals(name))
+					return true;
+			}
+			return false;
+		}
+		
+		Expression.Node parse(){
+			Expression.Node n = expression();
+			skipSpaces();
+			if(pos != exp.length())
+				throw new ExpressionException("Unexpected character '"+exp.charAt(pos)+"' at "+pos+" in "+exp);
+			return n;
+		}
+		
+		private Expression.Node expression(){
+			Expression.Node n = term();
+			while(true){
+				if(eat('+')) n = Expression.binary('+' , n , term());
+				else if(eat('-')) n = Expression.binary('-' , n , term());
+				else return n;
+			}
+		}
+		
+		private Expression.Node term(){
+			Expression.Node n = unary();
+			while(true){
+				if(eat('*')) n = Expression.binary('*' , n , unary());
+				else if(eat('/')) n = Expression.binary('/' , n , unary());
+				else return n;
+			}
+		}
+		
+		private Expression.Node unary(){
+			if(eat('-')) return Expression.unary('-' , unary());
+			if(eat('+')) return unary();
+			return power();
+		}
+		
+		private Expression.Node power(){
+			Expression.Node n = primary();
+			while(eat('^')){
+				boolean neg = false;
+				while(true){
+					if(eat('-')) neg = !neg;
+					else if(!eat('+')) break;
+				}
+				Expression.Node p = primary();
+				n = Expression.binary('^' , n , neg ? Expression.unary('-' , p) : p);
+			}
+			return n;
+		}
+		
+		private Expression.Node primary(){
+			skipSpaces();
+			if(pos >= exp.length())
+				throw new ExpressionException("Unexpected end of the expression "+exp);
+			char c = exp.charAt(pos);
+			
+			//Parenthesis
+			if(eat('(')){
+				Expression.Node n = expression();
+				if(!eat(')'))
+					throw new ExpressionException("Parenthesis missing in the expression");
+				return n;
+			}
+			//Number, such as 12, 1.5 or 1.0E-10
+			if((c >= '0' && c <= '9') || c == '.'){
+				int start = pos;
+				while(pos < exp.length() && ((exp.charAt(pos) >= '0' && exp.charAt(pos) <= '9') || exp.charAt(pos) == '.'))
+					pos++;
+				if(pos < exp.length() && exp.charAt(pos) == 'E'){
+					pos++;
+					if(pos < exp.length() && (exp.charAt(pos) == '-' || exp.charAt(pos) == '+'))
+						pos++;
+					while(pos < exp.length() && exp.charAt(pos) >= '0' && exp.charAt(pos) <= '9')
+						pos++;
+				}
+				try{
+					return new Expression.Constant(Double.parseDouble(exp.substring(start, pos)));
+				}catch(NumberFormatException e){
+					throw new ExpressionException("Illegal number "+exp.substring(start, pos));
+				}
+			}
+			//Name, it can be a function, a special number or a variable
+			if(Character.isLetter(c)){
+				int start = pos;
+				while(pos < exp.length() && (Character.isLetterOrDigit(exp.charAt(pos)) || exp.charAt(pos) == '_'))
+					pos++;
+				String name = exp.substring(start, pos);
+				for(int i=0;i<vars.length;i++){
+					if(vars[i].equals(name))
+						return new Expression.Variable(i);
+				}
+				if(name.equals("pi"))
+					return new Expression.Constant(Math.PI);
+				if(name.equals("e"))
+					return new Expression.Constant(Math.E);
+				for(int i=0;i<FUNCTIONS.length;i++){
+					if(FUNCTIONS[i].equals(name)){
+						if(!eat('('))
+							throw new ExpressionException("Parenthesis missing after "+name);
+						Expression.Node n = expression();
+						if(!eat(')'))
+							throw new ExpressionException("Parenthesis missing in the expression");
+						return Expression.unary(OPS[i] , n);
+					}
+				}
+				throw new ExpressionException("Unknown variable "+name+" in "+exp);
+			}
+			throw new ExpressionException("Unexpected character '"+c+"' at "+pos+" in "+exp);
+		}
+		
+		//Skip the spaces, consume the character if it is the expected one
+		private boolean eat(char expect){
+			skipSpaces();
+			if(pos < exp.length() && exp.charAt(pos) == expect){
+				pos++;
+				return true;
+			}
+			return false;
+		}
+		
+		private void skipSpaces(){
+			while(pos < exp.length() && Character.isWhitespace(exp.charAt(pos)))
+				pos++;
+		}
+	}
 }
@@ -0,0 +1,384 @@
+package com.mathutil.operations;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+import com.mathutil.exceptions.ExpressionException;
+
+/**
+ * A compiled expression. The expression String is parsed only once by {@link ExpReader#compile(String, String...)}, after that
+ * the expression can be evaluated many times without parsing or creating any Strings, which is much faster than calling
+ * {@link ExpReader#calculate(String)} with the variables replaced.<br>
+ * The expression can have any number of variables, the values are given in the same order as the variable names when compiling.
+ * Exact derivatives can be obtained by {@link #derivative(String)}, they are compiled expressions as well.<br><br>
+ *
+ * Compared with {@link ExpReader#calculate(String)}, dividing by zero does not throw an exception, it follows the rules of double
+ * and the result will be infinity or NaN.<br>
+ * An Expression is immutable, it can be evaluated by different threads at the same time.
+ *
+ * @author danielxu
+ * @see ExpReader#compile(String, String...)
+ */
+public final class Expression implements DoubleUnaryOperator{
+
+	/**The original expression**/
+	private final String exp;
+
+	/**The variable names**/
+	private final String[] vars;
+
+	/**The root of the expression tree**/
+	private final Node root;
+
+	/**Only visible for package, use ExpReader.compile to create an expression**/
+	Expression(String exp , String[] vars , Node root){
+		this.exp = exp;
+		this.vars = vars;
+		this.root = root;
+	}
+
+	/**
+	 * Evaluate the expression that has only one variable.
+	 * @param x - The value of the variable
+	 * @return The result
+	 */
+	public double evaluate(double x){
+		if(vars.length != 1)
+			throw new ExpressionException("The expression has "+vars.length+" variables, but only one value is given");
+		return root.eval(x);
+	}
+
+	/**
+	 * Evaluate the expression, the values must be given in the same order as the variables.
+	 * @param vals - The values of the variables
+	 * @return The result
+	 */
+	public double evaluate(double... vals){
+		if(vals.length < vars.length)
+			throw new ExpressionException("The expression has "+vars.length+" variables, but only "+vals.length+" values are given");
+		return root.eval(vals);
+	}
+
+	/**
+	 * The same as {@link #evaluate(double)}, so the expression can be used as a DoubleUnaryOperator.
+	 */
+	@Override
+	public double applyAsDouble(double x){
+		return evaluate(x);
+	}
+
+	/**
+	 * Get the exact derivative of the expression with respect to the given variable. The derivative is found by the rules of
+	 * differentiation, so there is no approximation error like {@link com.mathutil.calculus.Calculus#dev(String, double)}.
+	 * @param var - The variable name
+	 * @return The derivative, as a compiled expression with the same variables
+	 */
+	public Expression derivative(String var){
+		int index = indexOf(var);
+		if(index < 0)
+			throw new ExpressionException("Unknown variable "+var);
+		return new Expression("d("+exp+")/d"+var , vars , root.derivative(index));
+	}
+
+	/**
+	 * Get the derivative of the expression that has only one variable.
+	 * @return The derivative, as a compiled expression
+	 * @see #derivative(String)
+	 */
+	public Expression derivative(){
+		if(vars.length != 1)
+			throw new ExpressionException("The expression has "+vars.length+" variables, the variable must be specified");
+		return derivative(vars[0]);
+	}
+
+	/**
+	 * Get the gradient, the partial derivatives with respect to every variable.
+	 * @return The partial derivatives, in the same order as the variables
+	 */
+	public Expression[] gradient(){
+		Expression[] g = new Expression[vars.length];
+		for(int i=0;i<vars.length;i++){
+			g[i] = derivative(vars[i]);
+		}
+		return g;
+	}
+
+	/**
+	 * Get the variable names, in the same order as the values should be given.
+	 * @return A copy of the variable names
+	 */
+	public String[] getVariables(){
+		return Arrays.copyOf(vars, vars.length);
+	}
+
+	/**
+	 * Get the number of variables.
+	 * @return The number of variables
+	 */
+	public int getDimension(){
+		return vars.length;
+	}
+
+	/**
+	 * Get the original expression.
+	 */
+	@Override
+	public String toString(){
+		return exp;
+	}
+
+	//Find the index of the variable
+	private int indexOf(String var){
+		for(int i=0;i<vars.length;i++){
+			if(vars[i].equals(var))
+				return i;
+		}
+		return -1;
+	}
+
+	// ===================================================================
+	//                          Expression tree
+	// ===================================================================
+
+	/*
+	 * A node in the expression tree
+	 */
+	static abstract class Node{
+
+		//Evaluate with only one variable
+		abstract double eval(double x);
+
+		//Evaluate with all the variables
+		abstract double eval(double[] v);
+
+		//The derivative with respect to the variable at the index
+		abstract Node derivative(int index);
+
+		boolean isConstant(){
+			return false;
+		}
+	}
+
+	/*
+	 * A number
+	 */
+	static final class Constant extends Node{
+		final double value;
+
+		Constant(double value){
+			this.value = value;
+		}
+
+		double eval(double x){
+			return value;
+		}
+
+		double eval(double[] v){
+			return value;
+		}
+
+		Node derivative(int index){
+			return ZERO;
+		}
+
+		@Override
+		boolean isConstant(){
+			return true;
+		}
+	}
+
+	static final Constant ZERO = new Constant(0);
+	static final Constant ONE = new Constant(1);
+
+	/*
+	 * A variable
+	 */
+	static final class Variable extends Node{
+		final int index;
+
+		Variable(int index){
+			this.index = index;
+		}
+
+		double eval(double x){
+			return x;
+		}
+
+		double eval(double[] v){
+			return v[index];
+		}
+
+		Node derivative(int index){
+			return this.index == index ? ONE : ZERO;
+		}
+	}
+
+	/*
+	 * Operations with one operand, such as sin(u)
+	 */
+	static final class Unary extends Node{
+		final char op;
+		final Node u;
+
+		Unary(char op , Node u){
+			this.op = op;
+			this.u = u;
+		}
+
+		double eval(double x){
+			return apply(op , u.eval(x));
+		}
+
+		double eval(double[] v){
+			return apply(op , u.eval(v));
+		}
+
+		Node derivative(int index){
+			Node du = u.derivative(index);
+			if(du.isConstant() && ((Constant)du).value == 0)
+				return ZERO;
+			switch(op){
+			case '-':
+				return unary('-' , du);
+			case 's':
+				return mul(unary('c' , u) , du);
+			case 'c':
+				return unary('-' , mul(unary('s' , u) , du));
+			case 't':
+				return div(du , pow(unary('c' , u) , new Constant(2)));
+			case 'a':
+				return mul(unary('g' , u) , du);
+			case 'l':
+				return div(du , u);
+			case 'L':
+				return div(du , mul(u , new Constant(Math.log(10))));
+			case 'q':
+				return div(du , mul(new Constant(2) , this));
+			case 'e':
+				return mul(this , du);
+			default:
+				//sign(u) is flat
+				return ZERO;
+			}
+		}
+
+		static double apply(char op , double a){
+			switch(op){
+			case '-': return -a;
+			case 's': return Math.sin(a);
+			case 'c': return Math.cos(a);
+			case 't': return Math.tan(a);
+			case 'a': return Math.abs(a);
+			case 'l': return Math.log(a);
+			case 'L': return Math.log10(a);
+			case 'q': return Math.sqrt(a);
+			case 'e': return Math.exp(a);
+			default : return Math.signum(a);
+			}
+		}
+	}
+
+	/*
+	 * Operations with two operands, + - * / ^
+	 */
+	static final class Binary extends Node{
+		final char op;
+		final Node a , b;
+
+		Binary(char op , Node a , Node b){
+			this.op = op;
+			this.a = a;
+			this.b = b;
+		}
+
+		double eval(double x){
+			return apply(op , a.eval(x) , b.eval(x));
+		}
+
+		double eval(double[] v){
+			return apply(op , a.eval(v) , b.eval(v));
+		}
+
+		Node derivative(int index){
+			Node da = a.derivative(index);
+			Node db = b.derivative(index);
+			switch(op){
+			case '+':
+				return add(da , db);
+			case '-':
+				return sub(da , db);
+			case '*':
+				return add(mul(da , b) , mul(a , db));
+			case '/':
+				//(a/b)' = (a' - (a/b)*b') / b
+				return div(sub(da , mul(this , db)) , b);
+			default:
+				//(a^b)' = b*a^(b-1)*a' if b does not depend on the variable, a'/a would be 0*inf at a = 0
+				if(b.isConstant() || isValue(db , 0))
+					return mul(mul(b , pow(a , sub(b , ONE))) , da);
+				//(a^b)' = a^b*(b'*ln(a) + b*a'/a)
+				return mul(this , add(mul(db , unary('l' , a)) , div(mul(b , da) , a)));
+			}
+		}
+
+		static double apply(char op , double a , double b){
+			switch(op){
+			case '+': return a + b;
+			case '-': return a - b;
+			case '*': return a * b;
+			case '/': return a / b;
+			default : return Math.pow(a, b);
+			}
+		}
+	}
+
+	//Build the nodes, fold the constants and remove the trivial operations
+
+	static Node unary(char op , Node u){
+		if(u.isConstant())
+			return new Constant(Unary.apply(op , ((Constant)u).value));
+		if(op == '-' && u instanceof Unary && ((Unary)u).op == '-')
+			return ((Unary)u).u;
+		return new Unary(op , u);
+	}
+
+	static Node add(Node a , Node b){
+		if(isValue(a , 0)) return b;
+		if(isValue(b , 0)) return a;
+		return binary('+' , a , b);
+	}
+
+	static Node sub(Node a , Node b){
+		if(isValue(b , 0)) return a;
+		if(isValue(a , 0)) return unary('-' , b);
+		return binary('-' , a , b);
+	}
+
+	static Node mul(Node a , Node b){
+		if(isValue(a , 0) || isValue(b , 0)) return ZERO;
+		if(isValue(a , 1)) return b;
+		if(isValue(b , 1)) return a;
+		return binary('*' , a , b);
+	}
+
+	static Node div(Node a , Node b){
+		if(isValue(b , 1)) return a;
+		return binary('/' , a , b);
+	}
+
+	static Node pow(Node a , Node b){
+		if(isValue(b , 1)) return a;
+		if(isValue(b , 0)) return ONE;
+		return binary('^' , a , b);
+	}
+
+	static Node binary(char op , Node a , Node b){
+		if(a.isConstant() && b.isConstant())
+			return new Constant(Binary.apply(op , ((Constant)a).value , ((Constant)b).value));
+		return new Binary(op , a , b);
+	}
+
+	private static boolean isValue(Node n , double v){
+		return n.isConstant() && ((Constant)n).value == v;
+	}
+}
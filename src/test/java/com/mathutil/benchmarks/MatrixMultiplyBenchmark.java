@@ -0,0 +1,90 @@
+package com.mathutil.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import com.mathutil.linearalgebra.matrix.Matrix;
+
+/**
+ * Compare the blocked Matrix.multiply with the implementation before version 0.1.5, which was an i-j-k loop over boxed
+ * Number[][] arrays, and the multi-threaded multiply with the single-threaded one. Not a unit test, run the main method:
+ * <pre>
+ * java com.mathutil.benchmarks.MatrixMultiplyBenchmark [sizes...] [--block n] [--naive-limit n] [--threads n]
+ * </pre>
+ * The default sizes are 64, 128, 256, 512, 1024, 2048 and 4096. The old implementation is only measured up to the naive limit,
+ * 1024 by default, since it takes minutes above that.
+ * @author danielxu
+ *
+ */
+public class MatrixMultiplyBenchmark {
+
+	public static void main(String[] args){
+		int[] sizes = {64, 128, 256, 512, 1024, 2048, 4096};
+		int block = 64 , naiveLimit = 1024 , threads = Runtime.getRuntime().availableProcessors();
+		int count = 0;
+		int[] given = new int[args.length];
+		for(int i=0;i<args.length;i++){
+			if(args[i].equals("--block")) block = Integer.parseInt(args[++i]);
+			else if(args[i].equals("--naive-limit")) naiveLimit = Integer.parseInt(args[++i]);
+			else if(args[i].equals("--threads")) threads = Integer.parseInt(args[++i]);
+			else given[count++] = Integer.parseInt(args[i]);
+		}
+		if(count > 0){
+			sizes = new int[count];
+			System.arraycopy(given, 0, sizes, 0, count);
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		System.out.println(threads+" threads");
+		System.out.println("size\tnaive(ms)\tblocked(ms)\tspeedup\tGFLOPS\tparallel(ms)\tspeedup");
+		for(int n : sizes){
+			Matrix a = random(n) , b = random(n);
+			final int bs = block;
+			double blocked = time(() -> a.multiply(b , bs) , n);
+			double parallel = time(() -> a.multiply(b , pool) , n);
+			double naive = n <= naiveLimit ? time(() -> naive(a , b) , n) : Double.NaN;
+			double gflops = 2.0*n*n*n/(blocked*1e6);
+			System.out.printf("%d\t%.2f\t%.2f\t%.1f\t%.2f\t%.2f\t%.2f%n", n, naive, blocked, naive/blocked, gflops, parallel, blocked/parallel);
+		}
+		pool.shutdown();
+	}
+
+	//The multiplication before version 0.1.5
+	private static Matrix naive(Matrix a , Matrix b){
+		Number[][] m1 = a.getMatrix() , m2 = b.getMatrix();
+		Number[][] result = new Number[m1.length][m2[0].length];
+		for(int i=0;i<result.length;i++){
+			for(int j=0;j<result[0].length;j++){
+				result[i][j] = 0d;
+			}
+		}
+		for(int i=0;i<m1.length;i++){
+			for(int j=0;j<m2[0].length;j++){
+				for(int k=0;k<m1[0].length;k++){
+					result[i][j] = result[i][j].doubleValue() + m1[i][k].doubleValue()*m2[k][j].doubleValue();
+				}
+			}
+		}
+		return new Matrix(result);
+	}
+
+	//The best time in milliseconds, repeat the small sizes more times
+	private static double time(Runnable r , int n){
+		int repeat = n <= 128 ? 20 : n <= 512 ? 5 : n <= 1024 ? 3 : 1;
+		r.run(); //warm up
+		double best = Double.MAX_VALUE;
+		for(int i=0;i<repeat;i++){
+			long start = System.nanoTime();
+			r.run();
+			best = Math.min(best , (System.nanoTime() - start)/1e6);
+		}
+		return best;
+	}
+
+	private static Matrix random(int n){
+		Random r = new Random(n);
+		double[] data = new double[n*n];
+		for(int i=0;i<data.length;i++) data[i] = r.nextDouble();
+		return Matrix.wrap(data, n, n);
+	}
+}
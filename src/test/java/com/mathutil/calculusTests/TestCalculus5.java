@@ -0,0 +1,29 @@
+package com.mathutil.calculusTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.mathutil.calculus.Calculus;
+
+/**
+ * Test case 5, derivative of the polynomial function.<br>
+ * f(x) = 3*x^4 - 2*x^2 + 5*x + 1, f'(x) = 12*x^3 - 4*x + 5
+ * @author danielxu
+ *
+ */
+public class TestCalculus5 {
+
+	@Test
+	public void test() {
+		double[] coff = new double[]{3 , -2 , 5 , 1};
+		double[] degree = new double[]{4 , 2 , 1 , 0};
+		
+		assertEquals(5 , Calculus.devPoly(coff, degree, 0) , TestCalculus1.ACCEPTABLE_ERROR);
+		assertEquals(13 , Calculus.devPoly(coff, degree, 1) , TestCalculus1.ACCEPTABLE_ERROR);
+		assertEquals(-83 , Calculus.devPoly(coff, degree, -2) , TestCalculus1.ACCEPTABLE_ERROR);
+		//Not a polynomial, f(x) = x^(-2) + 2, f'(x) = -2*x^(-3)
+		assertEquals(-0.25 , Calculus.devPoly(new double[]{1 , 2}, new double[]{-2 , 0}, 2) , TestCalculus1.ACCEPTABLE_ERROR);
+	}
+
+}
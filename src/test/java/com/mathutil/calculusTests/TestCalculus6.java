@@ -0,0 +1,24 @@
+package com.mathutil.calculusTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.mathutil.calculus.Calculus;
+
+/**
+ * Test case 6, definite integral of the polynomial function.<br>
+ * 3∫1 (x^(-2) + 2)dx = 14/3 , 2∫0 (3*x^2 + 1)dx = 10
+ * @author danielxu
+ *
+ */
+public class TestCalculus6 {
+
+	@Test
+	public void test() {
+		assertEquals(10 , Calculus.integPoly(new double[]{3 , 1}, new double[]{2 , 0}, 0, 2) , TestCalculus1.ACCEPTABLE_ERROR);
+		assertEquals(-10 , Calculus.integPoly(new double[]{3 , 1}, new double[]{2 , 0}, 2, 0) , TestCalculus1.ACCEPTABLE_ERROR);
+		assertEquals(14.0/3 , Calculus.integPoly(new double[]{1 , 2}, new double[]{-2 , 0}, 1, 3) , TestCalculus1.ACCEPTABLE_ERROR);
+	}
+
+}
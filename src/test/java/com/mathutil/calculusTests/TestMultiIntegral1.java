@@ -0,0 +1,37 @@
+package com.mathutil.calculusTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.mathutil.calculus.IntegralResult;
+import com.mathutil.calculus.MultiIntegral;
+import com.mathutil.operations.ExpReader;
+import com.mathutil.operations.Expression;
+
+/**
+ * Test case 1 for MultiIntegral, Gaussian cubature.<br>
+ * ∫∫∫ x*y^2*z^3 over [0,1]x[0,2]x[0,3] = (1/2)*(8/3)*(81/4) = 27, and ∫∫ e^(x+y) over [0,1]x[0,1] = (e-1)^2
+ * @author danielxu
+ *
+ */
+public class TestMultiIntegral1 {
+
+	@Test
+	public void test() {
+		Expression e = ExpReader.compile("x*y^2*z^3", "x", "y", "z");
+		IntegralResult r = MultiIntegral.gauss(e::evaluate, new double[]{0,0,0}, new double[]{1,2,3}, 4);
+		assertEquals(27 , r.getValue() , 1e-10);
+		assertEquals(64+27 , r.getEvaluations());
+		
+		IntegralResult exp = MultiIntegral.integrate("e^(x+y)", new String[]{"x", "y"}, new double[]{0,0}, new double[]{1,1});
+		assertEquals((Math.E-1)*(Math.E-1) , exp.getValue() , 1e-12);
+		assertTrue(exp.getStandardError() < 1e-10);
+		
+		double[][] rule = MultiIntegral.gaussLegendre(5);
+		assertEquals(0 , rule[0][2] , 1e-15);
+		assertEquals(128.0/225 , rule[1][2] , 1e-14);
+		assertEquals(Math.sqrt(5 + 2*Math.sqrt(10.0/7))/3 , rule[0][4] , 1e-14);
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.mathutil.calculusTests;
+
+import static org.junit.Assert.*;
+
+import java.util.function.ToDoubleFunction;
+
+import org.junit.Test;
+
+import com.mathutil.calculus.IntegralResult;
+import com.mathutil.calculus.MultiIntegral;
+import com.mathutil.calculus.MultiIntegral.Sequence;
+
+/**
+ * Test case 2 for MultiIntegral, Monte Carlo and quasi-Monte Carlo in 6 dimensions.<br>
+ * ∫...∫ cos(x1 + x2 + ... + x6) over the unit cube is the real part of (e^i - 1)^6 / i^6 = -Re((e^i - 1)^6)
+ * @author danielxu
+ *
+ */
+public class TestMultiIntegral2 {
+
+	@Test
+	public void test() {
+		//(e^i - 1) = (cos1 - 1) + i*sin1, raise to the 6th power in polar form
+		double re = Math.cos(1) - 1 , im = Math.sin(1);
+		double mod = Math.pow(re*re + im*im , 3) , arg = 6*Math.atan2(im , re);
+		double expect = -mod*Math.cos(arg);
+		
+		ToDoubleFunction<double[]> f = x -> {
+			double s = 0;
+			for(double v : x) s += v;
+			return Math.cos(s);
+		};
+		double[] low = new double[6] , high = {1,1,1,1,1,1};
+		
+		IntegralResult mc = MultiIntegral.monteCarlo(f, low, high, 200000, 42);
+		assertEquals(expect , mc.getValue() , 5*mc.getStandardError());
+		assertTrue(mc.getStandardError() < 0.01);
+		assertEquals(mc.getValue() , MultiIntegral.monteCarlo(f, low, high, 200000, 42).getValue() , 0);
+		
+		IntegralResult sobol = MultiIntegral.quasiMonteCarlo(f, low, high, 1 << 13, Sequence.SOBOL, 16, 7);
+		assertEquals(expect , sobol.getValue() , Math.max(5*sobol.getStandardError() , 1e-6));
+		assertTrue(sobol.getStandardError() < mc.getStandardError()/5);
+		
+		IntegralResult halton = MultiIntegral.quasiMonteCarlo(f, low, high, 1 << 13, Sequence.HALTON, 16, 7);
+		assertEquals(expect , halton.getValue() , Math.max(5*halton.getStandardError() , 1e-6));
+		assertTrue(halton.getStandardError() < mc.getStandardError()/5);
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.mathutil.calculusTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.mathutil.calculus.Calculus;
+import com.mathutil.calculus.ODESolution;
+import com.mathutil.calculus.ODESolver;
+import com.mathutil.calculus.ODESystem;
+
+/**
+ * Test case 1 for ODESolver, RK4 and Dormand-Prince.<br>
+ * y' = y , y(0) = 1 has the solution y = e^x, the harmonic oscillator y1' = y2 , y2' = -y1 has the solution
+ * y1 = sin(x) , y2 = cos(x) when y1(0) = 0 , y2(0) = 1.
+ * @author danielxu
+ *
+ */
+public class TestODE1 {
+
+	@Test
+	public void test() {
+		assertEquals(Math.E , Calculus.ode("y", 0, 1, 1) , 1e-8);
+		assertEquals(Math.E , Calculus.ode_rk4("y", 0, 1, 1, 100) , 1e-8);
+		assertEquals(1/Math.E , Calculus.ode("y", 0, 1, -1) , 1e-8);
+		
+		ODESystem f = new ODESystem(){
+			public void derivatives(double x, double[] y, double[] dydx) {
+				dydx[0] = y[1];
+				dydx[1] = -y[0];
+			}
+		};
+		ODESolution sol = ODESolver.dormandPrince(f, 0, new double[]{0, 1}, 10, 1e-10);
+		assertEquals(10 , sol.getFinalX() , 0);
+		assertEquals(Math.sin(10) , sol.getFinalY()[0] , 1e-7);
+		assertEquals(Math.cos(10) , sol.getFinalY()[1] , 1e-7);
+		assertTrue(sol.getSize() < 1000);
+		
+		//Dense output between the steps
+		for(double x=0;x<=10;x+=0.37){
+			double[] y = sol.evaluate(x);
+			assertEquals(Math.sin(x) , y[0] , 1e-6);
+			assertEquals(Math.cos(x) , y[1] , 1e-6);
+		}
+		
+		ODESolution rk = ODESolver.rk4(f, 0, new double[]{0, 1}, 10, 1000);
+		assertEquals(1001 , rk.getSize());
+		assertEquals(Math.sin(10) , rk.getFinalY()[0] , 1e-8);
+	}
+
+}
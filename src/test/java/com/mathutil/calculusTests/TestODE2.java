@@ -0,0 +1,36 @@
+package com.mathutil.calculusTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.mathutil.calculus.ODESolution;
+import com.mathutil.calculus.ODESolver;
+import com.mathutil.calculus.ODESystem;
+import com.mathutil.operations.ExpReader;
+
+/**
+ * Test case 2 for ODESolver, the stiff equation y' = -100000*(y - cos(x)) , y(0) = 0.<br>
+ * After a short transient the solution follows cos(x) closely:
+ * <center>y ≈ (10^10*cos(x) + 10^5*sin(x)) / (10^10 + 1)</center>
+ * The Rosenbrock method should take far fewer steps than the explicit method.
+ * @author danielxu
+ *
+ */
+public class TestODE2 {
+
+	@Test
+	public void test() {
+		ODESystem f = ODESolver.system(ExpReader.compile("-100000*(y - cos(x))", "x", "y"));
+		double expect = (1e10*Math.cos(2) + 1e5*Math.sin(2)) / (1e10 + 1);
+		
+		ODESolution stiff = ODESolver.rosenbrock(f, 0, new double[]{0}, 2, 1e-5);
+		assertEquals(expect , stiff.getFinalY()[0] , 1e-5);
+		
+		ODESolution explicit = ODESolver.dormandPrince(f, 0, new double[]{0}, 2, 1e-5);
+		assertEquals(expect , explicit.getFinalY()[0] , 1e-5);
+		
+		assertTrue(stiff.getSize() * 10 < explicit.getSize());
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.mathutil.calculusTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.mathutil.calculus.Optimizer;
+import com.mathutil.calculus.Optimum;
+
+/**
+ * Test case 1 for Optimizer, functions with one variable.<br>
+ * x^2 - 4*x + 1 has the minimum -3 at x = 2, sin(x) has the maximum 1 at x = pi/2
+ * @author danielxu
+ *
+ */
+public class TestOptimizer1 {
+
+	@Test
+	public void test() {
+		Optimum min = Optimizer.minimize("x^2 - 4*x + 1", -10, 10);
+		assertTrue(min.isConverged());
+		assertEquals(2 , min.getX() , 1e-6);
+		assertEquals(-3 , min.getValue() , 1e-12);
+		assertTrue(min.getEvaluations() < 20);
+		
+		Optimum max = Optimizer.maximize("sin(x)", 0, 3);
+		assertEquals(Math.PI/2 , max.getX() , 1e-6);
+		assertEquals(1 , max.getValue() , 1e-12);
+		
+		Optimum golden = Optimizer.goldenSection(x -> Math.cosh(x - 1), -5, 5, 1e-8, 1000);
+		assertTrue(golden.isConverged());
+		assertEquals(1 , golden.getX() , 1e-6);
+		Optimum brent = Optimizer.brent(x -> Math.cosh(x - 1), -5, 5, 1e-8, 1000);
+		assertEquals(1 , brent.getX() , 1e-6);
+		assertTrue(brent.getEvaluations() < golden.getEvaluations());
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.mathutil.calculusTests;
+
+import static org.junit.Assert.*;
+
+import java.util.function.ToDoubleFunction;
+
+import org.junit.Test;
+
+import com.mathutil.calculus.Optimizer;
+import com.mathutil.calculus.Optimum;
+import com.mathutil.operations.ExpReader;
+import com.mathutil.operations.Expression;
+
+/**
+ * Test case 2 for Optimizer, functions with many variables.<br>
+ * The Rosenbrock function (1-x)^2 + 100*(y-x^2)^2 has the minimum 0 at (1 , 1).
+ * (x^2+y-11)^2 + (x+y^2-7)^2 has four minimums with value 0, -x^2 - y^2 + 4 has the maximum 4 at (0 , 0)
+ * @author danielxu
+ *
+ */
+public class TestOptimizer2 {
+
+	@Test
+	public void test() {
+		String rosenbrock = "(1-x)^2 + 100*(y-x^2)^2";
+		Optimum bfgs = Optimizer.minimize(rosenbrock, new String[]{"x", "y"}, new double[]{-1.2, 1});
+		assertTrue(bfgs.isConverged());
+		assertEquals(1 , bfgs.getPoint()[0] , 1e-6);
+		assertEquals(1 , bfgs.getPoint()[1] , 1e-6);
+		assertTrue(bfgs.getEvaluations() < 200);
+		
+		Expression e = ExpReader.compile(rosenbrock, "x", "y");
+		ToDoubleFunction<double[]> f = e::evaluate;
+		Optimum nm = Optimizer.nelderMead(f, new double[]{-1.2, 1}, 0.5, 1e-12, 10000);
+		assertTrue(nm.isConverged());
+		assertEquals(1 , nm.getPoint()[0] , 1e-4);
+		assertEquals(1 , nm.getPoint()[1] , 1e-4);
+		
+		Optimum fd = Optimizer.bfgs(f, new double[]{-1.2, 1}, 1e-6, 1000);
+		assertEquals(1 , fd.getPoint()[0] , 1e-4);
+		
+		Optimum multi = Optimizer.minimize("(x^2+y-11)^2 + (x+y^2-7)^2", new String[]{"x", "y"},
+				new double[]{-5, -5}, new double[]{5, 5}, 20);
+		assertEquals(0 , multi.getValue() , 1e-10);
+		
+		Optimum max = Optimizer.maximize("-x^2 - y^2 + 4", new String[]{"x", "y"}, new double[]{3, -2});
+		assertEquals(4 , max.getValue() , 1e-12);
+		assertEquals(0 , max.getPoint()[0] , 1e-8);
+	}
+
+}
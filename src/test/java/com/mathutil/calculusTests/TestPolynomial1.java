@@ -0,0 +1,36 @@
+package com.mathutil.calculusTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.mathutil.calculus.Polynomial;
+
+/**
+ * Test case 1 for Polynomial, Horner evaluation, batch evaluation, derivative and integral.
+ * @author danielxu
+ *
+ */
+public class TestPolynomial1 {
+
+	@Test
+	public void test() {
+		//p(x) = 1 - 3*x + 2*x^3
+		Polynomial p = new Polynomial(1 , -3 , 0 , 2);
+		double[] xs = new double[]{-2 , -0.5 , 0 , 1.5 , 3};
+		double[] batch = p.evaluate(xs);
+		
+		for(int i=0;i<xs.length;i++){
+			double x = xs[i];
+			double expect = 1 - 3*x + 2*x*x*x;
+			assertEquals(expect , p.evaluate(x) , TestCalculus1.ACCEPTABLE_ERROR);
+			assertEquals(expect , batch[i] , TestCalculus1.ACCEPTABLE_ERROR);
+			assertEquals(-3 + 6*x*x , p.derivative(x) , TestCalculus1.ACCEPTABLE_ERROR);
+		}
+		assertEquals(new Polynomial(-3 , 0 , 6) , p.derivative());
+		assertEquals(p , p.integral().derivative());
+		assertEquals(3 , p.degree());
+		assertEquals(1*2 - 1.5*4 + 0.5*16 , p.integral(0, 2) , TestCalculus1.ACCEPTABLE_ERROR);
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.mathutil.calculusTests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.calculus.Polynomial;
+
+/**
+ * Test case 2 for Polynomial, multiplication of high degree polynomials (Karatsuba) against the schoolbook result, also when one
+ * is much longer than the other.
+ * @author danielxu
+ *
+ */
+public class TestPolynomial2 {
+
+	@Test
+	public void test() {
+		Random r = new Random(26);
+		double[] a = new double[150];
+		double[] b = new double[97];
+		for(int i=0;i<a.length;i++) a[i] = r.nextInt(21) - 10;
+		for(int i=0;i<b.length;i++) b[i] = r.nextInt(21) - 10;
+		
+		double[] expect = new double[a.length + b.length - 1];
+		for(int i=0;i<a.length;i++)
+			for(int j=0;j<b.length;j++)
+				expect[i+j] += a[i]*b[j];
+		
+		Polynomial product = new Polynomial(a).multiply(new Polynomial(b));
+		assertEquals(expect.length - 1 , product.degree());
+		//Integer cofficients, the result must be exact
+		assertArrayEquals(expect , product.getCofficients() , 0);
+		assertEquals(new Polynomial(a).add(new Polynomial(b)).subtract(new Polynomial(b)) , new Polynomial(a));
+		
+		//A long polynomial by a short one, in pieces of the short length
+		double[] c = new double[10007];
+		double[] d = new double[45];
+		for(int i=0;i<c.length;i++) c[i] = r.nextInt(21) - 10;
+		for(int i=0;i<d.length;i++) d[i] = r.nextInt(21) - 10;
+		c[c.length-1] = d[d.length-1] = 7;
+		expect = new double[c.length + d.length - 1];
+		for(int i=0;i<c.length;i++)
+			for(int j=0;j<d.length;j++)
+				expect[i+j] += c[i]*d[j];
+		assertArrayEquals(expect , new Polynomial(d).multiply(new Polynomial(c)).getCofficients() , 0);
+		assertArrayEquals(expect , new Polynomial(c).multiply(new Polynomial(d)).getCofficients() , 0);
+	}
+
+}
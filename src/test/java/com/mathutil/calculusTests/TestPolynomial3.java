@@ -0,0 +1,39 @@
+package com.mathutil.calculusTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.mathutil.calculus.Calculus;
+import com.mathutil.calculus.Polynomial;
+
+/**
+ * Test case 3 for Polynomial, the terms of a very high degree are evaluated one by one instead of being stored densely.
+ * @author danielxu
+ *
+ */
+public class TestPolynomial3 {
+
+	@Test
+	public void test() {
+		//x^1000000000 would need 8GB of cofficients
+		double[] coff = {1} , degree = {1e9};
+		assertTrue(Polynomial.isPolynomial(degree));
+		assertFalse(Polynomial.isDense(degree));
+		assertEquals(1e9 , Calculus.devPoly(coff, degree, 1) , TestCalculus1.ACCEPTABLE_ERROR);
+		assertEquals(1 / (1e9 + 1) , Calculus.integPoly(coff, degree, 0, 1) , 1e-20);
+		assertEquals(0 , Calculus.devPoly(coff, degree, 0.5) , TestCalculus1.ACCEPTABLE_ERROR);
+
+		//2*x^5000 + 3, sparse
+		assertFalse(Polynomial.isDense(new double[]{5000, 0}));
+		assertEquals(10000 , Calculus.devPoly(new double[]{2, 3}, new double[]{5000, 0}, 1) , TestCalculus1.ACCEPTABLE_ERROR);
+		assertEquals(2.0/5001 + 3 , Calculus.integPoly(new double[]{2, 3}, new double[]{5000, 0}, 0, 1) , TestCalculus1.ACCEPTABLE_ERROR);
+
+		//Still dense up to DENSE_DEGREE
+		assertTrue(Polynomial.isDense(new double[]{Polynomial.DENSE_DEGREE, 3}));
+		assertFalse(Polynomial.isDense(new double[]{0.5}));
+		assertEquals(Polynomial.DENSE_DEGREE + 3 ,
+				Calculus.devPoly(new double[]{1, 1}, new double[]{Polynomial.DENSE_DEGREE, 3}, 1) , TestCalculus1.ACCEPTABLE_ERROR);
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.mathutil.calculusTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.mathutil.calculus.Root;
+import com.mathutil.calculus.RootFinder;
+import com.mathutil.operations.ExpReader;
+
+/**
+ * Test case 1 for RootFinder, Brent's method and Newton's method.<br>
+ * x^3 - 2*x - 5 = 0 has the root 2.0945514815423265
+ * @author danielxu
+ *
+ */
+public class TestRoot1 {
+
+	@Test
+	public void test() {
+		double expect = 2.0945514815423265;
+		String func = "x^3 - 2*x - 5";
+		
+		Root brent = RootFinder.brent(func, 2, 3);
+		assertTrue(brent.isConverged());
+		assertEquals(expect , brent.getX() , 1e-12);
+		assertTrue(brent.getIterations() < 15);
+		
+		Root newton = RootFinder.newton(func, 0, 3);
+		assertTrue(newton.isConverged());
+		assertEquals(expect , newton.getX() , 1e-12);
+		
+		Root guess = RootFinder.newton(ExpReader.compile(func), 10);
+		assertTrue(guess.isConverged());
+		assertEquals(expect , guess.getX() , 1e-12);
+	}
+
+}
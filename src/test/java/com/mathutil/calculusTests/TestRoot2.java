@@ -0,0 +1,35 @@
+package com.mathutil.calculusTests;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.mathutil.calculus.Root;
+import com.mathutil.calculus.RootFinder;
+
+/**
+ * Test case 2 for RootFinder, find all the roots in a range.<br>
+ * sin(x) = 0 has the roots k*pi, tan(x) has poles at pi/2 + k*pi that should not be taken as roots
+ * @author danielxu
+ *
+ */
+public class TestRoot2 {
+
+	@Test
+	public void test() {
+		List<Root> roots = RootFinder.findAll("sin(x)", -10, 10, 1000);
+		assertEquals(7 , roots.size());
+		for(int i=0;i<roots.size();i++){
+			assertEquals((i-3)*Math.PI , roots.get(i).getX() , 1e-12);
+		}
+		
+		List<Root> tan = RootFinder.findAll("tan(x)", -4, 4, 999);
+		assertEquals(3 , tan.size());
+		assertEquals(-Math.PI , tan.get(0).getX() , 1e-12);
+		assertEquals(0 , tan.get(1).getX() , 1e-12);
+		assertEquals(Math.PI , tan.get(2).getX() , 1e-12);
+	}
+
+}
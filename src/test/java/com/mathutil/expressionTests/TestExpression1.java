@@ -0,0 +1,36 @@
+package com.mathutil.expressionTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.mathutil.operations.ExpReader;
+import com.mathutil.operations.Expression;
+
+/**
+ * Test case 1, compiled expression gets the same result as ExpReader.calculate
+ * @author danielxu
+ *
+ */
+public class TestExpression1 {
+
+	/**The accpetable the error in the calculation**/
+	public static final double ACCEPTABLE_ERROR = 0.0000000001;
+	
+	@Test
+	public void test() {
+		String func = "(1+x^4)^(1/3) + sin(cos(tan(x))) - 2*x*pi + lg(abs(x)+1) - ln(e+x^2)";
+		Expression exp = ExpReader.compile(func);
+		
+		for(int i=1;i<=5;i++){
+			double expect = ExpReader.calculate(func.replace("x", String.valueOf(i)));
+			assertEquals(expect , exp.evaluate(i) , ACCEPTABLE_ERROR);
+		}
+		//Multiple variables
+		Expression exp2 = ExpReader.compile("x^2*y - 3*y/x + z^-1", "x", "y", "z");
+		assertEquals(4*5 - 3*5/2.0 + 0.25 , exp2.evaluate(2, 5, 4) , ACCEPTABLE_ERROR);
+		assertEquals(-9 , ExpReader.compile("-x^2").evaluate(3) , 0);
+		assertEquals(1.5E-10 , ExpReader.compile("1.5E-10").evaluate(0) , 0);
+	}
+
+}
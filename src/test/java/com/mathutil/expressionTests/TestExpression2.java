@@ -0,0 +1,33 @@
+package com.mathutil.expressionTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.mathutil.operations.ExpReader;
+import com.mathutil.operations.Expression;
+
+/**
+ * Test case 2, exact derivatives of the compiled expression
+ * @author danielxu
+ *
+ */
+public class TestExpression2 {
+
+	@Test
+	public void test() {
+		Expression f = ExpReader.compile("x^3*sin(x) + e^(2*x) - sqrt(x)/x");
+		Expression df = f.derivative();
+		
+		for(double x=0.5;x<=3;x+=0.5){
+			double expect = 3*x*x*Math.sin(x) + x*x*x*Math.cos(x) + 2*Math.exp(2*x) + 0.5*Math.pow(x, -1.5);
+			assertEquals(expect , df.evaluate(x) , TestExpression1.ACCEPTABLE_ERROR);
+		}
+		
+		Expression g = ExpReader.compile("x^2*y + ln(y)", "x", "y");
+		Expression[] grad = g.gradient();
+		assertEquals(2*3*4 , grad[0].evaluate(3, 4) , TestExpression1.ACCEPTABLE_ERROR);
+		assertEquals(9 + 0.25 , grad[1].evaluate(3, 4) , TestExpression1.ACCEPTABLE_ERROR);
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.mathutil.expressionTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.mathutil.operations.ExpReader;
+import com.mathutil.operations.Expression;
+
+/**
+ * Test case 3, the derivative of a power whose exponent is another variable, at the base 0
+ * @author danielxu
+ *
+ */
+public class TestExpression3 {
+
+	@Test
+	public void test() {
+		Expression f = ExpReader.compile("x^y", "x", "y");
+		Expression[] grad = f.gradient();
+		//d/dx x^y = y*x^(y-1), not x^y*(y/x) which is 0*inf at x = 0
+		assertEquals(0 , grad[0].evaluate(0, 2) , 0);
+		assertEquals(1 , grad[0].evaluate(0, 1) , 0);
+		assertEquals(3*4 , grad[0].evaluate(2, 3) , TestExpression1.ACCEPTABLE_ERROR);
+		//d/dy x^y = x^y*ln(x)
+		assertEquals(8*Math.log(2) , grad[1].evaluate(2, 3) , TestExpression1.ACCEPTABLE_ERROR);
+
+		//The exponent is an expression of the other variable
+		Expression g = ExpReader.compile("(x+1)^(2*y)", "x", "y").derivative("x");
+		assertEquals(0 , g.evaluate(-1, 1.5) , 0);
+		assertEquals(3*9 , g.evaluate(2, 1.5) , TestExpression1.ACCEPTABLE_ERROR);
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.mathutil.mathutilTests;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.BigRational;
+import com.mathutil.exceptions.CalculationException;
+
+/**
+ * Test case 1 for BigRational, the reduced fractions, the overflow from long to BigInteger and back, compared with the 
+ * calculations in BigInteger.
+ * @author danielxu
+ *
+ */
+public class TestBigRational1 {
+
+	@Test
+	public void test() {
+		BigRational third = BigRational.valueOf(1, 3);
+		assertEquals("1/3" , third.toString());
+		assertEquals(BigRational.ONE , third.add(third).add(third));
+		assertEquals("-3/4" , BigRational.valueOf(6, -8).toString());
+		assertEquals(BigRational.valueOf(3, 4) , BigRational.valueOf(new BigDecimal("0.75")));
+		assertEquals(BigRational.valueOf(-5, 2) , BigRational.valueOf("10/-4"));
+		assertEquals(BigRational.valueOf(1200) , BigRational.valueOf(new BigDecimal("1.2E+3")));
+		assertEquals(0 , new BigDecimal("0.3333333333").compareTo(third.toBigDecimal(new MathContext(10))));
+		assertEquals(-0.75 , BigRational.valueOf("-0.75").doubleValue() , 0);
+		assertTrue(third.compareTo(BigRational.valueOf(333, 1000)) > 0);
+		assertEquals(BigRational.valueOf(3) , third.reciprocal());
+		try{
+			BigRational.ZERO.reciprocal();
+			fail();
+		}catch(CalculationException e){}
+
+		//Overflows to BigInteger, and back to long when it fits again
+		BigRational big = BigRational.valueOf(Long.MAX_VALUE).add(BigRational.ONE);
+		assertFalse(big.isLong());
+		assertEquals(BigInteger.ONE.shiftLeft(63) , big.getNumerator());
+		BigRational back = big.subtract(BigRational.valueOf(2));
+		assertTrue(back.isLong());
+		assertEquals(BigRational.valueOf(Long.MAX_VALUE - 1) , back);
+		BigRational min = BigRational.valueOf(Long.MIN_VALUE);
+		assertFalse(min.isLong());
+		assertEquals(min , BigRational.valueOf(Long.MIN_VALUE + 1).subtract(BigRational.ONE));
+		assertEquals(big , min.negate());
+		assertEquals(big.hashCode() , min.negate().hashCode());
+
+		//Random fractions against the same calculations in BigInteger
+		Random r = new Random(48);
+		BigRational sum = BigRational.ZERO , product = BigRational.ONE;
+		BigInteger sn = BigInteger.ZERO , sd = BigInteger.ONE , pn = BigInteger.ONE , pd = BigInteger.ONE;
+		for(int i=0;i<200;i++){
+			long n = r.nextInt(2000001) - 1000000 , d = r.nextInt(1000000) + 1;
+			if(n == 0)
+				n = 1;
+			BigRational x = BigRational.valueOf(n, d);
+			sum = sum.add(x);
+			sn = sn.multiply(BigInteger.valueOf(d)).add(BigInteger.valueOf(n).multiply(sd));
+			sd = sd.multiply(BigInteger.valueOf(d));
+			if(i < 20){
+				product = product.multiply(x);
+				pn = pn.multiply(BigInteger.valueOf(n));
+				pd = pd.multiply(BigInteger.valueOf(d));
+			}
+		}
+		assertEquals(BigRational.valueOf(sn, sd) , sum);
+		assertEquals(0 , sum.getNumerator().gcd(sum.getDenominator()).compareTo(BigInteger.ONE));
+		assertEquals(BigRational.valueOf(pn, pd) , product);
+		assertEquals(BigRational.ONE , product.divide(BigRational.valueOf(pn, pd)));
+		assertEquals(0 , sum.subtract(sum).signum());
+	}
+}
@@ -0,0 +1,130 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.exceptions.MatrixCalculationException;
+import com.mathutil.linearalgebra.Linear;
+import com.mathutil.linearalgebra.LinearSystem;
+import com.mathutil.linearalgebra.Solution;
+import com.mathutil.linearalgebra.SolutionCase;
+import com.mathutil.linearalgebra.matrix.CholeskyDecomposition;
+import com.mathutil.linearalgebra.matrix.Matrix;
+
+/**
+ * Test case 1 for CholeskyDecomposition, the blocked factorization compared with the LU decomposition, the logarithm of a
+ * determinant that overflows, the detection of the matrices that are not positive definite, and Linear.solve choosing it.
+ * @author danielxu
+ *
+ */
+public class TestCholeskyDecomposition1 {
+
+	@Test
+	public void test() {
+		//A covariance like matrix X^T*X + I, 150*150 so there are three blocks
+		Random r = new Random(44);
+		Matrix x = random(r, 200, 150);
+		Matrix gram = x.transpose().multiply(x).add(diagonal(150, 1));
+		//The kernels may sum a_ij and a_ji in different orders, it is still symmetric up to the rounding errors
+		assertTrue(gram.isSymmetric());
+		Matrix a = mirror(gram);
+		assertTrue(a.isSymmetric());
+		assertTrue(a.isPositiveDefinite());
+
+		CholeskyDecomposition c = a.cholesky();
+		assertTrue(c.isPositiveDefinite());
+		Matrix l = c.getL();
+		Matrix product = l.multiply(l.transpose());
+		for(int i=0;i<150;i++){
+			if(i > 0)
+				assertEquals(0 , l.getDouble(i-1, i) , 0);
+			for(int j=0;j<150;j++)
+				assertEquals(a.getDouble(i, j) , product.getDouble(i, j) , 1e-10);
+		}
+
+		//The same solutions and determinant as LU
+		Matrix b = random(r, 150, 3);
+		Matrix s1 = c.solve(b) , s2 = a.lu().solve(b);
+		for(int i=0;i<150;i++){
+			for(int j=0;j<3;j++)
+				assertEquals(s2.getDouble(i, j) , s1.getDouble(i, j) , 1e-10);
+		}
+		double[] v = c.solve(b.subMatrix(0, 149, 1, 1).toDoubleArray());
+		assertEquals(s2.getDouble(7, 1) , v[7] , 1e-10);
+		assertEquals(Math.log(a.lu().det()) , c.logDet() , 1e-8);
+		Matrix inverse = c.inverse().multiply(a);
+		assertEquals(1 , inverse.getDouble(5, 5) , 1e-10);
+		assertEquals(0 , inverse.getDouble(5, 6) , 1e-10);
+
+		//det(1000*I) = 1e450 overflows, its logarithm does not
+		Matrix big = diagonal(150, 1000);
+		assertEquals(Double.POSITIVE_INFINITY , big.cholesky().det() , 0);
+		assertEquals(150*Math.log(1000) , big.cholesky().logDet() , 1e-10);
+
+		//Symmetric but indefinite, singular, and not symmetric
+		Matrix indefinite = new Matrix(new double[][]{{1, 2}, {2, 1}});
+		assertTrue(indefinite.isSymmetric());
+		assertFalse(indefinite.isPositiveDefinite());
+		assertFalse(indefinite.cholesky().isPositiveDefinite());
+		assertFalse(new Matrix(new double[][]{{1, 1}, {1, 1}}).isPositiveDefinite());
+		assertFalse(new Matrix(new double[][]{{2, 1}, {0, 2}}).isPositiveDefinite());
+		assertFalse(new Matrix(new double[][]{{2, 1}, {1 + 1e-10, 2}}).isSymmetric());
+		assertTrue(new Matrix(new double[][]{{2, 1}, {1 + Math.ulp(1.0), 2}}).isSymmetric());
+		try{
+			indefinite.cholesky().logDet();
+			fail();
+		}catch(MatrixCalculationException e){}
+
+		//Linear.solve uses Cholesky for the positive definite matrices and LU for the others
+		LinearSystem spd = Linear.prepare(a);
+		assertNotNull(spd.getCholesky());
+		assertTrue(spd.isNonsingular());
+		double[] s3 = spd.solve(b.subMatrix(0, 149, 0, 0));
+		assertEquals(s2.getDouble(0, 0) , s3[0] , 1e-10);
+		double[][] all = spd.solveAll(new double[][]{b.subMatrix(0, 149, 2, 2).toDoubleArray()});
+		assertEquals(s2.getDouble(149, 2) , all[0][149] , 1e-10);
+		//The LU decomposition is still available, and not affected by changing the matrix afterwards
+		double det = a.lu().det();
+		a.set(0, 0, 0);
+		assertEquals(det , spd.getDecomposition().det() , Math.abs(det)*1e-12);
+		assertNull(Linear.prepare(indefinite).getCholesky());
+
+		String[] vars = {"x", "y"};
+		Solution s = Linear.solve(new Matrix(new double[][]{{4, 2}, {2, 3}}), new Matrix(new double[][]{{2}, {-1}}), vars);
+		assertEquals(SolutionCase.ONLY , s.getSolutionCase());
+		assertEquals(1 , s.getSolution("x").doubleValue() , 1e-15);
+		assertEquals(-1 , s.getSolution("y").doubleValue() , 1e-15);
+	}
+
+	private static Matrix diagonal(int n , double value){
+		Matrix m = new Matrix(n, n);
+		for(int i=0;i<n;i++)
+			m.set(i, i, value);
+		return m;
+	}
+
+	//The lower triangle copied to the upper one, exactly symmetric whatever the kernels
+	private static Matrix mirror(Matrix m){
+		int n = m.getRows();
+		Matrix s = new Matrix(n , n);
+		for(int i=0;i<n;i++){
+			for(int j=0;j<=i;j++){
+				s.set(i , j , m.getDouble(i , j));
+				s.set(j , i , m.getDouble(i , j));
+			}
+		}
+		return s;
+	}
+
+	private static Matrix random(Random r , int rows , int cols){
+		double[][] m = new double[rows][cols];
+		for(int i=0;i<rows;i++){
+			for(int j=0;j<cols;j++)
+				m[i][j] = r.nextDouble()*2 - 1;
+		}
+		return new Matrix(m);
+	}
+}
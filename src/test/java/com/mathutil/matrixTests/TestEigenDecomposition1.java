@@ -0,0 +1,95 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.matrix.EigenDecomposition;
+import com.mathutil.linearalgebra.matrix.Matrix;
+import com.mathutil.linearalgebra.matrix.SparseMatrix;
+import com.mathutil.linearalgebra.matrix.SparseMatrixBuilder;
+
+/**
+ * Test case 1 for EigenDecomposition, A*V = V*D and V^T*V = I for a random symmetric matrix, the known eigenvalues of the second
+ * difference matrix, the largest eigenvalues by the Lanczos iteration of a dense and a sparse matrix, and the powers.
+ * @author danielxu
+ *
+ */
+public class TestEigenDecomposition1 {
+
+	@Test
+	public void test() {
+		Random r = new Random(46);
+		int n = 120;
+		Matrix x = random(r, n, n);
+		Matrix a = x.add(x.transpose());
+		EigenDecomposition eigen = a.eigen();
+		double[] values = eigen.getEigenvalues();
+		Matrix v = eigen.getV();
+		Matrix av = a.multiply(v) , vd = v.multiply(eigen.getD()) , vtv = v.transpose().multiply(v);
+		for(int i=0;i<n;i++){
+			if(i > 0)
+				assertTrue(values[i-1] <= values[i]);
+			for(int j=0;j<n;j++){
+				assertEquals(vd.getDouble(i, j) , av.getDouble(i, j) , 1e-11);
+				assertEquals(i == j ? 1 : 0 , vtv.getDouble(i, j) , 1e-12);
+			}
+		}
+		//Only the eigenvalues, the trace is their sum
+		double[] only = new EigenDecomposition(a, false).getEigenvalues();
+		double trace = 0 , sum = 0;
+		for(int i=0;i<n;i++){
+			assertEquals(values[i] , only[i] , 1e-11);
+			trace += a.getDouble(i, i);
+			sum += only[i];
+		}
+		assertEquals(trace , sum , 1e-10);
+
+		//A sparse 3000*3000 tridiagonal matrix with the diagonal 1...3000, the largest eigenvalues are separated by about 1
+		int m = 3000;
+		SparseMatrixBuilder builder = new SparseMatrixBuilder(m, m);
+		for(int i=0;i<m;i++){
+			builder.add(i, i, i+1);
+			if(i > 0) builder.add(i, i-1, -1);
+			if(i < m-1) builder.add(i, i+1, -1);
+		}
+		SparseMatrix t = builder.build();
+		EigenDecomposition top = EigenDecomposition.largest(t, 3);
+		double[] largest = top.getEigenvalues();
+		double[] y = new double[m];
+		for(int k=0;k<3;k++){
+			assertTrue(largest[k] > m-3 && largest[k] < m+2);
+			double[] ev = top.getEigenvector(k);
+			t.multiplyInto(ev, y);
+			for(int i=0;i<m;i++)
+				assertEquals(largest[k]*ev[i] , y[i] , 1e-7);
+		}
+
+		//The same as the full decomposition for the dense matrix
+		EigenDecomposition dense = EigenDecomposition.largest(a, 4);
+		for(int k=0;k<4;k++)
+			assertEquals(values[n-4+k] , dense.getEigenvalues()[k] , 1e-9);
+		assertEquals(4 , dense.getV().getCols());
+
+		//A^n = V * D^n * V^T
+		Matrix s = new Matrix(new double[][]{{2, 1}, {1, 2}});
+		Matrix p = s.eigen().powers().power(10);
+		Matrix q = s.power(10);
+		for(int i=0;i<2;i++){
+			for(int j=0;j<2;j++)
+				assertEquals(q.getDouble(i, j) , p.getDouble(i, j) , 1e-9);
+		}
+		assertEquals((Math.pow(3, 10) + 1)/2 , p.getDouble(0, 0) , 1e-9);
+	}
+
+	private static Matrix random(Random r , int rows , int cols){
+		double[][] m = new double[rows][cols];
+		for(int i=0;i<rows;i++){
+			for(int j=0;j<cols;j++)
+				m[i][j] = r.nextDouble()*2 - 1;
+		}
+		return new Matrix(m);
+	}
+}
@@ -0,0 +1,95 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.matrix.ExactMatrix;
+
+/**
+ * Test case 1 for ExactMatrix, the exact determinant, rank and rref of the integer matrices by the fraction-free elimination,
+ * and the pivoted elimination of the decimal matrices.
+ * @author danielxu
+ *
+ */
+public class TestExactMatrix1 {
+
+	@Test
+	public void test() {
+		//A = L*U with integer unit lower L and upper U, then rows swapped, det(A) = -(product of the diagonal of U)
+		Random r = new Random(47);
+		int n = 40;
+		BigDecimal[][] l = new BigDecimal[n][n] , u = new BigDecimal[n][n];
+		BigInteger expect = BigInteger.ONE;
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++){
+				l[i][j] = BigDecimal.valueOf(i == j ? 1 : i > j ? r.nextInt(19) - 9 : 0);
+				u[i][j] = BigDecimal.valueOf(i == j ? r.nextInt(5) + 1 : i < j ? r.nextInt(19) - 9 : 0);
+			}
+			expect = expect.multiply(u[i][i].toBigInteger());
+		}
+		ExactMatrix a = new ExactMatrix(l).multiply(new ExactMatrix(u));
+		a.switchRow(3, 17);
+		assertEquals(0 , new BigDecimal(expect.negate()).compareTo(a.det()));
+		assertEquals(n , a.rank());
+		assertTrue(a.fullRank());
+		ExactMatrix identity = a.rref();
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++)
+				assertEquals(0 , identity.get(i, j).compareTo(i == j ? BigDecimal.ONE : BigDecimal.ZERO));
+		}
+
+		//60*45 of rank 12, exactly
+		BigDecimal[][] x = new BigDecimal[60][12] , y = new BigDecimal[12][45];
+		for(int i=0;i<60;i++){
+			for(int j=0;j<12;j++)
+				x[i][j] = BigDecimal.valueOf(r.nextInt(2001) - 1000);
+		}
+		for(int i=0;i<12;i++){
+			for(int j=0;j<45;j++)
+				y[i][j] = BigDecimal.valueOf(r.nextInt(2001) - 1000);
+		}
+		ExactMatrix deficient = new ExactMatrix(x).multiply(new ExactMatrix(y));
+		assertEquals(12 , deficient.rank());
+		assertEquals(12 , deficient.transpose().rank());
+		assertEquals(0 , deficient.subMatrix(0, 44, 0, 44).det().signum());
+		ExactMatrix reduced = deficient.rref();
+		for(int j=0;j<45;j++)
+			assertEquals(0 , reduced.get(12, j).signum());
+		assertEquals(0 , reduced.get(11, 11).compareTo(BigDecimal.ONE));
+
+		//The fractions of the rref are only divided at the end
+		ExactMatrix small = new ExactMatrix(new String[][]{{"3", "1", "1"}, {"6", "2", "5"}});
+		ExactMatrix sr = small.rref();
+		assertEquals(0 , sr.get(0, 1).compareTo(new BigDecimal("0.333333333333")));
+		assertEquals(0 , sr.get(0, 2).signum());
+		assertEquals(0 , sr.get(1, 1).signum());
+		assertEquals(0 , sr.get(1, 2).compareTo(BigDecimal.ONE));
+		ExactMatrix dependent = new ExactMatrix(new String[][]{{"1", "2", "3"}, {"2", "4", "6"}, {"1", "1", "1"}});
+		ExactMatrix dr = dependent.rref();
+		assertEquals(2 , dependent.rank());
+		assertEquals(0 , dr.get(0, 2).compareTo(new BigDecimal("-1")));
+		assertEquals(0 , dr.get(1, 2).compareTo(new BigDecimal("2")));
+		assertEquals(0 , dependent.det().signum());
+
+		//A zero column has no pivot
+		ExactMatrix zeros = new ExactMatrix(new String[][]{{"0"}, {"0"}});
+		assertEquals(0 , zeros.rank());
+		assertEquals(0 , zeros.rref().get(0, 0).signum());
+
+		//Decimal elements are eliminated in the precision of the matrix
+		ExactMatrix decimal = new ExactMatrix(new String[][]{{"0.5", "1.5"}, {"2.25", "1"}});
+		assertEquals(-2.875 , decimal.det().doubleValue() , 1e-10);
+		ExactMatrix scaled = new ExactMatrix(new String[][]{{"0.1", "0.2", "0.7"}, {"0.3", "0.6", "2.1"}, {"1.5", "0.2", "0.1"}});
+		assertEquals(2 , scaled.rank());
+		assertEquals(0 , scaled.det().signum());
+		ExactMatrix proportional = new ExactMatrix(new String[][]{{"1", "0.5", "0.25"}, {"0.5", "0.25", "0.125"}, {"0.25", "0.125", "0.0625"}}, 20);
+		assertEquals(1 , proportional.rank());
+		ExactMatrix inverse = decimal.invert();
+		assertEquals(-1 / 2.875 , inverse.get(0, 0).doubleValue() , 1e-11);
+	}
+}
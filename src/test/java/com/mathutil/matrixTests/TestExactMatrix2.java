@@ -0,0 +1,98 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.BigRational;
+import com.mathutil.linearalgebra.Linear;
+import com.mathutil.linearalgebra.Solution;
+import com.mathutil.linearalgebra.SolutionCase;
+import com.mathutil.linearalgebra.matrix.ExactMatrix;
+
+/**
+ * Test case 2 for ExactMatrix, the rational mode, where the inverse, the determinant and the solutions are exact fractions.
+ * @author danielxu
+ *
+ */
+public class TestExactMatrix2 {
+
+	@Test
+	public void test() {
+		//The Hilbert matrix H[i][j] = 1/(i+j+1), the inverse has integer elements and H*H^-1 = I exactly
+		int n = 12;
+		BigRational[][] h = new BigRational[n][n];
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++)
+				h[i][j] = BigRational.valueOf(1, i + j + 1);
+		}
+		ExactMatrix hilbert = new ExactMatrix(h);
+		assertTrue(hilbert.isRational());
+		ExactMatrix inverse = hilbert.invert();
+		assertTrue(inverse.isRational());
+		assertEquals(BigRational.valueOf(144) , inverse.getRational(0, 0));
+		assertTrue(inverse.getRational(n-1, n-1).isInteger());
+		ExactMatrix identity = hilbert.multiply(inverse);
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++)
+				assertEquals(i == j ? BigRational.ONE : BigRational.ZERO , identity.getRational(i, j));
+		}
+		//det(H3) = 1/2160
+		assertEquals(BigRational.valueOf(1, 2160) , hilbert.subMatrix(0, 2, 0, 2).rationalDet());
+		assertEquals(BigRational.ONE , hilbert.rationalDet().multiply(inverse.rationalDet()));
+		assertEquals(n , hilbert.rank());
+
+		//The decimals are converted exactly, the rounded inverse of the BigDecimal mode differs
+		ExactMatrix decimal = new ExactMatrix(new String[][]{{"0.3", "0.1"}, {"0.2", "0.7"}});
+		ExactMatrix exact = decimal.toRational().invert();
+		assertEquals(BigRational.valueOf(70, 19) , exact.getRational(0, 0));
+		assertEquals(BigRational.valueOf(-10, 19) , exact.getRational(0, 1));
+		assertEquals(0 , exact.get(0, 0).compareTo(new BigDecimal("3.68421052632")));
+		assertEquals(BigRational.valueOf(19, 100) , decimal.rationalDet());
+
+		//Mixed with the BigDecimal mode, the results are rational
+		ExactMatrix sum = decimal.add(exact);
+		assertTrue(sum.isRational());
+		assertEquals(BigRational.valueOf(757, 190) , sum.getRational(0, 0));
+		assertEquals(BigRational.valueOf(-70, 19).multiply(BigRational.valueOf(1, 2)) , exact.factor(BigRational.valueOf(-1, 2)).getRational(0, 0));
+		assertEquals(exact.getRational(0, 1) , exact.transpose().getRational(1, 0));
+		ExactMatrix powers = decimal.toRational().power(-3).multiply(decimal.power(3));
+		assertEquals(BigRational.ONE , powers.getRational(1, 1));
+		assertEquals(BigRational.ZERO , powers.getRational(0, 1));
+
+		//The rref is exact
+		ExactMatrix small = new ExactMatrix(new String[][]{{"3", "1", "1"}, {"6", "2", "5"}}).toRational();
+		assertEquals(BigRational.valueOf(1, 3) , small.rref().getRational(0, 1));
+		small.set(1, 1, BigRational.valueOf(2, 3));
+		small.switchRow(0, 1);
+		assertEquals(BigRational.valueOf(2, 3) , small.getRational(0, 1));
+		assertEquals(2 , small.rank());
+
+		//An integer system solved exactly by Linear.solve
+		Random r = new Random(48);
+		int m = 8;
+		String[][] a = new String[m][m] , b = new String[m][1];
+		String[] vars = new String[m];
+		for(int i=0;i<m;i++){
+			for(int j=0;j<m;j++)
+				a[i][j] = String.valueOf(r.nextInt(21) - 10);
+			b[i][0] = String.valueOf(r.nextInt(21) - 10);
+			vars[i] = "x"+i;
+		}
+		ExactMatrix coff = new ExactMatrix(a).toRational() , res = new ExactMatrix(b);
+		Solution s = Linear.solve(coff, res, vars);
+		assertEquals(SolutionCase.ONLY , s.getSolutionCase());
+		for(int i=0;i<m;i++){
+			BigRational sum2 = BigRational.ZERO;
+			for(int j=0;j<m;j++)
+				sum2 = sum2.add(coff.getRational(i, j).multiply(s.getRationalSolution(vars[j])));
+			assertEquals(BigRational.valueOf(new BigDecimal(b[i][0])) , sum2);
+		}
+		ExactMatrix singular = new ExactMatrix(new BigRational[][]{{BigRational.valueOf(1, 3), BigRational.valueOf(2, 3)}, {BigRational.ONE, BigRational.valueOf(2)}});
+		assertEquals(SolutionCase.INFINITE , Linear.solve(singular, new ExactMatrix(new String[][]{{"1"}, {"3"}}), "x", "y").getSolutionCase());
+		assertEquals(SolutionCase.UNSOLVABLE , Linear.solve(singular, new ExactMatrix(new String[][]{{"1"}, {"2"}}), "x", "y").getSolutionCase());
+	}
+}
@@ -0,0 +1,106 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.BigRational;
+import com.mathutil.exceptions.MatrixCalculationException;
+import com.mathutil.linearalgebra.Linear;
+import com.mathutil.linearalgebra.Solution;
+import com.mathutil.linearalgebra.SolutionCase;
+import com.mathutil.linearalgebra.matrix.ExactMatrix;
+
+/**
+ * Test case 3 for ExactMatrix, the determinants and the linear systems of the large matrices by the multi-modular elimination
+ * and the Chinese remainder reconstruction.
+ * @author danielxu
+ *
+ */
+public class TestExactMatrix3 {
+
+	@Test
+	public void test() {
+		//A = L*U with integer unit lower L and upper U, det(A) = product of the diagonal of U
+		Random r = new Random(49);
+		int n = 40;
+		BigDecimal[][] l = new BigDecimal[n][n] , u = new BigDecimal[n][n];
+		BigInteger expect = BigInteger.ONE;
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++){
+				l[i][j] = BigDecimal.valueOf(i == j ? 1 : i > j ? r.nextInt(2001) - 1000 : 0);
+				u[i][j] = BigDecimal.valueOf(i == j ? r.nextInt(999) + 2 : i < j ? r.nextInt(2001) - 1000 : 0);
+			}
+			expect = expect.multiply(u[i][i].toBigInteger());
+		}
+		ExactMatrix a = new ExactMatrix(l).multiply(new ExactMatrix(u));
+		assertEquals(BigRational.valueOf(expect) , a.rationalDet());
+		a.switchRow(0, 39);
+		assertEquals(BigRational.valueOf(expect.negate()) , a.rationalDet());
+		assertEquals(0 , a.det().compareTo(new BigDecimal(expect.negate())));
+
+		//A*X = B with a known integer X
+		n = 30;
+		BigRational[][] c = new BigRational[n][n] , x = new BigRational[n][2];
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++)
+				c[i][j] = BigRational.valueOf(r.nextInt(201) - 100);
+			x[i][0] = BigRational.valueOf(r.nextInt(2001) - 1000);
+			x[i][1] = BigRational.valueOf(r.nextInt(7) - 3 , 4);
+		}
+		ExactMatrix coff = new ExactMatrix(c) , known = new ExactMatrix(x);
+		ExactMatrix solved = coff.solve(coff.multiply(known));
+		assertTrue(solved.isRational());
+		for(int i=0;i<n;i++){
+			assertEquals(x[i][0] , solved.getRational(i, 0));
+			assertEquals(x[i][1] , solved.getRational(i, 1));
+		}
+
+		//The inverse of the Hilbert matrix 15*15 is integer, H*H^-1 = I exactly
+		n = 15;
+		BigRational[][] h = new BigRational[n][n];
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++)
+				h[i][j] = BigRational.valueOf(1 , i + j + 1);
+		}
+		ExactMatrix hilbert = new ExactMatrix(h);
+		ExactMatrix inverse = hilbert.power(-1);
+		assertEquals(BigRational.valueOf(225) , inverse.getRational(0, 0));
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++){
+				assertTrue(inverse.getRational(i, j).isInteger());
+				assertEquals(i == j ? BigRational.ONE : BigRational.ZERO , hilbert.multiply(inverse).getRational(i, j));
+			}
+		}
+		BigRational det = hilbert.rationalDet();
+		assertEquals(1 , det.signum());
+		assertEquals(BigRational.ONE , det.multiply(inverse.rationalDet()));
+
+		//A singular matrix has no inverse
+		BigRational[][] s = new BigRational[n][n];
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++)
+				s[i][j] = i == n-1 ? h[0][j].add(h[1][j]) : h[i][j];
+		}
+		ExactMatrix singular = new ExactMatrix(s);
+		assertEquals(0 , singular.rationalDet().signum());
+		try{
+			singular.solve(hilbert);
+			fail();
+		}catch(MatrixCalculationException e){
+			//Expected
+		}
+
+		//Linear systems are solved exactly
+		ExactMatrix sys = new ExactMatrix(new String[][]{{"0.1", "0.2"}, {"0.3", "0.7"}});
+		ExactMatrix res = new ExactMatrix(new String[][]{{"1"}, {"1"}});
+		Solution sol = Linear.solve(sys, res, "x", "y");
+		assertEquals(SolutionCase.ONLY , sol.getSolutionCase());
+		assertEquals(BigRational.valueOf(50) , sol.getRationalSolution("x"));
+		assertEquals(BigRational.valueOf(-20) , sol.getRationalSolution("y"));
+	}
+}
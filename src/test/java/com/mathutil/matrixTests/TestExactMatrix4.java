@@ -0,0 +1,62 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.matrix.ExactMatrix;
+
+/**
+ * Test case 4 for ExactMatrix, the multiplication, addition, inverse and rref of the matrices large enough to be calculated by
+ * the threads of the common ForkJoinPool.
+ * @author danielxu
+ *
+ */
+public class TestExactMatrix4 {
+
+	@Test
+	public void test() {
+		Random r = new Random(50);
+		int n = 40;
+		String[][] s = new String[n][n];
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++)
+				s[i][j] = BigDecimal.valueOf(r.nextInt(20001) - 10000 , 2).toPlainString();
+		}
+		ExactMatrix a = new ExactMatrix(s , 25);
+
+		//The decimal product agrees with the exact one in the precision
+		ExactMatrix product = a.multiply(a) , exact = a.toRational().multiply(a.toRational());
+		ExactMatrix twice = a.add(a);
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++){
+				assertEquals(0 , product.get(i, j).compareTo(exact.get(i, j)));
+				assertEquals(0 , twice.get(i, j).compareTo(a.get(i, j).multiply(BigDecimal.valueOf(2))));
+			}
+		}
+
+		//A^-1 * A = I, the inverse has the default precision
+		ExactMatrix identity = a.invert().multiply(a);
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++)
+				assertEquals(i == j ? 1 : 0 , identity.get(i, j).doubleValue() , 1e-9);
+		}
+
+		//The rref of [A | A] is [I | I]
+		String[][] wide = new String[n][2*n];
+		for(int i=0;i<n;i++){
+			System.arraycopy(s[i] , 0 , wide[i] , 0 , n);
+			System.arraycopy(s[i] , 0 , wide[i] , n , n);
+		}
+		ExactMatrix rref = new ExactMatrix(wide , 25).rref();
+		assertEquals(n , new ExactMatrix(wide , 25).rank());
+		for(int i=0;i<n;i++){
+			assertEquals(1 , rref.get(i, i).doubleValue() , 1e-15);
+			assertEquals(1 , rref.get(i, n + i).doubleValue() , 1e-15);
+			assertEquals(0 , rref.get(i, n + (i+1)%n).doubleValue() , 1e-15);
+		}
+	}
+}
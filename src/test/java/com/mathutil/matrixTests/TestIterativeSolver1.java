@@ -0,0 +1,127 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.IterativeSolution;
+import com.mathutil.linearalgebra.IterativeSolver;
+import com.mathutil.linearalgebra.LinearOperator;
+import com.mathutil.linearalgebra.Preconditioner;
+import com.mathutil.linearalgebra.matrix.Matrix;
+import com.mathutil.linearalgebra.matrix.SparseMatrix;
+import com.mathutil.linearalgebra.matrix.SparseMatrixBuilder;
+
+/**
+ * Test case 1 for IterativeSolver. The Poisson equation on a 60*60 grid(3600 unknowns) by conjugate gradient, a convection
+ * diffusion equation that is not symmetric by BiCGSTAB and GMRES, with and without the preconditioners, a dense matrix compared
+ * with the LU decomposition, and an operator that does not store the matrix.
+ * @author danielxu
+ *
+ */
+public class TestIterativeSolver1 {
+
+	@Test
+	public void test() {
+		int grid = 60 , n = grid*grid;
+		SparseMatrix poisson = grid(grid, 0);
+		double[] b = new double[n];
+		Random r = new Random(43);
+		for(int i=0;i<n;i++) b[i] = r.nextDouble();
+		LinearOperator a = IterativeSolver.operator(poisson);
+
+		IterativeSolution plain = IterativeSolver.cg(a, b);
+		IterativeSolution ilu = IterativeSolver.cg(a, b, IterativeSolver.ilu0(poisson), 1e-10, 1000);
+		assertTrue(plain.toString() , plain.isConverged());
+		assertTrue(ilu.isConverged());
+		assertTrue(plain.getResidual() <= 1e-10);
+		assertTrue("ILU(0) "+ilu.getIterations()+" CG "+plain.getIterations() , ilu.getIterations() < plain.getIterations());
+		assertResidual(poisson, ilu.getSolution(), b, 1e-10);
+
+		//Not symmetric, the convection makes the off diagonal elements different
+		SparseMatrix convection = grid(grid, 0.4);
+		LinearOperator c = IterativeSolver.operator(convection);
+		Preconditioner preconditioner = IterativeSolver.ilu0(convection);
+		IterativeSolution bicg = IterativeSolver.bicgstab(c, b);
+		IterativeSolution bicgIlu = IterativeSolver.bicgstab(c, b, preconditioner, 1e-10, 1000);
+		IterativeSolution gmres = IterativeSolver.gmres(c, b, preconditioner, 30, 1e-10, 1000);
+		IterativeSolution gmresJacobi = IterativeSolver.gmres(c, b, IterativeSolver.jacobi(convection), 50, 1e-10, 5000);
+		for(IterativeSolution s : new IterativeSolution[]{bicg, bicgIlu, gmres, gmresJacobi}){
+			assertTrue(s.toString() , s.isConverged());
+			assertResidual(convection, s.getSolution(), b, 1e-10);
+		}
+		assertTrue(bicgIlu.getIterations() < bicg.getIterations());
+		//The maximum iterations are used up
+		IterativeSolution limited = IterativeSolver.gmres(c, b, null, 10, 1e-10, 5);
+		assertFalse(limited.isConverged());
+		assertEquals(5 , limited.getIterations());
+		assertTrue(limited.getResidual() < 1);
+
+		//Dense, compared with LU
+		double[][] d = new double[40][40];
+		for(int i=0;i<40;i++){
+			for(int j=0;j<40;j++) d[i][j] = r.nextDouble() - 0.5;
+			d[i][i] += 10;
+		}
+		Matrix dense = new Matrix(d);
+		double[] rhs = new double[40];
+		for(int i=0;i<40;i++) rhs[i] = r.nextDouble();
+		double[] exact = dense.lu().solve(rhs);
+		assertArrayEquals(exact , IterativeSolver.gmres(IterativeSolver.operator(dense), rhs).getSolution() , 1e-10);
+		assertArrayEquals(exact , IterativeSolver.bicgstab(IterativeSolver.operator(dense), rhs, IterativeSolver.jacobi(dense), 1e-12, 100).getSolution() , 1e-10);
+
+		//Without storing the matrix, the second difference [-1 2 -1] + 0.01*I
+		final int m = 500;
+		LinearOperator free = new LinearOperator(){
+			public int getDimension(){
+				return m;
+			}
+			public void apply(double[] x , double[] y){
+				for(int i=0;i<m;i++)
+					y[i] = 2.01*x[i] - (i > 0 ? x[i-1] : 0) - (i < m-1 ? x[i+1] : 0);
+			}
+		};
+		double[] ones = new double[m];
+		Arrays.fill(ones, 1);
+		IterativeSolution s = IterativeSolver.cg(free, ones);
+		assertTrue(s.isConverged());
+		assertTrue(s.getIterations() <= m);
+
+		//Zero right hand side
+		assertEquals(0 , IterativeSolver.cg(a, new double[n]).getIterations());
+		try{
+			IterativeSolver.cg(IterativeSolver.operator(new Matrix(new double[][]{{1, 0}, {0, -1}})), new double[]{0, 1});
+			fail("Not positive definite");
+		}catch(RuntimeException e){}
+	}
+
+	//The 5 point Laplacian on a grid*grid grid, plus a convection term in the x direction
+	private static SparseMatrix grid(int grid , double convection){
+		int n = grid*grid;
+		SparseMatrixBuilder builder = new SparseMatrixBuilder(n, n, 5*n);
+		for(int i=0;i<grid;i++){
+			for(int j=0;j<grid;j++){
+				int k = i*grid + j;
+				builder.add(k, k, 4);
+				if(i > 0) builder.add(k, k-grid, -1);
+				if(i < grid-1) builder.add(k, k+grid, -1);
+				if(j > 0) builder.add(k, k-1, -1 - convection);
+				if(j < grid-1) builder.add(k, k+1, -1 + convection);
+			}
+		}
+		return builder.build();
+	}
+
+	private static void assertResidual(SparseMatrix a , double[] x , double[] b , double tolerance){
+		double[] ax = a.multiply(x);
+		double rr = 0 , bb = 0;
+		for(int i=0;i<b.length;i++){
+			rr += (b[i] - ax[i])*(b[i] - ax[i]);
+			bb += b[i]*b[i];
+		}
+		assertTrue(Math.sqrt(rr/bb) <= tolerance);
+	}
+}
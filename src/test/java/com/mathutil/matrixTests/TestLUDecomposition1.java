@@ -0,0 +1,98 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.Linear;
+import com.mathutil.linearalgebra.Solution;
+import com.mathutil.linearalgebra.SolutionCase;
+import com.mathutil.linearalgebra.matrix.LUDecomposition;
+import com.mathutil.linearalgebra.matrix.Matrix;
+
+/**
+ * Test case 1 for LUDecomposition, the factors of a matrix larger than one block, the determinant, the solutions of many right
+ * hand sides, the inverse and the rank of singular matrices. Also Matrix.det, Matrix.invert and Linear.solve that use it.
+ * @author danielxu
+ *
+ */
+public class TestLUDecomposition1 {
+
+	@Test
+	public void test() {
+		int n = 150;
+		Matrix a = Matrix.randomMatrix(n, n, -1, 1, false);
+		LUDecomposition lu = a.lu();
+
+		//P*A = L*U
+		Matrix product = lu.getL().multiply(lu.getU());
+		int[] pivot = lu.getPivot();
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++){
+				assertEquals(a.getDouble(pivot[i], j) , product.getDouble(i, j) , 1e-12);
+			}
+		}
+		assertTrue(lu.isNonsingular());
+		assertEquals(n , lu.rank());
+
+		//Many right hand sides at once, A*X = B
+		Matrix b = Matrix.randomMatrix(n, 7, -1, 1, false);
+		Matrix x = lu.solve(b);
+		assertEquals(0 , maxDiff(a.multiply(x) , b) , 1e-10);
+		double[] x0 = lu.solve(b.subMatrix(0, n-1, 0, 0).toDoubleArray());
+		for(int i=0;i<n;i++){
+			assertEquals(x.getDouble(i, 0) , x0[i] , 0);
+		}
+
+		//A*A^-1 = I
+		Matrix inverse = a.invert();
+		assertEquals(0 , maxDiff(a.multiply(inverse) , a.power(0)) , 1e-10);
+
+		//The determinant of a triangular matrix with the rows reversed, 15*15 was impossible by cofactor expansion
+		double[][] t = new double[15][15];
+		double expect = 1;
+		for(int i=0;i<15;i++){
+			for(int j=i;j<15;j++){
+				t[14-i][j] = j == i ? i + 2 : 0.5;
+			}
+			expect *= i + 2;
+		}
+		//Reversing 15 rows is 7 swaps
+		assertEquals(-expect , new Matrix(t).det() , expect*1e-13);
+		assertEquals(-2 , new Matrix(new double[][]{{1, 2}, {3, 4}}).det() , 1e-15);
+
+		//The inverse is not rounded
+		assertEquals(0.001 , new Matrix(new double[][]{{1000}}).invert().getDouble(0, 0) , 0);
+
+		//Singular matrices
+		Matrix singular = new Matrix(new double[][]{{1, 2, 3}, {4, 5, 6}, {7, 8, 9}});
+		assertFalse(singular.lu().isNonsingular());
+		assertEquals(2 , singular.lu().rank());
+		assertEquals(0 , singular.det() , 1e-12);
+		try{
+			singular.invert();
+			fail("A singular matrix cannot be inverted");
+		}catch(RuntimeException e){}
+		assertEquals(0 , new Matrix(3 , 3).lu().rank());
+
+		//Linear systems
+		Matrix coff = new Matrix(new double[][]{{2, 1, -1}, {-3, -1, 2}, {-2, 1, 2}});
+		Solution s = Linear.solve(coff, new Matrix(new double[][]{{8}, {-11}, {-3}}), "x", "y", "z");
+		assertEquals(SolutionCase.ONLY , s.getSolutionCase());
+		assertEquals(2 , s.getSolution("x").doubleValue() , 1e-14);
+		assertEquals(3 , s.getSolution("y").doubleValue() , 1e-14);
+		assertEquals(-1 , s.getSolution("z").doubleValue() , 1e-14);
+		assertEquals(SolutionCase.INFINITE , Linear.solve(singular, new Matrix(new double[][]{{6}, {15}, {24}}), "x", "y", "z").getSolutionCase());
+		assertEquals(SolutionCase.UNSOLVABLE , Linear.solve(singular, new Matrix(new double[][]{{6}, {15}, {25}}), "x", "y", "z").getSolutionCase());
+	}
+
+	private static double maxDiff(Matrix a , Matrix b){
+		double max = 0;
+		for(int i=0;i<a.getRows();i++){
+			for(int j=0;j<a.getCols();j++){
+				max = Math.max(max , Math.abs(a.getDouble(i, j) - b.getDouble(i, j)));
+			}
+		}
+		return max;
+	}
+}
@@ -0,0 +1,84 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.Linear;
+import com.mathutil.linearalgebra.Solution;
+import com.mathutil.linearalgebra.SolutionCase;
+import com.mathutil.linearalgebra.matrix.ExactMatrix;
+import com.mathutil.linearalgebra.matrix.LUDecomposition;
+import com.mathutil.linearalgebra.matrix.Matrix;
+
+/**
+ * Test case 2 for LUDecomposition, the row echelon form of singular matrices, and Linear.solve that finds the solution cases
+ * from the pivots. The results that are 0 only in the first row are not homogeneous.
+ * @author danielxu
+ *
+ */
+public class TestLUDecomposition2 {
+
+	@Test
+	public void test() {
+		//A 100*100 matrix of rank 60, the product of 100*60 and 60*100
+		Random r = new Random(37);
+		Matrix left = random(r, 100, 60);
+		Matrix a = left.multiply(random(r, 60, 100));
+		LUDecomposition lu = a.lu();
+		assertFalse(lu.isNonsingular());
+		assertEquals(60 , lu.rank());
+		assertEquals(0 , lu.det() , 0);
+
+		//P*A = L*U also holds in row echelon form
+		Matrix product = lu.getL().multiply(lu.getU());
+		int[] pivot = lu.getPivot();
+		for(int i=0;i<100;i++){
+			for(int j=0;j<100;j++){
+				assertEquals(a.getDouble(pivot[i], j) , product.getDouble(i, j) , 1e-12);
+			}
+		}
+
+		//In the column space or not
+		Matrix inside = left.multiply(random(r, 60, 2));
+		Matrix outside = random(r, 100, 1);
+		assertTrue(lu.hasSolution(inside));
+		assertFalse(lu.hasSolution(outside));
+
+		String[] vars = new String[100];
+		for(int i=0;i<vars.length;i++) vars[i] = "x"+i;
+		assertEquals(SolutionCase.INFINITE , Linear.solve(a, inside.subMatrix(0, 99, 1, 1), vars).getSolutionCase());
+		assertEquals(SolutionCase.UNSOLVABLE , Linear.solve(a, outside, vars).getSolutionCase());
+		assertEquals(SolutionCase.INFINITE , Linear.solve(a, new Matrix(100, 1), vars).getSolutionCase());
+
+		//A zero column in the middle
+		Matrix gap = new Matrix(new double[][]{{1, 0, 2}, {2, 0, 4}, {3, 0, 7}});
+		assertEquals(2 , gap.lu().rank());
+		assertTrue(gap.lu().hasSolution(new Matrix(new double[][]{{1}, {2}, {4}})));
+		assertFalse(gap.lu().hasSolution(new Matrix(new double[][]{{1}, {3}, {4}})));
+
+		//Only the first result is 0, it is not homogeneous
+		Matrix coff = new Matrix(new double[][]{{1, 2}, {3, 4}});
+		Solution s = Linear.solve(coff, new Matrix(new double[][]{{0}, {2}}), "x", "y");
+		assertEquals(SolutionCase.ONLY , s.getSolutionCase());
+		assertEquals(2 , s.getSolution("x").doubleValue() , 1e-15);
+		assertEquals(-1 , s.getSolution("y").doubleValue() , 1e-15);
+		assertEquals(SolutionCase.ZEROS , Linear.solve(coff, new Matrix(2, 1), "x", "y").getSolutionCase());
+
+		//The same for ExactMatrix
+		Solution e = Linear.solve(new ExactMatrix(new String[][]{{"1", "2"}, {"3", "4"}}), new ExactMatrix(new String[][]{{"0"}, {"2"}}), "x", "y");
+		assertEquals(SolutionCase.ONLY , e.getSolutionCase());
+		assertEquals(0 , e.getExactSolution("y").doubleValue() + 1 , 1e-10);
+	}
+
+	private static Matrix random(Random r , int rows , int cols){
+		double[][] m = new double[rows][cols];
+		for(int i=0;i<rows;i++){
+			for(int j=0;j<cols;j++)
+				m[i][j] = r.nextDouble()*2 - 1;
+		}
+		return new Matrix(m);
+	}
+}
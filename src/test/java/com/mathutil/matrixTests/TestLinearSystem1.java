@@ -0,0 +1,74 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.Linear;
+import com.mathutil.linearalgebra.LinearSystem;
+import com.mathutil.linearalgebra.SolutionCase;
+import com.mathutil.linearalgebra.matrix.Matrix;
+
+/**
+ * Test case 1 for LinearSystem, one cofficient matrix solved for many result matrices, one by one, all at once and in parallel.
+ * The substitutions do the same operations for every column, so all the ways get exactly the same solutions.
+ * @author danielxu
+ *
+ */
+public class TestLinearSystem1 {
+
+	@Test
+	public void test() {
+		Random r = new Random(38);
+		int n = 40 , count = 300;
+		double[][] c = new double[n][n];
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++)
+				c[i][j] = r.nextDouble()*2 - 1;
+		}
+		Matrix coff = new Matrix(c);
+		LinearSystem system = Linear.prepare(coff);
+		assertTrue(system.isNonsingular());
+
+		double[][] res = new double[count][n];
+		for(int k=0;k<count;k++){
+			for(int i=0;i<n;i++)
+				res[k][i] = r.nextDouble()*10 - 5;
+		}
+		double[][] all = system.solveAll(res);
+		double[][] parallel = system.solveParallel(res);
+		for(int k=0;k<count;k++){
+			double[] one = system.solve(res[k]);
+			assertArrayEquals(one , all[k] , 0);
+			assertArrayEquals(one , parallel[k] , 0);
+			//A*x = b
+			double[] b = coff.multiply(Matrix.wrap(one, n, 1)).toDoubleArray();
+			assertArrayEquals(res[k] , b , 1e-11);
+		}
+
+		//The columns of a matrix
+		Matrix columns = new Matrix(n , 3);
+		for(int i=0;i<n;i++){
+			for(int j=0;j<3;j++)
+				columns.set(i, j, res[j][i]);
+		}
+		Matrix x = system.solveAll(columns);
+		for(int j=0;j<3;j++){
+			for(int i=0;i<n;i++)
+				assertEquals(all[j][i] , x.getDouble(i, j) , 0);
+		}
+		assertEquals(SolutionCase.ONLY , system.getSolutionCase(Matrix.wrap(res[0], n, 1)));
+		assertEquals(SolutionCase.ZEROS , system.getSolutionCase(new Matrix(n, 1)));
+
+		//A singular system, infinite solutions and no solutions
+		LinearSystem singular = Linear.prepare(new Matrix(new double[][]{{1, 2, 3}, {4, 5, 6}, {7, 8, 9}}));
+		assertFalse(singular.isNonsingular());
+		double[][] s = singular.solveParallel(new double[][]{{6, 15, 24}, {6, 15, 25}, {0, 0, 0}});
+		assertEquals(Double.POSITIVE_INFINITY , s[0][1] , 0);
+		assertTrue(Double.isNaN(s[1][2]));
+		assertEquals(Double.POSITIVE_INFINITY , s[2][0] , 0);
+		assertEquals(SolutionCase.UNSOLVABLE , singular.getSolutionCase(Matrix.wrap(new double[]{6, 15, 25}, 3, 1)));
+	}
+}
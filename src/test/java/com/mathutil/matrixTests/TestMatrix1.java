@@ -0,0 +1,49 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.matrix.Matrix;
+
+/**
+ * Test case 1 for Matrix, the primitive storage.<br>
+ * A wrapped array shares the elements with the matrix, the calculations give the same results as by hand.
+ * @author danielxu
+ *
+ */
+public class TestMatrix1 {
+
+	@Test
+	public void test() {
+		double[] data = {1, 2, 3, 4, 5, 6};
+		Matrix a = Matrix.wrap(data, 2, 3);
+		assertEquals(6 , a.getDouble(1, 2) , 0);
+		data[0] = 7;
+		assertEquals(7 , a.getDouble(0, 0) , 0);
+		a.set(0, 0, 1.0);
+		assertEquals(1 , data[0] , 0);
+		
+		//[1 2 3; 4 5 6] * [1 2; 3 4; 5 6] = [22 28; 49 64]
+		Matrix b = new Matrix(new double[][]{{1, 2}, {3, 4}, {5, 6}});
+		assertArrayEquals(new double[]{22, 28, 49, 64} , a.multiply(b).toDoubleArray() , 0);
+		assertArrayEquals(new double[]{1, 4, 2, 5, 3, 6} , a.transpose().toDoubleArray() , 0);
+		assertArrayEquals(new double[]{2, 4, 6, 8, 10, 12} , a.add(a).toDoubleArray() , 0);
+		assertArrayEquals(new double[]{3, 6, 9, 12, 15, 18} , a.factor(3).toDoubleArray() , 0);
+		
+		//toDoubleArray is a copy
+		double[] copy = a.toDoubleArray();
+		copy[1] = 100;
+		assertEquals(2 , a.getDouble(0, 1) , 0);
+		
+		//A block of a larger array
+		Matrix block = Matrix.wrap(new double[]{0, 0, 0, 1, 2, 0, 3, 4, 0}, 3, 2, 2, 3);
+		assertArrayEquals(new double[]{1, 2, 3, 4} , block.toDoubleArray() , 0);
+		assertEquals(-2 , block.det() , 1e-12);
+		
+		//Switch rows of a matrix that has more rows than columns
+		b.switchRow(0, 2);
+		assertArrayEquals(new double[]{5, 6, 3, 4, 1, 2} , b.toDoubleArray() , 0);
+	}
+
+}
@@ -0,0 +1,46 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.matrix.Matrix;
+
+/**
+ * Test case 2 for Matrix, the blocked multiplication.<br>
+ * The result must be the same as the simple triple loop for any block size, including the sizes that are not
+ * multiples of the block size.
+ * @author danielxu
+ *
+ */
+public class TestMatrix2 {
+
+	@Test
+	public void test() {
+		Random r = new Random(2);
+		int m = 37 , k = 53 , n = 29;
+		double[][] a = new double[m][k] , b = new double[k][n];
+		for(double[] row : a) for(int j=0;j<k;j++) row[j] = r.nextDouble() - 0.5;
+		for(double[] row : b) for(int j=0;j<n;j++) row[j] = r.nextDouble() - 0.5;
+		
+		double[] expect = new double[m*n];
+		for(int i=0;i<m;i++)
+			for(int j=0;j<n;j++)
+				for(int p=0;p<k;p++)
+					expect[i*n+j] += a[i][p]*b[p][j];
+		
+		Matrix ma = new Matrix(a) , mb = new Matrix(b);
+		for(int block : new int[]{1, 3, 8, 16, 64, 1000}){
+			assertArrayEquals(expect , ma.multiply(mb , block).toDoubleArray() , 1e-12);
+		}
+		assertArrayEquals(expect , ma.multiply(mb).toDoubleArray() , 1e-12);
+		
+		//A block of a larger array as the left matrix
+		Matrix sub = ma.subMatrix(1, 4, 0, k-1);
+		Matrix wrapped = Matrix.wrap(ma.toDoubleArray(), k, 4, k, k);
+		assertArrayEquals(sub.multiply(mb).toDoubleArray() , wrapped.multiply(mb).toDoubleArray() , 0);
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.matrix.Kernels;
+import com.mathutil.linearalgebra.matrix.Matrix;
+
+/**
+ * Test case 3 for Matrix, the multi-threaded multiplication.<br>
+ * With the scalar kernels every element of the result is calculated in the same order by one thread, so the result must be
+ * exactly the same as the single-threaded result, with any pool. The SIMD kernels may round the elements at the ends of the
+ * vectors differently when the blocks are split, so they are only compared to the rounding errors.
+ * @author danielxu
+ *
+ */
+public class TestMatrix3 {
+
+	@Test
+	public void test() {
+		Random r = new Random(3);
+		Matrix a = Matrix.randomMatrix(301, 257, -1, 1, false);
+		Matrix b = Matrix.randomMatrix(257, 190, -1, 1, false);
+		double[] expect = a.multiply(b , 64).toDoubleArray();
+		double tolerance = Kernels.get() == Kernels.scalar() ? 0 : 1e-12;
+		
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try{
+			assertArrayEquals(expect , a.multiply(b , pool).toDoubleArray() , tolerance);
+		}
+		finally{
+			pool.shutdown();
+		}
+		assertArrayEquals(expect , a.multiply(b).toDoubleArray() , tolerance);
+		
+		//A tall and thin product that is split by rows only
+		double[] col = new double[2000];
+		for(int i=0;i<col.length;i++) col[i] = r.nextDouble();
+		Matrix tall = Matrix.wrap(col, 1000, 2);
+		Matrix wide = Matrix.wrap(new double[]{1, 2, 3, 4, 5, 6, 7, 8}, 2, 4);
+		assertArrayEquals(tall.multiply(wide , 64).toDoubleArray() , tall.multiply(wide , ForkJoinPool.commonPool()).toDoubleArray() , tolerance);
+	}
+
+}
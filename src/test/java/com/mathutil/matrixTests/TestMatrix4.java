@@ -0,0 +1,87 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.matrix.Matrix;
+
+/**
+ * Test case 4 for Matrix, the Strassen-Winograd multiplication.<br>
+ * By Higham(Accuracy and Stability of Numerical Algorithms, section 23.2.2), with the cutoff n0 and the machine 
+ * epsilon u, the error of Winograd's variant of Strassen's algorithm for n*n matrices is bounded by:
+ * <center>max|C - A*B| &lt;= ((n/n0)^log2(18) * (n0^2 + 6*n0) - 6*n) * u * max|A| * max|B|</center>
+ * The blocked multiplication has the error bound n * u * max|A| * max|B|. Both of them are checked against a product 
+ * in exact BigDecimal arithmetic, including the odd sizes that need peeling.
+ * @author danielxu
+ *
+ */
+public class TestMatrix4 {
+
+	@Test
+	public void test() {
+		double u = Math.ulp(1.0);
+		for(int n : new int[]{64, 97, 129}){
+			int n0 = 16;
+			//Scaled so the elements are not integers and the products are rounded in double
+			Matrix a = Matrix.randomMatrix(n, n, -1000, 1000, true).factor(1.0/3);
+			Matrix b = Matrix.randomMatrix(n, n, -1000, 1000, true).factor(1.0/7);
+			Matrix exact = exact(a , b);
+			
+			double maxA = maxAbs(a.toDoubleArray()) , maxB = maxAbs(b.toDoubleArray());
+			double levels = Math.ceil(Math.log((double)n/n0)/Math.log(2));
+			double bound = (Math.pow(2 , levels*Math.log(18)/Math.log(2))*(n0*n0 + 6*n0) - 6*n)*u*maxA*maxB;
+			
+			double strassen = maxDiff(a.multiplyStrassen(b , n0) , exact);
+			double blocked = maxDiff(a.multiply(b , 64) , exact);
+			assertTrue("n = "+n+" error "+strassen+" > "+bound , strassen <= bound);
+			assertTrue(blocked <= n*u*maxA*maxB);
+			
+			//The default cutoff is larger than these sizes, it must be the same as the blocked multiplication
+			assertArrayEquals(a.multiply(b , 64).toDoubleArray() , a.multiplyStrassen(b).toDoubleArray() , 0);
+		}
+		
+		//Rectangular and odd
+		Matrix a = Matrix.randomMatrix(67, 45, -1, 1, false) , b = Matrix.randomMatrix(45, 99, -1, 1, false);
+		assertArrayEquals(a.multiply(b , 64).toDoubleArray() , a.multiplyStrassen(b , 16).toDoubleArray() , 1e-12);
+	}
+	
+	//The exact product, rounded to double only once
+	private static Matrix exact(Matrix a , Matrix b){
+		int n = a.getRows();
+		BigDecimal[][] x = new BigDecimal[n][n] , y = new BigDecimal[n][n];
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++){
+				x[i][j] = new BigDecimal(a.getDouble(i, j));
+				y[i][j] = new BigDecimal(b.getDouble(i, j));
+			}
+		}
+		double[][] c = new double[n][n];
+		for(int i=0;i<n;i++){
+			for(int j=0;j<n;j++){
+				BigDecimal sum = BigDecimal.ZERO;
+				for(int k=0;k<n;k++){
+					sum = sum.add(x[i][k].multiply(y[k][j]));
+				}
+				c[i][j] = sum.doubleValue();
+			}
+		}
+		return new Matrix(c);
+	}
+	
+	private static double maxDiff(Matrix x , Matrix y){
+		double[] a = x.toDoubleArray() , b = y.toDoubleArray();
+		double max = 0;
+		for(int i=0;i<a.length;i++) max = Math.max(max , Math.abs(a[i] - b[i]));
+		return max;
+	}
+	
+	private static double maxAbs(double[] a){
+		double max = 0;
+		for(double d : a) max = Math.max(max , Math.abs(d));
+		return max;
+	}
+
+}
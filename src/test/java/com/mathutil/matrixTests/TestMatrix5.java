@@ -0,0 +1,110 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.matrix.ExactMatrix;
+import com.mathutil.linearalgebra.matrix.Matrix;
+
+/**
+ * Test case 5 for Matrix, the sub matrices and the transpose are views of the same array. They are copied on write, so 
+ * they still behave like copies, and the transposed views are multiplied by packing the tiles, with exactly the same 
+ * result as multiplying a copy.
+ * @author danielxu
+ *
+ */
+public class TestMatrix5 {
+
+	@Test
+	public void test() {
+		Random r = new Random(40);
+		Matrix a = random(r, 6, 5);
+		Matrix sub = a.subMatrix(1, 4, 1, 3);
+		Matrix t = a.transpose();
+		assertEquals(4 , sub.getRows());
+		assertEquals(3 , sub.getCols());
+		assertEquals(a.getDouble(3, 2) , sub.getDouble(2, 1) , 0);
+		for(int i=0;i<6;i++){
+			for(int j=0;j<5;j++)
+				assertEquals(a.getDouble(i, j) , t.getDouble(j, i) , 0);
+		}
+		//A view of a view
+		assertEquals(a.getDouble(4, 1) , t.subMatrix(1, 2, 3, 5).getDouble(0, 1) , 0);
+		assertArrayEquals(a.toDoubleArray() , t.transpose().toDoubleArray() , 0);
+
+		//Copy on write, in both directions
+		double old = a.getDouble(2, 2);
+		a.set(2, 2, 100.0);
+		assertEquals(old , sub.getDouble(1, 1) , 0);
+		assertEquals(old , t.getDouble(2, 2) , 0);
+		sub.set(0, 0, -1.0);
+		t.switchRow(0, 1);
+		assertEquals(-1 , sub.getDouble(0, 0) , 0);
+		assertEquals(a.getDouble(0, 0) , t.getDouble(1, 0) , 0);
+		assertNotEquals(-1 , a.getDouble(1, 1) , 0);
+		assertEquals(100 , a.getDouble(2, 2) , 0);
+
+		//The sub matrices of a wrapped array are copies, since the array can change
+		double[] array = {1, 2, 3, 4};
+		Matrix wrapped = Matrix.wrap(array, 2, 2);
+		Matrix column = wrapped.subMatrix(0, 1, 1, 1);
+		array[1] = 20;
+		assertEquals(2 , column.getDouble(0, 0) , 0);
+		wrapped.set(1, 1, 40.0);
+		assertEquals(40 , array[3] , 0);
+
+		//Transposed views in the calculations, larger than one tile
+		Matrix b = random(r, 150, 130) , c = random(r, 150, 140);
+		Matrix bt = copy(b.transpose()) , ct = copy(c.transpose());
+		ForkJoinPool pool = new ForkJoinPool(4);
+		assertArrayEquals(bt.multiply(c).toDoubleArray() , b.transpose().multiply(c).toDoubleArray() , 0);
+		assertArrayEquals(bt.multiply(c , 32).toDoubleArray() , b.transpose().multiply(c , 32).toDoubleArray() , 0);
+		assertArrayEquals(bt.multiply(c , pool).toDoubleArray() , b.transpose().multiply(c , pool).toDoubleArray() , 0);
+		assertArrayEquals(ct.multiply(b , pool).toDoubleArray() , c.transpose().multiply(bt.transpose() , pool).toDoubleArray() , 0);
+		assertArrayEquals(c.multiply(ct).toDoubleArray() , c.multiply(c.transpose()).toDoubleArray() , 0);
+		assertArrayEquals(bt.multiplyStrassen(c , 16).toDoubleArray() , b.transpose().multiplyStrassen(c , 16).toDoubleArray() , 0);
+		pool.shutdown();
+		Matrix block = b.subMatrix(10, 39, 20, 49);
+		assertArrayEquals(copy(block).multiply(bt.subMatrix(20, 49, 10, 39)).toDoubleArray() , 
+				block.multiply(block.transpose().transpose().transpose()).toDoubleArray() , 0);
+		assertArrayEquals(bt.add(ct.subMatrix(0, 129, 0, 149)).toDoubleArray() , 
+				b.transpose().add(c.transpose().subMatrix(0, 129, 0, 149)).toDoubleArray() , 0);
+		assertArrayEquals(bt.substract(bt.factor(2)).toDoubleArray() , b.transpose().substract(b.transpose().factor(2)).toDoubleArray() , 0);
+		Matrix square = b.subMatrix(0, 129, 0, 129);
+		assertArrayEquals(square.lu().solve(copy(c.transpose().subMatrix(0, 129, 0, 2))).toDoubleArray() , 
+				square.lu().solve(c.transpose().subMatrix(0, 129, 0, 2)).toDoubleArray() , 0);
+
+		//ExactMatrix keeps the precision of the matrix
+		ExactMatrix e = new ExactMatrix(new String[][]{{"1", "2", "3"}, {"4", "5", "6"}});
+		ExactMatrix es = e.subMatrix(1, 1, 0, 2);
+		assertEquals(1 , es.getRows());
+		assertEquals(6 , es.get(0, 2).intValue());
+		assertEquals(5 , e.transpose().get(1, 1).intValue());
+		try{
+			e.subMatrix(0, 2, 0, 0);
+			fail("Row 2 is out of bound");
+		}catch(RuntimeException ex){}
+	}
+
+	private static Matrix copy(Matrix m){
+		double[][] r = new double[m.getRows()][m.getCols()];
+		for(int i=0;i<r.length;i++){
+			for(int j=0;j<r[0].length;j++)
+				r[i][j] = m.getDouble(i, j);
+		}
+		return new Matrix(r);
+	}
+
+	private static Matrix random(Random r , int rows , int cols){
+		double[][] m = new double[rows][cols];
+		for(int i=0;i<rows;i++){
+			for(int j=0;j<cols;j++)
+				m[i][j] = r.nextDouble()*2 - 1;
+		}
+		return new Matrix(m);
+	}
+}
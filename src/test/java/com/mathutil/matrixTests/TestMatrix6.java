@@ -0,0 +1,72 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.matrix.Matrix;
+
+/**
+ * Test case 6 for Matrix, the operations that write into an existing matrix: addInPlace, substractInPlace, scaleInPlace, 
+ * multiplyInto and C = alpha*A*B + beta*C. They get the same results as the operations that create new matrices, and 
+ * the views are still copied on write.
+ * @author danielxu
+ *
+ */
+public class TestMatrix6 {
+
+	@Test
+	public void test() {
+		Random r = new Random(41);
+		Matrix a = random(r, 80, 70) , b = random(r, 70, 90) , c = random(r, 80, 90);
+
+		//C = 2*A*B + 0.5*C
+		Matrix expect = a.multiply(b).factor(2).add(c.factor(0.5));
+		assertSame(c , c.multiplyAdd(2, a, b, 0.5));
+		assertArrayEquals(expect.toDoubleArray() , c.toDoubleArray() , 1e-12);
+
+		//The old elements do not matter if beta is 0
+		Matrix dest = new Matrix(80 , 90);
+		dest.set(3, 4, Double.NaN);
+		for(int i=0;i<3;i++){
+			assertSame(dest , a.multiplyInto(b, dest));
+			assertArrayEquals(a.multiply(b).toDoubleArray() , dest.toDoubleArray() , 0);
+		}
+		//A transposed view, the same as multiplying a copy
+		Matrix square = new Matrix(70 , 70);
+		b.transpose().subMatrix(0, 69, 0, 69).multiplyInto(a.subMatrix(0, 69, 0, 69), square);
+		assertArrayEquals(b.transpose().subMatrix(0, 69, 0, 69).multiply(a.subMatrix(0, 69, 0, 69)).toDoubleArray() , square.toDoubleArray() , 0);
+		try{
+			square.multiplyInto(square, square);
+			fail("The destination cannot be one of the matrices");
+		}catch(RuntimeException e){}
+		try{
+			a.multiplyInto(b, new Matrix(80 , 80));
+			fail("The destination must be 80*90");
+		}catch(RuntimeException e){}
+
+		//In place, the same as the new matrices
+		Matrix x = random(r, 90, 80) , y = random(r, 80, 90);
+		Matrix sum = x.add(y.transpose()) , diff = x.substract(y.transpose()) , scaled = x.factor(-3);
+		Matrix x1 = x.subMatrix(0, 89, 0, 79) , x2 = x.subMatrix(0, 89, 0, 79) , x3 = x.subMatrix(0, 89, 0, 79);
+		assertArrayEquals(sum.toDoubleArray() , x1.addInPlace(y.transpose()).toDoubleArray() , 0);
+		assertArrayEquals(diff.toDoubleArray() , x2.substractInPlace(y.transpose()).toDoubleArray() , 0);
+		assertArrayEquals(scaled.toDoubleArray() , x3.scaleInPlace(-3).toDoubleArray() , 0);
+		//The views were copied, x is not changed
+		assertArrayEquals(scaled.toDoubleArray() , x.factor(-3).toDoubleArray() , 0);
+		Matrix twice = x.addInPlace(x);
+		assertSame(x , twice);
+		assertArrayEquals(x1.substract(y.transpose()).factor(2).toDoubleArray() , x.toDoubleArray() , 1e-15);
+	}
+
+	private static Matrix random(Random r , int rows , int cols){
+		double[][] m = new double[rows][cols];
+		for(int i=0;i<rows;i++){
+			for(int j=0;j<cols;j++)
+				m[i][j] = r.nextDouble()*2 - 1;
+		}
+		return new Matrix(m);
+	}
+}
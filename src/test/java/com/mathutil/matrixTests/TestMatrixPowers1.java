@@ -0,0 +1,91 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.matrix.ExactMatrix;
+import com.mathutil.linearalgebra.matrix.Matrix;
+import com.mathutil.linearalgebra.matrix.MatrixPowers;
+
+/**
+ * Test case 1 for MatrixPowers and the repeated squaring of Matrix.power and ExactMatrix.power. A Markov chain raised to the
+ * power of one million converges to its stationary distribution, by the squares and by the eigenvalues. The errors of the
+ * squares grow with the number of squarings, the eigenvalues only round once.
+ * @author danielxu
+ *
+ */
+public class TestMatrixPowers1 {
+
+	@Test
+	public void test() {
+		//The stationary distribution of this chain is (5/6 , 1/6), the eigenvalues are 1 and 0.4
+		Matrix chain = new Matrix(new double[][]{{0.9, 0.1}, {0.5, 0.5}});
+		Matrix eigenvectors = new Matrix(new double[][]{{1, 1}, {1, -5}});
+		MatrixPowers squares = new MatrixPowers(chain);
+		MatrixPowers eigen = new MatrixPowers(eigenvectors , new double[]{1, 0.4});
+		assertEquals(0 , maxDiff(chain , eigen.getMatrix()) , 1e-15);
+		//20 squarings, the rounding errors of the sums of the rows grow to about 2^20 * eps
+		for(Matrix m : new Matrix[]{chain.power(1000000), squares.power(1000000)}){
+			for(int i=0;i<2;i++){
+				assertEquals(5.0/6 , m.getDouble(i, 0) , 1e-9);
+				assertEquals(1.0/6 , m.getDouble(i, 1) , 1e-9);
+			}
+		}
+		Matrix m = eigen.power(1000000);
+		for(int i=0;i<2;i++){
+			assertEquals(5.0/6 , m.getDouble(i, 0) , 1e-15);
+			assertEquals(1.0/6 , m.getDouble(i, 1) , 1e-15);
+		}
+		assertEquals(0 , maxDiff(squares.power(7) , eigen.power(7)) , 1e-14);
+
+		//The same as multiplying n times
+		Random r = new Random(39);
+		double[][] values = new double[20][20];
+		for(int i=0;i<20;i++){
+			for(int j=0;j<20;j++)
+				values[i][j] = (r.nextDouble()*2 - 1)/10;
+		}
+		Matrix a = new Matrix(values);
+		Matrix naive = a;
+		for(int i=1;i<13;i++)
+			naive = naive.multiply(a);
+		assertEquals(0 , maxDiff(naive , a.power(13)) , 1e-15);
+
+		//The squares are reused, the products are the same as Matrix.power
+		MatrixPowers powers = new MatrixPowers(a);
+		Matrix[] all = powers.powers(13, 64, 5, -3, 0);
+		assertEquals(0 , maxDiff(all[0] , a.power(13)) , 0);
+		assertEquals(0 , maxDiff(all[1] , a.power(64)) , 0);
+		assertEquals(0 , maxDiff(all[2] , a.power(5)) , 0);
+		assertEquals(0 , maxDiff(all[3].multiply(a.power(3)) , all[4]) , 1e-10);
+
+		//A diagonal matrix
+		Matrix diagonal = new Matrix(new double[][]{{2, 0}, {0, 3}}).power(-2);
+		assertEquals(0.25 , diagonal.getDouble(0, 0) , 0);
+		assertEquals(1.0/9 , diagonal.getDouble(1, 1) , 1e-17);
+		assertEquals(0 , diagonal.getDouble(0, 1) , 0);
+
+		//Fibonacci numbers, [[1, 1], [1, 0]]^30 = [[F31, F30], [F30, F29]]
+		ExactMatrix fib = new ExactMatrix(new String[][]{{"1", "1"}, {"1", "0"}}).power(30);
+		assertEquals(1346269 , fib.get(0, 0).intValueExact());
+		assertEquals(832040 , fib.get(0, 1).intValueExact());
+		assertEquals(514229 , fib.get(1, 1).intValueExact());
+		ExactMatrix inverse = new ExactMatrix(new String[][]{{"2", "1"}, {"1", "1"}}).power(-2);
+		assertEquals(2 , inverse.get(0, 0).doubleValue() , 1e-10);
+		assertEquals(-3 , inverse.get(0, 1).doubleValue() , 1e-10);
+		assertEquals(5 , inverse.get(1, 1).doubleValue() , 1e-10);
+	}
+
+	private static double maxDiff(Matrix a , Matrix b){
+		double max = 0;
+		for(int i=0;i<a.getRows();i++){
+			for(int j=0;j<a.getCols();j++){
+				max = Math.max(max , Math.abs(a.getDouble(i, j) - b.getDouble(i, j)));
+			}
+		}
+		return max;
+	}
+}
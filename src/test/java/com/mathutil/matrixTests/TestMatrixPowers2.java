@@ -0,0 +1,39 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.matrix.Matrix;
+import com.mathutil.linearalgebra.matrix.MatrixPowers;
+
+/**
+ * Test case 2 for MatrixPowers, the powers returned are not the squares that are kept, changing them does not change the
+ * later powers.
+ * @author danielxu
+ *
+ */
+public class TestMatrixPowers2 {
+
+	@Test
+	public void test() {
+		//Fibonacci numbers, [[1, 1], [1, 0]]^n = [[F(n+1), F(n)], [F(n), F(n-1)]]
+		Matrix fib = new Matrix(new double[][]{{1, 1}, {1, 0}});
+		MatrixPowers p = new MatrixPowers(fib);
+		p.power(2).set(0, 0, 1000);
+		assertEquals(3 , p.power(3).getDouble(0, 0) , 0);
+		p.power(4).scaleInPlace(-1);
+		assertEquals(5 , p.power(4).getDouble(0, 0) , 0);
+		assertEquals(13 , p.power(6).getDouble(0, 0) , 0);
+		p.power(1).set(1, 1, 7);
+		assertEquals(0 , fib.getDouble(1, 1) , 0);
+		assertEquals(2 , p.power(2).getDouble(0, 0) , 0);
+
+		//The inverse and its squares, [[1, 1], [1, 0]]^-1 = [[0, 1], [1, -1]]
+		p.power(-1).set(0, 0, 1000);
+		assertEquals(0 , p.power(-1).getDouble(0, 0) , 1e-15);
+		p.power(-2).scaleInPlace(0);
+		assertEquals(-3 , p.power(-3).getDouble(1, 1) , 1e-14);
+		assertEquals(2 , p.power(-2).getDouble(1, 1) , 1e-15);
+	}
+}
@@ -0,0 +1,125 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.exceptions.MatrixCalculationException;
+import com.mathutil.linearalgebra.LeastSquaresSolution;
+import com.mathutil.linearalgebra.Linear;
+import com.mathutil.linearalgebra.matrix.Matrix;
+import com.mathutil.linearalgebra.matrix.QRDecomposition;
+
+/**
+ * Test case 1 for QRDecomposition, the blocked factorization of a tall matrix, the least squares solutions compared with the
+ * normal equations, the rank deficient matrices with pivoting, and the fits of Linear.leastSquares.
+ * @author danielxu
+ *
+ */
+public class TestQRDecomposition1 {
+
+	@Test
+	public void test() {
+		//300*130, two full blocks and a partial one
+		Random r = new Random(45);
+		Matrix a = random(r, 300, 130);
+		QRDecomposition qr = a.qr();
+		assertTrue(qr.isFullRank());
+		Matrix q = qr.getQ();
+		assertEquals(130 , q.getCols());
+		Matrix qtq = q.transpose().multiply(q);
+		Matrix product = q.multiply(qr.getR());
+		for(int i=0;i<130;i++){
+			for(int j=0;j<130;j++)
+				assertEquals(i == j ? 1 : 0 , qtq.getDouble(i, j) , 1e-12);
+		}
+		for(int i=0;i<300;i++){
+			for(int j=0;j<130;j++)
+				assertEquals(a.getDouble(i, j) , product.getDouble(i, j) , 1e-12);
+		}
+
+		//The same as the normal equations A^T*A*x = A^T*b, and the residual is orthogonal to the columns
+		Matrix b = random(r, 300, 2);
+		Matrix x = qr.solve(b);
+		Matrix normal = a.transpose().multiply(a).cholesky().solve(a.transpose().multiply(b));
+		for(int i=0;i<130;i++){
+			for(int j=0;j<2;j++)
+				assertEquals(normal.getDouble(i, j) , x.getDouble(i, j) , 1e-10);
+		}
+		Matrix residual = a.multiply(x).substract(b);
+		double[] norms = qr.residualNorms(b);
+		for(int j=0;j<2;j++){
+			double sum = 0;
+			for(int i=0;i<300;i++)
+				sum += residual.getDouble(i, j)*residual.getDouble(i, j);
+			assertEquals(Math.sqrt(sum) , norms[j] , 1e-12);
+		}
+		Matrix orthogonal = a.transpose().multiply(residual);
+		for(int i=0;i<130;i++)
+			assertEquals(0 , orthogonal.getDouble(i, 0) , 1e-11);
+
+		//A wide matrix can be decomposed, but it can only be solved with pivoting
+		Matrix wide = random(r, 50, 80);
+		QRDecomposition wqr = wide.qr();
+		Matrix wp = wqr.getQ().multiply(wqr.getR());
+		assertEquals(wide.getDouble(49, 79) , wp.getDouble(49, 79) , 1e-12);
+		try{
+			wqr.solve(random(r, 50, 1));
+			fail();
+		}catch(MatrixCalculationException e){}
+
+		//200*40 of rank 25, A*P = Q*R and the basic solution
+		Matrix deficient = random(r, 200, 25).multiply(random(r, 25, 40));
+		QRDecomposition pqr = deficient.qr(true);
+		assertEquals(25 , pqr.rank());
+		Matrix pp = pqr.getQ().multiply(pqr.getR());
+		int[] pivot = pqr.getPivot();
+		for(int i=0;i<200;i++){
+			for(int j=0;j<40;j++)
+				assertEquals(deficient.getDouble(i, pivot[j]) , pp.getDouble(i, j) , 1e-12);
+		}
+		LeastSquaresSolution consistent = Linear.leastSquares(deficient, deficient.multiply(random(r, 40, 1)));
+		assertEquals(25 , consistent.getRank());
+		assertEquals(0 , consistent.getResidual() , 1e-10);
+		Matrix c = random(r, 200, 1);
+		LeastSquaresSolution s = Linear.leastSquares(deficient, c);
+		Matrix rd = deficient.multiply(s.getSolution()).substract(c);
+		assertEquals(0 , deficient.transpose().multiply(rd).getDouble(7, 0) , 1e-10);
+		int zeros = 0;
+		for(int j=0;j<40;j++)
+			zeros += s.getSolution().getDouble(j, 0) == 0 ? 1 : 0;
+		assertEquals(15 , zeros);
+
+		//y = 1 + 2x + 3x^2 fitted on 100000 points, with and without noise
+		int m = 100000;
+		double[] v = new double[m*3] , y = new double[m] , noisy = new double[m];
+		for(int i=0;i<m;i++){
+			double t = i / (double)m;
+			v[i*3] = 1;
+			v[i*3 + 1] = t;
+			v[i*3 + 2] = t*t;
+			y[i] = 1 + 2*t + 3*t*t;
+			noisy[i] = y[i] + (i % 2 == 0 ? 0.01 : -0.01);
+		}
+		LeastSquaresSolution fit = Linear.leastSquares(Matrix.wrap(v, m, 3), Matrix.wrap(y, m, 1));
+		assertEquals(3 , fit.getRank());
+		assertEquals(1 , fit.getSolution().getDouble(0, 0) , 1e-10);
+		assertEquals(2 , fit.getSolution().getDouble(1, 0) , 1e-10);
+		assertEquals(3 , fit.getSolution().getDouble(2, 0) , 1e-10);
+		assertEquals(0 , fit.getResidual() , 1e-10);
+		LeastSquaresSolution noise = Linear.leastSquares(Matrix.wrap(v, m, 3), Matrix.wrap(noisy, m, 1));
+		assertEquals(0.01*Math.sqrt(m) , noise.getResidual() , 1e-5);
+		assertEquals(2 , noise.getSolution().getDouble(1, 0) , 1e-3);
+	}
+
+	private static Matrix random(Random r , int rows , int cols){
+		double[][] m = new double[rows][cols];
+		for(int i=0;i<rows;i++){
+			for(int j=0;j<cols;j++)
+				m[i][j] = r.nextDouble()*2 - 1;
+		}
+		return new Matrix(m);
+	}
+}
@@ -0,0 +1,82 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.matrix.Matrix;
+import com.mathutil.linearalgebra.matrix.SingularValueDecomposition;
+
+/**
+ * Test case 1 for SingularValueDecomposition, A = U*S*V^T for tall, square and wide matrices, the rank and the condition
+ * number, and the largest singular values by the Lanczos iteration.
+ * @author danielxu
+ *
+ */
+public class TestSingularValueDecomposition1 {
+
+	@Test
+	public void test() {
+		Random r = new Random(46);
+		int[][] sizes = {{150, 40}, {60, 60}, {30, 70}};
+		for(int[] size : sizes){
+			Matrix a = random(r, size[0], size[1]);
+			SingularValueDecomposition svd = a.svd();
+			Matrix u = svd.getU() , v = svd.getV();
+			int p = Math.min(size[0], size[1]);
+			assertEquals(p , u.getCols());
+			assertEquals(p , svd.rank());
+			Matrix usv = u.multiply(svd.getS()).multiply(v.transpose());
+			for(int i=0;i<size[0];i++){
+				for(int j=0;j<size[1];j++)
+					assertEquals(a.getDouble(i, j) , usv.getDouble(i, j) , 1e-12);
+			}
+			Matrix utu = u.transpose().multiply(u) , vtv = v.transpose().multiply(v);
+			double[] s = svd.getSingularValues();
+			for(int i=0;i<p;i++){
+				if(i > 0)
+					assertTrue(s[i-1] >= s[i]);
+				for(int j=0;j<p;j++){
+					assertEquals(i == j ? 1 : 0 , utu.getDouble(i, j) , 1e-12);
+					assertEquals(i == j ? 1 : 0 , vtv.getDouble(i, j) , 1e-12);
+				}
+			}
+			//The squares are the eigenvalues of A^T*A
+			double[] lambda = a.transpose().multiply(a).eigen().getEigenvalues();
+			assertEquals(lambda[lambda.length-1] , s[0]*s[0] , 1e-10);
+			assertEquals(s[0]/s[p-1] , svd.cond() , 0);
+		}
+
+		//Rank 5, and the singular values of a diagonal matrix with a known condition number
+		Matrix low = random(r, 80, 5).multiply(random(r, 5, 20));
+		SingularValueDecomposition ls = low.svd();
+		assertEquals(5 , ls.rank());
+		SingularValueDecomposition singular = new Matrix(new double[][]{{1, 2}, {2, 4}}).svd();
+		assertEquals(1 , singular.rank());
+		assertTrue(singular.cond() > 1e15);
+		Matrix d = new Matrix(new double[][]{{1e-8, 0, 0}, {0, 3, 0}, {0, 0, 1}});
+		SingularValueDecomposition ds = d.svd();
+		assertEquals(3e8 , ds.cond() , 1e-4);
+		assertEquals(1e-8 , ds.getSingularValues()[2] , 1e-24);
+
+		//The 3 largest of a 400*300 matrix
+		Matrix big = random(r, 400, 300);
+		SingularValueDecomposition full = big.svd() , top = SingularValueDecomposition.largest(big, 3);
+		for(int k=0;k<3;k++)
+			assertEquals(full.getSingularValues()[k] , top.getSingularValues()[k] , 1e-8);
+		Matrix av = big.multiply(top.getV()) , us = top.getU().multiply(top.getS());
+		for(int i=0;i<400;i++)
+			assertEquals(us.getDouble(i, 0) , av.getDouble(i, 0) , 1e-10);
+	}
+
+	private static Matrix random(Random r , int rows , int cols){
+		double[][] m = new double[rows][cols];
+		for(int i=0;i<rows;i++){
+			for(int j=0;j<cols;j++)
+				m[i][j] = r.nextDouble()*2 - 1;
+		}
+		return new Matrix(m);
+	}
+}
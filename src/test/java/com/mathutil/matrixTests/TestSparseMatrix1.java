@@ -0,0 +1,100 @@
+package com.mathutil.matrixTests;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.mathutil.linearalgebra.matrix.Matrix;
+import com.mathutil.linearalgebra.matrix.SparseMatrix;
+import com.mathutil.linearalgebra.matrix.SparseMatrixBuilder;
+
+/**
+ * Test case 1 for SparseMatrix and SparseMatrixBuilder. A 100000*100000 tridiagonal matrix that can't be stored densely, and
+ * small random matrices compared with Matrix: the duplicates of the builder, set, switching, the transpose and the products.
+ * @author danielxu
+ *
+ */
+public class TestSparseMatrix1 {
+
+	@Test
+	public void test() {
+		//The second difference matrix, [-1 2 -1] in every row
+		int n = 100000;
+		SparseMatrixBuilder builder = new SparseMatrixBuilder(n, n, 3*n);
+		for(int i=n-1;i>=0;i--){
+			builder.add(i, i, 2);
+			if(i > 0) builder.add(i, i-1, -1);
+			if(i < n-1) builder.add(i, i+1, -1);
+		}
+		SparseMatrix big = builder.build();
+		assertEquals(3*n - 2 , big.getNonZeros());
+		double[] ones = new double[n];
+		Arrays.fill(ones, 1);
+		double[] y = big.multiply(ones);
+		assertEquals(1 , y[0] , 0);
+		assertEquals(0 , y[n/2] , 0);
+		assertEquals(1 , y[n-1] , 0);
+		assertArrayEquals(y , big.toCompressedColumns().multiply(ones) , 0);
+		assertEquals(-1 , big.getDouble(500, 501) , 0);
+		assertEquals(0 , big.getDouble(500, 502) , 0);
+
+		//Random matrices with duplicates, compared with Matrix
+		Random r = new Random(42);
+		SparseMatrix a = random(r, 60, 50) , b = random(r, 50, 40);
+		Matrix da = a.toMatrix() , db = b.toMatrix();
+		assertArrayEquals(da.toDoubleArray() , new SparseMatrix(da).toMatrix().toDoubleArray() , 0);
+		assertEquals(a.getNonZeros() , new SparseMatrix(da).getNonZeros());
+		assertArrayEquals(da.multiply(db).toDoubleArray() , a.multiply(db).toDoubleArray() , 1e-12);
+		assertArrayEquals(da.multiply(db).toDoubleArray() , a.multiply(b).toMatrix().toDoubleArray() , 1e-12);
+		assertArrayEquals(da.multiply(db).toDoubleArray() , a.toCompressedColumns().multiply(b.toCompressedColumns()).toMatrix().toDoubleArray() , 1e-12);
+		assertArrayEquals(da.multiply(db).toDoubleArray() , a.toCompressedColumns().multiply(db).toDoubleArray() , 1e-12);
+		double[] x = new double[50];
+		for(int i=0;i<50;i++) x[i] = r.nextDouble();
+		assertArrayEquals(da.multiply(Matrix.wrap(x, 50, 1)).toDoubleArray() , a.multiply(x) , 1e-12);
+
+		//The transpose shares the arrays until one of them is modified
+		SparseMatrix t = a.transpose();
+		assertTrue(t.isByColumns());
+		assertArrayEquals(da.transpose().toDoubleArray() , t.toMatrix().toDoubleArray() , 0);
+		assertArrayEquals(da.transpose().toDoubleArray() , t.toCompressedRows().toMatrix().toDoubleArray() , 0);
+		double old = a.getDouble(3, 4);
+		a.set(3, 4, 7.0);
+		assertEquals(old , t.getDouble(4, 3) , 0);
+
+		//Set, insert and remove, and switch, the same as Matrix
+		Matrix d = a.toMatrix();
+		int[][] positions = {{0, 0}, {59, 49}, {10, 20}, {10, 21}, {30, 0}};
+		for(int[] p : positions){
+			a.set(p[0], p[1], 0.0);
+			d.set(p[0], p[1], 0.0);
+			t.set(p[1], p[0], 5.0);
+		}
+		a.set(10, 21, 3.0);
+		d.set(10, 21, 3.0);
+		a.switchRow(2, 40);
+		d.switchRow(2, 40);
+		a.switchCol(1, 45);
+		d.switchCol(1, 45);
+		t.switchRow(7, 8);
+		assertArrayEquals(d.toDoubleArray() , a.toMatrix().toDoubleArray() , 0);
+		assertEquals(5 , t.getDouble(49, 59) , 0);
+		assertEquals(5 , t.getDouble(0, 30) , 0);
+		assertArrayEquals(a.toMatrix().toDoubleArray() , a.toCompressedColumns().toCompressedRows().toMatrix().toDoubleArray() , 0);
+	}
+
+	//About 10% nonzeros, every element is added in two parts
+	private static SparseMatrix random(Random r , int rows , int cols){
+		SparseMatrixBuilder builder = new SparseMatrixBuilder(rows, cols);
+		for(int k=0;k<rows*cols/10;k++){
+			int i = r.nextInt(rows) , j = r.nextInt(cols);
+			double v = r.nextDouble()*2 - 1;
+			builder.add(i, j, v/2);
+			builder.add(i, j, v/2);
+		}
+		builder.add(0, 0, 1).add(0, 0, -1);
+		return builder.build();
+	}
+}
@@ -4,11 +4,10 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
-import com.mathutil.calculusTests.TestCalculus1;
-import com.mathutil.calculusTests.TestCalculus2;
-import com.mathutil.calculusTests.TestCalculus3;
-import com.mathutil.calculusTests.TestCalculus4;
+import com.mathutil.calculusTests.*;
+import com.mathutil.expressionTests.*;
 import com.mathutil.mathutilTests.*;
+import com.mathutil.matrixTests.*;
 import com.mathutil.sigmaTests.*;
 
 @RunWith(Suite.class)
@@ -24,8 +23,34 @@ import com.mathutil.sigmaTests.*;
 	//Dist tests
 	TestDist1.class,
 	
+	//BigRational tests
+	TestBigRational1.class,
+	
 	//Calculus tests
-	TestCalculus1.class, TestCalculus2.class, TestCalculus3.class, TestCalculus4.class
+	TestCalculus1.class, TestCalculus2.class, TestCalculus3.class, TestCalculus4.class,
+	TestCalculus5.class, TestCalculus6.class,
+	
+	//Polynomial tests
+	TestPolynomial1.class, TestPolynomial2.class, TestPolynomial3.class,
+	
+	//Root tests
+	TestRoot1.class, TestRoot2.class,
+	
+	//ODE tests
+	TestODE1.class, TestODE2.class,
+	
+	//Multidimensional integral tests
+	TestMultiIntegral1.class, TestMultiIntegral2.class,
+	
+	//Optimizer tests
+	TestOptimizer1.class, TestOptimizer2.class,
+	
+	//Expression tests
+	TestExpression1.class, TestExpression2.class, TestExpression3.class,
+	
+	//Matrix tests
+	TestMatrix1.class, TestMatrix2.class, TestMatrix3.class, TestMatrix4.class, TestMatrix5.class, TestMatrix6.class,
+	TestLUDecomposition1.class, TestLUDecomposition2.class, TestLinearSystem1.class, TestMatrixPowers1.class, TestMatrixPowers2.class, TestSparseMatrix1.class, TestIterativeSolver1.class, TestCholeskyDecomposition1.class, TestQRDecomposition1.class, TestEigenDecomposition1.class, TestSingularValueDecomposition1.class, TestExactMatrix1.class, TestExactMatrix2.class, TestExactMatrix3.class, TestExactMatrix4.class
 	})
 public class AllTests {
 